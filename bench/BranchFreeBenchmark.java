@@ -0,0 +1,265 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark comparing the branching {@code char[]} loop that
+ * {@code VigenereCipher2} used before with the branch-free
+ * {@code VigenereScalar} engine.
+ *
+ * <p>
+ * The {@code MIXED} text is random mixed-case text with about as much
+ * punctuation as letters, the case where the branching loop mispredicts
+ * most; the {@code LETTERS} text is random letters only, where its branch is
+ * always taken. Throughput is reported in operations per second, so
+ * characters per second are {@code size} times the score, and {@link #main}
+ * adds JMH's {@code gc} profiler.
+ * </p>
+ *
+ * <p>
+ * Requires {@code jmh-core} and {@code jmh-generator-annprocess} in
+ * {@code lib}, as {@code VigenereCipherBenchmark} does. Run with
+ * {@code java -cp bin:lib/* BranchFreeBenchmark [JMH options]}.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BranchFreeBenchmark {
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Seed for the text generator, so every run measures the same input.
+     */
+    private static final long SEED = 17L;
+
+    /**
+     * Key used for every measurement.
+     */
+    private static final String KEY = "LEMONADE";
+
+    /**
+     * Letters the text is drawn from.
+     */
+    private static final String LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ"
+            + "abcdefghijklmnopqrstuvwxyz";
+
+    /**
+     * Characters the {@code MIXED} text is drawn from: 52 letters and 52
+     * others.
+     */
+    private static final String MIXED = LETTERS
+            + " .,;:!?'\"-()[]{}<>/\\|@#$%^&*_+=0123456789~`\n\t";
+
+    /*
+     * Benchmark parameters
+     */
+
+    /**
+     * Number of characters in the text: 64 K and 4 M.
+     */
+    @Param({ "65536", "4194304" })
+    public int size;
+
+    /**
+     * Shape of the text: {@code MIXED} or {@code LETTERS}.
+     */
+    @Param({ "MIXED", "LETTERS" })
+    public String shape;
+
+    /*
+     * Benchmark state
+     */
+
+    /**
+     * The key shifts.
+     */
+    private byte[] shifts;
+
+    /**
+     * The branch-free encryption engine for {@code shifts}.
+     */
+    private VigenereScalar engine;
+
+    /**
+     * The plaintext.
+     */
+    private char[] text;
+
+    /**
+     * Ciphertext buffer, as long as {@code text}.
+     */
+    private char[] out;
+
+    /*
+     * Private helper methods
+     */
+
+    /**
+     * Converts a character to uppercase if it is a letter.
+     *
+     * @param c
+     *            the character to convert
+     * @return the uppercase version if letter, otherwise the character itself
+     */
+    private static char toUpperCase(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return (char) (c - 'a' + 'A');
+        }
+        return c;
+    }
+
+    /**
+     * Checks if a character is a letter.
+     *
+     * @param c
+     *            the character to check
+     * @return true if the character is a letter, false otherwise
+     */
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    /**
+     * Encrypts {@code text} into {@code out} with the branching loop.
+     *
+     * @param shifts
+     *            the key shifts
+     * @param text
+     *            the plaintext
+     * @param out
+     *            the ciphertext buffer, as long as {@code text}
+     */
+    private static void branchingLoop(byte[] shifts, char[] text,
+            char[] out) {
+        int keyIndex = 0;
+        for (int i = 0; i < text.length; i++) {
+            char ch = text[i];
+            if (isLetter(ch)) {
+                out[i] = VigenereTables.ENCRYPT[shifts[keyIndex]
+                        * VigenereTables.ALPHABET_SIZE
+                        + (toUpperCase(ch) - 'A')];
+                keyIndex++;
+                if (keyIndex == shifts.length) {
+                    keyIndex = 0;
+                }
+            } else {
+                out[i] = ch;
+            }
+        }
+    }
+
+    /*
+     * Setup
+     */
+
+    /**
+     * Builds the engine and text for the current parameters, and checks
+     * that both benchmarks produce the same ciphertext.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        String pool = MIXED;
+        if (this.shape.equals("LETTERS")) {
+            pool = LETTERS;
+        }
+        Random random = new Random(SEED);
+        this.text = new char[this.size];
+        for (int i = 0; i < this.text.length; i++) {
+            this.text[i] = pool.charAt(random.nextInt(pool.length()));
+        }
+        this.shifts = new byte[KEY.length()];
+        for (int i = 0; i < this.shifts.length; i++) {
+            this.shifts[i] = (byte) (KEY.charAt(i) - 'A');
+        }
+        this.engine = new VigenereScalar(this.shifts, false);
+        this.out = new char[this.size];
+
+        char[] expected = new char[this.size];
+        branchingLoop(this.shifts, this.text, expected);
+        this.branchFree();
+        if (!Arrays.equals(expected, this.out)) {
+            throw new AssertionError(
+                    "branch-free engine disagrees with branching loop");
+        }
+    }
+
+    /*
+     * Benchmarks
+     */
+
+    /**
+     * The branching loop.
+     *
+     * @return the ciphertext
+     */
+    @Benchmark
+    public char[] branching() {
+        branchingLoop(this.shifts, this.text, this.out);
+        return this.out;
+    }
+
+    /**
+     * {@code VigenereScalar}.
+     *
+     * @return the number of letters encrypted
+     */
+    @Benchmark
+    public long branchFree() {
+        return this.engine.transform(this.text, 0, this.size, this.out, 0,
+                0L);
+    }
+
+    /*
+     * Main
+     */
+
+    /**
+     * Runs this benchmark with the {@code gc} profiler, passing any
+     * command-line arguments on to JMH.
+     *
+     * @param args
+     *            JMH command-line options
+     * @throws RunnerException
+     *             if JMH fails to run the benchmarks
+     * @throws CommandLineOptionException
+     *             if {@code args} are not valid JMH options
+     */
+    public static void main(String[] args)
+            throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(BranchFreeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+
+}
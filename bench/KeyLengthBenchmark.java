@@ -0,0 +1,204 @@
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of {@code VigenereAnalyzer.estimateKeyLength} and
+ * {@code VigenereAnalyzer.recoverKey} on a 100 MB ciphertext.
+ *
+ * <p>
+ * The plaintext is drawn from English letter frequencies with about one
+ * space per five letters and encrypted with a 7-letter key; the trial setup
+ * checks that the analyzer reports 7 and recovers the key. The estimate is
+ * budgeted at under a second. It is measured on the common pool and, to show
+ * the cost per core, in the calling thread alone. Times are reported in
+ * milliseconds per operation and {@link #main} adds JMH's {@code gc}
+ * profiler.
+ * </p>
+ *
+ * <p>
+ * Requires {@code jmh-core} and {@code jmh-generator-annprocess} in
+ * {@code lib}, as {@code VigenereCipherBenchmark} does. Run with
+ * {@code java -cp bin:lib/* KeyLengthBenchmark [JMH options]}; the forked
+ * JVM gets a 1 GB heap for the 200 MB text.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Thread)
+public class KeyLengthBenchmark {
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Number of characters in the benchmark text.
+     */
+    private static final int TEXT_LENGTH = 100 * 1024 * 1024;
+
+    /**
+     * Seed for the text generator, so every run measures the same input.
+     */
+    private static final long SEED = 17L;
+
+    /**
+     * Key used to encrypt the text.
+     */
+    private static final String KEY = "SECRETS";
+
+    /**
+     * One in this many characters is a space.
+     */
+    private static final int SPACE_EVERY = 6;
+
+    /**
+     * Letters in rough proportion to their English frequency.
+     */
+    private static final String POOL = "EEEEEEEEEEEETTTTTTTTTAAAAAAAAOOOOOOO"
+            + "IIIIIIINNNNNNNSSSSSSHHHHHHRRRRRRDDDDLLLLCCCUUUMMMWWFFGGYYPPBVK"
+            + "JXQZ";
+
+    /*
+     * Benchmark parameters
+     */
+
+    /**
+     * Largest period considered by the estimate.
+     */
+    @Param({ "20" })
+    public int maxPeriod;
+
+    /*
+     * Benchmark state
+     */
+
+    /**
+     * The ciphertext.
+     */
+    private char[] text;
+
+    /*
+     * Setup
+     */
+
+    /**
+     * Builds the ciphertext and checks that the analyzer finds the key
+     * length and the key.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+        this.text = new char[TEXT_LENGTH];
+        for (int i = 0; i < this.text.length; i++) {
+            if (random.nextInt(SPACE_EVERY) == 0) {
+                this.text[i] = ' ';
+            } else {
+                this.text[i] = POOL.charAt(random.nextInt(POOL.length()));
+            }
+        }
+        byte[] shifts = new byte[KEY.length()];
+        for (int i = 0; i < shifts.length; i++) {
+            shifts[i] = (byte) (KEY.charAt(i) - 'A');
+        }
+        new VigenereScalar(shifts, false).transform(this.text, 0,
+                this.text.length, this.text, 0, 0L);
+
+        int period = this.estimateKeyLength().mostLikelyPeriod();
+        if (period != KEY.length()) {
+            throw new AssertionError("analyzer reported key length "
+                    + period);
+        }
+        String key = this.recoverKey().key();
+        if (!key.equals(KEY)) {
+            throw new AssertionError("recovered key " + key);
+        }
+    }
+
+    /*
+     * Benchmarks
+     */
+
+    /**
+     * {@code estimateKeyLength} on the common pool.
+     *
+     * @return the estimate
+     */
+    @Benchmark
+    public VigenereAnalyzer.KeyLengthEstimate estimateKeyLength() {
+        return VigenereAnalyzer.estimateKeyLength(this.text, 0,
+                this.text.length, this.maxPeriod);
+    }
+
+    /**
+     * {@code estimateKeyLength} in one chunk, in the calling thread.
+     *
+     * @return the estimate
+     */
+    @Benchmark
+    public VigenereAnalyzer.KeyLengthEstimate estimateKeyLengthOneThread() {
+        return VigenereAnalyzer.estimateKeyLength(this.text, 0,
+                this.text.length, this.maxPeriod, ForkJoinPool.commonPool(),
+                this.text.length);
+    }
+
+    /**
+     * {@code recoverKey} for the true key length on the common pool.
+     *
+     * @return the recovered key
+     */
+    @Benchmark
+    public VigenereAnalyzer.KeyRecovery recoverKey() {
+        return VigenereAnalyzer.recoverKey(this.text, KEY.length());
+    }
+
+    /*
+     * Main
+     */
+
+    /**
+     * Runs this benchmark with the {@code gc} profiler, passing any
+     * command-line arguments on to JMH.
+     *
+     * @param args
+     *            JMH command-line options
+     * @throws RunnerException
+     *             if JMH fails to run the benchmarks
+     * @throws CommandLineOptionException
+     *             if {@code args} are not valid JMH options
+     */
+    public static void main(String[] args)
+            throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(KeyLengthBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+
+}
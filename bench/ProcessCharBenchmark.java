@@ -0,0 +1,315 @@
+import java.util.Arrays;
+
+import components.sequence.Sequence;
+import components.sequence.Sequence1L;
+
+/**
+ * Micro-benchmark comparing the original {@code ALPHABET.indexOf} based
+ * {@code processChar} with a {@code VigenereTables.ENCRYPT} lookup on the
+ * key letter and the upper-cased character. The table loop is the first
+ * table-driven version of {@code VigenereCipher1L.processChar}, kept here as
+ * a fixed point of comparison; the kernel itself has since moved on to
+ * {@code VigenereTables.LATIN1_INDEX} and a case mask, and the second part
+ * of the run times whatever {@code VigenereCipher1L.encrypt} currently does.
+ *
+ * <p>
+ * Run with {@code java -cp bin:lib/components.jar ProcessCharBenchmark}. Each
+ * measurement is repeated after a warm-up phase and the best time is reported,
+ * so JIT compilation does not distort the comparison.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+public final class ProcessCharBenchmark {
+
+    /**
+     * Alphabet used by the original implementation.
+     */
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    /**
+     * Fix Magic Number checkstyle error for 26.
+     */
+    private static final int ALPHABET_SIZE = 26;
+
+    /**
+     * Number of characters in the benchmark text.
+     */
+    private static final int TEXT_LENGTH = 1 << 20;
+
+    /**
+     * Number of characters in the {@code Sequence} benchmark text.
+     */
+    private static final int SEQUENCE_LENGTH = 1 << 14;
+
+    /**
+     * Number of untimed warm-up rounds.
+     */
+    private static final int WARMUP_ROUNDS = 20;
+
+    /**
+     * Number of timed rounds.
+     */
+    private static final int MEASURED_ROUNDS = 20;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * Key used for every measurement.
+     */
+    private static final String KEY = "LEMONADE";
+
+    /**
+     * Sink that keeps the JIT from discarding benchmark results.
+     */
+    private static long sink;
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private ProcessCharBenchmark() {
+    }
+
+    /**
+     * Converts a character to uppercase if it is a letter.
+     *
+     * @param c
+     *            the character to convert
+     * @return the uppercase version if letter, otherwise the character itself
+     */
+    private static char toUpperCase(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return (char) (c - 'a' + 'A');
+        }
+        return c;
+    }
+
+    /**
+     * Checks if a character is a letter.
+     *
+     * @param c
+     *            the character to check
+     * @return true if the character is a letter, false otherwise
+     */
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    /**
+     * The original {@code VigenereCipher1L.processChar}, kept as the baseline.
+     *
+     * @param ch
+     *            the character to process
+     * @param keyChar
+     *            the key character to use
+     * @param encrypt
+     *            true to encrypt, false to decrypt
+     * @return the processed character
+     */
+    private static char legacyProcessChar(char ch, char keyChar,
+            boolean encrypt) {
+        if (!isLetter(ch)) {
+            return ch;
+        }
+
+        char upperCh = toUpperCase(ch);
+        char upperKey = toUpperCase(keyChar);
+
+        int charIndex = ALPHABET.indexOf(upperCh);
+        int keyIndex = ALPHABET.indexOf(upperKey);
+
+        int resultIndex;
+        if (encrypt) {
+            resultIndex = (charIndex + keyIndex) % ALPHABET_SIZE;
+        } else {
+            resultIndex = (charIndex - keyIndex + ALPHABET_SIZE) % ALPHABET_SIZE;
+        }
+
+        return ALPHABET.charAt(resultIndex);
+    }
+
+    /**
+     * The first table-driven {@code processChar}: an {@code isLetter} branch,
+     * then a {@code VigenereTables.ENCRYPT} lookup on the upper-cased
+     * character.
+     *
+     * @param ch
+     *            the character to process
+     * @param keyChar
+     *            the key character to use, already in ['A'..'Z']
+     * @param table
+     *            the encryption or decryption table
+     * @return the processed character
+     */
+    private static char tableProcessChar(char ch, char keyChar,
+            char[] table) {
+        if (!isLetter(ch)) {
+            return ch;
+        }
+
+        return table[(keyChar - 'A') * VigenereTables.ALPHABET_SIZE
+                + (toUpperCase(ch) - 'A')];
+    }
+
+    /**
+     * Encrypts {@code text} into {@code out} with the original loop.
+     *
+     * @param text
+     *            the plaintext
+     * @param out
+     *            the ciphertext buffer, as long as {@code text}
+     */
+    private static void legacyLoop(char[] text, char[] out) {
+        int keyIndex = 0;
+        for (int i = 0; i < text.length; i++) {
+            char ch = text[i];
+            if (isLetter(ch)) {
+                out[i] = legacyProcessChar(ch,
+                        KEY.charAt(keyIndex % KEY.length()), true);
+                keyIndex++;
+            } else {
+                out[i] = ch;
+            }
+        }
+    }
+
+    /**
+     * Encrypts {@code text} into {@code out} with the table lookups.
+     *
+     * @param text
+     *            the plaintext
+     * @param out
+     *            the ciphertext buffer, as long as {@code text}
+     */
+    private static void tableLoop(char[] text, char[] out) {
+        int keyIndex = 0;
+        for (int i = 0; i < text.length; i++) {
+            char ch = text[i];
+            if (isLetter(ch)) {
+                out[i] = tableProcessChar(ch,
+                        KEY.charAt(keyIndex % KEY.length()),
+                        VigenereTables.ENCRYPT);
+                keyIndex++;
+            } else {
+                out[i] = ch;
+            }
+        }
+    }
+
+    /**
+     * Encrypts {@code text} with the original {@code Sequence} based
+     * {@code encrypt}.
+     *
+     * @param key
+     *            the uppercase key
+     * @param text
+     *            the plaintext
+     * @return the ciphertext
+     */
+    private static Sequence<Character> legacyEncrypt(Sequence<Character> key,
+            Sequence<Character> text) {
+        Sequence<Character> result = text.newInstance();
+        int keyLength = key.length();
+        int keyIndex = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.entry(i);
+            if (isLetter(ch)) {
+                char keyChar = key.entry(keyIndex % keyLength);
+                char encrypted = legacyProcessChar(ch, keyChar, true);
+                result.add(result.length(), encrypted);
+                keyIndex++;
+            } else {
+                result.add(result.length(), ch);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds a repeating mix of letters, spaces and punctuation.
+     *
+     * @param length
+     *            the number of characters
+     * @return the text
+     */
+    private static char[] sampleText(int length) {
+        final String pool = "The quick brown fox, jumps over the lazy dog! ";
+        char[] text = new char[length];
+        for (int i = 0; i < length; i++) {
+            text[i] = pool.charAt(i % pool.length());
+        }
+        return text;
+    }
+
+    /**
+     * Times {@code task}, returning the best of {@code MEASURED_ROUNDS} runs.
+     *
+     * @param task
+     *            the work to measure
+     * @return best time in milliseconds
+     */
+    private static double bestMillis(Runnable task) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            task.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments; ignored
+     */
+    public static void main(String[] args) {
+        char[] text = sampleText(TEXT_LENGTH);
+        char[] legacyOut = new char[TEXT_LENGTH];
+        char[] tableOut = new char[TEXT_LENGTH];
+
+        double legacy = bestMillis(() -> legacyLoop(text, legacyOut));
+        double table = bestMillis(() -> tableLoop(text, tableOut));
+        if (!Arrays.equals(legacyOut, tableOut)) {
+            throw new AssertionError("table loop disagrees with legacy loop");
+        }
+        System.out.printf("processChar loop, %d chars:%n", TEXT_LENGTH);
+        System.out.printf("  indexOf  %8.3f ms%n", legacy);
+        System.out.printf("  table    %8.3f ms  (%.2fx)%n", table,
+                legacy / table);
+
+        Sequence<Character> key = new Sequence1L<>();
+        for (int i = 0; i < KEY.length(); i++) {
+            key.add(key.length(), KEY.charAt(i));
+        }
+        Sequence<Character> seqText = new Sequence1L<>();
+        for (char c : sampleText(SEQUENCE_LENGTH)) {
+            seqText.add(seqText.length(), c);
+        }
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString(KEY);
+
+        double legacySeq = bestMillis(() -> {
+            sink += legacyEncrypt(key, seqText).length();
+        });
+        double tableSeq = bestMillis(() -> {
+            sink += cipher.encrypt(seqText).length();
+        });
+        System.out.printf("VigenereCipher1L.encrypt, %d chars:%n",
+                SEQUENCE_LENGTH);
+        System.out.printf("  indexOf  %8.3f ms%n", legacySeq);
+        System.out.printf("  table    %8.3f ms  (%.2fx)%n", tableSeq,
+                legacySeq / tableSeq);
+        System.out.println("(sink " + sink + ")");
+    }
+
+}
@@ -0,0 +1,280 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark comparing a scalar byte loop with the word-at-a-time
+ * {@code VigenereSwar} engine on bulk ASCII, on a {@code byte[]} and on
+ * direct {@code ByteBuffer}s through {@code CompiledVigenereKey}.
+ *
+ * <p>
+ * Every benchmark is run for text that is all letters and for ordinary prose
+ * with spaces and punctuation, at 64 KB (in the L2 cache) and 16 MB (in
+ * memory). Throughput is reported in operations per second, so bytes per
+ * second are {@code size} times the score, and {@link #main} adds JMH's
+ * {@code gc} profiler, which should show no allocation per operation.
+ * </p>
+ *
+ * <p>
+ * Requires {@code jmh-core} and {@code jmh-generator-annprocess} in
+ * {@code lib}, as {@code VigenereCipherBenchmark} does. Run with
+ * {@code java -cp bin:lib/* SwarBenchmark [JMH options]}.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SwarBenchmark {
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Key used for every measurement.
+     */
+    private static final String KEY = "LEMONADE";
+
+    /**
+     * Text repeated for the {@code LETTERS} shape.
+     */
+    private static final String LETTERS_POOL =
+            "ThequickbrownfoxJUMPSoverthelazydog";
+
+    /**
+     * Text repeated for the {@code PROSE} shape.
+     */
+    private static final String PROSE_POOL =
+            "The quick brown fox, jumps over the lazy dog! ";
+
+    /*
+     * Benchmark parameters
+     */
+
+    /**
+     * Number of bytes in the text: 64 KB and 16 MB.
+     */
+    @Param({ "65536", "16777216" })
+    public int size;
+
+    /**
+     * Shape of the text: {@code LETTERS} or {@code PROSE}.
+     */
+    @Param({ "LETTERS", "PROSE" })
+    public String shape;
+
+    /*
+     * Benchmark state
+     */
+
+    /**
+     * The key shifts.
+     */
+    private byte[] shifts;
+
+    /**
+     * The SWAR encryption engine for {@code shifts}.
+     */
+    private VigenereSwar engine;
+
+    /**
+     * The compiled key, for the buffer benchmark.
+     */
+    private CompiledVigenereKey key;
+
+    /**
+     * The plaintext.
+     */
+    private byte[] text;
+
+    /**
+     * Ciphertext buffer, as long as {@code text}.
+     */
+    private byte[] out;
+
+    /**
+     * Direct buffer holding the plaintext.
+     */
+    private ByteBuffer directText;
+
+    /**
+     * Direct ciphertext buffer, as long as {@code directText}.
+     */
+    private ByteBuffer directOut;
+
+    /*
+     * Private helper methods
+     */
+
+    /**
+     * Encrypts {@code text} into {@code out} one byte at a time, as
+     * {@code CompiledVigenereKey} did before {@code VigenereSwar}.
+     *
+     * @param shifts
+     *            the key shifts
+     * @param text
+     *            the plaintext
+     * @param out
+     *            the ciphertext buffer, as long as {@code text}
+     */
+    private static void scalarLoop(byte[] shifts, byte[] text, byte[] out) {
+        int keyIndex = 0;
+        for (int i = 0; i < text.length; i++) {
+            char ch = (char) (text[i] & 0xFF);
+            if ((ch >= 'A' && ch <= 'Z') || (ch >= 'a' && ch <= 'z')) {
+                int upper = ch & ~('a' - 'A');
+                out[i] = (byte) VigenereTables.ENCRYPT[shifts[keyIndex]
+                        * VigenereTables.ALPHABET_SIZE + (upper - 'A')];
+                keyIndex++;
+                if (keyIndex == shifts.length) {
+                    keyIndex = 0;
+                }
+            } else {
+                out[i] = (byte) ch;
+            }
+        }
+    }
+
+    /**
+     * Builds {@code length} bytes repeating {@code pool}.
+     *
+     * @param pool
+     *            the text to repeat
+     * @param length
+     *            the number of bytes
+     * @return the text
+     */
+    private static byte[] repeat(String pool, int length) {
+        byte[] text = new byte[length];
+        for (int i = 0; i < length; i++) {
+            text[i] = (byte) pool.charAt(i % pool.length());
+        }
+        return text;
+    }
+
+    /*
+     * Setup
+     */
+
+    /**
+     * Builds the engines and texts for the current parameters, and checks
+     * that all three benchmarks produce the same ciphertext.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        String pool = LETTERS_POOL;
+        if (this.shape.equals("PROSE")) {
+            pool = PROSE_POOL;
+        }
+        this.shifts = new byte[KEY.length()];
+        for (int i = 0; i < this.shifts.length; i++) {
+            this.shifts[i] = (byte) (KEY.charAt(i) - 'A');
+        }
+        this.engine = new VigenereSwar(this.shifts, false, false);
+        this.key = CompiledVigenereKey.of(KEY);
+        this.text = repeat(pool, this.size);
+        this.out = new byte[this.size];
+        this.directText = ByteBuffer.allocateDirect(this.size);
+        this.directText.put(this.text).flip();
+        this.directOut = ByteBuffer.allocateDirect(this.size);
+
+        byte[] expected = new byte[this.size];
+        scalarLoop(this.shifts, this.text, expected);
+        this.swarArray();
+        byte[] fromBuffer = new byte[this.size];
+        this.swarDirect();
+        this.directOut.get(0, fromBuffer);
+        if (!Arrays.equals(expected, this.out)
+                || !Arrays.equals(expected, fromBuffer)) {
+            throw new AssertionError("SWAR engine disagrees with scalar loop");
+        }
+    }
+
+    /*
+     * Benchmarks
+     */
+
+    /**
+     * The scalar byte loop on a {@code byte[]}.
+     *
+     * @return the ciphertext
+     */
+    @Benchmark
+    public byte[] scalarLoop() {
+        scalarLoop(this.shifts, this.text, this.out);
+        return this.out;
+    }
+
+    /**
+     * {@code VigenereSwar} on a {@code byte[]}.
+     *
+     * @return the number of letters encrypted
+     */
+    @Benchmark
+    public long swarArray() {
+        return this.engine.transform(this.text, 0, this.size, this.out, 0,
+                0L);
+    }
+
+    /**
+     * {@code CompiledVigenereKey.encrypt} from one direct buffer to another.
+     *
+     * @return the number of letters encrypted
+     */
+    @Benchmark
+    public long swarDirect() {
+        this.directText.rewind();
+        this.directOut.clear();
+        return this.key.encrypt(this.directText, this.directOut);
+    }
+
+    /*
+     * Main
+     */
+
+    /**
+     * Runs this benchmark with the {@code gc} profiler, passing any
+     * command-line arguments on to JMH.
+     *
+     * @param args
+     *            JMH command-line options
+     * @throws RunnerException
+     *             if JMH fails to run the benchmarks
+     * @throws CommandLineOptionException
+     *             if {@code args} are not valid JMH options
+     */
+    public static void main(String[] args)
+            throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(SwarBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,370 @@
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import components.sequence.Sequence;
+
+/**
+ * JMH benchmark suite for the kernel, secondary and conversion methods of
+ * {@code VigenereCipher}.
+ *
+ * <p>
+ * Every benchmark is run for each combination of implementation, text size
+ * (16 characters to 16 MB), key length (1 to 4096) and text shape
+ * (letter-heavy or punctuation-heavy). Throughput is reported in operations
+ * per second and {@link #main} adds JMH's {@code gc} profiler, so every result
+ * also carries its allocation rate ({@code gc.alloc.rate.norm} is bytes per
+ * operation).
+ * </p>
+ *
+ * <p>
+ * Requires {@code jmh-core} and {@code jmh-generator-annprocess} (and their
+ * {@code jopt-simple} and {@code commons-math3} dependencies) in {@code lib}
+ * so the annotation processor generates the harness when {@code bench} is
+ * compiled. Run with
+ * {@code java -cp bin:lib/* VigenereCipherBenchmark [JMH options]}; JMH
+ * options such as {@code -p size=1024 -p keyLength=8} narrow the run, which
+ * is worth doing because the {@code Sequence} benchmarks at 16 MB take a long
+ * time.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VigenereCipherBenchmark {
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Seed for the text and key generators, so every run measures the same
+     * input.
+     */
+    private static final long SEED = 20_251_209L;
+
+    /**
+     * Letters used in generated text and keys.
+     */
+    private static final String LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ"
+            + "abcdefghijklmnopqrstuvwxyz";
+
+    /**
+     * Non-letters used in generated text.
+     */
+    private static final String OTHERS = " .,;:!?'\"-()0123456789\n";
+
+    /**
+     * Percentage of letters in letter-heavy text.
+     */
+    private static final int LETTER_HEAVY_PERCENT = 90;
+
+    /**
+     * Percentage of letters in punctuation-heavy text.
+     */
+    private static final int PUNCTUATION_HEAVY_PERCENT = 30;
+
+    /**
+     * Number of percentage points.
+     */
+    private static final int HUNDRED = 100;
+
+    /*
+     * Benchmark parameters
+     */
+
+    /**
+     * Kernel implementation under test.
+     */
+    @Param({ "VigenereCipher1L", "VigenereCipher2" })
+    public String implementation;
+
+    /**
+     * Number of characters in the text: 16, 1 KB, 64 KB, 1 MB and 16 MB.
+     */
+    @Param({ "16", "1024", "65536", "1048576", "16777216" })
+    public int size;
+
+    /**
+     * Number of letters in the key.
+     */
+    @Param({ "1", "8", "64", "4096" })
+    public int keyLength;
+
+    /**
+     * Shape of the text: {@code LETTERS} or {@code PUNCTUATION}.
+     */
+    @Param({ "LETTERS", "PUNCTUATION" })
+    public String shape;
+
+    /*
+     * Benchmark state
+     */
+
+    /**
+     * Cipher holding {@code keyString}.
+     */
+    private VigenereCipher cipher;
+
+    /**
+     * The key.
+     */
+    private String keyString;
+
+    /**
+     * The key as a sequence, for {@code encryptWithKey}.
+     */
+    private Sequence<Character> keySequence;
+
+    /**
+     * The plaintext.
+     */
+    private String plaintext;
+
+    /**
+     * The ciphertext of {@code plaintext}.
+     */
+    private String ciphertext;
+
+    /**
+     * The plaintext as a sequence.
+     */
+    private Sequence<Character> plainSequence;
+
+    /**
+     * The ciphertext as a sequence.
+     */
+    private Sequence<Character> cipherSequence;
+
+    /*
+     * Private helper methods
+     */
+
+    /**
+     * Creates a cipher of the named implementation.
+     *
+     * @param name
+     *            {@code VigenereCipher1L} or {@code VigenereCipher2}
+     * @return a new cipher
+     */
+    private static VigenereCipher newCipher(String name) {
+        VigenereCipher result;
+        if (name.equals("VigenereCipher2")) {
+            result = new VigenereCipher2();
+        } else {
+            result = new VigenereCipher1L();
+        }
+        return result;
+    }
+
+    /**
+     * Generates {@code length} random characters, {@code percent} percent of
+     * them letters.
+     *
+     * @param random
+     *            the generator
+     * @param length
+     *            the number of characters
+     * @param percent
+     *            the percentage of letters
+     * @return the text
+     */
+    private static String randomText(Random random, int length, int percent) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            if (random.nextInt(HUNDRED) < percent) {
+                sb.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+            } else {
+                sb.append(OTHERS.charAt(random.nextInt(OTHERS.length())));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Generates a random upper-case key of {@code length} letters.
+     *
+     * @param random
+     *            the generator
+     * @param length
+     *            the number of letters
+     * @return the key
+     */
+    private static String randomKey(Random random, int length) {
+        final int alphabetSize = 26;
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('A' + random.nextInt(alphabetSize)));
+        }
+        return sb.toString();
+    }
+
+    /*
+     * Setup
+     */
+
+    /**
+     * Builds the cipher, key and texts for the current parameters.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+        int percent = LETTER_HEAVY_PERCENT;
+        if (this.shape.equals("PUNCTUATION")) {
+            percent = PUNCTUATION_HEAVY_PERCENT;
+        }
+
+        this.cipher = newCipher(this.implementation);
+        this.keyString = randomKey(random, this.keyLength);
+        this.cipher.setKeyFromString(this.keyString);
+        this.keySequence = this.cipher.stringToSequence(this.keyString);
+
+        this.plaintext = randomText(random, this.size, percent);
+        this.ciphertext = this.cipher.encrypt(this.plaintext);
+        this.plainSequence = this.cipher.stringToSequence(this.plaintext);
+        this.cipherSequence = this.cipher.stringToSequence(this.ciphertext);
+    }
+
+    /*
+     * Kernel benchmarks
+     */
+
+    /**
+     * Kernel {@code encrypt} on a {@code Sequence<Character>}.
+     *
+     * @return the ciphertext
+     */
+    @Benchmark
+    public Sequence<Character> encryptSequence() {
+        return this.cipher.encrypt(this.plainSequence);
+    }
+
+    /**
+     * Kernel {@code decrypt} on a {@code Sequence<Character>}.
+     *
+     * @return the plaintext
+     */
+    @Benchmark
+    public Sequence<Character> decryptSequence() {
+        return this.cipher.decrypt(this.cipherSequence);
+    }
+
+    /*
+     * Secondary benchmarks
+     */
+
+    /**
+     * Secondary {@code encrypt} on a {@code String}.
+     *
+     * @return the ciphertext
+     */
+    @Benchmark
+    public String encryptString() {
+        return this.cipher.encrypt(this.plaintext);
+    }
+
+    /**
+     * Secondary {@code decrypt} on a {@code String}.
+     *
+     * @return the plaintext
+     */
+    @Benchmark
+    public String decryptString() {
+        return this.cipher.decrypt(this.ciphertext);
+    }
+
+    /**
+     * {@code encryptWithKey} with a key other than the stored one.
+     *
+     * @return the ciphertext
+     */
+    @Benchmark
+    public Sequence<Character> encryptWithKey() {
+        return this.cipher.encryptWithKey(this.plainSequence,
+                this.keySequence);
+    }
+
+    /**
+     * {@code setKeyFromString} with a key of {@code keyLength} letters.
+     *
+     * @return the cipher, so the new key is not dead code
+     */
+    @Benchmark
+    public VigenereCipher setKeyFromString() {
+        this.cipher.setKeyFromString(this.keyString);
+        return this.cipher;
+    }
+
+    /*
+     * Conversion benchmarks
+     */
+
+    /**
+     * {@code stringToSequence} on the plaintext.
+     *
+     * @return the sequence
+     */
+    @Benchmark
+    public Sequence<Character> stringToSequence() {
+        return this.cipher.stringToSequence(this.plaintext);
+    }
+
+    /**
+     * {@code sequenceToString} on the plaintext sequence.
+     *
+     * @return the string
+     */
+    @Benchmark
+    public String sequenceToString() {
+        return this.cipher.sequenceToString(this.plainSequence);
+    }
+
+    /*
+     * Main
+     */
+
+    /**
+     * Runs this suite with the {@code gc} profiler, passing any command-line
+     * arguments on to JMH.
+     *
+     * @param args
+     *            JMH command-line options
+     * @throws RunnerException
+     *             if JMH fails to run the benchmarks
+     * @throws CommandLineOptionException
+     *             if {@code args} are not valid JMH options
+     */
+    public static void main(String[] args)
+            throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(VigenereCipherBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+
+}
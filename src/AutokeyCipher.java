@@ -0,0 +1,303 @@
+/**
+ * Autokey Vigenere cipher: the key is a short primer followed by the
+ * plaintext itself, so letter {@code i} of a message is shifted by primer
+ * letter {@code i} while {@code i < |primer|} and by plaintext letter
+ * {@code i - |primer|} after that.
+ *
+ * <p>
+ * Like {@code CipherSession}, an {@code AutokeyCipher} remembers how far into
+ * a message it is, so a message can be processed across several calls. It
+ * keeps the next {@code |primer|} key shifts in a ring indexed by
+ * {@code position mod |primer|}, which is exactly how {@code VigenereScalar}
+ * walks a repeating key, so the text is transformed by the same branch-free
+ * engine in runs of at most {@code |primer|} letters; after each run the
+ * plaintext letters it covered are written back into the ring as the key for
+ * the letters {@code |primer|} further on. Decryption needs the plaintext of
+ * one run before it can decrypt the next, and encryption uses the same runs
+ * so both directions share one loop.
+ * </p>
+ *
+ * <p>
+ * Only ASCII letters are shifted and they come out in upper case unless case
+ * is preserved; every other character is copied unchanged and does not
+ * advance the key. Unlike a repeating key, the key at a position depends on
+ * everything before it, so there is no {@code seek}.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+public final class AutokeyCipher {
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Number of letters in the alphabet.
+     */
+    private static final int ALPHABET_SIZE = VigenereTables.ALPHABET_SIZE;
+
+    /**
+     * Whether this cipher encrypts or decrypts.
+     */
+    private final CipherMode mode;
+
+    /**
+     * Shift the engine applies to the next {@code |ring|} letters: entry
+     * {@code i mod |ring|} is for letter {@code i}. Decryption stores inverse
+     * shifts.
+     */
+    private final byte[] ring;
+
+    /**
+     * Alphabet index of each plaintext letter of the current run.
+     */
+    private final byte[] run;
+
+    /**
+     * Engine over {@code ring}.
+     */
+    private final VigenereScalar engine;
+
+    /**
+     * Number of letters processed before the next character.
+     */
+    private long position;
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * Constructor.
+     *
+     * @param primer
+     *            the key letters used before the plaintext takes over
+     * @param mode
+     *            whether to encrypt or decrypt
+     * @requires primer /= null and |primer| > 0 and every character of primer
+     *           is an ASCII letter and mode /= null
+     * @ensures position = 0
+     */
+    public AutokeyCipher(String primer, CipherMode mode) {
+        this(primer, mode, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param primer
+     *            the key letters used before the plaintext takes over
+     * @param mode
+     *            whether to encrypt or decrypt
+     * @param preserveCase
+     *            whether lower-case letters stay lower case
+     * @requires primer /= null and |primer| > 0 and every character of primer
+     *           is an ASCII letter and mode /= null
+     * @ensures position = 0
+     */
+    public AutokeyCipher(String primer, CipherMode mode,
+            boolean preserveCase) {
+        assert primer != null : "Violation of: primer is not null";
+        assert primer.length() > 0 : "Violation of: |primer| > 0";
+        assert mode != null : "Violation of: mode is not null";
+
+        this.mode = mode;
+        this.ring = new byte[primer.length()];
+        for (int i = 0; i < this.ring.length; i++) {
+            char c = primer.charAt(i);
+            assert isLetter(c) : ""
+                    + "Violation of: every character of primer is a letter";
+            this.ring[i] = this.shiftFor(VigenereTables.LATIN1_INDEX[c]);
+        }
+        this.run = new byte[this.ring.length];
+        this.engine = new VigenereScalar(this.ring, preserveCase);
+        this.position = 0;
+    }
+
+    /*
+     * Private helper methods
+     */
+
+    /**
+     * Checks if a character is a letter.
+     *
+     * @param c
+     *            the character to check
+     * @return true if the character is a letter, false otherwise
+     */
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    /**
+     * Returns the engine shift for the key letter at alphabet index
+     * {@code index} in this cipher's mode.
+     *
+     * @param index
+     *            the alphabet index of the key letter
+     * @return {@code index} to encrypt, its inverse to decrypt
+     */
+    private byte shiftFor(int index) {
+        int shift = index;
+        if (this.mode == CipherMode.DECRYPT) {
+            shift = (ALPHABET_SIZE - index) % ALPHABET_SIZE;
+        }
+        return (byte) shift;
+    }
+
+    /**
+     * Records the alphabet index of each letter among {@code length}
+     * characters of {@code text} in {@code run}.
+     *
+     * @param text
+     *            the array holding the plaintext
+     * @param offset
+     *            the index of the first character
+     * @param length
+     *            the number of characters, holding at most {@code |run|}
+     *            letters
+     */
+    private void collectRun(char[] text, int offset, int length) {
+        int count = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char ch = text[i];
+            if (isLetter(ch)) {
+                this.run[count] = VigenereTables.LATIN1_INDEX[ch];
+                count++;
+            }
+        }
+    }
+
+    /*
+     * Public methods
+     */
+
+    /**
+     * Reports whether this cipher encrypts or decrypts.
+     *
+     * @return the mode of this cipher
+     */
+    public CipherMode mode() {
+        return this.mode;
+    }
+
+    /**
+     * Reports the number of letters processed so far.
+     *
+     * @return the current letter position
+     */
+    public long position() {
+        return this.position;
+    }
+
+    /**
+     * Processes {@code length} characters of {@code src} into {@code dst},
+     * continuing from the current position. {@code src} and {@code dst} may
+     * be the same array as long as {@code srcOffset = dstOffset}.
+     *
+     * @param src
+     *            the array holding the input text
+     * @param srcOffset
+     *            the index of the first input character
+     * @param length
+     *            the number of characters to process
+     * @param dst
+     *            the array receiving the output text
+     * @param dstOffset
+     *            the index at which to store the first output character
+     * @return the number of letters processed
+     * @updates this, dst
+     * @requires src /= null and dst /= null and 0 <= srcOffset and 0 <= length
+     *           and srcOffset + length <= |src| and 0 <= dstOffset and
+     *           dstOffset + length <= |dst|
+     * @ensures position = #position + update
+     */
+    public int update(char[] src, int srcOffset, int length, char[] dst,
+            int dstOffset) {
+        assert src != null : "Violation of: src is not null";
+        assert dst != null : "Violation of: dst is not null";
+
+        int keyLength = this.ring.length;
+        long start = this.position;
+        int done = 0;
+        while (done < length) {
+            /*
+             * A run ends just after its |ring|-th letter, so no ring entry
+             * is used twice before it is refilled.
+             */
+            int end = srcOffset + done;
+            int letters = 0;
+            while (end < srcOffset + length && letters < keyLength) {
+                if (isLetter(src[end])) {
+                    letters++;
+                }
+                end++;
+            }
+            int runLength = end - srcOffset - done;
+
+            if (this.mode == CipherMode.ENCRYPT) {
+                this.collectRun(src, srcOffset + done, runLength);
+            }
+            this.engine.transform(src, srcOffset + done, runLength, dst,
+                    dstOffset + done, this.position);
+            if (this.mode == CipherMode.DECRYPT) {
+                this.collectRun(dst, dstOffset + done, runLength);
+            }
+
+            int keyIndex = (int) (this.position % keyLength);
+            for (int i = 0; i < letters; i++) {
+                this.ring[keyIndex] = this.shiftFor(this.run[i]);
+                keyIndex++;
+                if (keyIndex == keyLength) {
+                    keyIndex = 0;
+                }
+            }
+            this.position += letters;
+            done += runLength;
+        }
+        return (int) (this.position - start);
+    }
+
+    /**
+     * Processes {@code length} characters of {@code buffer} in place,
+     * continuing from the current position.
+     *
+     * @param buffer
+     *            the array holding the text
+     * @param offset
+     *            the index of the first character
+     * @param length
+     *            the number of characters to process
+     * @return the number of letters processed
+     * @updates this, buffer
+     * @requires buffer /= null and 0 <= offset and 0 <= length and offset +
+     *           length <= |buffer|
+     * @ensures position = #position + update
+     */
+    public int update(char[] buffer, int offset, int length) {
+        return this.update(buffer, offset, length, buffer, offset);
+    }
+
+    /**
+     * Processes {@code text}, continuing from the current position.
+     *
+     * @param text
+     *            the input text
+     * @return the output text
+     * @updates this
+     * @requires text /= null
+     * @ensures position = #position + LETTER_COUNT(text)
+     */
+    public String update(CharSequence text) {
+        assert text != null : "Violation of: text is not null";
+
+        char[] buffer = new char[text.length()];
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = text.charAt(i);
+        }
+        this.update(buffer, 0, buffer.length);
+        return new String(buffer);
+    }
+
+}
@@ -0,0 +1,138 @@
+/**
+ * Ordered set of symbols that a Vigenere cipher shifts through, with
+ * constant-time maps from a symbol to its index and back.
+ *
+ * <p>
+ * A symbol at index {@code i} shifted by the key symbol at index {@code k}
+ * becomes the symbol at index {@code (i + k) mod size()}; characters that are
+ * not in the alphabet pass through unchanged and do not advance the key.
+ * {@link #LETTERS}, the default of every {@code VigenereCipher}, is the
+ * classic {@code 'A'..'Z'} alphabet with lower-case letters folded onto it,
+ * and is the only alphabet that uses the table-driven and word-at-a-time
+ * engines; every other alphabet goes through one generic loop.
+ * </p>
+ *
+ * <p>
+ * {@link #of} stores an alphabet whose symbols span a short range of code
+ * points as a dense index array, and any other set in an open-addressing hash
+ * table, so {@code indexOf} is a single load or a short probe either way.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+public interface CipherAlphabet {
+
+    /**
+     * Largest number of symbols in an alphabet, so that a key symbol's index
+     * fits in one unsigned byte.
+     */
+    int MAX_SIZE = 256;
+
+    /**
+     * {@code 'A'..'Z'}, with {@code 'a'..'z'} mapping to the same indexes.
+     */
+    CipherAlphabet LETTERS = new DenseCipherAlphabet(
+            VigenereTables.ALPHABET, true);
+
+    /**
+     * {@code 'A'..'Z'}, {@code 'a'..'z'} and {@code '0'..'9'}, case
+     * sensitive.
+     */
+    CipherAlphabet ALPHANUMERIC = of("ABCDEFGHIJKLMNOPQRSTUVWXYZ"
+            + "abcdefghijklmnopqrstuvwxyz0123456789");
+
+    /**
+     * The 64 symbols of base64 in their standard order; {@code '='} padding
+     * is not a symbol and passes through.
+     */
+    CipherAlphabet BASE64 = of("ABCDEFGHIJKLMNOPQRSTUVWXYZ"
+            + "abcdefghijklmnopqrstuvwxyz0123456789+/");
+
+    /**
+     * The ASCII letters followed by the Latin-1 letters {@code U+00C0} to
+     * {@code U+00FF} other than {@code U+00D7} and {@code U+00F7}, case
+     * sensitive.
+     */
+    CipherAlphabet LATIN1_LETTERS = of("ABCDEFGHIJKLMNOPQRSTUVWXYZ"
+            + "abcdefghijklmnopqrstuvwxyz"
+            + "\u00C0\u00C1\u00C2\u00C3\u00C4\u00C5\u00C6\u00C7"
+            + "\u00C8\u00C9\u00CA\u00CB\u00CC\u00CD\u00CE\u00CF"
+            + "\u00D0\u00D1\u00D2\u00D3\u00D4\u00D5\u00D6\u00D8"
+            + "\u00D9\u00DA\u00DB\u00DC\u00DD\u00DE\u00DF\u00E0"
+            + "\u00E1\u00E2\u00E3\u00E4\u00E5\u00E6\u00E7\u00E8"
+            + "\u00E9\u00EA\u00EB\u00EC\u00ED\u00EE\u00EF\u00F0"
+            + "\u00F1\u00F2\u00F3\u00F4\u00F5\u00F6\u00F8\u00F9"
+            + "\u00FA\u00FB\u00FC\u00FD\u00FE\u00FF");
+
+    /**
+     * Builds the case-sensitive alphabet whose symbols are the characters of
+     * {@code symbols}, in order.
+     *
+     * @param symbols
+     *            the symbols
+     * @return the alphabet
+     * @requires symbols /= null and 0 < |symbols| <= MAX_SIZE and the
+     *           characters of symbols are distinct
+     * @ensures of.size() = |symbols| and for all i: integer where (0 <= i and
+     *          i < |symbols|) (of.charAt(i) = symbols[i] and
+     *          of.indexOf(symbols[i]) = i)
+     */
+    static CipherAlphabet of(String symbols) {
+        assert symbols != null : "Violation of: symbols is not null";
+        assert symbols.length() > 0 : "Violation of: |symbols| > 0";
+        assert symbols.length() <= MAX_SIZE : ""
+                + "Violation of: |symbols| <= MAX_SIZE";
+
+        char min = Character.MAX_VALUE;
+        char max = Character.MIN_VALUE;
+        for (int i = 0; i < symbols.length(); i++) {
+            min = (char) Math.min(min, symbols.charAt(i));
+            max = (char) Math.max(max, symbols.charAt(i));
+        }
+        CipherAlphabet result;
+        if (max - min < DenseCipherAlphabet.MAX_SPAN) {
+            result = new DenseCipherAlphabet(symbols, false);
+        } else {
+            result = new HashedCipherAlphabet(symbols);
+        }
+        return result;
+    }
+
+    /**
+     * Reports the number of symbols.
+     *
+     * @return the size of this alphabet
+     */
+    int size();
+
+    /**
+     * Reports the index of {@code c}, or -1 if {@code c} is not a symbol.
+     *
+     * @param c
+     *            the character
+     * @return the index of {@code c} in this alphabet, or -1
+     */
+    int indexOf(char c);
+
+    /**
+     * Reports the symbol at {@code index}.
+     *
+     * @param index
+     *            the index
+     * @return the symbol
+     * @requires 0 <= index < size()
+     */
+    char charAt(int index);
+
+    /**
+     * Reports whether {@code c} is a symbol of this alphabet.
+     *
+     * @param c
+     *            the character
+     * @return true if {@code indexOf(c) >= 0}
+     */
+    default boolean contains(char c) {
+        return this.indexOf(c) >= 0;
+    }
+
+}
@@ -0,0 +1,72 @@
+/**
+ * Receiver of timings for the operations of every {@code VigenereCipher}
+ * implementation in the process.
+ *
+ * <p>
+ * Nothing is recorded until an implementation is installed with
+ * {@link CipherMonitor#install}. While none is installed (and no Flight
+ * Recorder recording enables {@code CipherOperationEvent}) each operation
+ * only reads one static field and checks one flag, so the hook costs nothing
+ * worth measuring. {@code HistogramCipherMetrics} is the in-process
+ * implementation; an application that already has a metrics library can
+ * install an adapter that forwards {@link #record} to its own counters and
+ * timers.
+ * </p>
+ *
+ * <p>
+ * {@link #record} is called on the thread that ran the operation, after it
+ * returns or throws, so it must be thread-safe and should be cheap.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+public interface CipherMetrics {
+
+    /**
+     * Cipher operation timed by {@code CipherMetrics}.
+     */
+    enum Operation {
+
+        /**
+         * {@code encrypt} of a {@code Sequence<Character>}, a {@code char[]}
+         * range or a {@code CharSequence}.
+         */
+        ENCRYPT,
+
+        /**
+         * {@code decrypt} of a {@code Sequence<Character>}, a {@code char[]}
+         * range or a {@code CharSequence}.
+         */
+        DECRYPT,
+
+        /**
+         * {@code encryptWithKey}.
+         */
+        ENCRYPT_WITH_KEY,
+
+        /**
+         * {@code decryptWithKey}.
+         */
+        DECRYPT_WITH_KEY,
+
+        /**
+         * {@code setKey}, including {@code setKeyFromString}.
+         */
+        SET_KEY
+
+    }
+
+    /**
+     * Records one completed operation.
+     *
+     * @param operation
+     *            the operation
+     * @param length
+     *            the number of characters processed; the key length for
+     *            {@code SET_KEY}
+     * @param nanos
+     *            the time the operation took, in nanoseconds
+     */
+    void record(Operation operation, long length, long nanos);
+
+}
@@ -0,0 +1,279 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes text snapshots of a {@code HistogramCipherMetrics} to a log or file
+ * at a fixed rate, from a single daemon thread.
+ *
+ * <p>
+ * Each snapshot is a timestamp line followed by
+ * {@code HistogramCipherMetrics.snapshot()}. Snapshots are appended to a
+ * file, or logged at {@code INFO} to a {@code java.util.logging.Logger}.
+ * {@link #export} writes one at once, and {@link #close} stops the schedule
+ * after writing a final one. A scheduled export that fails to write is kept
+ * and rethrown by the next {@code export} or by {@code close}, so a full disk
+ * or a failing log handler does not stop the schedule or go unnoticed.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+public final class CipherMetricsExporter implements Closeable {
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Longest time, in seconds, {@link #close} waits for a running scheduled
+     * export.
+     */
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    /**
+     * Destination of snapshots.
+     */
+    private interface Sink {
+
+        /**
+         * Writes one snapshot.
+         *
+         * @param text
+         *            the snapshot text
+         * @throws IOException
+         *             if the snapshot cannot be written
+         */
+        void write(String text) throws IOException;
+
+    }
+
+    /**
+     * The metrics exported.
+     */
+    private final HistogramCipherMetrics metrics;
+
+    /**
+     * Where snapshots are written.
+     */
+    private final Sink sink;
+
+    /**
+     * Thread running the scheduled exports.
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Lock serializing exports.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * First failure of a scheduled export not yet reported, or {@code null}:
+     * an {@code IOException} from the file, or a {@code RuntimeException}
+     * from the sink, such as a failing log handler.
+     */
+    private Exception failure;
+
+    /**
+     * Whether {@link #close} has been called.
+     */
+    private boolean closed;
+
+    /**
+     * Runs a scheduled export, keeping its failure for the next caller.
+     * Nothing is let out: an exception escaping a periodic task would cancel
+     * every later export.
+     */
+    private void scheduledExport() {
+        synchronized (this.lock) {
+            try {
+                this.writeSnapshot();
+            } catch (IOException | RuntimeException e) {
+                if (this.failure == null) {
+                    this.failure = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes one snapshot to the sink.
+     *
+     * @throws IOException
+     *             if the snapshot cannot be written
+     */
+    private void writeSnapshot() throws IOException {
+        this.sink.write("cipher metrics at " + Instant.now()
+                + System.lineSeparator() + this.metrics.snapshot());
+    }
+
+    /**
+     * Throws and clears the failure kept from a scheduled export, if any.
+     *
+     * @throws IOException
+     *             the kept failure
+     */
+    private void rethrowFailure() throws IOException {
+        Exception kept = this.failure;
+        this.failure = null;
+        if (kept instanceof IOException) {
+            throw (IOException) kept;
+        }
+        if (kept != null) {
+            throw (RuntimeException) kept;
+        }
+    }
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * Constructor.
+     *
+     * @param metrics
+     *            the metrics to export
+     * @param sink
+     *            where to write snapshots
+     * @param period
+     *            the time between snapshots
+     * @param unit
+     *            the unit of {@code period}
+     */
+    private CipherMetricsExporter(HistogramCipherMetrics metrics, Sink sink,
+            long period, TimeUnit unit) {
+        assert metrics != null : "Violation of: metrics is not null";
+        assert unit != null : "Violation of: unit is not null";
+        assert period > 0 : "Violation of: period > 0";
+
+        this.metrics = metrics;
+        this.sink = sink;
+        this.failure = null;
+        this.closed = false;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cipher-metrics-exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleAtFixedRate(this::scheduledExport, period,
+                period, unit);
+    }
+
+    /*
+     * Public methods
+     */
+
+    /**
+     * Starts appending snapshots of {@code metrics} to the file at
+     * {@code path} every {@code period}, creating it if needed.
+     *
+     * @param metrics
+     *            the metrics to export
+     * @param path
+     *            the file to append to
+     * @param period
+     *            the time between snapshots
+     * @param unit
+     *            the unit of {@code period}
+     * @return the running exporter
+     * @requires metrics /= null and path /= null and period > 0 and unit /=
+     *           null
+     */
+    public static CipherMetricsExporter toFile(HistogramCipherMetrics metrics,
+            Path path, long period, TimeUnit unit) {
+        assert path != null : "Violation of: path is not null";
+
+        return new CipherMetricsExporter(metrics,
+                text -> Files.write(path,
+                        text.getBytes(StandardCharsets.UTF_8),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                period, unit);
+    }
+
+    /**
+     * Starts logging snapshots of {@code metrics} to {@code logger} at
+     * {@code INFO} every {@code period}.
+     *
+     * @param metrics
+     *            the metrics to export
+     * @param logger
+     *            the logger
+     * @param period
+     *            the time between snapshots
+     * @param unit
+     *            the unit of {@code period}
+     * @return the running exporter
+     * @requires metrics /= null and logger /= null and period > 0 and unit /=
+     *           null
+     */
+    public static CipherMetricsExporter toLogger(
+            HistogramCipherMetrics metrics, Logger logger, long period,
+            TimeUnit unit) {
+        assert logger != null : "Violation of: logger is not null";
+
+        return new CipherMetricsExporter(metrics,
+                text -> logger.log(Level.INFO, text), period, unit);
+    }
+
+    /**
+     * Writes a snapshot now.
+     *
+     * @throws IOException
+     *             if the snapshot, or an earlier scheduled one, could not be
+     *             written
+     * @requires this is not closed
+     */
+    public void export() throws IOException {
+        synchronized (this.lock) {
+            assert !this.closed : "Violation of: this is not closed";
+
+            this.rethrowFailure();
+            this.writeSnapshot();
+        }
+    }
+
+    /**
+     * Stops the schedule, waits up to {@code CLOSE_TIMEOUT_SECONDS} for a
+     * scheduled export already writing to finish, and writes a final
+     * snapshot. The running export is not interrupted, since an interrupted
+     * file write fails. Closing twice has no further effect.
+     *
+     * @throws IOException
+     *             if the final snapshot, or an earlier scheduled one, could
+     *             not be written
+     */
+    @Override
+    public void close() throws IOException {
+        this.scheduler.shutdown();
+        boolean interrupted = false;
+        try {
+            this.scheduler.awaitTermination(CLOSE_TIMEOUT_SECONDS,
+                    TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        try {
+            synchronized (this.lock) {
+                if (!this.closed) {
+                    this.closed = true;
+                    this.rethrowFailure();
+                    this.writeSnapshot();
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,19 @@
+/**
+ * Direction in which a {@code VigenereCipher} key is applied by the streaming
+ * and session helpers built on top of the kernel.
+ *
+ * @author Vikranth Vegesina
+ */
+public enum CipherMode {
+
+    /**
+     * Shift letters forward by the key, turning plaintext into ciphertext.
+     */
+    ENCRYPT,
+
+    /**
+     * Shift letters backward by the key, turning ciphertext into plaintext.
+     */
+    DECRYPT
+
+}
@@ -0,0 +1,108 @@
+/**
+ * Process-wide switch through which the cipher implementations report their
+ * operations to the installed {@code CipherMetrics} and to Java Flight
+ * Recorder.
+ *
+ * <p>
+ * Every timed operation calls {@link #start} on entry and {@link #stop} on
+ * exit. With no metrics installed and no recording enabling
+ * {@code CipherOperationEvent}, {@code start} returns a shared idle probe
+ * without reading the clock or allocating, and {@code stop} returns at once,
+ * so a disabled monitor costs one field read and two checks per operation.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+public final class CipherMonitor {
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Probe returned when an operation is not timed; never started or
+     * committed, and used to ask JFR whether the event is enabled.
+     */
+    private static final CipherOperationEvent IDLE = new CipherOperationEvent();
+
+    /**
+     * The installed metrics, or {@code null}.
+     */
+    private static volatile CipherMetrics metrics;
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private CipherMonitor() {
+    }
+
+    /*
+     * Package-private methods used by the cipher implementations
+     */
+
+    /**
+     * Marks the start of an operation.
+     *
+     * @return the probe to pass to {@link #stop}
+     */
+    static CipherOperationEvent start() {
+        if (metrics == null && !IDLE.isEnabled()) {
+            return IDLE;
+        }
+        CipherOperationEvent probe = new CipherOperationEvent();
+        probe.start();
+        return probe;
+    }
+
+    /**
+     * Marks the end of an operation started with {@link #start}, records it
+     * if metrics are still installed, and emits its JFR event if a recording
+     * enables it and it took at least the event threshold.
+     *
+     * @param probe
+     *            the value returned by {@link #start}
+     * @param operation
+     *            the operation
+     * @param length
+     *            the number of characters processed, or the key length
+     * @param keyLength
+     *            the length of the key applied
+     */
+    static void stop(CipherOperationEvent probe,
+            CipherMetrics.Operation operation, long length, int keyLength) {
+        if (probe != IDLE) {
+            CipherMetrics local = metrics;
+            if (local != null) {
+                local.record(operation, length, probe.elapsedNanos());
+            }
+            probe.finish(operation, length, keyLength);
+        }
+    }
+
+    /*
+     * Public methods
+     */
+
+    /**
+     * Installs {@code cipherMetrics} as the receiver of every later
+     * operation, replacing the current one; {@code null} turns recording
+     * off.
+     *
+     * @param cipherMetrics
+     *            the metrics, or {@code null}
+     * @ensures installed = cipherMetrics
+     */
+    public static void install(CipherMetrics cipherMetrics) {
+        metrics = cipherMetrics;
+    }
+
+    /**
+     * Reports the installed metrics.
+     *
+     * @return the installed metrics, or {@code null} if none is installed
+     */
+    public static CipherMetrics installed() {
+        return metrics;
+    }
+
+}
@@ -0,0 +1,104 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder event for one cipher operation, emitted by
+ * {@code CipherMonitor} around the same calls that {@code CipherMetrics}
+ * times.
+ *
+ * <p>
+ * The event is named {@code vigenere.CipherOperation}. Its duration is the
+ * time the call took, and it records with a stack trace only calls that took
+ * at least its threshold, 20 ms by default. The threshold is a standard JFR
+ * setting, changed in a {@code .jfc} file
+ * ({@code vigenere.CipherOperation#threshold}) or with
+ * {@code Recording.enable("vigenere.CipherOperation").withThreshold(...)}.
+ * While no recording enables the event, {@code isEnabled()} is false and the
+ * monitor skips it entirely.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+@Name(CipherOperationEvent.NAME)
+@Label("Cipher Operation")
+@Category("Vigenere Cipher")
+@Description("A Vigenere cipher call that took at least the threshold")
+@StackTrace(true)
+@Threshold("20 ms")
+final class CipherOperationEvent extends jdk.jfr.Event {
+
+    /**
+     * Name of the event in recordings and settings.
+     */
+    static final String NAME = "vigenere.CipherOperation";
+
+    /**
+     * The operation: {@code ENCRYPT}, {@code DECRYPT},
+     * {@code ENCRYPT_WITH_KEY}, {@code DECRYPT_WITH_KEY} or {@code SET_KEY}.
+     */
+    @Label("Mode")
+    private String mode;
+
+    /**
+     * Number of characters processed; the key length for {@code SET_KEY}.
+     */
+    @Label("Text Length")
+    private long textLength;
+
+    /**
+     * Length of the key applied.
+     */
+    @Label("Key Length")
+    private int keyLength;
+
+    /**
+     * Value of {@code System.nanoTime()} when the operation started, for
+     * {@code CipherMetrics}; transient, so not part of the recorded event.
+     */
+    private transient long startNanos;
+
+    /**
+     * Marks the start of the operation for both JFR and
+     * {@code CipherMetrics}.
+     */
+    void start() {
+        this.begin();
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Reports the time since {@link #start}.
+     *
+     * @return the elapsed time, in nanoseconds
+     */
+    long elapsedNanos() {
+        return System.nanoTime() - this.startNanos;
+    }
+
+    /**
+     * Ends the event and commits it if a recording enables it and it took
+     * at least the threshold.
+     *
+     * @param operation
+     *            the operation
+     * @param textChars
+     *            the number of characters processed, or the key length
+     * @param keyChars
+     *            the length of the key applied
+     */
+    void finish(CipherMetrics.Operation operation, long textChars,
+            int keyChars) {
+        this.end();
+        if (this.shouldCommit()) {
+            this.mode = operation.name();
+            this.textLength = textChars;
+            this.keyLength = keyChars;
+            this.commit();
+        }
+    }
+
+}
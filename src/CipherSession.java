@@ -0,0 +1,239 @@
+/**
+ * Stateful view of a {@code VigenereCipher} key that remembers how far into a
+ * message it is, so a message can be processed across several calls (network
+ * frames, records, file chunks) or resumed at any letter.
+ *
+ * <p>
+ * The session works on a private copy of the key taken when it is created, and
+ * tracks its position as the number of letters processed. Because the key
+ * cursor for any position is just {@code position mod |key|}, {@link #seek}
+ * is O(1): nothing before the new position has to be re-processed.
+ * </p>
+ *
+ * <p>
+ * A {@code CipherStatistics} collector can be attached with
+ * {@link #setStatistics}; every later {@code update} then counts its output
+ * into the collector in the same pass that transforms it. Statistics are
+ * collected by {@code CompiledVigenereKey}, so they are only available for
+ * the {@code LETTERS} alphabet.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+public final class CipherSession {
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Private copy of the cipher whose key and case mode this session
+     * applies.
+     */
+    private final VigenereCipher cipher;
+
+    /**
+     * Whether this session encrypts or decrypts.
+     */
+    private final CipherMode mode;
+
+    /**
+     * Number of letters processed before the next character.
+     */
+    private long position;
+
+    /**
+     * Collector counting the output of every update, or {@code null}.
+     */
+    private CipherStatistics statistics;
+
+    /**
+     * Compiled form of the key, built when a collector is first attached.
+     */
+    private CompiledVigenereKey compiled;
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * Constructor.
+     *
+     * @param cipher
+     *            the cipher whose stored key is used
+     * @param mode
+     *            whether to encrypt or decrypt
+     * @requires cipher /= null and mode /= null and |cipher.key| > 0
+     * @ensures position = 0
+     */
+    public CipherSession(VigenereCipher cipher, CipherMode mode) {
+        assert cipher != null : "Violation of: cipher is not null";
+        assert mode != null : "Violation of: mode is not null";
+        assert cipher.key().length() > 0 : "Violation of: |cipher.key| > 0";
+
+        this.cipher = cipher.newInstance();
+        this.cipher.setKey(cipher.key());
+        this.cipher.setPreserveCase(cipher.preservesCase());
+        this.mode = mode;
+        this.position = 0;
+        this.statistics = null;
+        this.compiled = null;
+    }
+
+    /*
+     * Public methods
+     */
+
+    /**
+     * Reports whether this session encrypts or decrypts.
+     *
+     * @return the mode of this session
+     */
+    public CipherMode mode() {
+        return this.mode;
+    }
+
+    /**
+     * Reports the number of letters processed so far.
+     *
+     * @return the current letter position
+     */
+    public long position() {
+        return this.position;
+    }
+
+    /**
+     * Moves the session to the given letter position, as if exactly
+     * {@code letterOffset} letters had been processed.
+     *
+     * @param letterOffset
+     *            the new letter position
+     * @updates this
+     * @requires letterOffset >= 0
+     * @ensures position = letterOffset
+     */
+    public void seek(long letterOffset) {
+        assert letterOffset >= 0 : "Violation of: letterOffset >= 0";
+
+        this.position = letterOffset;
+    }
+
+    /**
+     * Attaches {@code stats} to this session, so every later update counts
+     * its output into it; {@code null} detaches the current collector.
+     *
+     * @param stats
+     *            the collector, or {@code null}
+     * @updates this
+     * @requires stats = null or (stats.keyLength() = |key| and
+     *           cipher.alphabet() = CipherAlphabet.LETTERS)
+     * @ensures statistics = stats
+     */
+    public void setStatistics(CipherStatistics stats) {
+        if (stats != null) {
+            assert stats.keyLength() == this.cipher.key().length() : ""
+                    + "Violation of: stats.keyLength() = |key|";
+            assert this.cipher.alphabet() == CipherAlphabet.LETTERS : ""
+                    + "Violation of: "
+                    + "cipher.alphabet() = CipherAlphabet.LETTERS";
+            if (this.compiled == null) {
+                this.compiled = CompiledVigenereKey.of(this.cipher);
+            }
+        }
+        this.statistics = stats;
+    }
+
+    /**
+     * Reports the collector attached to this session.
+     *
+     * @return the collector, or {@code null} if none is attached
+     */
+    public CipherStatistics statistics() {
+        return this.statistics;
+    }
+
+    /**
+     * Processes {@code length} characters of {@code src} into {@code dst},
+     * continuing from the current position. {@code src} and {@code dst} may
+     * be the same array as long as {@code srcOffset = dstOffset}.
+     *
+     * @param src
+     *            the array holding the input text
+     * @param srcOffset
+     *            the index of the first input character
+     * @param length
+     *            the number of characters to process
+     * @param dst
+     *            the array receiving the output text
+     * @param dstOffset
+     *            the index at which to store the first output character
+     * @return the number of letters processed
+     * @updates this, dst
+     * @requires src /= null and dst /= null and 0 <= srcOffset and 0 <= length
+     *           and srcOffset + length <= |src| and 0 <= dstOffset and
+     *           dstOffset + length <= |dst|
+     * @ensures position = #position + update
+     */
+    public int update(char[] src, int srcOffset, int length, char[] dst,
+            int dstOffset) {
+        long start = this.position;
+        if (this.statistics != null) {
+            if (this.mode == CipherMode.ENCRYPT) {
+                this.position = this.compiled.encrypt(src, srcOffset, length,
+                        dst, dstOffset, start, this.statistics);
+            } else {
+                this.position = this.compiled.decrypt(src, srcOffset, length,
+                        dst, dstOffset, start, this.statistics);
+            }
+        } else if (this.mode == CipherMode.ENCRYPT) {
+            this.position = this.cipher.encrypt(src, srcOffset, length, dst,
+                    dstOffset, start);
+        } else {
+            this.position = this.cipher.decrypt(src, srcOffset, length, dst,
+                    dstOffset, start);
+        }
+        return (int) (this.position - start);
+    }
+
+    /**
+     * Processes {@code length} characters of {@code buffer} in place,
+     * continuing from the current position.
+     *
+     * @param buffer
+     *            the array holding the text
+     * @param offset
+     *            the index of the first character
+     * @param length
+     *            the number of characters to process
+     * @return the number of letters processed
+     * @updates this, buffer
+     * @requires buffer /= null and 0 <= offset and 0 <= length and offset +
+     *           length <= |buffer|
+     * @ensures position = #position + update
+     */
+    public int update(char[] buffer, int offset, int length) {
+        return this.update(buffer, offset, length, buffer, offset);
+    }
+
+    /**
+     * Processes {@code text}, continuing from the current position.
+     *
+     * @param text
+     *            the input text
+     * @return the output text
+     * @updates this
+     * @requires text /= null
+     * @ensures position = #position + LETTER_COUNT(text)
+     */
+    public String update(CharSequence text) {
+        assert text != null : "Violation of: text is not null";
+
+        char[] buffer = new char[text.length()];
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = text.charAt(i);
+        }
+        this.update(buffer, 0, buffer.length);
+        return new String(buffer);
+    }
+
+}
@@ -0,0 +1,245 @@
+import java.util.Arrays;
+
+/**
+ * Letter statistics of the text produced by a key, collected by the engine in
+ * the same pass that encrypts or decrypts it.
+ *
+ * <p>
+ * A collector is attached to a {@code CompiledVigenereKey} call or to a
+ * {@code CipherSession} (and so to a {@code VigenereCipherWriter} or
+ * {@code VigenereCipherReader}), and counts, over every call it is passed to,
+ * the output letters by alphabet index, the letters shifted by each key
+ * position, and the characters that were not letters. The counts are plain
+ * {@code long[]} arrays updated without branches, so collecting costs a few
+ * increments per character and no second scan; code that passes no collector
+ * runs the unchanged engine.
+ * </p>
+ *
+ * <p>
+ * Counts accumulate until {@link #reset}. {@link #snapshot} copies them, so a
+ * caller can take one after every call or stream chunk and compare
+ * snapshots. A collector is not thread-safe; use one per thread and
+ * {@link #add} them together.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+public final class CipherStatistics {
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Number of letters in the alphabet.
+     */
+    private static final int ALPHABET_SIZE = VigenereTables.ALPHABET_SIZE;
+
+    /**
+     * Number of output letters with each alphabet index.
+     */
+    private final long[] letterCounts;
+
+    /**
+     * Number of letters shifted by each key position.
+     */
+    private final long[] keyPositionCounts;
+
+    /**
+     * Number of characters that were not letters.
+     */
+    private long nonLetterCount;
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * Constructor.
+     *
+     * @param keyLength
+     *            the length of the key whose output is counted
+     * @requires keyLength > 0
+     * @ensures all counts are 0
+     */
+    public CipherStatistics(int keyLength) {
+        assert keyLength > 0 : "Violation of: keyLength > 0";
+
+        this.letterCounts = new long[ALPHABET_SIZE];
+        this.keyPositionCounts = new long[keyLength];
+        this.nonLetterCount = 0;
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param source
+     *            the collector to copy
+     */
+    private CipherStatistics(CipherStatistics source) {
+        this.letterCounts = source.letterCounts.clone();
+        this.keyPositionCounts = source.keyPositionCounts.clone();
+        this.nonLetterCount = source.nonLetterCount;
+    }
+
+    /*
+     * Package-private methods used by the engines
+     */
+
+    /**
+     * Returns the array counting output letters by alphabet index, for an
+     * engine to update in place.
+     *
+     * @return the live letter counts
+     */
+    long[] letterCountArray() {
+        return this.letterCounts;
+    }
+
+    /**
+     * Returns the array counting letters by key position, for an engine to
+     * update in place.
+     *
+     * @return the live key-position counts
+     */
+    long[] keyPositionCountArray() {
+        return this.keyPositionCounts;
+    }
+
+    /**
+     * Adds {@code count} characters that were not letters.
+     *
+     * @param count
+     *            the number of non-letters
+     */
+    void addNonLetters(long count) {
+        this.nonLetterCount += count;
+    }
+
+    /*
+     * Public methods
+     */
+
+    /**
+     * Reports the length of the key whose output is counted.
+     *
+     * @return the key length
+     */
+    public int keyLength() {
+        return this.keyPositionCounts.length;
+    }
+
+    /**
+     * Reports the number of letters counted.
+     *
+     * @return the letter count
+     */
+    public long letterCount() {
+        long total = 0;
+        for (long count : this.keyPositionCounts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Reports how many output letters were {@code letter}, in either case.
+     *
+     * @param letter
+     *            the letter
+     * @return the number of output letters equal to {@code letter}
+     * @requires letter is an ASCII letter
+     */
+    public long letterCount(char letter) {
+        assert (letter >= 'A' && letter <= 'Z')
+                || (letter >= 'a' && letter <= 'z') : ""
+                        + "Violation of: letter is an ASCII letter";
+
+        return this.letterCounts[VigenereTables.LATIN1_INDEX[letter]];
+    }
+
+    /**
+     * Reports how many letters were shifted by key position
+     * {@code position}.
+     *
+     * @param position
+     *            the key position
+     * @return the number of letters at that key position
+     * @requires 0 <= position < keyLength()
+     */
+    public long keyPositionCount(int position) {
+        assert 0 <= position && position < this.keyLength() : ""
+                + "Violation of: 0 <= position < keyLength()";
+
+        return this.keyPositionCounts[position];
+    }
+
+    /**
+     * Reports the number of characters counted that were not letters.
+     *
+     * @return the non-letter count
+     */
+    public long nonLetterCount() {
+        return this.nonLetterCount;
+    }
+
+    /**
+     * Returns an independent copy of the current counts.
+     *
+     * @return the snapshot
+     */
+    public CipherStatistics snapshot() {
+        return new CipherStatistics(this);
+    }
+
+    /**
+     * Adds the counts of {@code other} to this collector.
+     *
+     * @param other
+     *            the collector to add
+     * @updates this
+     * @requires other /= null and other.keyLength() = keyLength()
+     */
+    public void add(CipherStatistics other) {
+        assert other != null : "Violation of: other is not null";
+        assert other.keyLength() == this.keyLength() : ""
+                + "Violation of: other.keyLength() = keyLength()";
+
+        for (int i = 0; i < ALPHABET_SIZE; i++) {
+            this.letterCounts[i] += other.letterCounts[i];
+        }
+        for (int i = 0; i < this.keyPositionCounts.length; i++) {
+            this.keyPositionCounts[i] += other.keyPositionCounts[i];
+        }
+        this.nonLetterCount += other.nonLetterCount;
+    }
+
+    /**
+     * Sets every count back to 0.
+     *
+     * @clears this
+     */
+    public void reset() {
+        Arrays.fill(this.letterCounts, 0);
+        Arrays.fill(this.keyPositionCounts, 0);
+        this.nonLetterCount = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("letters=");
+        sb.append(this.letterCount()).append(" nonLetters=")
+                .append(this.nonLetterCount).append(" byLetter={");
+        for (int i = 0; i < ALPHABET_SIZE; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append((char) ('A' + i)).append('=')
+                    .append(this.letterCounts[i]);
+        }
+        sb.append("} byKeyPosition=")
+                .append(Arrays.toString(this.keyPositionCounts));
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,425 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe, size-bounded LRU cache from key strings to their
+ * {@code CompiledVigenereKey}.
+ *
+ * <p>
+ * Switching to a key that was used recently is a map lookup instead of a
+ * rebuild. When the cache is full the least recently used key is evicted;
+ * entries can also be set to expire a fixed time after their last access.
+ * Keys are cached by their exact string, so {@code "key"} and {@code "KEY"}
+ * occupy separate entries that compile to equal keys.
+ * </p>
+ *
+ * <p>
+ * A cache keeps its key strings and their compiled tables reachable until
+ * they are evicted, expire or are cleared, whether or not any cipher still
+ * uses them. No cache is used unless a caller creates one, so by default
+ * nothing retains keys. {@link #install} makes one instance the cache that
+ * {@code setKeyFromString} consults on every {@code LETTERS} cipher in the
+ * process; the caller chooses its size and expiry, reads its counters, and
+ * can {@link #clear} or uninstall it at any time.
+ * </p>
+ *
+ * <p>
+ * Entries live in a {@code ConcurrentHashMap}, and a hit is a lock-free
+ * {@code get} plus one write of the entry's access time, so threads looking
+ * up cached keys never wait for each other. LRU order is approximate. When
+ * a miss takes the cache past {@code maxEntries}, the thread that inserted
+ * the entry sorts the access times of all entries and evicts the oldest,
+ * plus a slack of 1/16 of the capacity so the next rounds of misses do not
+ * sort again. Only one thread evicts at a time and the others skip it, so
+ * under concurrent misses the size can briefly exceed {@code maxEntries} by
+ * about the number of threads missing at once. Entries accessed in the same
+ * clock tick are ordered arbitrarily. Compilation on a miss takes no lock;
+ * two threads missing on the same key at once may both compile it, and the
+ * second result simply replaces the first.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+public final class CompiledKeyCache {
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Load factor of the underlying map.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Initial capacity of the underlying map, before it grows towards
+     * {@code maxEntries}.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * An eviction round also removes {@code maxEntries / EVICTION_SLACK}
+     * entries beyond the excess, so its sort is amortized over that many
+     * misses.
+     */
+    private static final int EVICTION_SLACK = 16;
+
+    /**
+     * The cache used by {@code setKeyFromString}, or {@code null}.
+     */
+    private static volatile CompiledKeyCache installed;
+
+    /**
+     * Cached key with the time it was last looked up.
+     */
+    private static final class Entry {
+
+        /**
+         * The compiled key.
+         */
+        private final CompiledVigenereKey key;
+
+        /**
+         * Clock reading, in nanoseconds, of the last lookup.
+         */
+        private volatile long lastAccess;
+
+        /**
+         * Constructor.
+         *
+         * @param key
+         *            the compiled key
+         * @param lastAccess
+         *            clock reading of the lookup that created this entry
+         */
+        Entry(CompiledVigenereKey key, long lastAccess) {
+            this.key = key;
+            this.lastAccess = lastAccess;
+        }
+
+    }
+
+    /**
+     * Maximum number of cached keys.
+     */
+    private final int maxEntries;
+
+    /**
+     * Time, in nanoseconds, after its last lookup that an entry expires, or 0
+     * if entries never expire.
+     */
+    private final long expireAfterAccessNanos;
+
+    /**
+     * Source of clock readings, in nanoseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Cached keys.
+     */
+    private final ConcurrentHashMap<String, Entry> entries;
+
+    /**
+     * Lock held by the one thread running an eviction round.
+     */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    /**
+     * Number of lookups that found a live entry.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Number of lookups that had to compile the key.
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Number of entries removed for size or expiry.
+     */
+    private final LongAdder evictions = new LongAdder();
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * Constructor for a cache whose entries never expire.
+     *
+     * @param maxEntries
+     *            maximum number of cached keys
+     * @requires maxEntries > 0
+     */
+    public CompiledKeyCache(int maxEntries) {
+        this(maxEntries, 0, TimeUnit.NANOSECONDS, System::nanoTime);
+    }
+
+    /**
+     * Constructor for a cache whose entries expire {@code expireAfterAccess}
+     * after their last lookup.
+     *
+     * @param maxEntries
+     *            maximum number of cached keys
+     * @param expireAfterAccess
+     *            time after the last lookup that an entry expires, or 0 for
+     *            never
+     * @param unit
+     *            unit of {@code expireAfterAccess}
+     * @requires maxEntries > 0 and expireAfterAccess >= 0 and unit /= null
+     */
+    public CompiledKeyCache(int maxEntries, long expireAfterAccess,
+            TimeUnit unit) {
+        this(maxEntries, expireAfterAccess, unit, System::nanoTime);
+    }
+
+    /**
+     * Constructor with an explicit clock, for tests.
+     *
+     * @param maxEntries
+     *            maximum number of cached keys
+     * @param expireAfterAccess
+     *            time after the last lookup that an entry expires, or 0 for
+     *            never
+     * @param unit
+     *            unit of {@code expireAfterAccess}
+     * @param clock
+     *            source of clock readings, in nanoseconds
+     * @requires maxEntries > 0 and expireAfterAccess >= 0 and unit /= null and
+     *           clock /= null
+     */
+    CompiledKeyCache(int maxEntries, long expireAfterAccess, TimeUnit unit,
+            LongSupplier clock) {
+        assert maxEntries > 0 : "Violation of: maxEntries > 0";
+        assert expireAfterAccess >= 0 : "Violation of: expireAfterAccess >= 0";
+        assert unit != null : "Violation of: unit is not null";
+        assert clock != null : "Violation of: clock is not null";
+
+        this.maxEntries = maxEntries;
+        this.expireAfterAccessNanos = unit.toNanos(expireAfterAccess);
+        this.clock = clock;
+        this.entries = new ConcurrentHashMap<>(
+                Math.min(maxEntries, INITIAL_CAPACITY), LOAD_FACTOR);
+    }
+
+    /*
+     * Private helper methods
+     */
+
+    /**
+     * Reports whether {@code entry} has expired at clock reading {@code now}.
+     *
+     * @param entry
+     *            the entry
+     * @param now
+     *            the current clock reading
+     * @return true if the entry has expired
+     */
+    private boolean isExpired(Entry entry, long now) {
+        return this.expireAfterAccessNanos > 0
+                && now - entry.lastAccess >= this.expireAfterAccessNanos;
+    }
+
+    /**
+     * Removes {@code entry} stored under {@code key}, counting it as an
+     * eviction unless another thread removed or replaced it first.
+     *
+     * @param key
+     *            the key
+     * @param entry
+     *            the entry expected under {@code key}
+     */
+    private void evict(String key, Entry entry) {
+        if (this.entries.remove(key, entry)) {
+            this.evictions.increment();
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries until the cache is a slack below
+     * {@code maxEntries}, unless another thread is already doing so; that
+     * thread checks the size again after each round, so entries added while
+     * it held the lock are evicted too.
+     */
+    private void evictExcess() {
+        while (this.entries.size() > this.maxEntries
+                && this.evictionLock.tryLock()) {
+            try {
+                this.evictRound();
+            } finally {
+                this.evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries past {@code maxEntries}, plus
+     * the slack; called with {@code evictionLock} held.
+     */
+    private void evictRound() {
+        int excess = this.entries.size() - this.maxEntries;
+        if (excess > 0) {
+            int target = excess + this.maxEntries / EVICTION_SLACK;
+            long[] stamps = new long[this.entries.size()];
+            int n = 0;
+            Iterator<Entry> values = this.entries.values().iterator();
+            while (n < stamps.length && values.hasNext()) {
+                stamps[n] = values.next().lastAccess;
+                n++;
+            }
+            Arrays.sort(stamps, 0, n);
+            long cutoff = stamps[Math.min(target, n) - 1];
+
+            int removed = 0;
+            Iterator<Map.Entry<String, Entry>> it = this.entries.entrySet()
+                    .iterator();
+            while (removed < target && it.hasNext()) {
+                Map.Entry<String, Entry> e = it.next();
+                if (e.getValue().lastAccess <= cutoff
+                        && this.entries.remove(e.getKey(), e.getValue())) {
+                    this.evictions.increment();
+                    removed++;
+                }
+            }
+        }
+    }
+
+    /*
+     * Public methods
+     */
+
+    /**
+     * Installs {@code cache} as the cache {@code setKeyFromString} looks keys
+     * up in on every {@code LETTERS} cipher, replacing the current one;
+     * {@code null} turns caching off. Keys already in a replaced cache stay
+     * there until it is cleared or no longer referenced.
+     *
+     * @param cache
+     *            the cache, or {@code null}
+     * @ensures installed = cache
+     */
+    public static void install(CompiledKeyCache cache) {
+        installed = cache;
+    }
+
+    /**
+     * Reports the cache used by {@code setKeyFromString}.
+     *
+     * @return the installed cache, or {@code null} if none is installed
+     */
+    public static CompiledKeyCache installed() {
+        return installed;
+    }
+
+    /**
+     * Returns the compiled form of {@code key}, compiling and caching it if it
+     * is not cached or has expired.
+     *
+     * @param key
+     *            the key, in either case
+     * @return the compiled key
+     * @updates this
+     * @requires key /= null and |key| > 0 and every character of key is a
+     *           letter
+     * @ensures get = CompiledVigenereKey.of(key)
+     */
+    public CompiledVigenereKey get(String key) {
+        assert key != null : "Violation of: key is not null";
+
+        long now = this.clock.getAsLong();
+        Entry entry = this.entries.get(key);
+        if (entry != null) {
+            if (!this.isExpired(entry, now)) {
+                entry.lastAccess = now;
+                this.hits.increment();
+                return entry.key;
+            }
+            this.evict(key, entry);
+        }
+
+        this.misses.increment();
+        CompiledVigenereKey compiled = CompiledVigenereKey.of(key);
+        this.entries.put(key, new Entry(compiled, now));
+        if (this.entries.size() > this.maxEntries) {
+            this.evictExcess();
+        }
+        return compiled;
+    }
+
+    /**
+     * Removes every expired entry now rather than on its next lookup.
+     *
+     * @updates this
+     */
+    public void cleanUp() {
+        long now = this.clock.getAsLong();
+        for (Map.Entry<String, Entry> e : this.entries.entrySet()) {
+            if (this.isExpired(e.getValue(), now)) {
+                this.evict(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    /**
+     * Removes every entry. Counters are not reset.
+     *
+     * @clears this
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * Reports the number of cached keys, including expired entries not yet
+     * removed.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Reports the maximum number of cached keys.
+     *
+     * @return the capacity of this cache
+     */
+    public int maxEntries() {
+        return this.maxEntries;
+    }
+
+    /**
+     * Reports the number of lookups that found a live entry.
+     *
+     * @return the hit count
+     */
+    public long hitCount() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Reports the number of lookups that had to compile the key.
+     *
+     * @return the miss count
+     */
+    public long missCount() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Reports the number of entries removed because the cache was full or
+     * they had expired.
+     *
+     * @return the eviction count
+     */
+    public long evictionCount() {
+        return this.evictions.sum();
+    }
+
+}
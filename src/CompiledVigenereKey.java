@@ -0,0 +1,709 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Immutable Vigenere key compiled to its shifts, with stateless
+ * {@code encrypt} and {@code decrypt}.
+ *
+ * <p>
+ * Unlike a {@code VigenereCipher}, a compiled key never changes after it is
+ * created, so one instance can be shared by any number of threads and called
+ * concurrently without locking. The {@code char[]} and {@code ByteBuffer}
+ * methods allocate nothing. The {@code CharSequence} methods transform a
+ * working {@code char[]} and return a {@code String} copied from it, so each
+ * call allocates its output twice; callers that must not allocate use the
+ * {@code char[]} methods. The {@code ByteBuffer} methods work on ASCII or
+ * UTF-8 bytes without decoding them.
+ * </p>
+ *
+ * <p>
+ * A compiled key also fixes the case mode: by default letters come out in
+ * upper case, and a key compiled with {@code preserveCase} gives each output
+ * letter the case of the input letter, in the same single pass.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+public final class CompiledVigenereKey {
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Shift of each key letter ({@code 'A'} = 0, ..., {@code 'Z'} = 25).
+     */
+    private final byte[] shifts;
+
+    /**
+     * Whether letters keep their case.
+     */
+    private final boolean preserveCase;
+
+    /**
+     * {@code VigenereScalar} engine for encrypting {@code char[]} text.
+     */
+    private final VigenereScalar encryptScalar;
+
+    /**
+     * {@code VigenereScalar} engine for decrypting {@code char[]} text.
+     */
+    private final VigenereScalar decryptScalar;
+
+    /**
+     * {@code VigenereSwar} engine for encrypting bytes.
+     */
+    private final VigenereSwar encryptSwar;
+
+    /**
+     * {@code VigenereSwar} engine for decrypting bytes.
+     */
+    private final VigenereSwar decryptSwar;
+
+    /*
+     * Private helper methods
+     */
+
+    /**
+     * Converts a character to uppercase if it is a letter.
+     *
+     * @param c
+     *            the character to convert
+     * @return the uppercase version if letter, otherwise the character itself
+     */
+    private static char toUpperCase(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return (char) (c - 'a' + 'A');
+        }
+        return c;
+    }
+
+    /**
+     * Checks if a character is a letter.
+     *
+     * @param c
+     *            the character to check
+     * @return true if the character is a letter, false otherwise
+     */
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    /**
+     * Applies this key to {@code length} bytes of {@code src} starting at
+     * absolute index {@code srcIndex}, storing the result in {@code dst}
+     * starting at absolute index {@code dstIndex}. Buffer positions are not
+     * changed.
+     *
+     * @param mode
+     *            whether to encrypt or decrypt
+     * @param src
+     *            the buffer holding the input bytes
+     * @param srcIndex
+     *            the index of the first input byte
+     * @param length
+     *            the number of bytes to process
+     * @param dst
+     *            the buffer receiving the output bytes
+     * @param dstIndex
+     *            the index at which to store the first output byte
+     * @param letterOffset
+     *            the number of letters already processed before {@code src}
+     * @return {@code letterOffset} plus the number of letters processed
+     */
+    private long transform(CipherMode mode, ByteBuffer src, int srcIndex,
+            int length, ByteBuffer dst, int dstIndex, long letterOffset) {
+        VigenereSwar engine = this.encryptSwar;
+        if (mode == CipherMode.DECRYPT) {
+            engine = this.decryptSwar;
+        }
+        long result;
+        if (src.hasArray() && dst.hasArray()) {
+            result = engine.transform(src.array(),
+                    src.arrayOffset() + srcIndex, length, dst.array(),
+                    dst.arrayOffset() + dstIndex, letterOffset);
+        } else {
+            result = engine.transform(src, srcIndex, length, dst, dstIndex,
+                    letterOffset);
+        }
+        return result;
+    }
+
+    /**
+     * Applies this key to the remaining bytes of {@code src}, writing the
+     * result to {@code dst} and advancing both positions by the number of
+     * bytes processed.
+     *
+     * @param mode
+     *            whether to encrypt or decrypt
+     * @param src
+     *            the input buffer
+     * @param dst
+     *            the output buffer
+     * @param letterOffset
+     *            the number of letters already processed before {@code src}
+     * @return {@code letterOffset} plus the number of letters processed
+     */
+    private long transform(CipherMode mode, ByteBuffer src, ByteBuffer dst,
+            long letterOffset) {
+        assert src != null : "Violation of: src is not null";
+        assert dst != null : "Violation of: dst is not null";
+        assert dst.remaining() >= src.remaining() : ""
+                + "Violation of: dst.remaining >= src.remaining";
+        assert letterOffset >= 0 : "Violation of: letterOffset >= 0";
+
+        int length = src.remaining();
+        long result = this.transform(mode, src, src.position(), length, dst,
+                dst.position(), letterOffset);
+        src.position(src.position() + length);
+        dst.position(dst.position() + length);
+        return result;
+    }
+
+    /**
+     * Applies {@code engine} to the letters of {@code text}.
+     *
+     * @param engine
+     *            {@code this.encryptScalar} or {@code this.decryptScalar}
+     * @param text
+     *            the input text
+     * @return the output text
+     */
+    private static String transform(VigenereScalar engine, CharSequence text) {
+        assert text != null : "Violation of: text is not null";
+
+        char[] buffer = new char[text.length()];
+        if (text instanceof String) {
+            ((String) text).getChars(0, buffer.length, buffer, 0);
+        } else {
+            for (int i = 0; i < buffer.length; i++) {
+                buffer[i] = text.charAt(i);
+            }
+        }
+        engine.transform(buffer, 0, buffer.length, buffer, 0, 0L);
+        return new String(buffer);
+    }
+
+    /**
+     * Checks the bounds of a {@code char[]} call.
+     *
+     * @param src
+     *            the array holding the input text
+     * @param srcOffset
+     *            the index of the first input character
+     * @param length
+     *            the number of characters to process
+     * @param dst
+     *            the array receiving the output text
+     * @param dstOffset
+     *            the index at which to store the first output character
+     * @param letterOffset
+     *            the number of letters already processed before {@code src}
+     */
+    private static void checkBounds(char[] src, int srcOffset, int length,
+            char[] dst, int dstOffset, long letterOffset) {
+        assert src != null : "Violation of: src is not null";
+        assert dst != null : "Violation of: dst is not null";
+        assert 0 <= srcOffset && 0 <= length
+                && srcOffset + length <= src.length : ""
+                        + "Violation of: [srcOffset, srcOffset + length) "
+                        + "is within src";
+        assert 0 <= dstOffset && dstOffset + length <= dst.length : ""
+                + "Violation of: [dstOffset, dstOffset + length) is within dst";
+        assert letterOffset >= 0 : "Violation of: letterOffset >= 0";
+    }
+
+    /**
+     * Checks the bounds of a {@code char[]} call and applies {@code engine}
+     * to the letters among {@code length} characters of {@code src}, storing
+     * the result in {@code dst}.
+     *
+     * @param engine
+     *            {@code this.encryptScalar} or {@code this.decryptScalar}
+     * @param src
+     *            the array holding the input text
+     * @param srcOffset
+     *            the index of the first input character
+     * @param length
+     *            the number of characters to process
+     * @param dst
+     *            the array receiving the output text
+     * @param dstOffset
+     *            the index at which to store the first output character
+     * @param letterOffset
+     *            the number of letters already processed before {@code src}
+     * @return {@code letterOffset} plus the number of letters processed
+     */
+    private static long checkedTransform(VigenereScalar engine, char[] src,
+            int srcOffset, int length, char[] dst, int dstOffset,
+            long letterOffset) {
+        checkBounds(src, srcOffset, length, dst, dstOffset, letterOffset);
+
+        return engine.transform(src, srcOffset, length, dst, dstOffset,
+                letterOffset);
+    }
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * Constructor.
+     *
+     * @param shifts
+     *            the key shifts, owned by the new object from now on
+     * @param preserveCase
+     *            whether letters keep their case
+     */
+    private CompiledVigenereKey(byte[] shifts, boolean preserveCase) {
+        this.shifts = shifts;
+        this.preserveCase = preserveCase;
+        this.encryptScalar = new VigenereScalar(shifts, preserveCase);
+        this.decryptScalar = new VigenereScalar(VigenereScalar.inverse(shifts),
+                preserveCase);
+        this.encryptSwar = new VigenereSwar(shifts, false, preserveCase);
+        this.decryptSwar = new VigenereSwar(shifts, true, preserveCase);
+    }
+
+    /*
+     * Factory methods
+     */
+
+    /**
+     * Compiles {@code key}; letters come out in upper case.
+     *
+     * @param key
+     *            the key, in either case
+     * @return the compiled key
+     * @requires key /= null and |key| > 0 and every character of key is a
+     *           letter
+     * @ensures of.key = TO_UPPERCASE(key) and not of.preserveCase
+     */
+    public static CompiledVigenereKey of(String key) {
+        return of(key, false);
+    }
+
+    /**
+     * Compiles {@code key} with the given case mode.
+     *
+     * @param key
+     *            the key, in either case
+     * @param preserveCase
+     *            whether letters keep their case
+     * @return the compiled key
+     * @requires key /= null and |key| > 0 and every character of key is a
+     *           letter
+     * @ensures of.key = TO_UPPERCASE(key) and of.preserveCase = preserveCase
+     */
+    public static CompiledVigenereKey of(String key, boolean preserveCase) {
+        assert key != null : "Violation of: key is not null";
+        assert key.length() > 0 : "Violation of: |key| > 0";
+
+        byte[] shifts = new byte[key.length()];
+        for (int i = 0; i < shifts.length; i++) {
+            char c = key.charAt(i);
+            assert isLetter(
+                    c) : "Violation of: every character of key is a letter";
+            shifts[i] = (byte) (toUpperCase(c) - 'A');
+        }
+        return new CompiledVigenereKey(shifts, preserveCase);
+    }
+
+    /**
+     * Compiles the key and case mode stored in {@code cipher}.
+     *
+     * @param cipher
+     *            the cipher
+     * @return the compiled key
+     * @requires cipher /= null and |cipher.key| > 0 and cipher.alphabet() =
+     *           CipherAlphabet.LETTERS
+     * @ensures of.key = cipher.key and of.preserveCase = cipher.preserveCase
+     */
+    public static CompiledVigenereKey of(VigenereCipher cipher) {
+        assert cipher != null : "Violation of: cipher is not null";
+        assert cipher.alphabet() == CipherAlphabet.LETTERS : ""
+                + "Violation of: cipher.alphabet() = CipherAlphabet.LETTERS";
+
+        return of(cipher.keyToString(), cipher.preservesCase());
+    }
+
+    /*
+     * Package-private methods used by the cipher implementations
+     */
+
+    /**
+     * Returns the key shifts, which a cipher adopting this key may share
+     * because neither side ever modifies them.
+     *
+     * @return the shifts, not copied
+     */
+    byte[] shiftArray() {
+        return this.shifts;
+    }
+
+    /**
+     * Returns the engine that encrypts {@code char[]} text with this key.
+     *
+     * @return the encryption engine
+     */
+    VigenereScalar encryptEngine() {
+        return this.encryptScalar;
+    }
+
+    /**
+     * Returns the engine that decrypts {@code char[]} text with this key.
+     *
+     * @return the decryption engine
+     */
+    VigenereScalar decryptEngine() {
+        return this.decryptScalar;
+    }
+
+    /*
+     * Common methods (from Object)
+     */
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof CompiledVigenereKey)) {
+            return false;
+        }
+        CompiledVigenereKey other = (CompiledVigenereKey) obj;
+        return this.preserveCase == other.preserveCase
+                && Arrays.equals(this.shifts, other.shifts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.shifts);
+    }
+
+    @Override
+    public String toString() {
+        return "<" + this.key() + ">";
+    }
+
+    /*
+     * Public methods
+     */
+
+    /**
+     * Reports the key as an upper-case string.
+     *
+     * @return the key
+     */
+    public String key() {
+        char[] letters = new char[this.shifts.length];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = (char) ('A' + this.shifts[i]);
+        }
+        return new String(letters);
+    }
+
+    /**
+     * Reports the number of letters in the key.
+     *
+     * @return |this.key|
+     */
+    public int length() {
+        return this.shifts.length;
+    }
+
+    /**
+     * Reports whether this key keeps the case of each letter.
+     *
+     * @return true if letters keep their case, false if they come out in
+     *         upper case
+     */
+    public boolean preservesCase() {
+        return this.preserveCase;
+    }
+
+    /**
+     * Encrypts {@code text} with this key.
+     *
+     * @param text
+     *            the plaintext
+     * @return the ciphertext
+     * @requires text /= null
+     * @ensures encrypt = TEXT_ENCRYPTED_WITH_KEY(text, this.key)
+     */
+    public String encrypt(CharSequence text) {
+        return transform(this.encryptScalar, text);
+    }
+
+    /**
+     * Decrypts {@code text} with this key.
+     *
+     * @param text
+     *            the ciphertext
+     * @return the plaintext
+     * @requires text /= null
+     * @ensures decrypt = TEXT_DECRYPTED_WITH_KEY(text, this.key)
+     */
+    public String decrypt(CharSequence text) {
+        return transform(this.decryptScalar, text);
+    }
+
+    /**
+     * Encrypts {@code length} characters of {@code src} into {@code dst} as if
+     * {@code letterOffset} letters had already been encrypted. {@code src}
+     * and {@code dst} may be the same array as long as
+     * {@code srcOffset = dstOffset}.
+     *
+     * @param src
+     *            the array holding the text to encrypt
+     * @param srcOffset
+     *            the index of the first character to encrypt
+     * @param length
+     *            the number of characters to encrypt
+     * @param dst
+     *            the array receiving the ciphertext
+     * @param dstOffset
+     *            the index at which to store the first encrypted character
+     * @param letterOffset
+     *            the number of letters already encrypted before {@code src}
+     * @return {@code letterOffset} plus the number of letters encrypted
+     * @updates dst
+     * @requires src /= null and dst /= null and 0 <= srcOffset and 0 <= length
+     *           and srcOffset + length <= |src| and 0 <= dstOffset and
+     *           dstOffset + length <= |dst| and letterOffset >= 0
+     * @ensures dst[dstOffset, dstOffset + length) =
+     *          TEXT_ENCRYPTED_WITH_KEY(#src[srcOffset, srcOffset + length),
+     *          ROTATE(this.key, letterOffset mod |this.key|))
+     */
+    public long encrypt(char[] src, int srcOffset, int length, char[] dst,
+            int dstOffset, long letterOffset) {
+        return checkedTransform(this.encryptScalar, src, srcOffset, length,
+                dst, dstOffset, letterOffset);
+    }
+
+    /**
+     * Decrypts {@code length} characters of {@code src} into {@code dst} as if
+     * {@code letterOffset} letters had already been decrypted. {@code src}
+     * and {@code dst} may be the same array as long as
+     * {@code srcOffset = dstOffset}.
+     *
+     * @param src
+     *            the array holding the text to decrypt
+     * @param srcOffset
+     *            the index of the first character to decrypt
+     * @param length
+     *            the number of characters to decrypt
+     * @param dst
+     *            the array receiving the plaintext
+     * @param dstOffset
+     *            the index at which to store the first decrypted character
+     * @param letterOffset
+     *            the number of letters already decrypted before {@code src}
+     * @return {@code letterOffset} plus the number of letters decrypted
+     * @updates dst
+     * @requires src /= null and dst /= null and 0 <= srcOffset and 0 <= length
+     *           and srcOffset + length <= |src| and 0 <= dstOffset and
+     *           dstOffset + length <= |dst| and letterOffset >= 0
+     * @ensures dst[dstOffset, dstOffset + length) =
+     *          TEXT_DECRYPTED_WITH_KEY(#src[srcOffset, srcOffset + length),
+     *          ROTATE(this.key, letterOffset mod |this.key|))
+     */
+    public long decrypt(char[] src, int srcOffset, int length, char[] dst,
+            int dstOffset, long letterOffset) {
+        return checkedTransform(this.decryptScalar, src, srcOffset, length,
+                dst, dstOffset, letterOffset);
+    }
+
+    /**
+     * Encrypts {@code length} characters of {@code src} into {@code dst} as if
+     * {@code letterOffset} letters had already been encrypted, counting the
+     * characters into {@code stats} in the same pass.
+     *
+     * @param src
+     *            the array holding the text to encrypt
+     * @param srcOffset
+     *            the index of the first character to encrypt
+     * @param length
+     *            the number of characters to encrypt
+     * @param dst
+     *            the array receiving the ciphertext
+     * @param dstOffset
+     *            the index at which to store the first encrypted character
+     * @param letterOffset
+     *            the number of letters already encrypted before {@code src}
+     * @param stats
+     *            the collector receiving the counts
+     * @return {@code letterOffset} plus the number of letters encrypted
+     * @updates dst, stats
+     * @requires [the requires clause of encrypt without stats] and stats /=
+     *           null and stats.keyLength() = length()
+     * @ensures [the ensures clause of encrypt without stats] and [stats holds
+     *          #stats plus the counts of this call's output]
+     */
+    public long encrypt(char[] src, int srcOffset, int length, char[] dst,
+            int dstOffset, long letterOffset, CipherStatistics stats) {
+        checkBounds(src, srcOffset, length, dst, dstOffset, letterOffset);
+        assert stats != null : "Violation of: stats is not null";
+
+        return this.encryptScalar.transform(src, srcOffset, length, dst,
+                dstOffset, letterOffset, stats);
+    }
+
+    /**
+     * Decrypts {@code length} characters of {@code src} into {@code dst} as if
+     * {@code letterOffset} letters had already been decrypted, counting the
+     * characters into {@code stats} in the same pass.
+     *
+     * @param src
+     *            the array holding the text to decrypt
+     * @param srcOffset
+     *            the index of the first character to decrypt
+     * @param length
+     *            the number of characters to decrypt
+     * @param dst
+     *            the array receiving the plaintext
+     * @param dstOffset
+     *            the index at which to store the first decrypted character
+     * @param letterOffset
+     *            the number of letters already decrypted before {@code src}
+     * @param stats
+     *            the collector receiving the counts
+     * @return {@code letterOffset} plus the number of letters decrypted
+     * @updates dst, stats
+     * @requires [the requires clause of decrypt without stats] and stats /=
+     *           null and stats.keyLength() = length()
+     * @ensures [the ensures clause of decrypt without stats] and [stats holds
+     *          #stats plus the counts of this call's output]
+     */
+    public long decrypt(char[] src, int srcOffset, int length, char[] dst,
+            int dstOffset, long letterOffset, CipherStatistics stats) {
+        checkBounds(src, srcOffset, length, dst, dstOffset, letterOffset);
+        assert stats != null : "Violation of: stats is not null";
+
+        return this.decryptScalar.transform(src, srcOffset, length, dst,
+                dstOffset, letterOffset, stats);
+    }
+
+    /**
+     * Encrypts the remaining bytes of {@code src} into {@code dst}. ASCII
+     * letters are shifted to upper-case ciphertext letters, or to letters of
+     * their own case if this key preserves case; every other byte,
+     * including each byte of a multi-byte UTF-8 sequence, is copied
+     * unchanged. The positions of both buffers advance by
+     * {@code src.remaining()}. Heap and direct buffers are both supported;
+     * {@code src} and {@code dst} may share content only if they start at the
+     * same index.
+     *
+     * @param src
+     *            the plaintext bytes
+     * @param dst
+     *            the buffer receiving the ciphertext bytes
+     * @return the number of letters encrypted
+     * @updates src.position, dst
+     * @requires src /= null and dst /= null and dst.remaining >= src.remaining
+     *           and dst is not read-only
+     * @ensures [dst[#dst.position, #dst.position + #src.remaining) holds the
+     *          ciphertext of #src[#src.position, #src.limit)]
+     */
+    public long encrypt(ByteBuffer src, ByteBuffer dst) {
+        return this.transform(CipherMode.ENCRYPT, src, dst, 0L);
+    }
+
+    /**
+     * Decrypts the remaining bytes of {@code src} into {@code dst}, passing
+     * non-letter bytes through as {@link #encrypt(ByteBuffer, ByteBuffer)}
+     * does.
+     *
+     * @param src
+     *            the ciphertext bytes
+     * @param dst
+     *            the buffer receiving the plaintext bytes
+     * @return the number of letters decrypted
+     * @updates src.position, dst
+     * @requires src /= null and dst /= null and dst.remaining >= src.remaining
+     *           and dst is not read-only
+     * @ensures [dst[#dst.position, #dst.position + #src.remaining) holds the
+     *          plaintext of #src[#src.position, #src.limit)]
+     */
+    public long decrypt(ByteBuffer src, ByteBuffer dst) {
+        return this.transform(CipherMode.DECRYPT, src, dst, 0L);
+    }
+
+    /**
+     * Encrypts the remaining bytes of {@code src} into {@code dst} as if
+     * {@code letterOffset} letters had already been encrypted, for messages
+     * that arrive in several buffers.
+     *
+     * @param src
+     *            the plaintext bytes
+     * @param dst
+     *            the buffer receiving the ciphertext bytes
+     * @param letterOffset
+     *            the number of letters already encrypted before {@code src}
+     * @return {@code letterOffset} plus the number of letters encrypted
+     * @updates src.position, dst
+     * @requires src /= null and dst /= null and dst.remaining >= src.remaining
+     *           and dst is not read-only and letterOffset >= 0
+     */
+    public long encrypt(ByteBuffer src, ByteBuffer dst, long letterOffset) {
+        return this.transform(CipherMode.ENCRYPT, src, dst, letterOffset);
+    }
+
+    /**
+     * Decrypts the remaining bytes of {@code src} into {@code dst} as if
+     * {@code letterOffset} letters had already been decrypted, for messages
+     * that arrive in several buffers.
+     *
+     * @param src
+     *            the ciphertext bytes
+     * @param dst
+     *            the buffer receiving the plaintext bytes
+     * @param letterOffset
+     *            the number of letters already decrypted before {@code src}
+     * @return {@code letterOffset} plus the number of letters decrypted
+     * @updates src.position, dst
+     * @requires src /= null and dst /= null and dst.remaining >= src.remaining
+     *           and dst is not read-only and letterOffset >= 0
+     */
+    public long decrypt(ByteBuffer src, ByteBuffer dst, long letterOffset) {
+        return this.transform(CipherMode.DECRYPT, src, dst, letterOffset);
+    }
+
+    /**
+     * Encrypts the bytes between the position and the limit of
+     * {@code buffer} in place. The position and limit are not changed, so the
+     * buffer can be written out directly afterwards.
+     *
+     * @param buffer
+     *            the bytes to encrypt
+     * @return the number of letters encrypted
+     * @updates buffer
+     * @requires buffer /= null and buffer is not read-only
+     */
+    public long encryptInPlace(ByteBuffer buffer) {
+        assert buffer != null : "Violation of: buffer is not null";
+
+        return this.transform(CipherMode.ENCRYPT, buffer,
+                buffer.position(), buffer.remaining(), buffer,
+                buffer.position(), 0L);
+    }
+
+    /**
+     * Decrypts the bytes between the position and the limit of
+     * {@code buffer} in place. The position and limit are not changed.
+     *
+     * @param buffer
+     *            the bytes to decrypt
+     * @return the number of letters decrypted
+     * @updates buffer
+     * @requires buffer /= null and buffer is not read-only
+     */
+    public long decryptInPlace(ByteBuffer buffer) {
+        assert buffer != null : "Violation of: buffer is not null";
+
+        return this.transform(CipherMode.DECRYPT, buffer,
+                buffer.position(), buffer.remaining(), buffer,
+                buffer.position(), 0L);
+    }
+
+}
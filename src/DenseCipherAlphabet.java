@@ -0,0 +1,122 @@
+import java.util.Arrays;
+
+/**
+ * {@code CipherAlphabet} whose symbols lie in a short range of code points,
+ * stored as an index array covering that range.
+ *
+ * @author Vikranth Vegesina
+ * @convention <pre>
+ * 0 < |$this.symbols| <= CipherAlphabet.MAX_SIZE  and
+ * |$this.indexes| <= MAX_SPAN  and
+ * for all c: char
+ *   ($this.indexes[c - $this.base] = the index of c in $this.symbols, or of
+ *    its upper-case form if folding case, or -1 if neither is a symbol,
+ *    for c within the covered range)
+ * </pre>
+ */
+final class DenseCipherAlphabet implements CipherAlphabet {
+
+    /**
+     * Largest range of code points covered by an index array.
+     */
+    static final int MAX_SPAN = 4096;
+
+    /**
+     * The symbols, in index order.
+     */
+    private final char[] symbols;
+
+    /**
+     * Lowest code point covered by {@code indexes}.
+     */
+    private final char base;
+
+    /**
+     * Index of each covered code point, or -1.
+     */
+    private final short[] indexes;
+
+    /**
+     * Constructor.
+     *
+     * @param symbols
+     *            the distinct symbols, in index order
+     * @param foldCase
+     *            whether the lower-case form of each upper-case ASCII symbol
+     *            maps to the same index
+     */
+    DenseCipherAlphabet(String symbols, boolean foldCase) {
+        this.symbols = symbols.toCharArray();
+        char min = Character.MAX_VALUE;
+        char max = Character.MIN_VALUE;
+        for (char c : this.symbols) {
+            min = (char) Math.min(min, c);
+            max = (char) Math.max(max, c);
+            if (foldCase && c >= 'A' && c <= 'Z') {
+                max = (char) Math.max(max, c | VigenereTables.CASE_BIT);
+            }
+        }
+        assert max - min < MAX_SPAN : "Violation of: symbols span < MAX_SPAN";
+
+        this.base = min;
+        this.indexes = new short[max - min + 1];
+        Arrays.fill(this.indexes, (short) -1);
+        for (int i = 0; i < this.symbols.length; i++) {
+            char c = this.symbols[i];
+            assert this.indexes[c - min] < 0 : ""
+                    + "Violation of: the symbols are distinct";
+            this.indexes[c - min] = (short) i;
+            if (foldCase && c >= 'A' && c <= 'Z') {
+                this.indexes[(c | VigenereTables.CASE_BIT) - min] = (short) i;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.symbols.length;
+    }
+
+    @Override
+    public int indexOf(char c) {
+        int offset = c - this.base;
+        int result = -1;
+        if (offset >= 0 && offset < this.indexes.length) {
+            result = this.indexes[offset];
+        }
+        return result;
+    }
+
+    @Override
+    public char charAt(int index) {
+        assert 0 <= index && index < this.symbols.length : ""
+                + "Violation of: 0 <= index < size()";
+
+        return this.symbols[index];
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof DenseCipherAlphabet)) {
+            return false;
+        }
+        DenseCipherAlphabet other = (DenseCipherAlphabet) obj;
+        return this.base == other.base
+                && Arrays.equals(this.symbols, other.symbols)
+                && Arrays.equals(this.indexes, other.indexes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.symbols);
+    }
+
+    @Override
+    public String toString() {
+        return new String(this.symbols);
+    }
+
+}
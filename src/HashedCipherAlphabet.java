@@ -0,0 +1,135 @@
+import java.util.Arrays;
+
+/**
+ * {@code CipherAlphabet} for symbols scattered over the code point range,
+ * stored in an open-addressing hash table with linear probing.
+ *
+ * <p>
+ * The table is a power of two at least twice the number of symbols, so a
+ * lookup inspects about one slot for a symbol and two for a non-symbol.
+ * Slots are addressed by Fibonacci hashing, which spreads runs of
+ * neighbouring code points across the table.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ * @convention <pre>
+ * 0 < |$this.symbols| <= CipherAlphabet.MAX_SIZE  and
+ * |$this.keys| = |$this.values| = 2^k >= 2 * |$this.symbols|  and
+ * [every symbol s at index i is stored as keys[j] = s, values[j] = i in the
+ *  first slot j at or after slot(s), cyclically, and every other slot has
+ *  values[j] = -1]
+ * </pre>
+ */
+final class HashedCipherAlphabet implements CipherAlphabet {
+
+    /**
+     * Multiplier for Fibonacci hashing: 2^32 divided by the golden ratio.
+     */
+    private static final int GOLDEN = 0x9E3779B9;
+
+    /**
+     * The symbols, in index order.
+     */
+    private final char[] symbols;
+
+    /**
+     * Symbol stored in each slot.
+     */
+    private final char[] keys;
+
+    /**
+     * Index of the symbol in each slot, or -1 for an empty slot.
+     */
+    private final short[] values;
+
+    /**
+     * Number of bits a hash is shifted right to address the table.
+     */
+    private final int shift;
+
+    /**
+     * Constructor.
+     *
+     * @param symbols
+     *            the distinct symbols, in index order
+     */
+    HashedCipherAlphabet(String symbols) {
+        this.symbols = symbols.toCharArray();
+        int bits = Integer.SIZE
+                - Integer.numberOfLeadingZeros(2 * this.symbols.length - 1);
+        int capacity = 1 << bits;
+        this.shift = Integer.SIZE - bits;
+        this.keys = new char[capacity];
+        this.values = new short[capacity];
+        Arrays.fill(this.values, (short) -1);
+
+        for (int i = 0; i < this.symbols.length; i++) {
+            char c = this.symbols[i];
+            int slot = this.slot(c);
+            while (this.values[slot] >= 0) {
+                assert this.keys[slot] != c : ""
+                        + "Violation of: the symbols are distinct";
+                slot = (slot + 1) & (capacity - 1);
+            }
+            this.keys[slot] = c;
+            this.values[slot] = (short) i;
+        }
+    }
+
+    /**
+     * Reports the home slot of {@code c}.
+     *
+     * @param c
+     *            the character
+     * @return the first slot probed for {@code c}
+     */
+    private int slot(char c) {
+        return (c * GOLDEN) >>> this.shift;
+    }
+
+    @Override
+    public int size() {
+        return this.symbols.length;
+    }
+
+    @Override
+    public int indexOf(char c) {
+        int mask = this.keys.length - 1;
+        int slot = this.slot(c);
+        while (this.values[slot] >= 0 && this.keys[slot] != c) {
+            slot = (slot + 1) & mask;
+        }
+        return this.values[slot];
+    }
+
+    @Override
+    public char charAt(int index) {
+        assert 0 <= index && index < this.symbols.length : ""
+                + "Violation of: 0 <= index < size()";
+
+        return this.symbols[index];
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof HashedCipherAlphabet)) {
+            return false;
+        }
+        HashedCipherAlphabet other = (HashedCipherAlphabet) obj;
+        return Arrays.equals(this.symbols, other.symbols);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.symbols);
+    }
+
+    @Override
+    public String toString() {
+        return new String(this.symbols);
+    }
+
+}
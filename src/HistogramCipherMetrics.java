@@ -0,0 +1,308 @@
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process {@code CipherMetrics} that keeps, for every operation, a call
+ * count, the number of characters processed, and a latency histogram.
+ *
+ * <p>
+ * Latencies go into log-linear buckets in the style of HdrHistogram: each
+ * power of two is split into 8 equal sub-buckets, so any recorded value is
+ * known to within 12.5% while the whole range from 1 ns to centuries fits in
+ * 488 counters. Counters are {@code LongAdder}s and an
+ * {@code AtomicLongArray}, so recording never locks and threads contend only
+ * when they land in the same bucket at the same instant.
+ * </p>
+ *
+ * <p>
+ * {@link #snapshot} renders every operation as one line of text;
+ * {@code CipherMetricsExporter} writes such snapshots to a log or file on a
+ * schedule.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+public final class HistogramCipherMetrics implements CipherMetrics {
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Number of bits of sub-bucket precision within each power of two.
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /**
+     * Number of sub-buckets per power of two.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Number of buckets: one row of sub-buckets below {@code SUB_BUCKETS},
+     * then one per power of two up to {@code Long.MAX_VALUE}.
+     */
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS)
+            * SUB_BUCKETS;
+
+    /**
+     * Nanoseconds per second.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Nanoseconds per microsecond.
+     */
+    private static final double NANOS_PER_MICRO = 1e3;
+
+    /**
+     * Quantiles shown in a snapshot.
+     */
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    /**
+     * Labels of {@code QUANTILES}.
+     */
+    private static final String[] QUANTILE_LABELS = {"p50", "p99", "p999"};
+
+    /**
+     * Counters of one operation.
+     */
+    private static final class Timer {
+
+        /**
+         * Number of calls.
+         */
+        private final LongAdder count = new LongAdder();
+
+        /**
+         * Number of characters processed.
+         */
+        private final LongAdder length = new LongAdder();
+
+        /**
+         * Sum of the latencies.
+         */
+        private final LongAdder totalNanos = new LongAdder();
+
+        /**
+         * Largest latency.
+         */
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max,
+                0);
+
+        /**
+         * Number of latencies in each bucket.
+         */
+        private final AtomicLongArray buckets = new AtomicLongArray(
+                BUCKET_COUNT);
+
+    }
+
+    /**
+     * Counters of each operation, by ordinal.
+     */
+    private final Timer[] timers;
+
+    /**
+     * Returns the bucket holding {@code value}.
+     *
+     * @param value
+     *            the latency, in nanoseconds
+     * @return the bucket index
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(value, 0);
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value)
+                - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) - SUB_BUCKETS;
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the largest value that falls in {@code bucket}.
+     *
+     * @param bucket
+     *            the bucket index
+     * @return the upper bound of the bucket, in nanoseconds
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * Returns the counters of {@code operation}.
+     *
+     * @param operation
+     *            the operation
+     * @return its counters
+     */
+    private Timer timer(Operation operation) {
+        assert operation != null : "Violation of: operation is not null";
+
+        return this.timers[operation.ordinal()];
+    }
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * No-argument constructor.
+     *
+     * @ensures every count is 0
+     */
+    public HistogramCipherMetrics() {
+        Operation[] operations = Operation.values();
+        this.timers = new Timer[operations.length];
+        for (int i = 0; i < operations.length; i++) {
+            this.timers[i] = new Timer();
+        }
+    }
+
+    /*
+     * Public methods
+     */
+
+    @Override
+    public void record(Operation operation, long length, long nanos) {
+        Timer timer = this.timer(operation);
+        timer.count.increment();
+        timer.length.add(length);
+        timer.totalNanos.add(nanos);
+        timer.maxNanos.accumulate(nanos);
+        timer.buckets.incrementAndGet(bucketOf(nanos));
+    }
+
+    /**
+     * Reports the number of calls of {@code operation}.
+     *
+     * @param operation
+     *            the operation
+     * @return the call count
+     */
+    public long count(Operation operation) {
+        return this.timer(operation).count.sum();
+    }
+
+    /**
+     * Reports the number of characters processed by {@code operation}, or
+     * the total key length for {@code SET_KEY}.
+     *
+     * @param operation
+     *            the operation
+     * @return the character count
+     */
+    public long length(Operation operation) {
+        return this.timer(operation).length.sum();
+    }
+
+    /**
+     * Reports the total time spent in {@code operation}.
+     *
+     * @param operation
+     *            the operation
+     * @return the sum of the latencies, in nanoseconds
+     */
+    public long totalNanos(Operation operation) {
+        return this.timer(operation).totalNanos.sum();
+    }
+
+    /**
+     * Reports the longest call of {@code operation}.
+     *
+     * @param operation
+     *            the operation
+     * @return the largest latency, in nanoseconds, or 0 if there were no
+     *         calls
+     */
+    public long maxNanos(Operation operation) {
+        return this.timer(operation).maxNanos.get();
+    }
+
+    /**
+     * Reports the latency below which {@code quantile} of the calls of
+     * {@code operation} fall, to within the 12.5% precision of the buckets.
+     *
+     * @param operation
+     *            the operation
+     * @param quantile
+     *            the quantile
+     * @return the upper bound of the bucket holding that quantile, in
+     *         nanoseconds, never above {@code maxNanos(operation)}, or 0 if
+     *         there were no calls
+     * @requires 0 <= quantile <= 1
+     */
+    public long quantileNanos(Operation operation, double quantile) {
+        assert 0 <= quantile && quantile <= 1 : ""
+                + "Violation of: 0 <= quantile <= 1";
+
+        Timer timer = this.timer(operation);
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += timer.buckets.get(i);
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        int bucket = 0;
+        while (bucket < BUCKET_COUNT && seen < rank) {
+            seen += timer.buckets.get(bucket);
+            bucket++;
+        }
+        if (seen < rank) {
+            return 0;
+        }
+        return Math.min(upperBoundOf(bucket - 1), timer.maxNanos.get());
+    }
+
+    /**
+     * Renders the counters as text: one line per operation that has been
+     * called, giving its call count, characters processed, throughput, and
+     * mean, quantile and maximum latencies in microseconds.
+     *
+     * @return the snapshot
+     */
+    public String snapshot() {
+        StringBuilder sb = new StringBuilder();
+        for (Operation operation : Operation.values()) {
+            long count = this.count(operation);
+            if (count > 0) {
+                long length = this.length(operation);
+                long total = this.totalNanos(operation);
+                double charsPerSecond = 0;
+                if (total > 0) {
+                    charsPerSecond = length * NANOS_PER_SECOND / total;
+                }
+                sb.append(String.format(Locale.ROOT,
+                        "%s count=%d chars=%d chars/s=%.0f mean=%.1fus",
+                        operation.name().toLowerCase(Locale.ROOT), count,
+                        length, charsPerSecond,
+                        total / NANOS_PER_MICRO / count));
+                for (int i = 0; i < QUANTILES.length; i++) {
+                    sb.append(String.format(Locale.ROOT, " %s=%.1fus",
+                            QUANTILE_LABELS[i],
+                            this.quantileNanos(operation, QUANTILES[i])
+                                    / NANOS_PER_MICRO));
+                }
+                sb.append(String.format(Locale.ROOT, " max=%.1fus%n",
+                        this.maxNanos(operation) / NANOS_PER_MICRO));
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return this.snapshot();
+    }
+
+}
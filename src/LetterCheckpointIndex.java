@@ -0,0 +1,480 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Sparse index of how many letters precede every {@code interval}-th
+ * character of a text.
+ *
+ * <p>
+ * Key alignment in a Vigenere text depends only on how many letters came
+ * before a position, and encryption maps letters to letters, so the same index
+ * serves a plaintext and its ciphertext. With the index, the letter offset of
+ * any character is found by scanning at most {@code interval - 1} characters
+ * from the nearest checkpoint instead of everything before it, which makes
+ * random-access decryption O(interval + length) rather than O(file size).
+ * </p>
+ *
+ * <p>
+ * An index can be built in one scan of an existing text, or incrementally with
+ * a {@link Builder} fed the same chunks that are being encrypted. It is
+ * persisted next to the ciphertext with {@link #writeTo} and loaded again with
+ * {@link #readFrom}.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+public final class LetterCheckpointIndex {
+
+    /*
+     * Public members
+     */
+
+    /**
+     * Default distance, in characters, between checkpoints.
+     */
+    public static final int DEFAULT_INTERVAL = 64 * 1024;
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Marker written at the start of a persisted index ("VCIX").
+     */
+    private static final int MAGIC = 0x56434958;
+
+    /**
+     * Version of the persisted format.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Size of the buffer used when scanning a {@code Reader}.
+     */
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    /**
+     * Distance, in characters, between checkpoints.
+     */
+    private final int interval;
+
+    /**
+     * Number of characters in the indexed text.
+     */
+    private final long length;
+
+    /**
+     * Number of letters in the indexed text.
+     */
+    private final long letterCount;
+
+    /**
+     * {@code checkpoints[k]} is the number of letters before character
+     * {@code k * interval}.
+     */
+    private final long[] checkpoints;
+
+    /*
+     * Private helper methods
+     */
+
+    /**
+     * Checks if a character is a letter.
+     *
+     * @param c
+     *            the character to check
+     * @return true if the character is a letter, false otherwise
+     */
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * Constructor.
+     *
+     * @param interval
+     *            distance, in characters, between checkpoints
+     * @param length
+     *            number of characters in the indexed text
+     * @param letterCount
+     *            number of letters in the indexed text
+     * @param checkpoints
+     *            letter counts at every checkpoint
+     */
+    private LetterCheckpointIndex(int interval, long length, long letterCount,
+            long[] checkpoints) {
+        this.interval = interval;
+        this.length = length;
+        this.letterCount = letterCount;
+        this.checkpoints = checkpoints;
+    }
+
+    /*
+     * Factory methods
+     */
+
+    /**
+     * Builds an index of {@code text} with checkpoints every
+     * {@code DEFAULT_INTERVAL} characters.
+     *
+     * @param text
+     *            the text to index
+     * @return the index
+     * @requires text /= null
+     * @ensures build.length = |text|
+     */
+    public static LetterCheckpointIndex build(CharSequence text) {
+        return build(text, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Builds an index of {@code text} with checkpoints every {@code interval}
+     * characters.
+     *
+     * @param text
+     *            the text to index
+     * @param interval
+     *            distance, in characters, between checkpoints
+     * @return the index
+     * @requires text /= null and interval > 0
+     * @ensures build.length = |text|
+     */
+    public static LetterCheckpointIndex build(CharSequence text,
+            int interval) {
+        assert text != null : "Violation of: text is not null";
+
+        Builder builder = new Builder(interval);
+        builder.append(text);
+        return builder.build();
+    }
+
+    /**
+     * Builds an index of everything remaining in {@code in} with checkpoints
+     * every {@code interval} characters. The reader is not closed.
+     *
+     * @param in
+     *            the reader supplying the text
+     * @param interval
+     *            distance, in characters, between checkpoints
+     * @return the index
+     * @throws IOException
+     *             if reading fails
+     * @requires in /= null and interval > 0
+     */
+    public static LetterCheckpointIndex build(Reader in, int interval)
+            throws IOException {
+        assert in != null : "Violation of: in is not null";
+
+        Builder builder = new Builder(interval);
+        char[] buffer = new char[READ_BUFFER_SIZE];
+        int n = in.read(buffer, 0, buffer.length);
+        while (n >= 0) {
+            builder.append(buffer, 0, n);
+            n = in.read(buffer, 0, buffer.length);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Reads an index previously saved with {@link #writeTo}. The stream is not
+     * closed.
+     *
+     * @param in
+     *            the stream to read from
+     * @return the index
+     * @throws IOException
+     *             if reading fails or the data is not a saved index
+     * @requires in /= null
+     */
+    public static LetterCheckpointIndex readFrom(InputStream in)
+            throws IOException {
+        assert in != null : "Violation of: in is not null";
+
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a letter checkpoint index");
+        }
+        int version = data.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException(
+                    "Unsupported letter checkpoint index version " + version);
+        }
+        int interval = data.readInt();
+        long length = data.readLong();
+        long letterCount = data.readLong();
+        int count = data.readInt();
+        if (interval <= 0 || length < 0 || count != length / interval + 1) {
+            throw new IOException("Corrupt letter checkpoint index");
+        }
+        long[] checkpoints = new long[count];
+        for (int k = 0; k < count; k++) {
+            checkpoints[k] = data.readLong();
+        }
+        return new LetterCheckpointIndex(interval, length, letterCount,
+                checkpoints);
+    }
+
+    /*
+     * Public methods
+     */
+
+    /**
+     * Reports the distance, in characters, between checkpoints.
+     *
+     * @return the checkpoint interval
+     */
+    public int interval() {
+        return this.interval;
+    }
+
+    /**
+     * Reports the number of characters in the indexed text.
+     *
+     * @return the length of the indexed text
+     */
+    public long length() {
+        return this.length;
+    }
+
+    /**
+     * Reports the number of letters in the indexed text.
+     *
+     * @return the letter count of the indexed text
+     */
+    public long letterCount() {
+        return this.letterCount;
+    }
+
+    /**
+     * Reports the position of the last checkpoint at or before
+     * {@code offset}.
+     *
+     * @param offset
+     *            a character position in the indexed text
+     * @return the character position of the checkpoint
+     * @requires 0 <= offset <= this.length
+     * @ensures checkpointAtOrBefore = (offset / interval) * interval
+     */
+    public long checkpointAtOrBefore(long offset) {
+        assert 0 <= offset && offset <= this.length : ""
+                + "Violation of: 0 <= offset <= this.length";
+
+        return (offset / this.interval) * this.interval;
+    }
+
+    /**
+     * Reports the number of letters before the checkpoint returned by
+     * {@link #checkpointAtOrBefore}.
+     *
+     * @param offset
+     *            a character position in the indexed text
+     * @return the number of letters before that checkpoint
+     * @requires 0 <= offset <= this.length
+     */
+    public long lettersAtCheckpoint(long offset) {
+        assert 0 <= offset && offset <= this.length : ""
+                + "Violation of: 0 <= offset <= this.length";
+
+        return this.checkpoints[(int) (offset / this.interval)];
+    }
+
+    /**
+     * Reports the number of letters in {@code text[0, offset)}, scanning only
+     * from the nearest checkpoint.
+     *
+     * @param text
+     *            the indexed text, or its ciphertext or plaintext
+     * @param offset
+     *            a character position in {@code text}
+     * @return the number of letters before {@code offset}
+     * @requires text /= null and |text| = this.length and 0 <= offset <= |text|
+     * @ensures lettersBefore = LETTER_COUNT(text[0, offset))
+     */
+    public long lettersBefore(CharSequence text, int offset) {
+        assert text != null : "Violation of: text is not null";
+        assert text.length() == this.length : ""
+                + "Violation of: |text| = this.length";
+
+        long letters = this.lettersAtCheckpoint(offset);
+        int start = (int) this.checkpointAtOrBefore(offset);
+        for (int i = start; i < offset; i++) {
+            if (isLetter(text.charAt(i))) {
+                letters++;
+            }
+        }
+        return letters;
+    }
+
+    /**
+     * Saves this index so it can be loaded with {@link #readFrom}. The stream
+     * is flushed but not closed.
+     *
+     * @param out
+     *            the stream to write to
+     * @throws IOException
+     *             if writing fails
+     * @requires out /= null
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        assert out != null : "Violation of: out is not null";
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(this.interval);
+        data.writeLong(this.length);
+        data.writeLong(this.letterCount);
+        data.writeInt(this.checkpoints.length);
+        for (long checkpoint : this.checkpoints) {
+            data.writeLong(checkpoint);
+        }
+        data.flush();
+    }
+
+    /**
+     * Incremental builder for a {@code LetterCheckpointIndex}, fed the text in
+     * chunks as it is produced or encrypted.
+     */
+    public static final class Builder {
+
+        /**
+         * Initial capacity of the checkpoint array.
+         */
+        private static final int INITIAL_CAPACITY = 16;
+
+        /**
+         * Distance, in characters, between checkpoints.
+         */
+        private final int interval;
+
+        /**
+         * Number of characters appended so far.
+         */
+        private long length;
+
+        /**
+         * Number of letters appended so far.
+         */
+        private long letterCount;
+
+        /**
+         * Checkpoints recorded so far.
+         */
+        private long[] checkpoints;
+
+        /**
+         * Number of valid entries in {@code checkpoints}.
+         */
+        private int count;
+
+        /**
+         * Characters left before the next checkpoint.
+         */
+        private int untilCheckpoint;
+
+        /**
+         * Constructor.
+         *
+         * @param interval
+         *            distance, in characters, between checkpoints
+         * @requires interval > 0
+         */
+        public Builder(int interval) {
+            assert interval > 0 : "Violation of: interval > 0";
+
+            this.interval = interval;
+            this.length = 0;
+            this.letterCount = 0;
+            this.checkpoints = new long[INITIAL_CAPACITY];
+            this.checkpoints[0] = 0;
+            this.count = 1;
+            this.untilCheckpoint = interval;
+        }
+
+        /**
+         * Records a checkpoint at the current position.
+         */
+        private void addCheckpoint() {
+            if (this.count == this.checkpoints.length) {
+                this.checkpoints = Arrays.copyOf(this.checkpoints,
+                        2 * this.count);
+            }
+            this.checkpoints[this.count] = this.letterCount;
+            this.count++;
+            this.untilCheckpoint = this.interval;
+        }
+
+        /**
+         * Appends {@code length} characters of {@code buffer}.
+         *
+         * @param buffer
+         *            the array holding the text
+         * @param offset
+         *            the index of the first character
+         * @param length
+         *            the number of characters
+         * @updates this
+         * @requires buffer /= null and 0 <= offset and 0 <= length and offset +
+         *           length <= |buffer|
+         */
+        public void append(char[] buffer, int offset, int length) {
+            assert buffer != null : "Violation of: buffer is not null";
+
+            for (int i = offset; i < offset + length; i++) {
+                if (isLetter(buffer[i])) {
+                    this.letterCount++;
+                }
+                this.untilCheckpoint--;
+                if (this.untilCheckpoint == 0) {
+                    this.addCheckpoint();
+                }
+            }
+            this.length += length;
+        }
+
+        /**
+         * Appends all of {@code text}.
+         *
+         * @param text
+         *            the text
+         * @updates this
+         * @requires text /= null
+         */
+        public void append(CharSequence text) {
+            assert text != null : "Violation of: text is not null";
+
+            for (int i = 0; i < text.length(); i++) {
+                if (isLetter(text.charAt(i))) {
+                    this.letterCount++;
+                }
+                this.untilCheckpoint--;
+                if (this.untilCheckpoint == 0) {
+                    this.addCheckpoint();
+                }
+            }
+            this.length += text.length();
+        }
+
+        /**
+         * Returns the index of everything appended so far.
+         *
+         * @return the index
+         */
+        public LetterCheckpointIndex build() {
+            return new LetterCheckpointIndex(this.interval, this.length,
+                    this.letterCount,
+                    Arrays.copyOf(this.checkpoints, this.count));
+        }
+
+    }
+
+}
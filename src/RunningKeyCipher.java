@@ -0,0 +1,526 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Running-key Vigenere cipher: the key is the sequence of ASCII letters of a
+ * long key text, such as a book, used once each and never repeated.
+ *
+ * <p>
+ * The key text is streamed, never loaded: it is read from a {@code Reader}
+ * in 8 KB chunks, or from a file mapped with {@code FileChannel.map} one
+ * region at a time, so key texts of hundreds of megabytes cost one buffer of
+ * memory. Non-letters in the key text are skipped. Key letters are decoded
+ * into a block of shifts, and the message is transformed by the same
+ * branch-free {@code VigenereScalar} engine as a repeating key, run over
+ * that block with the block cursor as its letter offset; the block is
+ * refilled whenever the message has used it up.
+ * </p>
+ *
+ * <p>
+ * Like {@code CipherSession}, a {@code RunningKeyCipher} remembers how far
+ * into a message it is, so a message can be processed across several calls.
+ * Only ASCII letters are shifted and they come out in upper case unless case
+ * is preserved; every other character is copied unchanged and does not use
+ * a key letter. Running out of key text is reported with an
+ * {@code EOFException}.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+public final class RunningKeyCipher implements Closeable {
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Number of key shifts decoded at a time.
+     */
+    private static final int BLOCK_SIZE = 8192;
+
+    /**
+     * Number of bytes of a key file mapped at a time.
+     */
+    private static final int REGION_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Number of letters in the alphabet.
+     */
+    private static final int ALPHABET_SIZE = VigenereTables.ALPHABET_SIZE;
+
+    /**
+     * Mask turning a signed byte into its unsigned Latin-1 value.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * Source of key letters.
+     */
+    private interface KeySource extends Closeable {
+
+        /**
+         * Reads the next key letters, as alphabet indexes, into
+         * {@code indexes}.
+         *
+         * @param indexes
+         *            the array receiving the indexes
+         * @return the number of indexes read, less than {@code |indexes|}
+         *         only at the end of the key text
+         * @throws IOException
+         *             if the key text cannot be read
+         */
+        int read(byte[] indexes) throws IOException;
+
+    }
+
+    /**
+     * Key letters taken from a {@code Reader}.
+     */
+    private static final class ReaderKeySource implements KeySource {
+
+        /**
+         * The key text.
+         */
+        private final Reader in;
+
+        /**
+         * Characters read from {@code in} and not yet decoded.
+         */
+        private final char[] buffer = new char[BLOCK_SIZE];
+
+        /**
+         * Index of the next undecoded character in {@code buffer}.
+         */
+        private int next;
+
+        /**
+         * Number of characters in {@code buffer}.
+         */
+        private int limit;
+
+        /**
+         * Constructor.
+         *
+         * @param in
+         *            the key text
+         */
+        ReaderKeySource(Reader in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read(byte[] indexes) throws IOException {
+            int count = 0;
+            while (count < indexes.length) {
+                if (this.next == this.limit) {
+                    this.limit = this.in.read(this.buffer);
+                    this.next = 0;
+                    if (this.limit < 0) {
+                        this.limit = 0;
+                        break;
+                    }
+                }
+                char c = this.buffer[this.next];
+                this.next++;
+                if (isLetter(c)) {
+                    indexes[count] = VigenereTables.LATIN1_INDEX[c];
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.in.close();
+        }
+
+    }
+
+    /**
+     * Key letters taken from a memory-mapped ASCII/Latin-1 file.
+     */
+    private static final class MappedKeySource implements KeySource {
+
+        /**
+         * The key file.
+         */
+        private final FileChannel channel;
+
+        /**
+         * The mapped region being read, or null before the first one.
+         */
+        private MappedByteBuffer region;
+
+        /**
+         * File position of the first byte after {@code region}.
+         */
+        private long mapped;
+
+        /**
+         * Constructor.
+         *
+         * @param channel
+         *            the key file, open for reading
+         */
+        MappedKeySource(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read(byte[] indexes) throws IOException {
+            int count = 0;
+            while (count < indexes.length) {
+                if (this.region == null || !this.region.hasRemaining()) {
+                    long size = Math.min(REGION_SIZE,
+                            this.channel.size() - this.mapped);
+                    if (size <= 0) {
+                        break;
+                    }
+                    this.region = this.channel.map(
+                            FileChannel.MapMode.READ_ONLY, this.mapped, size);
+                    this.mapped += size;
+                }
+                int c = this.region.get() & BYTE_MASK;
+                if (isLetter((char) c)) {
+                    indexes[count] = VigenereTables.LATIN1_INDEX[c];
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+
+    }
+
+    /**
+     * Where the key letters come from.
+     */
+    private final KeySource source;
+
+    /**
+     * Whether this cipher encrypts or decrypts.
+     */
+    private final CipherMode mode;
+
+    /**
+     * The current block of key shifts; decryption stores inverse shifts.
+     */
+    private final byte[] block = new byte[BLOCK_SIZE];
+
+    /**
+     * Engine over {@code block}.
+     */
+    private final VigenereScalar engine;
+
+    /**
+     * Number of shifts in {@code block}.
+     */
+    private int blockLength;
+
+    /**
+     * Index in {@code block} of the shift for the next letter.
+     */
+    private int blockIndex;
+
+    /**
+     * Number of letters processed before the next character.
+     */
+    private long position;
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * Constructor.
+     *
+     * @param source
+     *            where the key letters come from
+     * @param mode
+     *            whether to encrypt or decrypt
+     * @param preserveCase
+     *            whether lower-case letters stay lower case
+     */
+    private RunningKeyCipher(KeySource source, CipherMode mode,
+            boolean preserveCase) {
+        this.source = source;
+        this.mode = mode;
+        this.engine = new VigenereScalar(this.block, preserveCase);
+        this.blockLength = 0;
+        this.blockIndex = 0;
+        this.position = 0;
+    }
+
+    /**
+     * Constructor. The letters of {@code keyText} are read as they are
+     * needed, and {@code keyText} is closed by {@link #close}.
+     *
+     * @param keyText
+     *            the key text
+     * @param mode
+     *            whether to encrypt or decrypt
+     * @requires keyText /= null and mode /= null
+     * @ensures position = 0
+     */
+    public RunningKeyCipher(Reader keyText, CipherMode mode) {
+        this(keyText, mode, false);
+    }
+
+    /**
+     * Constructor. The letters of {@code keyText} are read as they are
+     * needed, and {@code keyText} is closed by {@link #close}.
+     *
+     * @param keyText
+     *            the key text
+     * @param mode
+     *            whether to encrypt or decrypt
+     * @param preserveCase
+     *            whether lower-case letters stay lower case
+     * @requires keyText /= null and mode /= null
+     * @ensures position = 0
+     */
+    public RunningKeyCipher(Reader keyText, CipherMode mode,
+            boolean preserveCase) {
+        this(new ReaderKeySource(keyText), mode, preserveCase);
+        assert keyText != null : "Violation of: keyText is not null";
+        assert mode != null : "Violation of: mode is not null";
+    }
+
+    /*
+     * Private helper methods
+     */
+
+    /**
+     * Checks if a character is a letter.
+     *
+     * @param c
+     *            the character to check
+     * @return true if the character is a letter, false otherwise
+     */
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    /**
+     * Decodes the next block of key shifts.
+     *
+     * @throws IOException
+     *             if the key text cannot be read
+     */
+    private void refill() throws IOException {
+        this.blockLength = this.source.read(this.block);
+        this.blockIndex = 0;
+        if (this.mode == CipherMode.DECRYPT) {
+            for (int i = 0; i < this.blockLength; i++) {
+                this.block[i] = (byte) ((ALPHABET_SIZE - this.block[i])
+                        % ALPHABET_SIZE);
+            }
+        }
+    }
+
+    /*
+     * Public methods
+     */
+
+    /**
+     * Opens a running-key cipher whose key is the letters of an
+     * ASCII/Latin-1 file, mapped a region at a time as it is needed.
+     *
+     * @param keyFile
+     *            the key file
+     * @param mode
+     *            whether to encrypt or decrypt
+     * @return the cipher, which must be closed to release the file
+     * @throws IOException
+     *             if the key file cannot be opened
+     * @requires keyFile /= null and mode /= null
+     * @ensures open.position = 0
+     */
+    public static RunningKeyCipher open(Path keyFile, CipherMode mode)
+            throws IOException {
+        return open(keyFile, mode, false);
+    }
+
+    /**
+     * Opens a running-key cipher whose key is the letters of an
+     * ASCII/Latin-1 file, mapped a region at a time as it is needed.
+     *
+     * @param keyFile
+     *            the key file
+     * @param mode
+     *            whether to encrypt or decrypt
+     * @param preserveCase
+     *            whether lower-case letters stay lower case
+     * @return the cipher, which must be closed to release the file
+     * @throws IOException
+     *             if the key file cannot be opened
+     * @requires keyFile /= null and mode /= null
+     * @ensures open.position = 0
+     */
+    public static RunningKeyCipher open(Path keyFile, CipherMode mode,
+            boolean preserveCase) throws IOException {
+        assert keyFile != null : "Violation of: keyFile is not null";
+        assert mode != null : "Violation of: mode is not null";
+
+        FileChannel channel = FileChannel.open(keyFile,
+                StandardOpenOption.READ);
+        return new RunningKeyCipher(new MappedKeySource(channel), mode,
+                preserveCase);
+    }
+
+    /**
+     * Reports whether this cipher encrypts or decrypts.
+     *
+     * @return the mode of this cipher
+     */
+    public CipherMode mode() {
+        return this.mode;
+    }
+
+    /**
+     * Reports the number of letters processed so far, which is also the
+     * number of key letters used.
+     *
+     * @return the current letter position
+     */
+    public long position() {
+        return this.position;
+    }
+
+    /**
+     * Processes {@code length} characters of {@code src} into {@code dst},
+     * continuing from the current position. {@code src} and {@code dst} may
+     * be the same array as long as {@code srcOffset = dstOffset}.
+     *
+     * @param src
+     *            the array holding the input text
+     * @param srcOffset
+     *            the index of the first input character
+     * @param length
+     *            the number of characters to process
+     * @param dst
+     *            the array receiving the output text
+     * @param dstOffset
+     *            the index at which to store the first output character
+     * @return the number of letters processed
+     * @throws IOException
+     *             if the key text cannot be read
+     * @throws EOFException
+     *             if the key text has fewer letters than the text; the
+     *             characters before the first letter without a key letter
+     *             have been processed
+     * @updates this, dst
+     * @requires src /= null and dst /= null and 0 <= srcOffset and 0 <= length
+     *           and srcOffset + length <= |src| and 0 <= dstOffset and
+     *           dstOffset + length <= |dst|
+     * @ensures position = #position + update
+     */
+    public int update(char[] src, int srcOffset, int length, char[] dst,
+            int dstOffset) throws IOException {
+        assert src != null : "Violation of: src is not null";
+        assert dst != null : "Violation of: dst is not null";
+
+        long start = this.position;
+        int done = 0;
+        while (done < length) {
+            if (this.blockIndex == this.blockLength) {
+                this.refill();
+            }
+            int available = this.blockLength - this.blockIndex;
+            if (available == 0) {
+                /*
+                 * Out of key: only non-letters can still be copied.
+                 */
+                while (done < length && !isLetter(src[srcOffset + done])) {
+                    dst[dstOffset + done] = src[srcOffset + done];
+                    done++;
+                }
+                if (done < length) {
+                    throw new EOFException("running key exhausted after "
+                            + this.position + " letters");
+                }
+            } else {
+                /*
+                 * A run of at most |available| characters holds at most
+                 * |available| letters, so it never reads past the block.
+                 */
+                int runLength = Math.min(available, length - done);
+                long end = this.engine.transform(src, srcOffset + done,
+                        runLength, dst, dstOffset + done, this.blockIndex);
+                this.position += end - this.blockIndex;
+                this.blockIndex = (int) end;
+                done += runLength;
+            }
+        }
+        return (int) (this.position - start);
+    }
+
+    /**
+     * Processes {@code length} characters of {@code buffer} in place,
+     * continuing from the current position.
+     *
+     * @param buffer
+     *            the array holding the text
+     * @param offset
+     *            the index of the first character
+     * @param length
+     *            the number of characters to process
+     * @return the number of letters processed
+     * @throws IOException
+     *             if the key text cannot be read or has too few letters
+     * @updates this, buffer
+     * @requires buffer /= null and 0 <= offset and 0 <= length and offset +
+     *           length <= |buffer|
+     * @ensures position = #position + update
+     */
+    public int update(char[] buffer, int offset, int length)
+            throws IOException {
+        return this.update(buffer, offset, length, buffer, offset);
+    }
+
+    /**
+     * Processes {@code text}, continuing from the current position.
+     *
+     * @param text
+     *            the input text
+     * @return the output text
+     * @throws IOException
+     *             if the key text cannot be read or has too few letters
+     * @updates this
+     * @requires text /= null
+     * @ensures position = #position + LETTER_COUNT(text)
+     */
+    public String update(CharSequence text) throws IOException {
+        assert text != null : "Violation of: text is not null";
+
+        char[] buffer = new char[text.length()];
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = text.charAt(i);
+        }
+        this.update(buffer, 0, buffer.length);
+        return new String(buffer);
+    }
+
+    /**
+     * Closes the key text.
+     *
+     * @throws IOException
+     *             if the key text cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.source.close();
+    }
+
+}
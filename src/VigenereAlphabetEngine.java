@@ -0,0 +1,190 @@
+import components.sequence.Sequence;
+
+/**
+ * Vigenere engine for any {@code CipherAlphabet} other than
+ * {@code CipherAlphabet.LETTERS}.
+ *
+ * <p>
+ * Each character is looked up with {@code indexOf}; symbols are shifted by
+ * the next key index and mapped back with {@code charAt}, using a conditional
+ * subtraction instead of {@code %}, and everything else is copied unchanged.
+ * An engine is built once per key and direction; decryption engines hold the
+ * inverse shifts, so both directions run the same loop.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+final class VigenereAlphabetEngine {
+
+    /**
+     * Mask turning a signed byte into its unsigned value.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * The alphabet.
+     */
+    private final CipherAlphabet alphabet;
+
+    /**
+     * Shift applied by each key position, as unsigned bytes.
+     */
+    private final byte[] shifts;
+
+    /**
+     * Constructor.
+     *
+     * @param alphabet
+     *            the alphabet
+     * @param keyIndexes
+     *            the alphabet index of each key symbol, as from
+     *            {@link #indexesOf}
+     * @param decrypt
+     *            whether this engine decrypts
+     */
+    VigenereAlphabetEngine(CipherAlphabet alphabet, byte[] keyIndexes,
+            boolean decrypt) {
+        this.alphabet = alphabet;
+        if (decrypt) {
+            int size = alphabet.size();
+            this.shifts = new byte[keyIndexes.length];
+            for (int i = 0; i < keyIndexes.length; i++) {
+                this.shifts[i] = (byte) ((size - (keyIndexes[i] & BYTE_MASK))
+                        % size);
+            }
+        } else {
+            this.shifts = keyIndexes;
+        }
+    }
+
+    /**
+     * Returns the alphabet index of each symbol of {@code key}.
+     *
+     * @param alphabet
+     *            the alphabet
+     * @param key
+     *            the key
+     * @return the indexes, as unsigned bytes
+     * @requires every character of key is in alphabet
+     */
+    static byte[] indexesOf(CipherAlphabet alphabet, Sequence<Character> key) {
+        byte[] indexes = new byte[key.length()];
+        int i = 0;
+        for (char c : key) {
+            int index = alphabet.indexOf(c);
+            assert index >= 0 : ""
+                    + "Violation of: every character of key is in alphabet";
+            indexes[i] = (byte) index;
+            i++;
+        }
+        return indexes;
+    }
+
+    /**
+     * Shifts the symbol at {@code symbolIndex} by key position
+     * {@code keyIndex}.
+     *
+     * @param symbolIndex
+     *            the alphabet index of the input symbol
+     * @param keyIndex
+     *            the key position
+     * @return the shifted symbol
+     */
+    private char shift(int symbolIndex, int keyIndex) {
+        int index = symbolIndex + (this.shifts[keyIndex] & BYTE_MASK);
+        if (index >= this.alphabet.size()) {
+            index -= this.alphabet.size();
+        }
+        return this.alphabet.charAt(index);
+    }
+
+    /**
+     * Applies this engine to {@code length} characters of {@code src},
+     * storing the result in {@code dst}.
+     *
+     * @param src
+     *            the array holding the input text
+     * @param srcOffset
+     *            the index of the first input character
+     * @param length
+     *            the number of characters to process
+     * @param dst
+     *            the array receiving the output text; may be {@code src} if
+     *            {@code dstOffset = srcOffset}
+     * @param dstOffset
+     *            the index at which to store the first output character
+     * @param letterOffset
+     *            the number of symbols already processed before {@code src}
+     * @return {@code letterOffset} plus the number of symbols processed
+     */
+    long transform(char[] src, int srcOffset, int length, char[] dst,
+            int dstOffset, long letterOffset) {
+        int keyLength = this.shifts.length;
+        int keyIndex = (int) (letterOffset % keyLength);
+        int letterCount = 0;
+        for (int i = 0; i < length; i++) {
+            char ch = src[srcOffset + i];
+            int symbolIndex = this.alphabet.indexOf(ch);
+            if (symbolIndex >= 0) {
+                dst[dstOffset + i] = this.shift(symbolIndex, keyIndex);
+                letterCount++;
+                keyIndex++;
+                if (keyIndex == keyLength) {
+                    keyIndex = 0;
+                }
+            } else {
+                dst[dstOffset + i] = ch;
+            }
+        }
+        return letterOffset + letterCount;
+    }
+
+    /**
+     * Applies this engine to {@code text}, returning the result in a new
+     * sequence.
+     *
+     * @param text
+     *            the input text
+     * @return the output text
+     */
+    Sequence<Character> transform(Sequence<Character> text) {
+        Sequence<Character> result = text.newInstance();
+        int keyIndex = 0;
+        for (char ch : text) {
+            int symbolIndex = this.alphabet.indexOf(ch);
+            if (symbolIndex >= 0) {
+                result.add(result.length(),
+                        this.shift(symbolIndex, keyIndex));
+                keyIndex++;
+                if (keyIndex == this.shifts.length) {
+                    keyIndex = 0;
+                }
+            } else {
+                result.add(result.length(), ch);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Applies this engine to {@code text} in place.
+     *
+     * @param text
+     *            the text
+     */
+    void transformInPlace(Sequence<Character> text) {
+        int keyIndex = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.entry(i);
+            int symbolIndex = this.alphabet.indexOf(ch);
+            if (symbolIndex >= 0) {
+                text.replaceEntry(i, this.shift(symbolIndex, keyIndex));
+                keyIndex++;
+                if (keyIndex == this.shifts.length) {
+                    keyIndex = 0;
+                }
+            }
+        }
+    }
+
+}
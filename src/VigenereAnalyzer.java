@@ -0,0 +1,1515 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import components.sequence.Sequence;
+
+/**
+ * Estimates the key length of a Vigenere ciphertext, for auditing stored
+ * ciphertexts for weak keys.
+ *
+ * <p>
+ * Two classic statistics are gathered in a single pass over the letters of
+ * the text; everything else is ignored, as the cipher ignores it.
+ * </p>
+ *
+ * <ul>
+ * <li>Index of coincidence (Friedman): for a candidate period {@code p} the
+ * letters are split into {@code p} columns by {@code position mod p}, and
+ * the chance that two letters of the same column are equal is computed from
+ * per-column letter histograms. At the true key length (or a multiple of it)
+ * every column is a Caesar shift of English and scores about 0.066; other
+ * periods score close to the 0.038 of uniform text. Every period divides one
+ * of the periods above {@code maxPeriod / 2}, and those are grouped under a
+ * few common multiples; one histogram per multiple gives the columns of all
+ * its divisors, so each letter costs a handful of counter increments
+ * however many periods are scored.</li>
+ * <li>Kasiski examination: each letter trigram is encoded as an integer
+ * below {@code 26^3} and a table indexed by that code holds the position
+ * where it last ended, so a repeat is found with one load and its distance is
+ * tallied in a distance histogram. Repeats of the same plaintext under the
+ * same key alignment are a multiple of the key length apart, so
+ * {@link KeyLengthEstimate#kasiskiCount} of the true length stands out.</li>
+ * </ul>
+ *
+ * <p>
+ * A long text is scanned in chunks in parallel. Each chunk is primed with
+ * the trigrams of the {@code MAX_DISTANCE} letters before it, so every
+ * repeat that can be tallied is found exactly as in one pass, and the chunk
+ * histograms are merged by rotating each by the number of letters before
+ * its chunk.
+ * </p>
+ *
+ * <p>
+ * Once the key length is known, {@link #recoverKey} treats every key
+ * position as its own Caesar cipher: the letters of that column are
+ * histogrammed and each of the 26 possible key letters is scored by the
+ * chi-squared distance between the histogram, read rotated by that letter,
+ * and English letter frequencies. Histograms are built over chunks of the
+ * text in parallel and the columns are scored in parallel.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+public final class VigenereAnalyzer {
+
+    /*
+     * Public members
+     */
+
+    /**
+     * Largest period considered when none is given.
+     */
+    public static final int DEFAULT_MAX_PERIOD = 20;
+
+    /**
+     * Largest period that can be considered.
+     */
+    public static final int MAX_PERIOD = 64;
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Number of letters in the alphabet.
+     */
+    private static final int ALPHABET_SIZE = VigenereTables.ALPHABET_SIZE;
+
+    /**
+     * Number of distinct letter bigrams.
+     */
+    private static final int BIGRAMS = ALPHABET_SIZE * ALPHABET_SIZE;
+
+    /**
+     * Number of distinct letter trigrams.
+     */
+    private static final int TRIGRAMS = BIGRAMS * ALPHABET_SIZE;
+
+    /**
+     * Repeat distances, in letters, at or above this are not tallied.
+     */
+    private static final int MAX_DISTANCE = 1 << 16;
+
+    /**
+     * Index of coincidence of uniformly random letters.
+     */
+    private static final double RANDOM_IOC = 1.0 / ALPHABET_SIZE;
+
+    /**
+     * Fraction of the best score above {@code RANDOM_IOC} that a smaller
+     * period must reach to be preferred as the most likely key length.
+     */
+    private static final double LIKELY_FRACTION = 0.8;
+
+    /**
+     * Relative frequency of each letter in English text.
+     */
+    private static final double[] ENGLISH_FREQUENCIES = {0.08167, 0.01492,
+        0.02782, 0.04253, 0.12702, 0.02228, 0.02015, 0.06094, 0.06966,
+        0.00153, 0.00772, 0.04025, 0.02406, 0.06749, 0.07507, 0.01929,
+        0.00095, 0.05987, 0.06327, 0.09056, 0.02758, 0.00978, 0.02360,
+        0.00150, 0.01974, 0.00074 };
+
+    /**
+     * Mask of the low (Latin-1) byte of a character.
+     */
+    private static final int LATIN1_MASK = VigenereTables.LATIN1_SIZE - 1;
+
+    /**
+     * Shift moving the sign bit of an {@code int} to bit 0.
+     */
+    private static final int SIGN_SHIFT = Integer.SIZE - 1;
+
+    /**
+     * Smallest chunk, in characters, of a parallel key length estimate by
+     * default; every chunk holds about 1 MB of counters and is primed with
+     * {@code MAX_DISTANCE} letters, so chunks must be much larger than that.
+     */
+    private static final int MIN_ESTIMATE_CHUNK_SIZE = 1 << 22;
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private VigenereAnalyzer() {
+    }
+
+    /**
+     * Key-length statistics of one text.
+     */
+    public static final class KeyLengthEstimate {
+
+        /**
+         * Largest period considered.
+         */
+        private final int maxPeriod;
+
+        /**
+         * Number of letters in the text.
+         */
+        private final long letterCount;
+
+        /**
+         * Index of coincidence of each period; entry 0 is unused.
+         */
+        private final double[] indexOfCoincidence;
+
+        /**
+         * Number of trigram repeats whose distance is a multiple of each
+         * period; entry 0 is unused.
+         */
+        private final long[] kasiskiCount;
+
+        /**
+         * The periods, by decreasing index of coincidence.
+         */
+        private final int[] ranked;
+
+        /**
+         * Constructor.
+         *
+         * @param maxPeriod
+         *            largest period considered
+         * @param letterCount
+         *            number of letters in the text
+         * @param indexOfCoincidence
+         *            index of coincidence of each period
+         * @param kasiskiCount
+         *            trigram repeats at a multiple of each period
+         */
+        private KeyLengthEstimate(int maxPeriod, long letterCount,
+                double[] indexOfCoincidence, long[] kasiskiCount) {
+            this.maxPeriod = maxPeriod;
+            this.letterCount = letterCount;
+            this.indexOfCoincidence = indexOfCoincidence;
+            this.kasiskiCount = kasiskiCount;
+            this.ranked = new int[maxPeriod];
+            for (int i = 0; i < maxPeriod; i++) {
+                /*
+                 * Insertion sort: there are at most MAX_PERIOD entries, and
+                 * the strict comparison keeps smaller periods first on ties.
+                 */
+                int period = i + 1;
+                int j = i;
+                while (j > 0 && indexOfCoincidence[period]
+                        > indexOfCoincidence[this.ranked[j - 1]]) {
+                    this.ranked[j] = this.ranked[j - 1];
+                    j--;
+                }
+                this.ranked[j] = period;
+            }
+        }
+
+        /**
+         * Reports the largest period considered.
+         *
+         * @return the largest period
+         */
+        public int maxPeriod() {
+            return this.maxPeriod;
+        }
+
+        /**
+         * Reports the number of letters in the text.
+         *
+         * @return the letter count
+         */
+        public long letterCount() {
+            return this.letterCount;
+        }
+
+        /**
+         * Reports the index of coincidence of {@code period}: the chance
+         * that two letters drawn from the same column are equal.
+         *
+         * @param period
+         *            the period
+         * @return the index of coincidence, or 0 if no column has two letters
+         * @requires 1 <= period <= maxPeriod()
+         */
+        public double indexOfCoincidence(int period) {
+            assert 1 <= period && period <= this.maxPeriod : ""
+                    + "Violation of: 1 <= period <= maxPeriod()";
+
+            return this.indexOfCoincidence[period];
+        }
+
+        /**
+         * Reports the number of repeated trigrams, less than 65536 letters
+         * apart, whose distance is a multiple of {@code period}.
+         *
+         * @param period
+         *            the period
+         * @return the Kasiski count
+         * @requires 1 <= period <= maxPeriod()
+         */
+        public long kasiskiCount(int period) {
+            assert 1 <= period && period <= this.maxPeriod : ""
+                    + "Violation of: 1 <= period <= maxPeriod()";
+
+            return this.kasiskiCount[period];
+        }
+
+        /**
+         * Reports the periods from the highest index of coincidence to the
+         * lowest, smaller periods first on ties.
+         *
+         * @return the ranked periods
+         * @ensures |rankedPeriods| = maxPeriod()
+         */
+        public int[] rankedPeriods() {
+            return this.ranked.clone();
+        }
+
+        /**
+         * Reports the most likely key length: the smallest period whose index
+         * of coincidence is close to the best one, since every multiple of
+         * the key length scores as well as the key length itself.
+         *
+         * @return the most likely key length
+         * @ensures 1 <= mostLikelyPeriod <= maxPeriod()
+         */
+        public int mostLikelyPeriod() {
+            int best = this.ranked[0];
+            double bestExcess = this.indexOfCoincidence[best] - RANDOM_IOC;
+            int result = best;
+            if (bestExcess > 0) {
+                int period = 1;
+                while (this.indexOfCoincidence[period]
+                        - RANDOM_IOC < LIKELY_FRACTION * bestExcess) {
+                    period++;
+                }
+                result = period;
+            }
+            return result;
+        }
+
+    }
+
+    /**
+     * Statistics accumulated over the letters of a text.
+     *
+     * <p>
+     * Letters are packed as alphabet indexes into a block small enough to
+     * stay in the L1 cache, and each full block is tallied with one tight
+     * loop per histogram group and one for the trigrams. The periods above
+     * {@code maxPeriod / 2} are grouped so that the least common multiple of
+     * each group, its span, is at most {@code MAX_GROUP_SPAN}; a histogram
+     * indexed by {@code position mod span} serves every period dividing the
+     * span, so a letter costs one increment per group (three for
+     * {@code maxPeriod = 20}), and its rows are visited in order. Trigram
+     * codes are computed from the block rather than rolled from letter to
+     * letter, so no iteration waits on the previous one.
+     * </p>
+     *
+     * <p>
+     * The first {@code primed} letters, fed by {@link #prime}, only record
+     * where their trigrams end: they precede the part of the text this scan
+     * counts, and are neither histogrammed nor tallied as repeats. Positions
+     * of histogram rows start at the first letter after them.
+     * </p>
+     *
+     * @convention <pre>
+     * 0 <= primed <= tallied  and
+     * [hist[g] holds the count of each (position mod spans[g], letter) pair
+     *  among the tallied letters after the primed ones at index
+     *  (position mod spans[g]) * 26 + letter]  and
+     * rows[g] = ((tallied - primed) mod spans[g]) * 26  and
+     * [lastEnd[t] = position, mod 2^32, of the last letter of the latest
+     *  tallied occurrence of trigram t, or -MAX_DISTANCE]  and
+     * [distances[d] = number of trigram repeats d letters apart ending at a
+     *  tallied letter after the primed ones]  and
+     * 0 <= blockLength < BLOCK_SIZE  and
+     * [block[0, CARRY) holds the last CARRY tallied letters and
+     *  block[CARRY, CARRY + blockLength) the letters after them]
+     * </pre>
+     */
+    private static final class Scan {
+
+        /**
+         * Number of letters tallied at a time.
+         */
+        private static final int BLOCK_SIZE = 1 << 14;
+
+        /**
+         * Number of letters kept from the previous block so trigrams can
+         * span blocks.
+         */
+        private static final int CARRY = 2;
+
+        /**
+         * Largest span of a histogram group, in rows of 26 counters.
+         */
+        private static final int MAX_GROUP_SPAN = 1 << 12;
+
+        /**
+         * Largest period considered.
+         */
+        private final int maxPeriod;
+
+        /**
+         * Least common multiple of the periods of each histogram group.
+         */
+        private final int[] spans;
+
+        /**
+         * Histogram of each group.
+         */
+        private final int[][] hist;
+
+        /**
+         * Offset in each histogram of the row of the next letter.
+         */
+        private final int[] rows;
+
+        /**
+         * Position of the last letter of the latest occurrence of each
+         * trigram.
+         */
+        private final int[] lastEnd = new int[TRIGRAMS];
+
+        /**
+         * Number of trigram repeats at each distance.
+         */
+        private final int[] distances = new int[MAX_DISTANCE];
+
+        /**
+         * Alphabet indexes of the carried and untallied letters.
+         */
+        private final byte[] block = new byte[CARRY + BLOCK_SIZE];
+
+        /**
+         * Number of untallied letters in {@code block}.
+         */
+        private int blockLength;
+
+        /**
+         * Number of letters tallied.
+         */
+        private long tallied;
+
+        /**
+         * Number of tallied letters that only record trigram ends.
+         */
+        private long primed;
+
+        /**
+         * True while the letters added only record trigram ends.
+         */
+        private boolean priming;
+
+        /**
+         * Constructor.
+         *
+         * @param maxPeriod
+         *            largest period considered
+         */
+        Scan(int maxPeriod) {
+            this.maxPeriod = maxPeriod;
+            int[] groupSpans = new int[maxPeriod];
+            int groups = 0;
+            for (int period = maxPeriod; period > maxPeriod / 2; period--) {
+                int g = 0;
+                while (g < groups
+                        && lcm(groupSpans[g], period) > MAX_GROUP_SPAN) {
+                    g++;
+                }
+                if (g == groups) {
+                    groupSpans[g] = period;
+                    groups++;
+                } else {
+                    groupSpans[g] = (int) lcm(groupSpans[g], period);
+                }
+            }
+            this.spans = Arrays.copyOf(groupSpans, groups);
+            this.hist = new int[groups][];
+            for (int g = 0; g < groups; g++) {
+                this.hist[g] = new int[this.spans[g] * ALPHABET_SIZE];
+            }
+            this.rows = new int[groups];
+            Arrays.fill(this.lastEnd, -MAX_DISTANCE);
+        }
+
+        /**
+         * Returns the least common multiple of {@code a} and {@code b}.
+         *
+         * @param a
+         *            a positive integer
+         * @param b
+         *            a positive integer
+         * @return lcm(a, b)
+         */
+        private static long lcm(int a, int b) {
+            int x = a;
+            int y = b;
+            while (y != 0) {
+                int r = x % y;
+                x = y;
+                y = r;
+            }
+            return (long) a / x * b;
+        }
+
+        /**
+         * Adds the letters among the characters of {@code text} from
+         * {@code from} to {@code to}.
+         *
+         * @param text
+         *            the array holding the text
+         * @param from
+         *            the index of the first character
+         * @param to
+         *            the index after the last character
+         */
+        void addAll(char[] text, int from, int to) {
+            byte[] localBlock = this.block;
+            int n = this.blockLength;
+            for (int i = from; i < to; i++) {
+                /*
+                 * Every character is stored; only letters advance n, so the
+                 * loop has no data-dependent branch.
+                 */
+                int ch = text[i];
+                int latin1 = ch & LATIN1_MASK;
+                int isLatin1 = ((ch >>> Byte.SIZE) - 1) >>> SIGN_SHIFT;
+                localBlock[CARRY + n] = VigenereTables.LATIN1_INDEX[latin1];
+                n += VigenereTables.LATIN1_LETTER[latin1] & isLatin1;
+                if (n == BLOCK_SIZE) {
+                    this.blockLength = n;
+                    this.tally();
+                    n = 0;
+                }
+            }
+            this.blockLength = n;
+        }
+
+        /**
+         * Records where the trigrams among the characters of {@code text}
+         * from {@code from} to {@code to} end, without counting them, so
+         * that repeats of them in the letters added next are found.
+         *
+         * @param text
+         *            the array holding the text
+         * @param from
+         *            the index of the first character
+         * @param to
+         *            the index after the last character
+         * @requires no letter has been added
+         */
+        void prime(char[] text, int from, int to) {
+            assert this.tallied + this.blockLength == 0 : ""
+                    + "Violation of: no letter has been added";
+
+            this.priming = true;
+            this.addAll(text, from, to);
+            this.tally();
+            this.priming = false;
+            this.primed = this.tallied;
+        }
+
+        /**
+         * Adds {@code ch} if it is a letter.
+         *
+         * @param ch
+         *            the character
+         */
+        void add(char ch) {
+            if (isLetter(ch)) {
+                this.block[CARRY + this.blockLength] =
+                        VigenereTables.LATIN1_INDEX[ch];
+                this.blockLength++;
+                if (this.blockLength == BLOCK_SIZE) {
+                    this.tally();
+                }
+            }
+        }
+
+        /**
+         * Tallies the letters in {@code block} and empties it.
+         */
+        private void tally() {
+            byte[] letters = this.block;
+            int end = CARRY + this.blockLength;
+            int groups = this.hist.length;
+            if (this.priming) {
+                groups = 0;
+            }
+            for (int g = 0; g < groups; g++) {
+                int[] counts = this.hist[g];
+                int limit = this.spans[g] * ALPHABET_SIZE;
+                int row = this.rows[g];
+                for (int i = CARRY; i < end; i++) {
+                    counts[row + letters[i]]++;
+                    row += ALPHABET_SIZE;
+                    if (row == limit) {
+                        row = 0;
+                    }
+                }
+                this.rows[g] = row;
+            }
+
+            /*
+             * The first trigram of the text ends at its third letter.
+             */
+            int first = CARRY;
+            if (this.tallied < CARRY) {
+                first = (int) (2 * CARRY - this.tallied);
+            }
+            int[] localLastEnd = this.lastEnd;
+            int[] localDistances = this.distances;
+            int position = (int) this.tallied + first - CARRY;
+            if (this.priming) {
+                for (int i = first; i < end; i++) {
+                    int code = (letters[i - 2] * ALPHABET_SIZE
+                            + letters[i - 1]) * ALPHABET_SIZE + letters[i];
+                    localLastEnd[code] = position;
+                    position++;
+                }
+                first = end;
+            }
+            for (int i = first; i < end; i++) {
+                int code = (letters[i - 2] * ALPHABET_SIZE + letters[i - 1])
+                        * ALPHABET_SIZE + letters[i];
+                int distance = position - localLastEnd[code];
+                if (Integer.compareUnsigned(distance, MAX_DISTANCE) < 0) {
+                    localDistances[distance]++;
+                }
+                localLastEnd[code] = position;
+                position++;
+            }
+
+            System.arraycopy(letters, end - CARRY, letters, 0, CARRY);
+            this.tallied += this.blockLength;
+            this.blockLength = 0;
+        }
+
+        /**
+         * Tallies the letters not tallied yet.
+         */
+        void finish() {
+            this.tally();
+        }
+
+        /**
+         * Adds the counts of {@code next}, a scan of the letters right after
+         * those of this one, to this scan. Only {@link #estimate} may be
+         * called on this scan afterwards.
+         *
+         * @param next
+         *            the scan of the following letters
+         * @requires both scans are finished and have the same maxPeriod
+         */
+        void absorb(Scan next) {
+            assert this.blockLength == 0 && next.blockLength == 0 : ""
+                    + "Violation of: both scans are finished";
+            assert this.maxPeriod == next.maxPeriod : ""
+                    + "Violation of: both scans have the same maxPeriod";
+
+            long letters = this.tallied - this.primed;
+            long nextLetters = next.tallied - next.primed;
+            for (int g = 0; g < this.hist.length; g++) {
+                /*
+                 * Row 0 of next is the row of the first letter after this
+                 * scan's letters.
+                 */
+                int[] counts = this.hist[g];
+                int[] nextCounts = next.hist[g];
+                int limit = counts.length;
+                int j = (int) (letters % this.spans[g]) * ALPHABET_SIZE;
+                for (int i = 0; i < limit; i++) {
+                    counts[j] += nextCounts[i];
+                    j++;
+                    if (j == limit) {
+                        j = 0;
+                    }
+                }
+                this.rows[g] = (int) ((letters + nextLetters)
+                        % this.spans[g]) * ALPHABET_SIZE;
+            }
+            for (int d = 0; d < MAX_DISTANCE; d++) {
+                this.distances[d] += next.distances[d];
+            }
+            this.tallied += nextLetters;
+        }
+
+        /**
+         * Turns the accumulated counts into an estimate.
+         *
+         * @return the estimate
+         */
+        KeyLengthEstimate estimate() {
+            this.tally();
+            double[] ioc = new double[this.maxPeriod + 1];
+            long[] kasiski = new long[this.maxPeriod + 1];
+            long[] column = new long[ALPHABET_SIZE];
+            for (int period = 1; period <= this.maxPeriod; period++) {
+                /*
+                 * The largest multiple of period not above maxPeriod is
+                 * above maxPeriod / 2, so some group's span is a multiple of
+                 * period and rows r, r + period, ... of its histogram make
+                 * up column r of period.
+                 */
+                int g = 0;
+                while (this.spans[g] % period != 0) {
+                    g++;
+                }
+                int[] counts = this.hist[g];
+                long coincidences = 0;
+                long pairs = 0;
+                for (int r = 0; r < period; r++) {
+                    Arrays.fill(column, 0);
+                    for (int s = r; s < this.spans[g]; s += period) {
+                        for (int c = 0; c < ALPHABET_SIZE; c++) {
+                            column[c] += counts[s * ALPHABET_SIZE + c];
+                        }
+                    }
+                    long n = 0;
+                    for (int c = 0; c < ALPHABET_SIZE; c++) {
+                        coincidences += column[c] * (column[c] - 1);
+                        n += column[c];
+                    }
+                    pairs += n * (n - 1);
+                }
+                if (pairs > 0) {
+                    ioc[period] = (double) coincidences / pairs;
+                }
+
+                for (int d = period; d < MAX_DISTANCE; d += period) {
+                    kasiski[period] += this.distances[d];
+                }
+            }
+            return new KeyLengthEstimate(this.maxPeriod,
+                    this.tallied - this.primed, ioc, kasiski);
+        }
+
+    }
+
+    /**
+     * A key length estimate of one text split into fixed-size chunks, each
+     * scanned on its own.
+     */
+    private static final class EstimateJob {
+
+        /**
+         * Number of letters before a chunk that its scan is primed with: the
+         * letters of every trigram ending less than {@code MAX_DISTANCE}
+         * letters before the first letter of the chunk.
+         */
+        private static final int PRIMING_LETTERS = MAX_DISTANCE + 1;
+
+        /**
+         * The text.
+         */
+        private final char[] text;
+
+        /**
+         * Index of the first character of the text.
+         */
+        private final int offset;
+
+        /**
+         * Number of characters of the text.
+         */
+        private final int length;
+
+        /**
+         * Largest period considered.
+         */
+        private final int maxPeriod;
+
+        /**
+         * Number of characters per chunk.
+         */
+        private final int chunkSize;
+
+        /**
+         * Constructor.
+         *
+         * @param text
+         *            the text
+         * @param offset
+         *            index of the first character
+         * @param length
+         *            number of characters
+         * @param maxPeriod
+         *            largest period considered
+         * @param chunkSize
+         *            number of characters per chunk
+         */
+        EstimateJob(char[] text, int offset, int length, int maxPeriod,
+                int chunkSize) {
+            this.text = text;
+            this.offset = offset;
+            this.length = length;
+            this.maxPeriod = maxPeriod;
+            this.chunkSize = chunkSize;
+        }
+
+        /**
+         * Reports the number of chunks.
+         *
+         * @return the number of chunks
+         */
+        int units() {
+            return Math.max(1,
+                    (int) (((long) this.length + this.chunkSize - 1)
+                            / this.chunkSize));
+        }
+
+        /**
+         * Scans chunk {@code k}, primed with the letters before it.
+         *
+         * @param k
+         *            the chunk number
+         * @return the finished scan of the chunk
+         */
+        Scan scanChunk(int k) {
+            int start = this.offset + k * this.chunkSize;
+            int end = start + Math.min(this.chunkSize,
+                    this.offset + this.length - start);
+            int primeStart = start;
+            int letters = 0;
+            while (primeStart > this.offset && letters < PRIMING_LETTERS) {
+                primeStart--;
+                if (isLetter(this.text[primeStart])) {
+                    letters++;
+                }
+            }
+            Scan scan = new Scan(this.maxPeriod);
+            scan.prime(this.text, primeStart, start);
+            scan.addAll(this.text, start, end);
+            scan.finish();
+            return scan;
+        }
+
+    }
+
+    /**
+     * Task that scans the chunks {@code [lo, hi)} of an {@code EstimateJob},
+     * splitting in half until a single chunk is left, and merges the scans.
+     */
+    private static final class EstimateTask extends RecursiveTask<Scan> {
+
+        /**
+         * Serialization version, required because {@code RecursiveTask} is
+         * {@code Serializable}.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The job this task belongs to.
+         */
+        private final transient EstimateJob job;
+
+        /**
+         * First chunk handled by this task.
+         */
+        private final int lo;
+
+        /**
+         * One past the last chunk handled by this task.
+         */
+        private final int hi;
+
+        /**
+         * Constructor.
+         *
+         * @param job
+         *            the job this task belongs to
+         * @param lo
+         *            first chunk handled by this task
+         * @param hi
+         *            one past the last chunk handled by this task
+         */
+        EstimateTask(EstimateJob job, int lo, int hi) {
+            this.job = job;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Scan compute() {
+            Scan result;
+            if (this.hi - this.lo > 1) {
+                int mid = (this.lo + this.hi) >>> 1;
+                EstimateTask left = new EstimateTask(this.job, this.lo, mid);
+                EstimateTask right = new EstimateTask(this.job, mid, this.hi);
+                invokeAll(left, right);
+                result = left.join();
+                result.absorb(right.join());
+            } else {
+                result = this.job.scanChunk(this.lo);
+            }
+            return result;
+        }
+
+    }
+
+    /**
+     * Most likely key of one text for a given key length, with every key
+     * letter ranked at each position.
+     */
+    public static final class KeyRecovery {
+
+        /**
+         * Chi-squared statistic of each (position, key letter) pair at index
+         * {@code position * 26 + letter}.
+         */
+        private final double[] chiSquared;
+
+        /**
+         * Key letters of each position from the best fit to the worst, at
+         * index {@code position * 26 + rank}.
+         */
+        private final char[] ranked;
+
+        /**
+         * Number of letters in the text.
+         */
+        private final long letterCount;
+
+        /**
+         * Constructor.
+         *
+         * @param chiSquared
+         *            chi-squared statistic of each (position, key letter)
+         * @param ranked
+         *            key letters of each position, best first
+         * @param letterCount
+         *            number of letters in the text
+         */
+        private KeyRecovery(double[] chiSquared, char[] ranked,
+                long letterCount) {
+            this.chiSquared = chiSquared;
+            this.ranked = ranked;
+            this.letterCount = letterCount;
+        }
+
+        /**
+         * Reports the key length the key was recovered for.
+         *
+         * @return the key length
+         */
+        public int keyLength() {
+            return this.ranked.length / ALPHABET_SIZE;
+        }
+
+        /**
+         * Reports the number of letters in the text.
+         *
+         * @return the letter count
+         */
+        public long letterCount() {
+            return this.letterCount;
+        }
+
+        /**
+         * Reports whether some key position had no letters to score, because
+         * the text has fewer letters than the key length. The key letter of
+         * such a position is a placeholder {@code 'A'}, its candidates are in
+         * letter order and every chi-squared statistic of it is 0.
+         *
+         * @return true iff letterCount() < keyLength()
+         */
+        public boolean isLowConfidence() {
+            return this.letterCount < this.keyLength();
+        }
+
+        /**
+         * Reports the most likely key: the best-fitting letter at every
+         * position.
+         *
+         * @return the key, in upper case
+         * @ensures |key| = keyLength()
+         */
+        public String key() {
+            char[] key = new char[this.keyLength()];
+            for (int i = 0; i < key.length; i++) {
+                key[i] = this.ranked[i * ALPHABET_SIZE];
+            }
+            return new String(key);
+        }
+
+        /**
+         * Reports the key letters for {@code position} from the best fit to
+         * the worst.
+         *
+         * @param position
+         *            the key position
+         * @return the 26 upper-case letters, ranked
+         * @requires 0 <= position < keyLength()
+         */
+        public char[] candidates(int position) {
+            assert 0 <= position && position < this.keyLength() : ""
+                    + "Violation of: 0 <= position < keyLength()";
+
+            return Arrays.copyOfRange(this.ranked, position * ALPHABET_SIZE,
+                    (position + 1) * ALPHABET_SIZE);
+        }
+
+        /**
+         * Reports how far the letters of column {@code position}, decrypted
+         * with {@code keyLetter}, are from English letter frequencies; lower
+         * is a better fit.
+         *
+         * @param position
+         *            the key position
+         * @param keyLetter
+         *            the key letter, in either case
+         * @return the chi-squared statistic
+         * @requires 0 <= position < keyLength() and keyLetter is a letter
+         */
+        public double chiSquared(int position, char keyLetter) {
+            assert 0 <= position && position < this.keyLength() : ""
+                    + "Violation of: 0 <= position < keyLength()";
+            assert isLetter(keyLetter) : "Violation of: keyLetter is a letter";
+
+            return this.chiSquared[position * ALPHABET_SIZE
+                    + VigenereTables.LATIN1_INDEX[keyLetter]];
+        }
+
+    }
+
+    /**
+     * State shared by every task of one key recovery.
+     *
+     * <p>
+     * The text is split into fixed-size chunks. The first pass builds, for
+     * every chunk, a histogram of its letters by their position relative to
+     * the first letter of the chunk, modulo the key length, and counts them.
+     * A prefix sum of the counts then says which key column each chunk
+     * starts in, so the chunk histograms are merged into the key-column
+     * histograms by rotation, without a second look at the text. The second
+     * pass scores every column.
+     * </p>
+     */
+    private static final class RecoveryJob {
+
+        /**
+         * The text.
+         */
+        private final char[] text;
+
+        /**
+         * Index of the first character of the text.
+         */
+        private final int offset;
+
+        /**
+         * Number of characters of the text.
+         */
+        private final int length;
+
+        /**
+         * Number of characters per chunk.
+         */
+        private final int chunkSize;
+
+        /**
+         * The key length.
+         */
+        private final int keyLength;
+
+        /**
+         * Relative-column histogram of each chunk during the first pass.
+         */
+        private final int[][] chunkHist;
+
+        /**
+         * Number of letters in each chunk.
+         */
+        private final long[] chunkLetters;
+
+        /**
+         * Histogram of each key column, at index {@code column * 26 +
+         * letter}.
+         */
+        private final long[] columnHist;
+
+        /**
+         * Chi-squared statistic of each (column, key letter).
+         */
+        private final double[] chiSquared;
+
+        /**
+         * Key letters of each column, best first.
+         */
+        private final char[] ranked;
+
+        /**
+         * True during the histogram pass, false during the scoring pass.
+         */
+        private boolean counting;
+
+        /**
+         * Constructor.
+         *
+         * @param text
+         *            the text
+         * @param offset
+         *            index of the first character
+         * @param length
+         *            number of characters
+         * @param keyLength
+         *            the key length
+         * @param chunkSize
+         *            number of characters per chunk
+         */
+        RecoveryJob(char[] text, int offset, int length, int keyLength,
+                int chunkSize) {
+            this.text = text;
+            this.offset = offset;
+            this.length = length;
+            this.keyLength = keyLength;
+            this.chunkSize = chunkSize;
+            int chunks = Math.max(1, (length + chunkSize - 1) / chunkSize);
+            this.chunkHist = new int[chunks][];
+            this.chunkLetters = new long[chunks];
+            this.columnHist = new long[keyLength * ALPHABET_SIZE];
+            this.chiSquared = new double[keyLength * ALPHABET_SIZE];
+            this.ranked = new char[keyLength * ALPHABET_SIZE];
+            this.counting = true;
+        }
+
+        /**
+         * Reports the number of units of work in the current pass.
+         *
+         * @return the number of chunks or of columns
+         */
+        int units() {
+            int units = this.keyLength;
+            if (this.counting) {
+                units = this.chunkHist.length;
+            }
+            return units;
+        }
+
+        /**
+         * Runs the current pass on chunk or column {@code k}.
+         *
+         * @param k
+         *            the chunk or column number
+         */
+        void runUnit(int k) {
+            if (this.counting) {
+                this.countChunk(k);
+            } else {
+                this.scoreColumn(k);
+            }
+        }
+
+        /**
+         * Builds the relative-column histogram of chunk {@code k}.
+         *
+         * @param k
+         *            the chunk number
+         */
+        private void countChunk(int k) {
+            int start = this.offset + k * this.chunkSize;
+            int end = Math.min(start + this.chunkSize,
+                    this.offset + this.length);
+            int[] counts = new int[this.keyLength * ALPHABET_SIZE];
+            int limit = counts.length;
+            int row = 0;
+            long letters = 0;
+            for (int i = start; i < end; i++) {
+                char ch = this.text[i];
+                if (isLetter(ch)) {
+                    counts[row + VigenereTables.LATIN1_INDEX[ch]]++;
+                    row += ALPHABET_SIZE;
+                    if (row == limit) {
+                        row = 0;
+                    }
+                    letters++;
+                }
+            }
+            this.chunkHist[k] = counts;
+            this.chunkLetters[k] = letters;
+        }
+
+        /**
+         * Merges the chunk histograms into the column histograms, rotating
+         * each by the number of letters before its chunk.
+         *
+         * @return the number of letters in the text
+         */
+        long merge() {
+            long before = 0;
+            for (int k = 0; k < this.chunkHist.length; k++) {
+                int[] counts = this.chunkHist[k];
+                int column = (int) (before % this.keyLength);
+                for (int j = 0; j < this.keyLength; j++) {
+                    for (int c = 0; c < ALPHABET_SIZE; c++) {
+                        this.columnHist[column * ALPHABET_SIZE + c] +=
+                                counts[j * ALPHABET_SIZE + c];
+                    }
+                    column++;
+                    if (column == this.keyLength) {
+                        column = 0;
+                    }
+                }
+                this.chunkHist[k] = null;
+                before += this.chunkLetters[k];
+            }
+            this.counting = false;
+            return before;
+        }
+
+        /**
+         * Scores all 26 key letters of column {@code k} and ranks them.
+         *
+         * @param k
+         *            the column number
+         */
+        private void scoreColumn(int k) {
+            int base = k * ALPHABET_SIZE;
+            long n = 0;
+            for (int c = 0; c < ALPHABET_SIZE; c++) {
+                n += this.columnHist[base + c];
+            }
+            if (n == 0) {
+                /*
+                 * A column with no letters (text with fewer letters than the
+                 * key length) gives no evidence: every key letter scores 0
+                 * instead of 0/0, and the ranking stays in letter order.
+                 */
+                for (int shift = 0; shift < ALPHABET_SIZE; shift++) {
+                    this.chiSquared[base + shift] = 0;
+                    this.ranked[base + shift] = (char) ('A' + shift);
+                }
+                return;
+            }
+            for (int shift = 0; shift < ALPHABET_SIZE; shift++) {
+                /*
+                 * Under key letter shift, plaintext letter c was enciphered
+                 * as (c + shift) mod 26: the histogram is read rotated
+                 * instead of decrypting the column.
+                 */
+                double chi = 0;
+                int observedIndex = shift;
+                for (int c = 0; c < ALPHABET_SIZE; c++) {
+                    double expected = n * ENGLISH_FREQUENCIES[c];
+                    double diff = this.columnHist[base + observedIndex]
+                            - expected;
+                    chi += diff * diff / expected;
+                    observedIndex++;
+                    if (observedIndex == ALPHABET_SIZE) {
+                        observedIndex = 0;
+                    }
+                }
+                this.chiSquared[base + shift] = chi;
+
+                /*
+                 * Insertion into the ranking; the strict comparison keeps
+                 * earlier letters first on ties.
+                 */
+                int j = shift;
+                while (j > 0 && chi < this.chiSquared[base
+                        + this.ranked[base + j - 1] - 'A']) {
+                    this.ranked[base + j] = this.ranked[base + j - 1];
+                    j--;
+                }
+                this.ranked[base + j] = (char) ('A' + shift);
+            }
+        }
+
+    }
+
+    /**
+     * Task that runs the current pass of a {@code RecoveryJob} on the units
+     * {@code [lo, hi)}, splitting in half until a single unit is left.
+     */
+    private static final class RecoveryTask extends RecursiveAction {
+
+        /**
+         * Serialization version, required because {@code RecursiveAction} is
+         * {@code Serializable}.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The job this task belongs to.
+         */
+        private final transient RecoveryJob job;
+
+        /**
+         * First unit handled by this task.
+         */
+        private final int lo;
+
+        /**
+         * One past the last unit handled by this task.
+         */
+        private final int hi;
+
+        /**
+         * Constructor.
+         *
+         * @param job
+         *            the job this task belongs to
+         * @param lo
+         *            first unit handled by this task
+         * @param hi
+         *            one past the last unit handled by this task
+         */
+        RecoveryTask(RecoveryJob job, int lo, int hi) {
+            this.job = job;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.hi - this.lo > 1) {
+                int mid = (this.lo + this.hi) >>> 1;
+                invokeAll(new RecoveryTask(this.job, this.lo, mid),
+                        new RecoveryTask(this.job, mid, this.hi));
+            } else {
+                this.job.runUnit(this.lo);
+            }
+        }
+
+    }
+
+    /*
+     * Private helper methods
+     */
+
+    /**
+     * Checks if a character is a letter.
+     *
+     * @param c
+     *            the character to check
+     * @return true if the character is a letter, false otherwise
+     */
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    /*
+     * Public methods
+     */
+
+    /**
+     * Estimates the key length of {@code length} characters of {@code text},
+     * considering periods 1 to {@code maxPeriod}, on the common pool. A text
+     * of several million characters is split into one chunk per thread of
+     * the pool.
+     *
+     * @param text
+     *            the array holding the ciphertext
+     * @param offset
+     *            the index of the first character
+     * @param length
+     *            the number of characters
+     * @param maxPeriod
+     *            the largest period considered
+     * @return the estimate
+     * @requires text /= null and 0 <= offset and 0 <= length and offset +
+     *           length <= |text| and 1 <= maxPeriod <= MAX_PERIOD
+     * @ensures estimateKeyLength.maxPeriod() = maxPeriod and
+     *          estimateKeyLength.letterCount() = LETTER_COUNT(text[offset,
+     *          offset + length))
+     */
+    public static KeyLengthEstimate estimateKeyLength(char[] text, int offset,
+            int length, int maxPeriod) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int chunkSize = Math.max(MIN_ESTIMATE_CHUNK_SIZE,
+                length / pool.getParallelism() + 1);
+        return estimateKeyLength(text, offset, length, maxPeriod, pool,
+                chunkSize);
+    }
+
+    /**
+     * Estimates the key length of {@code length} characters of {@code text},
+     * considering periods 1 to {@code maxPeriod}, on {@code pool}. The text is
+     * scanned in chunks of {@code chunkSize} characters in parallel and the
+     * counts are merged; the estimate is the same for every chunk size. A
+     * text of at most one chunk is handled entirely in the calling thread.
+     *
+     * @param text
+     *            the array holding the ciphertext
+     * @param offset
+     *            the index of the first character
+     * @param length
+     *            the number of characters
+     * @param maxPeriod
+     *            the largest period considered
+     * @param pool
+     *            the pool running the tasks
+     * @param chunkSize
+     *            number of characters handled by one task
+     * @return the estimate
+     * @requires text /= null and 0 <= offset and 0 <= length and offset +
+     *           length <= |text| and 1 <= maxPeriod <= MAX_PERIOD and
+     *           pool /= null and chunkSize > 0
+     * @ensures estimateKeyLength.maxPeriod() = maxPeriod and
+     *          estimateKeyLength.letterCount() = LETTER_COUNT(text[offset,
+     *          offset + length))
+     */
+    public static KeyLengthEstimate estimateKeyLength(char[] text, int offset,
+            int length, int maxPeriod, ForkJoinPool pool, int chunkSize) {
+        assert text != null : "Violation of: text is not null";
+        assert 1 <= maxPeriod && maxPeriod <= MAX_PERIOD : ""
+                + "Violation of: 1 <= maxPeriod <= MAX_PERIOD";
+        assert pool != null : "Violation of: pool is not null";
+        assert chunkSize > 0 : "Violation of: chunkSize > 0";
+
+        EstimateJob job = new EstimateJob(text, offset, length, maxPeriod,
+                chunkSize);
+        Scan scan;
+        if (length > chunkSize) {
+            scan = pool.invoke(new EstimateTask(job, 0, job.units()));
+        } else {
+            scan = job.scanChunk(0);
+        }
+        return scan.estimate();
+    }
+
+    /**
+     * Estimates the key length of {@code text}, considering periods 1 to
+     * {@code DEFAULT_MAX_PERIOD}.
+     *
+     * @param text
+     *            the ciphertext
+     * @return the estimate
+     * @requires text /= null
+     * @ensures estimateKeyLength.maxPeriod() = DEFAULT_MAX_PERIOD
+     */
+    public static KeyLengthEstimate estimateKeyLength(char[] text) {
+        return estimateKeyLength(text, 0, text.length, DEFAULT_MAX_PERIOD);
+    }
+
+    /**
+     * Estimates the key length of {@code text}, considering periods 1 to
+     * {@code maxPeriod}.
+     *
+     * @param text
+     *            the ciphertext
+     * @param maxPeriod
+     *            the largest period considered
+     * @return the estimate
+     * @requires text /= null and 1 <= maxPeriod <= MAX_PERIOD
+     * @ensures estimateKeyLength.maxPeriod() = maxPeriod and
+     *          estimateKeyLength.letterCount() = LETTER_COUNT(text)
+     */
+    public static KeyLengthEstimate estimateKeyLength(
+            Sequence<Character> text, int maxPeriod) {
+        assert text != null : "Violation of: text is not null";
+        assert 1 <= maxPeriod && maxPeriod <= MAX_PERIOD : ""
+                + "Violation of: 1 <= maxPeriod <= MAX_PERIOD";
+
+        Scan scan = new Scan(maxPeriod);
+        for (char ch : text) {
+            scan.add(ch);
+        }
+        return scan.estimate();
+    }
+
+    /**
+     * Estimates the key length of {@code text}, considering periods 1 to
+     * {@code DEFAULT_MAX_PERIOD}.
+     *
+     * @param text
+     *            the ciphertext
+     * @return the estimate
+     * @requires text /= null
+     * @ensures estimateKeyLength.maxPeriod() = DEFAULT_MAX_PERIOD
+     */
+    public static KeyLengthEstimate estimateKeyLength(
+            Sequence<Character> text) {
+        return estimateKeyLength(text, DEFAULT_MAX_PERIOD);
+    }
+
+    /**
+     * Recovers the most likely key of length {@code keyLength} for
+     * {@code length} characters of {@code text} on {@code pool}. Column
+     * histograms are built over chunks of {@code chunkSize} characters in
+     * parallel, then every key letter of every column is scored against
+     * English letter frequencies in parallel. A text of at most one chunk is
+     * handled entirely in the calling thread, so batches of short texts are
+     * best spread over the pool by the caller.
+     *
+     * @param text
+     *            the array holding the ciphertext
+     * @param offset
+     *            the index of the first character
+     * @param length
+     *            the number of characters
+     * @param keyLength
+     *            the key length, as from
+     *            {@link KeyLengthEstimate#mostLikelyPeriod}
+     * @param pool
+     *            the pool running the tasks
+     * @param chunkSize
+     *            number of characters handled by one task
+     * @return the recovered key and the ranked alternatives
+     * @requires text /= null and 0 <= offset and 0 <= length and offset +
+     *           length <= |text| and keyLength > 0 and pool /= null and
+     *           chunkSize > 0
+     * @ensures recoverKey.keyLength() = keyLength and
+     *          recoverKey.letterCount() = LETTER_COUNT(text[offset, offset +
+     *          length))
+     */
+    public static KeyRecovery recoverKey(char[] text, int offset, int length,
+            int keyLength, ForkJoinPool pool, int chunkSize) {
+        assert text != null : "Violation of: text is not null";
+        assert keyLength > 0 : "Violation of: keyLength > 0";
+        assert pool != null : "Violation of: pool is not null";
+        assert chunkSize > 0 : "Violation of: chunkSize > 0";
+
+        RecoveryJob job = new RecoveryJob(text, offset, length, keyLength,
+                chunkSize);
+        boolean parallel = length > chunkSize;
+        if (parallel) {
+            pool.invoke(new RecoveryTask(job, 0, job.units()));
+        } else {
+            job.runUnit(0);
+        }
+        long letterCount = job.merge();
+        if (parallel) {
+            pool.invoke(new RecoveryTask(job, 0, job.units()));
+        } else {
+            for (int k = 0; k < keyLength; k++) {
+                job.runUnit(k);
+            }
+        }
+        return new KeyRecovery(job.chiSquared, job.ranked, letterCount);
+    }
+
+    /**
+     * Recovers the most likely key of length {@code keyLength} for
+     * {@code text} on the common pool.
+     *
+     * @param text
+     *            the ciphertext
+     * @param keyLength
+     *            the key length
+     * @return the recovered key and the ranked alternatives
+     * @requires text /= null and keyLength > 0
+     * @ensures recoverKey.keyLength() = keyLength
+     */
+    public static KeyRecovery recoverKey(char[] text, int keyLength) {
+        return recoverKey(text, 0, text.length, keyLength,
+                ForkJoinPool.commonPool(),
+                VigenereParallelCipher.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Recovers the most likely key of {@code text}, for the key length
+     * reported by {@link #estimateKeyLength(char[])}, on the common pool.
+     *
+     * @param text
+     *            the ciphertext
+     * @return the recovered key and the ranked alternatives
+     * @requires text /= null
+     * @ensures recoverKey.keyLength() =
+     *          estimateKeyLength(text).mostLikelyPeriod()
+     */
+    public static KeyRecovery recoverKey(char[] text) {
+        return recoverKey(text,
+                estimateKeyLength(text).mostLikelyPeriod());
+    }
+
+}
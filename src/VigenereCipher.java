@@ -1,3 +1,5 @@
+import java.util.List;
+
 import components.sequence.Sequence;
 
 /**
@@ -23,7 +25,7 @@ public interface VigenereCipher extends VigenereCipherKernel {
      *            the key to use for encryption
      * @return the ciphertext produced
      * @requires text /= null and key /= null and |key| > 0 and every character
-     *           of key is a letter
+     *           of key is in this.alphabet()
      * @ensures encryptWithKey = TEXT_ENCRYPTED_WITH_KEY(text,
      *          TO_UPPERCASE(key))
      */
@@ -40,20 +42,249 @@ public interface VigenereCipher extends VigenereCipherKernel {
      *            the key to use for decryption
      * @return the plaintext produced
      * @requires text /= null and key /= null and |key| > 0 and every character
-     *           of key is a letter
+     *           of key is in this.alphabet()
      * @ensures decryptWithKey = TEXT_DECRYPTED_WITH_KEY(text,
      *          TO_UPPERCASE(key))
      */
     Sequence<Character> decryptWithKey(Sequence<Character> text,
             Sequence<Character> key);
 
+    /**
+     * Encrypts {@code length} characters of {@code src} starting at
+     * {@code srcOffset} into {@code dst} starting at {@code dstOffset}, using
+     * the stored key. {@code src} and {@code dst} may be the same array as
+     * long as {@code srcOffset = dstOffset}.
+     *
+     * @param src
+     *            the array holding the text to encrypt
+     * @param srcOffset
+     *            the index of the first character to encrypt
+     * @param length
+     *            the number of characters to encrypt
+     * @param dst
+     *            the array receiving the ciphertext
+     * @param dstOffset
+     *            the index at which to store the first ciphertext character
+     * @updates dst
+     * @requires src /= null and dst /= null and 0 <= srcOffset and 0 <= length
+     *           and srcOffset + length <= |src| and 0 <= dstOffset and
+     *           dstOffset + length <= |dst| and |this.key| > 0
+     * @ensures dst[dstOffset, dstOffset + length) =
+     *          TEXT_ENCRYPTED_WITH_KEY(#src[srcOffset, srcOffset + length),
+     *          this.key) and dst is otherwise unchanged
+     */
+    void encrypt(char[] src, int srcOffset, int length, char[] dst,
+            int dstOffset);
+
+    /**
+     * Decrypts {@code length} characters of {@code src} starting at
+     * {@code srcOffset} into {@code dst} starting at {@code dstOffset}, using
+     * the stored key. {@code src} and {@code dst} may be the same array as
+     * long as {@code srcOffset = dstOffset}.
+     *
+     * @param src
+     *            the array holding the ciphertext to decrypt
+     * @param srcOffset
+     *            the index of the first character to decrypt
+     * @param length
+     *            the number of characters to decrypt
+     * @param dst
+     *            the array receiving the plaintext
+     * @param dstOffset
+     *            the index at which to store the first plaintext character
+     * @updates dst
+     * @requires src /= null and dst /= null and 0 <= srcOffset and 0 <= length
+     *           and srcOffset + length <= |src| and 0 <= dstOffset and
+     *           dstOffset + length <= |dst| and |this.key| > 0
+     * @ensures dst[dstOffset, dstOffset + length) =
+     *          TEXT_DECRYPTED_WITH_KEY(#src[srcOffset, srcOffset + length),
+     *          this.key) and dst is otherwise unchanged
+     */
+    void decrypt(char[] src, int srcOffset, int length, char[] dst,
+            int dstOffset);
+
+    /**
+     * Encrypts the given text using the stored key, without going through a
+     * {@code Sequence<Character>}. The text is transformed in a working
+     * {@code char[]} that the returned {@code String} is copied from; use the
+     * {@code char[]} overloads to avoid both allocations.
+     *
+     * @param text
+     *            the text to encrypt
+     * @return the ciphertext produced
+     * @requires text /= null and |this.key| > 0
+     * @ensures encrypt = TEXT_ENCRYPTED_WITH_KEY(text, this.key)
+     */
+    String encrypt(CharSequence text);
+
+    /**
+     * Decrypts the given ciphertext using the stored key, without going
+     * through a {@code Sequence<Character>}. The text is transformed in a
+     * working {@code char[]} that the returned {@code String} is copied from;
+     * use the {@code char[]} overloads to avoid both allocations.
+     *
+     * @param text
+     *            the ciphertext to decrypt
+     * @return the plaintext produced
+     * @requires text /= null and |this.key| > 0
+     * @ensures decrypt = TEXT_DECRYPTED_WITH_KEY(text, this.key)
+     */
+    String decrypt(CharSequence text);
+
+    /**
+     * Encrypts {@code length} characters of {@code buffer} starting at
+     * {@code offset} in place using the stored key.
+     *
+     * @param buffer
+     *            the array holding the text to encrypt
+     * @param offset
+     *            the index of the first character to encrypt
+     * @param length
+     *            the number of characters to encrypt
+     * @updates buffer
+     * @requires buffer /= null and 0 <= offset and 0 <= length and offset +
+     *           length <= |buffer| and |this.key| > 0
+     * @ensures buffer[offset, offset + length) =
+     *          TEXT_ENCRYPTED_WITH_KEY(#buffer[offset, offset + length),
+     *          this.key) and buffer is otherwise unchanged
+     */
+    void encryptInPlace(char[] buffer, int offset, int length);
+
+    /**
+     * Decrypts {@code length} characters of {@code buffer} starting at
+     * {@code offset} in place using the stored key.
+     *
+     * @param buffer
+     *            the array holding the ciphertext to decrypt
+     * @param offset
+     *            the index of the first character to decrypt
+     * @param length
+     *            the number of characters to decrypt
+     * @updates buffer
+     * @requires buffer /= null and 0 <= offset and 0 <= length and offset +
+     *           length <= |buffer| and |this.key| > 0
+     * @ensures buffer[offset, offset + length) =
+     *          TEXT_DECRYPTED_WITH_KEY(#buffer[offset, offset + length),
+     *          this.key) and buffer is otherwise unchanged
+     */
+    void decryptInPlace(char[] buffer, int offset, int length);
+
+    /**
+     * Decrypts {@code text[offset, offset + length)} using the stored key,
+     * using {@code index} to find the key alignment instead of scanning
+     * everything before {@code offset}.
+     *
+     * @param text
+     *            the full ciphertext
+     * @param offset
+     *            the index of the first character to decrypt
+     * @param length
+     *            the number of characters to decrypt
+     * @param index
+     *            a letter checkpoint index of {@code text}
+     * @return the plaintext of the requested range
+     * @requires text /= null and index /= null and |text| = index.length and
+     *           0 <= offset and 0 <= length and offset + length <= |text| and
+     *           |this.key| > 0 and this.alphabet() = CipherAlphabet.LETTERS
+     * @ensures decryptRange = TEXT_DECRYPTED_WITH_KEY(text,
+     *          this.key)[offset, offset + length)
+     */
+    String decryptRange(CharSequence text, int offset, int length,
+            LetterCheckpointIndex index);
+
+    /**
+     * Encrypts every record of {@code records} using the stored key. If
+     * {@code carryKey} is false every record starts at the first key letter;
+     * otherwise the key cursor continues from the end of the previous record,
+     * exactly as if the records had been concatenated.
+     *
+     * @param records
+     *            the plaintext records
+     * @param carryKey
+     *            whether the key cursor carries across records
+     * @return the ciphertext of each record, in order
+     * @requires records /= null and no record is null and |this.key| > 0
+     * @ensures |encryptAll| = |records| and [each entry of encryptAll is the
+     *          ciphertext of the corresponding record]
+     */
+    List<String> encryptAll(List<? extends CharSequence> records,
+            boolean carryKey);
+
+    /**
+     * Decrypts every record of {@code records} using the stored key, with the
+     * key cursor reset or carried across records as in {@link #encryptAll}.
+     *
+     * @param records
+     *            the ciphertext records
+     * @param carryKey
+     *            whether the key cursor carries across records
+     * @return the plaintext of each record, in order
+     * @requires records /= null and no record is null and |this.key| > 0
+     * @ensures |decryptAll| = |records| and [each entry of decryptAll is the
+     *          plaintext of the corresponding record]
+     */
+    List<String> decryptAll(List<? extends CharSequence> records,
+            boolean carryKey);
+
+    /**
+     * Encrypts the packed records in {@code packed} using the stored key.
+     * Record {@code k} is {@code packed[offsets[k], offsets[k + 1])}; the
+     * result uses the same layout, so {@code offsets} describes it too.
+     *
+     * @param packed
+     *            the concatenated plaintext records
+     * @param offsets
+     *            the start of every record followed by the end of the last
+     * @param carryKey
+     *            whether the key cursor carries across records
+     * @return the concatenated ciphertext records
+     * @requires packed /= null and offsets /= null and |offsets| > 0 and
+     *           offsets[0] = 0 and offsets is non-decreasing and
+     *           offsets[|offsets| - 1] = |packed| and |this.key| > 0
+     * @ensures |encryptAll| = |packed| and [each record of encryptAll is the
+     *          ciphertext of the corresponding record of packed]
+     */
+    char[] encryptAll(char[] packed, int[] offsets, boolean carryKey);
+
+    /**
+     * Decrypts the packed records in {@code packed} using the stored key.
+     * Record {@code k} is {@code packed[offsets[k], offsets[k + 1])}; the
+     * result uses the same layout, so {@code offsets} describes it too.
+     *
+     * @param packed
+     *            the concatenated ciphertext records
+     * @param offsets
+     *            the start of every record followed by the end of the last
+     * @param carryKey
+     *            whether the key cursor carries across records
+     * @return the concatenated plaintext records
+     * @requires packed /= null and offsets /= null and |offsets| > 0 and
+     *           offsets[0] = 0 and offsets is non-decreasing and
+     *           offsets[|offsets| - 1] = |packed| and |this.key| > 0
+     * @ensures |decryptAll| = |packed| and [each record of decryptAll is the
+     *          plaintext of the corresponding record of packed]
+     */
+    char[] decryptAll(char[] packed, int[] offsets, boolean carryKey);
+
+    /**
+     * Starts a {@code CipherSession} that applies a copy of the stored key
+     * across several calls, beginning at the first letter.
+     *
+     * @param mode
+     *            whether the session encrypts or decrypts
+     * @return the new session
+     * @requires mode /= null and |this.key| > 0
+     * @ensures session.position = 0 and session.mode = mode
+     */
+    CipherSession session(CipherMode mode);
+
     /**
      * Checks whether the stored key is valid. A valid key is non-empty and
-     * consists only of letters.
+     * consists only of symbols of {@code alphabet()}.
      *
      * @return true if the key is valid, false otherwise
-     * @ensures isValidKey = (|this.key| > 0 and every element of this.key is a
-     *          letter)
+     * @ensures isValidKey = (|this.key| > 0 and every element of this.key is in
+     *          this.alphabet())
      */
     boolean isValidKey();
 
@@ -63,7 +294,8 @@ public interface VigenereCipher extends VigenereCipherKernel {
      * @param s
      *            the new key as a string
      * @replaces this.key
-     * @requires s /= null and |s| > 0 and every character of s is a letter
+     * @requires s /= null and |s| > 0 and every character of s is in
+     *           this.alphabet()
      * @ensures this.key = TO_UPPERCASE(CHAR_SEQUENCE_OF(s))
      */
     void setKeyFromString(String s);
@@ -5,13 +5,29 @@ import components.sequence.Sequence1L;
  * {@code VigenereCipher} represented as a {@code Sequence<Character>} with
  * implementations of primary methods.
  *
+ * <p>
+ * With an alphabet other than {@code CipherAlphabet.LETTERS} the kernel
+ * methods run through a {@code VigenereAlphabetEngine} per direction, built
+ * from the key on first use and kept until the key changes; the
+ * {@code LETTERS} loops below are unchanged.
+ * </p>
+ *
  * @author Vikranth Vegesina
  * @convention <pre>
+ * $this.alphabet /= null  and
  * for all i: integer where (0 <= i and i < |$this.rep|)
- *   ($this.rep[i] is in ['A'..'Z'])
+ *   ($this.alphabet.indexOf($this.rep[i]) >= 0  and
+ *    $this.rep[i] =
+ *      $this.alphabet.charAt($this.alphabet.indexOf($this.rep[i])))  and
+ * ($this.encryptAlphabetEngine = null  or
+ *  $this.encryptAlphabetEngine encrypts with $this.rep over
+ *    $this.alphabet)  and
+ * ($this.decryptAlphabetEngine = null  or
+ *  $this.decryptAlphabetEngine decrypts with $this.rep over
+ *    $this.alphabet)
  * </pre>
  * @correspondence <pre>
- * this.key = $this.rep
+ * this = ($this.rep, $this.preserveCase)
  * </pre>
  */
 public class VigenereCipher1L extends VigenereCipherSecondary {
@@ -20,26 +36,41 @@ public class VigenereCipher1L extends VigenereCipherSecondary {
      * Private members
      */
 
+    /**
+     * Alphabet shifted through; fixed at construction.
+     */
+    private final CipherAlphabet alphabet;
+
     /**
      * Representation of {@code this}.
      */
     private Sequence<Character> rep;
 
     /**
-     * Alphabet used for Vigenere cipher operations.
+     * Whether letters keep their case.
      */
-    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private boolean preserveCase;
 
     /**
-     * Fix Magic Number checkstyle error for 26.
+     * Engine encrypting with the key over a non-default alphabet, or
+     * {@code null} until it is first needed.
      */
-    private static final int ALPHABET_SIZE = 26;
+    private VigenereAlphabetEngine encryptAlphabetEngine;
+
+    /**
+     * Engine decrypting with the key over a non-default alphabet, or
+     * {@code null} until it is first needed.
+     */
+    private VigenereAlphabetEngine decryptAlphabetEngine;
 
     /**
      * Creator of initial representation.
      */
     private void createNewRep() {
         this.rep = new Sequence1L<>();
+        this.preserveCase = false;
+        this.encryptAlphabetEngine = null;
+        this.decryptAlphabetEngine = null;
     }
 
     /*
@@ -47,60 +78,87 @@ public class VigenereCipher1L extends VigenereCipherSecondary {
      */
 
     /**
-     * Converts a character to uppercase if it is a letter.
+     * Checks if a character is a letter.
      *
      * @param c
-     *            the character to convert
-     * @return the uppercase version if letter, otherwise the character itself
+     *            the character to check
+     * @return true if the character is a letter, false otherwise
+     */
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    /**
+     * Returns the engine applying the stored key over a non-default
+     * alphabet, building it the first time it is needed after the key
+     * changed.
+     *
+     * @param decrypt
+     *            whether the engine decrypts
+     * @return the engine
      */
-    private static char toUpperCase(char c) {
-        if (c >= 'a' && c <= 'z') {
-            return (char) (c - 'a' + 'A');
+    private VigenereAlphabetEngine alphabetEngine(boolean decrypt) {
+        VigenereAlphabetEngine engine;
+        if (decrypt) {
+            if (this.decryptAlphabetEngine == null) {
+                this.decryptAlphabetEngine = new VigenereAlphabetEngine(
+                        this.alphabet, VigenereAlphabetEngine
+                                .indexesOf(this.alphabet, this.rep),
+                        true);
+            }
+            engine = this.decryptAlphabetEngine;
+        } else {
+            if (this.encryptAlphabetEngine == null) {
+                this.encryptAlphabetEngine = new VigenereAlphabetEngine(
+                        this.alphabet, VigenereAlphabetEngine
+                                .indexesOf(this.alphabet, this.rep),
+                        false);
+            }
+            engine = this.encryptAlphabetEngine;
         }
-        return c;
+        return engine;
     }
 
     /**
-     * Checks if a character is a letter.
+     * Reports the mask passed to {@code processChar}: the case bit if letters
+     * keep their case, 0 otherwise.
      *
-     * @param c
-     *            the character to check
-     * @return true if the character is a letter, false otherwise
+     * @return the case mask
      */
-    private static boolean isLetter(char c) {
-        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    private int caseMask() {
+        int mask = 0;
+        if (this.preserveCase) {
+            mask = VigenereTables.CASE_BIT;
+        }
+        return mask;
     }
 
     /**
-     * Encrypts or decrypts a single character using the Vigenere cipher.
+     * Encrypts or decrypts a single letter using the Vigenere cipher. Callers
+     * have already checked that {@code ch} is a letter, so it is folded to its
+     * alphabet index with one {@code LATIN1_INDEX} load instead of being
+     * tested and upper-cased again. The case of {@code ch} is kept by OR-ing
+     * its case bit, selected by {@code caseMask}, into the upper-case table
+     * result.
      *
      * @param ch
-     *            the character to process
+     *            the letter to process
      * @param keyChar
-     *            the key character to use
-     * @param encrypt
-     *            true to encrypt, false to decrypt
+     *            the key character to use, already in ['A'..'Z']
+     * @param table
+     *            {@code VigenereTables.ENCRYPT} to encrypt or
+     *            {@code VigenereTables.DECRYPT} to decrypt
+     * @param caseMask
+     *            {@code VigenereTables.CASE_BIT} to keep the case of
+     *            {@code ch}, 0 to return an upper-case letter
      * @return the processed character
      */
-    private static char processChar(char ch, char keyChar, boolean encrypt) {
-        if (!isLetter(ch)) {
-            return ch;
-        }
+    private static char processChar(char ch, char keyChar, char[] table,
+            int caseMask) {
+        assert isLetter(ch) : "Violation of: ch is a letter";
 
-        char upperCh = toUpperCase(ch);
-        char upperKey = toUpperCase(keyChar);
-
-        int charIndex = ALPHABET.indexOf(upperCh);
-        int keyIndex = ALPHABET.indexOf(upperKey);
-
-        int resultIndex;
-        if (encrypt) {
-            resultIndex = (charIndex + keyIndex) % ALPHABET_SIZE;
-        } else {
-            resultIndex = (charIndex - keyIndex + ALPHABET_SIZE) % ALPHABET_SIZE;
-        }
-
-        return ALPHABET.charAt(resultIndex);
+        return (char) (table[(keyChar - 'A') * VigenereTables.ALPHABET_SIZE
+                + VigenereTables.LATIN1_INDEX[ch]] | (ch & caseMask));
     }
 
     /*
@@ -108,9 +166,22 @@ public class VigenereCipher1L extends VigenereCipherSecondary {
      */
 
     /**
-     * No-argument constructor.
+     * No-argument constructor, for {@code CipherAlphabet.LETTERS}.
      */
     public VigenereCipher1L() {
+        this(CipherAlphabet.LETTERS);
+    }
+
+    /**
+     * Constructor for a cipher over {@code alphabet}.
+     *
+     * @param alphabet
+     *            the alphabet to shift through
+     */
+    public VigenereCipher1L(CipherAlphabet alphabet) {
+        assert alphabet != null : "Violation of: alphabet is not null";
+
+        this.alphabet = alphabet;
         this.createNewRep();
     }
 
@@ -126,7 +197,8 @@ public class VigenereCipher1L extends VigenereCipherSecondary {
     @Override
     public final VigenereCipher newInstance() {
         try {
-            return this.getClass().getConstructor().newInstance();
+            return this.getClass().getConstructor(CipherAlphabet.class)
+                    .newInstance(this.alphabet);
         } catch (ReflectiveOperationException e) {
             throw new AssertionError(
                     "Cannot construct object of type " + this.getClass());
@@ -144,36 +216,111 @@ public class VigenereCipher1L extends VigenereCipherSecondary {
          * execution in that case.
          */
         VigenereCipher1L localSource = (VigenereCipher1L) source;
+        assert localSource.alphabet.equals(this.alphabet) : ""
+                + "Violation of: source.alphabet = this.alphabet";
         this.rep = localSource.rep;
+        this.preserveCase = localSource.preserveCase;
+        this.encryptAlphabetEngine = localSource.encryptAlphabetEngine;
+        this.decryptAlphabetEngine = localSource.decryptAlphabetEngine;
         localSource.createNewRep();
     }
 
     /*
-     * Kernel methods
+     * Package-private methods used by the secondary methods
      */
 
     @Override
-    public final Sequence<Character> encrypt(Sequence<Character> text) {
-        assert text != null : "Violation of: text is not null";
-        assert this.rep.length() > 0 : "Violation of: |this.key| > 0";
+    final long transformRange(CipherMode mode, char[] src, int srcOffset,
+            int length, char[] dst, int dstOffset, long letterOffset) {
+        if (this.alphabet != CipherAlphabet.LETTERS) {
+            return this.alphabetEngine(mode == CipherMode.DECRYPT).transform(
+                    src, srcOffset, length, dst, dstOffset, letterOffset);
+        }
 
-        Sequence<Character> result = text.newInstance();
+        char[] table = VigenereTables.ENCRYPT;
+        if (mode == CipherMode.DECRYPT) {
+            table = VigenereTables.DECRYPT;
+        }
         int keyLength = this.rep.length();
-        int keyIndex = 0;
+        int caseMask = this.caseMask();
+        int keyIndex = (int) (letterOffset % keyLength);
+        int letterCount = 0;
 
-        for (int i = 0; i < text.length(); i++) {
-            char ch = text.entry(i);
+        for (int i = 0; i < length; i++) {
+            char ch = src[srcOffset + i];
             if (isLetter(ch)) {
-                char keyChar = this.rep.entry(keyIndex % keyLength);
-                char encrypted = processChar(ch, keyChar, true);
-                result.add(result.length(), encrypted);
+                dst[dstOffset + i] = processChar(ch, this.rep.entry(keyIndex),
+                        table, caseMask);
+                letterCount++;
                 keyIndex++;
+                if (keyIndex == keyLength) {
+                    keyIndex = 0;
+                }
             } else {
-                result.add(result.length(), ch);
+                dst[dstOffset + i] = ch;
             }
         }
 
-        return result;
+        return letterOffset + letterCount;
+    }
+
+    @Override
+    final int keyLength() {
+        return this.rep.length();
+    }
+
+    @Override
+    final void setCompiledKey(CompiledVigenereKey key) {
+        assert this.alphabet == CipherAlphabet.LETTERS : ""
+                + "Violation of: this.alphabet = CipherAlphabet.LETTERS";
+
+        String letters = key.key();
+        this.rep.clear();
+        this.encryptAlphabetEngine = null;
+        this.decryptAlphabetEngine = null;
+        for (int i = 0; i < letters.length(); i++) {
+            this.rep.add(this.rep.length(), letters.charAt(i));
+        }
+    }
+
+    /*
+     * Kernel methods
+     */
+
+    @Override
+    public final Sequence<Character> encrypt(Sequence<Character> text) {
+        assert text != null : "Violation of: text is not null";
+        assert this.rep.length() > 0 : "Violation of: |this.key| > 0";
+
+        CipherOperationEvent probe = CipherMonitor.start();
+        try {
+            if (this.alphabet != CipherAlphabet.LETTERS) {
+                return this.alphabetEngine(false).transform(text);
+            }
+
+            Sequence<Character> result = text.newInstance();
+            int keyLength = this.rep.length();
+            int caseMask = this.caseMask();
+            int keyIndex = 0;
+
+            for (int i = 0; i < text.length(); i++) {
+                char ch = text.entry(i);
+                if (isLetter(ch)) {
+                    char keyChar = this.rep.entry(keyIndex % keyLength);
+                    char encrypted = processChar(ch, keyChar,
+                            VigenereTables.ENCRYPT, caseMask);
+                    result.add(result.length(), encrypted);
+                    keyIndex++;
+                } else {
+                    result.add(result.length(), ch);
+                }
+            }
+
+            return result;
+        } finally {
+            CipherMonitor.stop(probe, CipherMetrics.Operation.ENCRYPT,
+                    text.length(), this.rep.length());
+        }
     }
 
     @Override
@@ -181,23 +328,151 @@ public class VigenereCipher1L extends VigenereCipherSecondary {
         assert text != null : "Violation of: text is not null";
         assert this.rep.length() > 0 : "Violation of: |this.key| > 0";
 
-        Sequence<Character> result = text.newInstance();
-        int keyLength = this.rep.length();
-        int keyIndex = 0;
+        CipherOperationEvent probe = CipherMonitor.start();
+        try {
+            if (this.alphabet != CipherAlphabet.LETTERS) {
+                return this.alphabetEngine(true).transform(text);
+            }
 
-        for (int i = 0; i < text.length(); i++) {
-            char ch = text.entry(i);
-            if (isLetter(ch)) {
-                char keyChar = this.rep.entry(keyIndex % keyLength);
-                char decrypted = processChar(ch, keyChar, false);
-                result.add(result.length(), decrypted);
-                keyIndex++;
-            } else {
-                result.add(result.length(), ch);
+            Sequence<Character> result = text.newInstance();
+            int keyLength = this.rep.length();
+            int caseMask = this.caseMask();
+            int keyIndex = 0;
+
+            for (int i = 0; i < text.length(); i++) {
+                char ch = text.entry(i);
+                if (isLetter(ch)) {
+                    char keyChar = this.rep.entry(keyIndex % keyLength);
+                    char decrypted = processChar(ch, keyChar,
+                            VigenereTables.DECRYPT, caseMask);
+                    result.add(result.length(), decrypted);
+                    keyIndex++;
+                } else {
+                    result.add(result.length(), ch);
+                }
+            }
+
+            return result;
+        } finally {
+            CipherMonitor.stop(probe, CipherMetrics.Operation.DECRYPT,
+                    text.length(), this.rep.length());
+        }
+    }
+
+    @Override
+    public final long encrypt(char[] src, int srcOffset, int length, char[] dst,
+            int dstOffset, long letterOffset) {
+        assert src != null : "Violation of: src is not null";
+        assert dst != null : "Violation of: dst is not null";
+        assert 0 <= srcOffset && 0 <= length
+                && srcOffset + length <= src.length : ""
+                        + "Violation of: [srcOffset, srcOffset + length) "
+                        + "is within src";
+        assert 0 <= dstOffset && dstOffset + length <= dst.length : ""
+                + "Violation of: [dstOffset, dstOffset + length) is within dst";
+        assert letterOffset >= 0 : "Violation of: letterOffset >= 0";
+        assert this.rep.length() > 0 : "Violation of: |this.key| > 0";
+
+        CipherOperationEvent probe = CipherMonitor.start();
+        try {
+            return this.transformRange(CipherMode.ENCRYPT, src, srcOffset,
+                    length, dst, dstOffset, letterOffset);
+        } finally {
+            CipherMonitor.stop(probe, CipherMetrics.Operation.ENCRYPT,
+                    length, this.rep.length());
+        }
+    }
+
+    @Override
+    public final long decrypt(char[] src, int srcOffset, int length, char[] dst,
+            int dstOffset, long letterOffset) {
+        assert src != null : "Violation of: src is not null";
+        assert dst != null : "Violation of: dst is not null";
+        assert 0 <= srcOffset && 0 <= length
+                && srcOffset + length <= src.length : ""
+                        + "Violation of: [srcOffset, srcOffset + length) "
+                        + "is within src";
+        assert 0 <= dstOffset && dstOffset + length <= dst.length : ""
+                + "Violation of: [dstOffset, dstOffset + length) is within dst";
+        assert letterOffset >= 0 : "Violation of: letterOffset >= 0";
+        assert this.rep.length() > 0 : "Violation of: |this.key| > 0";
+
+        CipherOperationEvent probe = CipherMonitor.start();
+        try {
+            return this.transformRange(CipherMode.DECRYPT, src, srcOffset,
+                    length, dst, dstOffset, letterOffset);
+        } finally {
+            CipherMonitor.stop(probe, CipherMetrics.Operation.DECRYPT,
+                    length, this.rep.length());
+        }
+    }
+
+    @Override
+    public final void encryptInPlace(Sequence<Character> text) {
+        assert text != null : "Violation of: text is not null";
+        assert this.rep.length() > 0 : "Violation of: |this.key| > 0";
+
+        CipherOperationEvent probe = CipherMonitor.start();
+        try {
+            if (this.alphabet != CipherAlphabet.LETTERS) {
+                this.alphabetEngine(false).transformInPlace(text);
+                return;
+            }
+
+            int keyLength = this.rep.length();
+            int caseMask = this.caseMask();
+            int keyIndex = 0;
+
+            for (int i = 0; i < text.length(); i++) {
+                char ch = text.entry(i);
+                if (isLetter(ch)) {
+                    text.replaceEntry(i, processChar(ch,
+                            this.rep.entry(keyIndex), VigenereTables.ENCRYPT,
+                            caseMask));
+                    keyIndex++;
+                    if (keyIndex == keyLength) {
+                        keyIndex = 0;
+                    }
+                }
             }
+        } finally {
+            CipherMonitor.stop(probe, CipherMetrics.Operation.ENCRYPT,
+                    text.length(), this.rep.length());
         }
+    }
+
+    @Override
+    public final void decryptInPlace(Sequence<Character> text) {
+        assert text != null : "Violation of: text is not null";
+        assert this.rep.length() > 0 : "Violation of: |this.key| > 0";
 
-        return result;
+        CipherOperationEvent probe = CipherMonitor.start();
+        try {
+            if (this.alphabet != CipherAlphabet.LETTERS) {
+                this.alphabetEngine(true).transformInPlace(text);
+                return;
+            }
+
+            int keyLength = this.rep.length();
+            int caseMask = this.caseMask();
+            int keyIndex = 0;
+
+            for (int i = 0; i < text.length(); i++) {
+                char ch = text.entry(i);
+                if (isLetter(ch)) {
+                    text.replaceEntry(i, processChar(ch,
+                            this.rep.entry(keyIndex), VigenereTables.DECRYPT,
+                            caseMask));
+                    keyIndex++;
+                    if (keyIndex == keyLength) {
+                        keyIndex = 0;
+                    }
+                }
+            }
+        } finally {
+            CipherMonitor.stop(probe, CipherMetrics.Operation.DECRYPT,
+                    text.length(), this.rep.length());
+        }
     }
 
     @Override
@@ -215,14 +490,37 @@ public class VigenereCipher1L extends VigenereCipherSecondary {
         assert key != null : "Violation of: key is not null";
         assert key.length() > 0 : "Violation of: |key| > 0";
 
-        this.rep.clear();
-        for (int i = 0; i < key.length(); i++) {
-            char c = key.entry(i);
-            assert isLetter(
-                    c) : "Violation of: every character of key is a letter";
-            this.rep.add(this.rep.length(), toUpperCase(c));
+        CipherOperationEvent probe = CipherMonitor.start();
+        try {
+            this.rep.clear();
+            this.encryptAlphabetEngine = null;
+            this.decryptAlphabetEngine = null;
+            for (int i = 0; i < key.length(); i++) {
+                int index = this.alphabet.indexOf(key.entry(i));
+                assert index >= 0 : "Violation of: "
+                        + "every character of key is in alphabet()";
+                this.rep.add(this.rep.length(), this.alphabet.charAt(index));
+            }
+            key.clear();
+        } finally {
+            CipherMonitor.stop(probe, CipherMetrics.Operation.SET_KEY,
+                    this.rep.length(), this.rep.length());
         }
-        key.clear();
+    }
+
+    @Override
+    public final CipherAlphabet alphabet() {
+        return this.alphabet;
+    }
+
+    @Override
+    public final boolean preservesCase() {
+        return this.preserveCase;
+    }
+
+    @Override
+    public final void setPreserveCase(boolean preserveCase) {
+        this.preserveCase = preserveCase;
     }
 
 }
@@ -0,0 +1,516 @@
+import components.sequence.Sequence;
+import components.sequence.Sequence1L;
+
+/**
+ * {@code VigenereCipher} represented as an array of key shifts with
+ * implementations of primary methods.
+ *
+ * <p>
+ * Each key letter is stored as its shift ({@code 'A'} = 0, ...,
+ * {@code 'Z'} = 25) in a primitive {@code byte[]}, so encryption never boxes
+ * key characters or searches the key, and the key cursor simply wraps back to
+ * 0 instead of being reduced with {@code %} on every letter. A branch-free
+ * {@code VigenereScalar} engine for each direction is built whenever the key
+ * or the case mode changes, so the {@code char[]} methods do no per-call
+ * setup. With an alphabet other than {@code CipherAlphabet.LETTERS} the
+ * shifts are alphabet indexes and every method runs through a
+ * {@code VigenereAlphabetEngine} instead.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ * @convention <pre>
+ * $this.alphabet /= null  and  $this.shifts /= null  and
+ * for all i: integer where (0 <= i and i < |$this.shifts|)
+ *   (0 <= unsigned $this.shifts[i] < $this.alphabet.size())  and
+ * if $this.alphabet = CipherAlphabet.LETTERS then
+ *   $this.encryptEngine adds $this.shifts and preserves case iff
+ *     $this.preserveCase  and
+ *   $this.decryptEngine adds VigenereScalar.inverse($this.shifts) and
+ *     preserves case iff $this.preserveCase  and
+ *   $this.encryptAlphabetEngine = $this.decryptAlphabetEngine = null
+ * else
+ *   $this.encryptAlphabetEngine and $this.decryptAlphabetEngine apply
+ *     $this.shifts over $this.alphabet  and
+ *   $this.encryptEngine = $this.decryptEngine = null
+ * </pre>
+ * @correspondence <pre>
+ * this = ([the sequence of $this.alphabet.charAt($this.shifts[i]) for each
+ *          i], $this.preserveCase)
+ * </pre>
+ */
+public class VigenereCipher2 extends VigenereCipherSecondary {
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Alphabet shifted through; fixed at construction.
+     */
+    private final CipherAlphabet alphabet;
+
+    /**
+     * Representation of {@code this}.
+     */
+    private byte[] shifts;
+
+    /**
+     * Whether letters keep their case.
+     */
+    private boolean preserveCase;
+
+    /**
+     * Engine encrypting with {@code shifts}.
+     */
+    private VigenereScalar encryptEngine;
+
+    /**
+     * Engine decrypting with {@code shifts}.
+     */
+    private VigenereScalar decryptEngine;
+
+    /**
+     * Engine encrypting with {@code shifts} over a non-default alphabet.
+     */
+    private VigenereAlphabetEngine encryptAlphabetEngine;
+
+    /**
+     * Engine decrypting with {@code shifts} over a non-default alphabet.
+     */
+    private VigenereAlphabetEngine decryptAlphabetEngine;
+
+    /**
+     * Number of letters in the alphabet.
+     */
+    private static final int ALPHABET_SIZE = VigenereTables.ALPHABET_SIZE;
+
+    /**
+     * Mask turning a signed byte into its unsigned value.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.shifts = new byte[0];
+        this.preserveCase = false;
+        this.buildEngines();
+    }
+
+    /*
+     * Private helper methods
+     */
+
+    /**
+     * Rebuilds the engines for {@code alphabet} from {@code shifts} and
+     * {@code preserveCase}.
+     */
+    private void buildEngines() {
+        if (this.alphabet == CipherAlphabet.LETTERS) {
+            this.encryptEngine = new VigenereScalar(this.shifts,
+                    this.preserveCase);
+            this.decryptEngine = new VigenereScalar(
+                    VigenereScalar.inverse(this.shifts), this.preserveCase);
+            this.encryptAlphabetEngine = null;
+            this.decryptAlphabetEngine = null;
+        } else {
+            this.encryptEngine = null;
+            this.decryptEngine = null;
+            this.encryptAlphabetEngine = new VigenereAlphabetEngine(
+                    this.alphabet, this.shifts, false);
+            this.decryptAlphabetEngine = new VigenereAlphabetEngine(
+                    this.alphabet, this.shifts, true);
+        }
+    }
+
+    /**
+     * Reports the mask OR-ed into table results: the case bit if letters keep
+     * their case, 0 otherwise.
+     *
+     * @return the case mask
+     */
+    private int caseMask() {
+        int mask = 0;
+        if (this.preserveCase) {
+            mask = VigenereTables.CASE_BIT;
+        }
+        return mask;
+    }
+
+    /**
+     * Converts a character to uppercase if it is a letter.
+     *
+     * @param c
+     *            the character to convert
+     * @return the uppercase version if letter, otherwise the character itself
+     */
+    private static char toUpperCase(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return (char) (c - 'a' + 'A');
+        }
+        return c;
+    }
+
+    /**
+     * Checks if a character is a letter.
+     *
+     * @param c
+     *            the character to check
+     * @return true if the character is a letter, false otherwise
+     */
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * No-argument constructor, for {@code CipherAlphabet.LETTERS}.
+     */
+    public VigenereCipher2() {
+        this(CipherAlphabet.LETTERS);
+    }
+
+    /**
+     * Constructor for a cipher over {@code alphabet}.
+     *
+     * @param alphabet
+     *            the alphabet to shift through
+     */
+    public VigenereCipher2(CipherAlphabet alphabet) {
+        assert alphabet != null : "Violation of: alphabet is not null";
+
+        this.alphabet = alphabet;
+        this.createNewRep();
+    }
+
+    /*
+     * Standard methods
+     */
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final VigenereCipher newInstance() {
+        try {
+            return this.getClass().getConstructor(CipherAlphabet.class)
+                    .newInstance(this.alphabet);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void transferFrom(VigenereCipher source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof VigenereCipher2 : ""
+                + "Violation of: source is of dynamic type VigenereCipher2";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case.
+         */
+        VigenereCipher2 localSource = (VigenereCipher2) source;
+        assert localSource.alphabet.equals(this.alphabet) : ""
+                + "Violation of: source.alphabet = this.alphabet";
+        this.shifts = localSource.shifts;
+        this.preserveCase = localSource.preserveCase;
+        this.encryptEngine = localSource.encryptEngine;
+        this.decryptEngine = localSource.decryptEngine;
+        this.encryptAlphabetEngine = localSource.encryptAlphabetEngine;
+        this.decryptAlphabetEngine = localSource.decryptAlphabetEngine;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Package-private methods used by the secondary methods
+     */
+
+    @Override
+    final long transformRange(CipherMode mode, char[] src, int srcOffset,
+            int length, char[] dst, int dstOffset, long letterOffset) {
+        if (mode == CipherMode.ENCRYPT) {
+            if (this.encryptAlphabetEngine != null) {
+                return this.encryptAlphabetEngine.transform(src, srcOffset,
+                        length, dst, dstOffset, letterOffset);
+            }
+            return this.encryptEngine.transform(src, srcOffset, length, dst,
+                    dstOffset, letterOffset);
+        }
+        if (this.decryptAlphabetEngine != null) {
+            return this.decryptAlphabetEngine.transform(src, srcOffset, length,
+                    dst, dstOffset, letterOffset);
+        }
+        return this.decryptEngine.transform(src, srcOffset, length, dst,
+                dstOffset, letterOffset);
+    }
+
+    @Override
+    final int keyLength() {
+        return this.shifts.length;
+    }
+
+    @Override
+    final void setCompiledKey(CompiledVigenereKey key) {
+        assert this.alphabet == CipherAlphabet.LETTERS : ""
+                + "Violation of: this.alphabet = CipherAlphabet.LETTERS";
+
+        this.shifts = key.shiftArray();
+        if (key.preservesCase() == this.preserveCase) {
+            this.encryptEngine = key.encryptEngine();
+            this.decryptEngine = key.decryptEngine();
+            this.encryptAlphabetEngine = null;
+            this.decryptAlphabetEngine = null;
+        } else {
+            this.buildEngines();
+        }
+    }
+
+    /*
+     * Kernel methods
+     */
+
+    @Override
+    public final Sequence<Character> encrypt(Sequence<Character> text) {
+        assert text != null : "Violation of: text is not null";
+        assert this.shifts.length > 0 : "Violation of: |this.key| > 0";
+
+        CipherOperationEvent probe = CipherMonitor.start();
+        try {
+            if (this.encryptAlphabetEngine != null) {
+                return this.encryptAlphabetEngine.transform(text);
+            }
+
+            Sequence<Character> result = text.newInstance();
+            byte[] localShifts = this.shifts;
+            int localCaseMask = this.caseMask();
+            int keyIndex = 0;
+
+            for (char ch : text) {
+                if (isLetter(ch)) {
+                    result.add(result.length(),
+                            (char) (VigenereTables.ENCRYPT[localShifts[keyIndex]
+                                    * ALPHABET_SIZE + (toUpperCase(ch) - 'A')]
+                                    | (ch & localCaseMask)));
+                    keyIndex++;
+                    if (keyIndex == localShifts.length) {
+                        keyIndex = 0;
+                    }
+                } else {
+                    result.add(result.length(), ch);
+                }
+            }
+
+            return result;
+        } finally {
+            CipherMonitor.stop(probe, CipherMetrics.Operation.ENCRYPT,
+                    text.length(), this.shifts.length);
+        }
+    }
+
+    @Override
+    public final Sequence<Character> decrypt(Sequence<Character> text) {
+        assert text != null : "Violation of: text is not null";
+        assert this.shifts.length > 0 : "Violation of: |this.key| > 0";
+
+        CipherOperationEvent probe = CipherMonitor.start();
+        try {
+            if (this.decryptAlphabetEngine != null) {
+                return this.decryptAlphabetEngine.transform(text);
+            }
+
+            Sequence<Character> result = text.newInstance();
+            byte[] localShifts = this.shifts;
+            int localCaseMask = this.caseMask();
+            int keyIndex = 0;
+
+            for (char ch : text) {
+                if (isLetter(ch)) {
+                    result.add(result.length(),
+                            (char) (VigenereTables.DECRYPT[localShifts[keyIndex]
+                                    * ALPHABET_SIZE + (toUpperCase(ch) - 'A')]
+                                    | (ch & localCaseMask)));
+                    keyIndex++;
+                    if (keyIndex == localShifts.length) {
+                        keyIndex = 0;
+                    }
+                } else {
+                    result.add(result.length(), ch);
+                }
+            }
+
+            return result;
+        } finally {
+            CipherMonitor.stop(probe, CipherMetrics.Operation.DECRYPT,
+                    text.length(), this.shifts.length);
+        }
+    }
+
+    @Override
+    public final long encrypt(char[] src, int srcOffset, int length, char[] dst,
+            int dstOffset, long letterOffset) {
+        assert src != null : "Violation of: src is not null";
+        assert dst != null : "Violation of: dst is not null";
+        assert 0 <= srcOffset && 0 <= length
+                && srcOffset + length <= src.length : ""
+                        + "Violation of: [srcOffset, srcOffset + length) "
+                        + "is within src";
+        assert 0 <= dstOffset && dstOffset + length <= dst.length : ""
+                + "Violation of: [dstOffset, dstOffset + length) is within dst";
+        assert letterOffset >= 0 : "Violation of: letterOffset >= 0";
+        assert this.shifts.length > 0 : "Violation of: |this.key| > 0";
+
+        CipherOperationEvent probe = CipherMonitor.start();
+        try {
+            return this.transformRange(CipherMode.ENCRYPT, src, srcOffset,
+                    length, dst, dstOffset, letterOffset);
+        } finally {
+            CipherMonitor.stop(probe, CipherMetrics.Operation.ENCRYPT,
+                    length, this.shifts.length);
+        }
+    }
+
+    @Override
+    public final long decrypt(char[] src, int srcOffset, int length, char[] dst,
+            int dstOffset, long letterOffset) {
+        assert src != null : "Violation of: src is not null";
+        assert dst != null : "Violation of: dst is not null";
+        assert 0 <= srcOffset && 0 <= length
+                && srcOffset + length <= src.length : ""
+                        + "Violation of: [srcOffset, srcOffset + length) "
+                        + "is within src";
+        assert 0 <= dstOffset && dstOffset + length <= dst.length : ""
+                + "Violation of: [dstOffset, dstOffset + length) is within dst";
+        assert letterOffset >= 0 : "Violation of: letterOffset >= 0";
+        assert this.shifts.length > 0 : "Violation of: |this.key| > 0";
+
+        CipherOperationEvent probe = CipherMonitor.start();
+        try {
+            return this.transformRange(CipherMode.DECRYPT, src, srcOffset,
+                    length, dst, dstOffset, letterOffset);
+        } finally {
+            CipherMonitor.stop(probe, CipherMetrics.Operation.DECRYPT,
+                    length, this.shifts.length);
+        }
+    }
+
+    @Override
+    public final void encryptInPlace(Sequence<Character> text) {
+        assert text != null : "Violation of: text is not null";
+        assert this.shifts.length > 0 : "Violation of: |this.key| > 0";
+
+        CipherOperationEvent probe = CipherMonitor.start();
+        try {
+            if (this.encryptAlphabetEngine != null) {
+                this.encryptAlphabetEngine.transformInPlace(text);
+                return;
+            }
+
+            byte[] localShifts = this.shifts;
+            int localCaseMask = this.caseMask();
+            int keyIndex = 0;
+
+            for (int i = 0; i < text.length(); i++) {
+                char ch = text.entry(i);
+                if (isLetter(ch)) {
+                    text.replaceEntry(i,
+                            (char) (VigenereTables.ENCRYPT[localShifts[keyIndex]
+                                    * ALPHABET_SIZE + (toUpperCase(ch) - 'A')]
+                                    | (ch & localCaseMask)));
+                    keyIndex++;
+                    if (keyIndex == localShifts.length) {
+                        keyIndex = 0;
+                    }
+                }
+            }
+        } finally {
+            CipherMonitor.stop(probe, CipherMetrics.Operation.ENCRYPT,
+                    text.length(), this.shifts.length);
+        }
+    }
+
+    @Override
+    public final void decryptInPlace(Sequence<Character> text) {
+        assert text != null : "Violation of: text is not null";
+        assert this.shifts.length > 0 : "Violation of: |this.key| > 0";
+
+        CipherOperationEvent probe = CipherMonitor.start();
+        try {
+            if (this.decryptAlphabetEngine != null) {
+                this.decryptAlphabetEngine.transformInPlace(text);
+                return;
+            }
+
+            byte[] localShifts = this.shifts;
+            int localCaseMask = this.caseMask();
+            int keyIndex = 0;
+
+            for (int i = 0; i < text.length(); i++) {
+                char ch = text.entry(i);
+                if (isLetter(ch)) {
+                    text.replaceEntry(i,
+                            (char) (VigenereTables.DECRYPT[localShifts[keyIndex]
+                                    * ALPHABET_SIZE + (toUpperCase(ch) - 'A')]
+                                    | (ch & localCaseMask)));
+                    keyIndex++;
+                    if (keyIndex == localShifts.length) {
+                        keyIndex = 0;
+                    }
+                }
+            }
+        } finally {
+            CipherMonitor.stop(probe, CipherMetrics.Operation.DECRYPT,
+                    text.length(), this.shifts.length);
+        }
+    }
+
+    @Override
+    public final Sequence<Character> key() {
+        Sequence<Character> keyCopy = new Sequence1L<>();
+        for (int i = 0; i < this.shifts.length; i++) {
+            keyCopy.add(keyCopy.length(),
+                    this.alphabet.charAt(this.shifts[i] & BYTE_MASK));
+        }
+        return keyCopy;
+    }
+
+    @Override
+    public final void setKey(Sequence<Character> key) {
+        assert key != null : "Violation of: key is not null";
+        assert key.length() > 0 : "Violation of: |key| > 0";
+
+        CipherOperationEvent probe = CipherMonitor.start();
+        try {
+            this.shifts = VigenereAlphabetEngine.indexesOf(this.alphabet, key);
+            this.buildEngines();
+            key.clear();
+        } finally {
+            CipherMonitor.stop(probe, CipherMetrics.Operation.SET_KEY,
+                    this.shifts.length, this.shifts.length);
+        }
+    }
+
+    @Override
+    public final CipherAlphabet alphabet() {
+        return this.alphabet;
+    }
+
+    @Override
+    public final boolean preservesCase() {
+        return this.preserveCase;
+    }
+
+    @Override
+    public final void setPreserveCase(boolean preserveCase) {
+        this.preserveCase = preserveCase;
+        this.buildEngines();
+    }
+
+}
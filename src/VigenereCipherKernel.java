@@ -9,12 +9,29 @@ import components.standard.Standard;
  * text using a Vigenere cipher and managing a key.
  * </p>
  *
+ * <p>
+ * Letters normally come out in upper case. When {@code this.preserveCase} is
+ * true every {@code encrypt} and {@code decrypt} method instead gives each
+ * output letter the case of the input letter it replaces; this is decided
+ * inside the same pass, so it costs nothing extra per character. In the
+ * contracts below, {@code TEXT_ENCRYPTED_WITH_KEY} and
+ * {@code TEXT_DECRYPTED_WITH_KEY} are read with this case rule applied.
+ * </p>
+ *
+ * <p>
+ * Every cipher shifts through a {@code CipherAlphabet} fixed when it is
+ * constructed, {@code CipherAlphabet.LETTERS} unless another is given.
+ * "Letter" in the contracts means a symbol of {@code alphabet()}; characters
+ * outside it pass through unchanged. The case mode only affects
+ * {@code LETTERS}, the one alphabet that folds case.
+ * </p>
+ *
  * @author Vikranth Vegesina
  * @mathmodel type VigenereCipherKernel is modeled by (key: SEQUENCE of
- *            uppercase letters)
+ *            symbols of alphabet(), preserveCase: boolean)
  * @initially <pre>
  * ensures
- *   this.key = empty_sequence
+ *   this = (empty_sequence, false)
  * </pre>
  */
 public interface VigenereCipherKernel extends Standard<VigenereCipher> {
@@ -43,6 +60,100 @@ public interface VigenereCipherKernel extends Standard<VigenereCipher> {
      */
     Sequence<Character> decrypt(Sequence<Character> text);
 
+    /**
+     * Encrypts {@code length} characters of {@code src} starting at
+     * {@code srcOffset} into {@code dst} starting at {@code dstOffset}, using
+     * the stored key as if {@code letterOffset} letters had already been
+     * encrypted with it. Returning the updated letter count lets callers
+     * process one long text in pieces and get the same result as a single
+     * call. {@code src} and {@code dst} may be the same array as long as
+     * {@code srcOffset = dstOffset}.
+     *
+     * @param src
+     *            the array holding the text to encrypt
+     * @param srcOffset
+     *            the index of the first character to encrypt
+     * @param length
+     *            the number of characters to encrypt
+     * @param dst
+     *            the array receiving the ciphertext
+     * @param dstOffset
+     *            the index at which to store the first ciphertext character
+     * @param letterOffset
+     *            the number of letters encrypted before {@code src[srcOffset]}
+     * @return {@code letterOffset} plus the number of letters encrypted
+     * @updates dst
+     * @requires src /= null and dst /= null and 0 <= srcOffset and 0 <= length
+     *           and srcOffset + length <= |src| and 0 <= dstOffset and
+     *           dstOffset + length <= |dst| and letterOffset >= 0 and
+     *           |this.key| > 0
+     * @ensures dst[dstOffset, dstOffset + length) =
+     *          TEXT_ENCRYPTED_WITH_KEY(#src[srcOffset, srcOffset + length),
+     *          ROTATE(this.key, letterOffset mod |this.key|)) and dst is
+     *          otherwise unchanged and encrypt = letterOffset +
+     *          LETTER_COUNT(#src[srcOffset, srcOffset + length))
+     */
+    long encrypt(char[] src, int srcOffset, int length, char[] dst,
+            int dstOffset, long letterOffset);
+
+    /**
+     * Decrypts {@code length} characters of {@code src} starting at
+     * {@code srcOffset} into {@code dst} starting at {@code dstOffset}, using
+     * the stored key as if {@code letterOffset} letters had already been
+     * decrypted with it. Returning the updated letter count lets callers
+     * process one long text in pieces and get the same result as a single
+     * call. {@code src} and {@code dst} may be the same array as long as
+     * {@code srcOffset = dstOffset}.
+     *
+     * @param src
+     *            the array holding the ciphertext to decrypt
+     * @param srcOffset
+     *            the index of the first character to decrypt
+     * @param length
+     *            the number of characters to decrypt
+     * @param dst
+     *            the array receiving the plaintext
+     * @param dstOffset
+     *            the index at which to store the first plaintext character
+     * @param letterOffset
+     *            the number of letters decrypted before {@code src[srcOffset]}
+     * @return {@code letterOffset} plus the number of letters decrypted
+     * @updates dst
+     * @requires src /= null and dst /= null and 0 <= srcOffset and 0 <= length
+     *           and srcOffset + length <= |src| and 0 <= dstOffset and
+     *           dstOffset + length <= |dst| and letterOffset >= 0 and
+     *           |this.key| > 0
+     * @ensures dst[dstOffset, dstOffset + length) =
+     *          TEXT_DECRYPTED_WITH_KEY(#src[srcOffset, srcOffset + length),
+     *          ROTATE(this.key, letterOffset mod |this.key|)) and dst is
+     *          otherwise unchanged and decrypt = letterOffset +
+     *          LETTER_COUNT(#src[srcOffset, srcOffset + length))
+     */
+    long decrypt(char[] src, int srcOffset, int length, char[] dst,
+            int dstOffset, long letterOffset);
+
+    /**
+     * Encrypts {@code text} in place using the stored key.
+     *
+     * @param text
+     *            the text to encrypt
+     * @updates text
+     * @requires |this.key| > 0
+     * @ensures text = TEXT_ENCRYPTED_WITH_KEY(#text, this.key)
+     */
+    void encryptInPlace(Sequence<Character> text);
+
+    /**
+     * Decrypts {@code text} in place using the stored key.
+     *
+     * @param text
+     *            the ciphertext to decrypt
+     * @updates text
+     * @requires |this.key| > 0
+     * @ensures text = TEXT_DECRYPTED_WITH_KEY(#text, this.key)
+     */
+    void decryptInPlace(Sequence<Character> text);
+
     /**
      * Returns a copy of the current key.
      *
@@ -58,10 +169,39 @@ public interface VigenereCipherKernel extends Standard<VigenereCipher> {
      *            the new key to use
      * @replaces this.key
      * @clears key
-     * @requires key /= null and |key| > 0 and every character of key is a
-     *           letter
-     * @ensures this.key = TO_UPPERCASE(#key)
+     * @requires key /= null and |key| > 0 and every character of key is in
+     *           alphabet()
+     * @ensures this.key = [#key with each character replaced by
+     *          alphabet().charAt(alphabet().indexOf(character))]
      */
     void setKey(Sequence<Character> key);
 
+    /**
+     * Reports the alphabet this cipher shifts through.
+     *
+     * @return the alphabet given when this cipher was constructed
+     */
+    CipherAlphabet alphabet();
+
+    /**
+     * Reports whether encryption and decryption keep the case of each letter.
+     *
+     * @return true if letters keep their case, false if they come out in
+     *         upper case
+     * @ensures preservesCase = this.preserveCase
+     */
+    boolean preservesCase();
+
+    /**
+     * Selects whether encryption and decryption keep the case of each letter.
+     * The key is not changed.
+     *
+     * @param preserveCase
+     *            true to keep the case of each letter, false to upper-case
+     *            every letter
+     * @replaces this.preserveCase
+     * @ensures this.preserveCase = preserveCase
+     */
+    void setPreserveCase(boolean preserveCase);
+
 }
@@ -0,0 +1,128 @@
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * {@code Reader} that applies a {@code VigenereCipher} key to everything read
+ * through it from another {@code Reader}.
+ *
+ * <p>
+ * The key cursor is carried across calls, so reading a text in chunks of any
+ * size produces exactly the output of a single {@code encrypt} (or
+ * {@code decrypt}) call on the whole text. Characters are transformed in the
+ * caller's buffer, so no extra copy is made.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+public final class VigenereCipherReader extends Reader {
+
+    /*
+     * Private members
+     */
+
+    /**
+     * The reader supplying the untransformed text.
+     */
+    private final Reader in;
+
+    /**
+     * Session holding a private copy of the key and the key cursor.
+     */
+    private final CipherSession session;
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * Constructor for a reader that decrypts.
+     *
+     * @param in
+     *            the reader supplying the ciphertext
+     * @param cipher
+     *            the cipher whose stored key is used
+     * @requires in /= null and cipher /= null and |cipher.key| > 0
+     */
+    public VigenereCipherReader(Reader in, VigenereCipher cipher) {
+        this(in, cipher, CipherMode.DECRYPT);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param in
+     *            the reader supplying the untransformed text
+     * @param cipher
+     *            the cipher whose stored key is used
+     * @param mode
+     *            whether to encrypt or decrypt
+     * @requires in /= null and cipher /= null and mode /= null and
+     *           |cipher.key| > 0
+     */
+    public VigenereCipherReader(Reader in, VigenereCipher cipher,
+            CipherMode mode) {
+        assert in != null : "Violation of: in is not null";
+        assert cipher != null : "Violation of: cipher is not null";
+        assert mode != null : "Violation of: mode is not null";
+
+        this.in = in;
+        this.session = cipher.session(mode);
+    }
+
+    /*
+     * Public methods
+     */
+
+    /**
+     * Reports the number of letters transformed so far, which is also the
+     * letter offset the next chunk will be transformed at.
+     *
+     * @return the number of letters read
+     */
+    public long letterOffset() {
+        synchronized (this.lock) {
+            return this.session.position();
+        }
+    }
+
+    /**
+     * Attaches {@code stats} to this stream, so the letters read from now on
+     * are counted into it; {@code null} detaches the current collector.
+     *
+     * @param stats
+     *            the collector, or {@code null}
+     * @requires stats = null or (stats.keyLength() = |key| and the cipher
+     *           alphabet is CipherAlphabet.LETTERS)
+     */
+    public void setStatistics(CipherStatistics stats) {
+        synchronized (this.lock) {
+            this.session.setStatistics(stats);
+        }
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        assert cbuf != null : "Violation of: cbuf is not null";
+        assert 0 <= off && 0 <= len && off + len <= cbuf.length : ""
+                + "Violation of: [off, off + len) is within cbuf";
+
+        synchronized (this.lock) {
+            int n = this.in.read(cbuf, off, len);
+            if (n > 0) {
+                this.session.update(cbuf, off, n);
+            }
+            return n;
+        }
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+        return this.in.ready();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+
+}
@@ -1,3 +1,6 @@
+import java.util.ArrayList;
+import java.util.List;
+
 import components.sequence.Sequence;
 import components.sequence.Sequence1L;
 
@@ -9,13 +12,70 @@ import components.sequence.Sequence1L;
  * secondary methods. Kernel methods remain abstract.
  * </p>
  *
+ * <p>
+ * There are two exceptions. The batch path ({@code encryptAll} and
+ * {@code decryptAll}) reports the whole batch to {@code CipherMonitor} once,
+ * then runs each record through {@link #transformRange}, which is the
+ * unmonitored engine behind the {@code char[]} kernel methods. Records
+ * therefore do not pay a monitor start and stop each. {@code setKeyFromString}
+ * on a {@code LETTERS} cipher, while a {@code CompiledKeyCache} is installed,
+ * looks the key up in that cache and hands the result to
+ * {@link #setCompiledKey} instead of calling {@code setKey}, so a cached key
+ * is adopted without being rebuilt.
+ * </p>
+ *
  * @author Vikranth Vegesina
  */
 public abstract class VigenereCipherSecondary implements VigenereCipher {
 
     /*
-     * Private members
+     * Package-private methods implemented by the kernel classes
+     */
+
+    /**
+     * Applies the stored key in direction {@code mode} to {@code length}
+     * characters of {@code src}, storing the result in {@code dst}, without
+     * reporting to {@code CipherMonitor}. This is the body of the
+     * {@code char[]} {@code encrypt} and {@code decrypt} kernel methods.
+     *
+     * @param mode
+     *            whether to encrypt or decrypt
+     * @param src
+     *            the array holding the input text
+     * @param srcOffset
+     *            the index of the first input character
+     * @param length
+     *            the number of characters to process
+     * @param dst
+     *            the array receiving the output text
+     * @param dstOffset
+     *            the index at which to store the first output character
+     * @param letterOffset
+     *            the number of letters already processed before {@code src}
+     * @return {@code letterOffset} plus the number of letters processed
+     * @requires [the requires clause of the char[] encrypt kernel method]
+     */
+    abstract long transformRange(CipherMode mode, char[] src, int srcOffset,
+            int length, char[] dst, int dstOffset, long letterOffset);
+
+    /**
+     * Reports the length of the stored key without copying it.
+     *
+     * @return |this.key|
      */
+    abstract int keyLength();
+
+    /**
+     * Replaces the stored key with {@code key}, sharing its engines where
+     * the case mode allows instead of rebuilding them.
+     *
+     * @param key
+     *            the compiled key
+     * @updates this
+     * @requires this.alphabet() = CipherAlphabet.LETTERS
+     * @ensures this.key = key.key() and this.preserveCase = #preserveCase
+     */
+    abstract void setCompiledKey(CompiledVigenereKey key);
 
     /*
      * Private helper methods
@@ -32,10 +92,230 @@ public abstract class VigenereCipherSecondary implements VigenereCipher {
         return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
     }
 
+    /**
+     * Converts a character to uppercase if it is a letter.
+     *
+     * @param c
+     *            the character to convert
+     * @return the uppercase version if letter, otherwise the character itself
+     */
+    private static char toUpperCase(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return (char) (c - 'a' + 'A');
+        }
+        return c;
+    }
+
+    /**
+     * Reports the mask OR-ed into table results: the case bit if this cipher
+     * preserves case, 0 otherwise.
+     *
+     * @return the case mask
+     */
+    private int caseMask() {
+        int mask = 0;
+        if (this.preservesCase()) {
+            mask = VigenereTables.CASE_BIT;
+        }
+        return mask;
+    }
+
+    /**
+     * Applies {@code table} to {@code text} with the ad hoc {@code key}. The
+     * stored key is neither read nor replaced, so the only work beyond the
+     * transformation itself is one pass over {@code key} to find its shifts.
+     *
+     * @param table
+     *            {@code VigenereTables.ENCRYPT} or
+     *            {@code VigenereTables.DECRYPT}
+     * @param text
+     *            the text to transform
+     * @param key
+     *            the key to use
+     * @param caseMask
+     *            {@code VigenereTables.CASE_BIT} to keep the case of each
+     *            letter, 0 to upper-case every letter
+     * @return the transformed text
+     */
+    private static Sequence<Character> transformWithKey(char[] table,
+            Sequence<Character> text, Sequence<Character> key, int caseMask) {
+        byte[] shifts = new byte[key.length()];
+        int i = 0;
+        for (char c : key) {
+            assert isLetter(
+                    c) : "Violation of: every character of key is a letter";
+            shifts[i] = (byte) (toUpperCase(c) - 'A');
+            i++;
+        }
+
+        Sequence<Character> result = text.newInstance();
+        int keyIndex = 0;
+        for (char ch : text) {
+            if (isLetter(ch)) {
+                result.add(result.length(),
+                        (char) (table[shifts[keyIndex]
+                                * VigenereTables.ALPHABET_SIZE
+                                + (toUpperCase(ch) - 'A')] | (ch & caseMask)));
+                keyIndex++;
+                if (keyIndex == shifts.length) {
+                    keyIndex = 0;
+                }
+            } else {
+                result.add(result.length(), ch);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Copies the characters of {@code text} into a new array.
+     *
+     * @param text
+     *            the text to copy
+     * @return an array holding the characters of {@code text}
+     */
+    private static char[] toCharArray(CharSequence text) {
+        char[] buffer = new char[text.length()];
+        if (text instanceof String) {
+            ((String) text).getChars(0, buffer.length, buffer, 0);
+        } else {
+            for (int i = 0; i < buffer.length; i++) {
+                buffer[i] = text.charAt(i);
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Applies this cipher's {@code mode} transformation in place to each
+     * packed record of {@code buffer}, resetting the key cursor at the start
+     * of every record unless {@code carryKey}.
+     *
+     * @param mode
+     *            whether to encrypt or decrypt
+     * @param buffer
+     *            the concatenated records
+     * @param offsets
+     *            the start of every record followed by the end of the last
+     * @param carryKey
+     *            whether the key cursor carries across records
+     */
+    private void transformAll(CipherMode mode, char[] buffer, int[] offsets,
+            boolean carryKey) {
+        assert offsets.length > 0 && offsets[0] == 0
+                && offsets[offsets.length - 1] == buffer.length : ""
+                        + "Violation of: offsets[0] = 0 and "
+                        + "offsets[|offsets| - 1] = |packed|";
+        assert this.keyLength() > 0 : "Violation of: |this.key| > 0";
+
+        CipherMetrics.Operation operation = CipherMetrics.Operation.ENCRYPT;
+        if (mode == CipherMode.DECRYPT) {
+            operation = CipherMetrics.Operation.DECRYPT;
+        }
+        CipherOperationEvent probe = CipherMonitor.start();
+        try {
+            long letterOffset = 0;
+            for (int k = 0; k + 1 < offsets.length; k++) {
+                int start = offsets[k];
+                int length = offsets[k + 1] - start;
+                assert length >= 0 : "Violation of: offsets is non-decreasing";
+                if (!carryKey) {
+                    letterOffset = 0;
+                }
+                letterOffset = this.transformRange(mode, buffer, start, length,
+                        buffer, start, letterOffset);
+            }
+        } finally {
+            CipherMonitor.stop(probe, operation, buffer.length,
+                    this.keyLength());
+        }
+    }
+
+    /**
+     * Applies this cipher's {@code mode} transformation to every record of
+     * {@code records}, packing them into a single buffer first.
+     *
+     * @param mode
+     *            whether to encrypt or decrypt
+     * @param records
+     *            the records
+     * @param carryKey
+     *            whether the key cursor carries across records
+     * @return the transformed records, in order
+     */
+    private List<String> transformAll(CipherMode mode,
+            List<? extends CharSequence> records, boolean carryKey) {
+        assert records != null : "Violation of: records is not null";
+
+        int[] offsets = new int[records.size() + 1];
+        int total = 0;
+        int k = 0;
+        for (CharSequence record : records) {
+            assert record != null : "Violation of: no record is null";
+            total += record.length();
+            k++;
+            offsets[k] = total;
+        }
+
+        char[] buffer = new char[total];
+        k = 0;
+        for (CharSequence record : records) {
+            int start = offsets[k];
+            if (record instanceof String) {
+                ((String) record).getChars(0, record.length(), buffer, start);
+            } else {
+                for (int i = 0; i < record.length(); i++) {
+                    buffer[start + i] = record.charAt(i);
+                }
+            }
+            k++;
+        }
+
+        this.transformAll(mode, buffer, offsets, carryKey);
+
+        List<String> result = new ArrayList<>(records.size());
+        for (k = 0; k + 1 < offsets.length; k++) {
+            result.add(new String(buffer, offsets[k],
+                    offsets[k + 1] - offsets[k]));
+        }
+        return result;
+    }
+
     /*
      * Public members
      */
 
+    /*
+     * Common methods (from Object)
+     */
+
+    @Override
+    public final boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (!(obj instanceof VigenereCipher)) {
+            return false;
+        }
+        VigenereCipher other = (VigenereCipher) obj;
+        return this.alphabet().equals(other.alphabet())
+                && this.preservesCase() == other.preservesCase()
+                && this.keyToString().equals(other.keyToString());
+    }
+
+    @Override
+    public final int hashCode() {
+        return this.keyToString().hashCode();
+    }
+
+    @Override
+    public final String toString() {
+        return "<" + this.keyToString() + ">";
+    }
+
     /*
      * Secondary methods - implemented using only kernel methods
      */
@@ -47,25 +327,20 @@ public abstract class VigenereCipherSecondary implements VigenereCipher {
         assert key != null : "Violation of: key is not null";
         assert key.length() > 0 : "Violation of: |key| > 0";
 
-        // Save the current key
-        Sequence<Character> savedKey = this.key();
-
-        // Temporarily set the new key - manually copy to preserve key parameter
-        Sequence<Character> tempKey = key.newInstance();
-        for (int i = 0; i < key.length(); i++) {
-            tempKey.add(tempKey.length(), key.entry(i));
-        }
-        this.setKey(tempKey);
-
-        // Encrypt with the temporary key
-        Sequence<Character> result = this.encrypt(text);
-
-        // Restore the original key (only if there was one)
-        if (savedKey.length() > 0) {
-            this.setKey(savedKey);
+        CipherOperationEvent probe = CipherMonitor.start();
+        try {
+            CipherAlphabet alphabet = this.alphabet();
+            if (alphabet != CipherAlphabet.LETTERS) {
+                return new VigenereAlphabetEngine(alphabet,
+                        VigenereAlphabetEngine.indexesOf(alphabet, key), false)
+                                .transform(text);
+            }
+            return transformWithKey(VigenereTables.ENCRYPT, text, key,
+                    this.caseMask());
+        } finally {
+            CipherMonitor.stop(probe, CipherMetrics.Operation.ENCRYPT_WITH_KEY,
+                    text.length(), key.length());
         }
-
-        return result;
     }
 
     @Override
@@ -75,35 +350,137 @@ public abstract class VigenereCipherSecondary implements VigenereCipher {
         assert key != null : "Violation of: key is not null";
         assert key.length() > 0 : "Violation of: |key| > 0";
 
-        // Save the current key
-        Sequence<Character> savedKey = this.key();
-
-        // Temporarily set the new key - manually copy to preserve key parameter
-        Sequence<Character> tempKey = key.newInstance();
-        for (int i = 0; i < key.length(); i++) {
-            tempKey.add(tempKey.length(), key.entry(i));
+        CipherOperationEvent probe = CipherMonitor.start();
+        try {
+            CipherAlphabet alphabet = this.alphabet();
+            if (alphabet != CipherAlphabet.LETTERS) {
+                return new VigenereAlphabetEngine(alphabet,
+                        VigenereAlphabetEngine.indexesOf(alphabet, key), true)
+                                .transform(text);
+            }
+            return transformWithKey(VigenereTables.DECRYPT, text, key,
+                    this.caseMask());
+        } finally {
+            CipherMonitor.stop(probe, CipherMetrics.Operation.DECRYPT_WITH_KEY,
+                    text.length(), key.length());
         }
-        this.setKey(tempKey);
+    }
+
+    @Override
+    public final void encrypt(char[] src, int srcOffset, int length,
+            char[] dst, int dstOffset) {
+        this.encrypt(src, srcOffset, length, dst, dstOffset, 0L);
+    }
 
-        // Decrypt with the temporary key
-        Sequence<Character> result = this.decrypt(text);
+    @Override
+    public final void decrypt(char[] src, int srcOffset, int length,
+            char[] dst, int dstOffset) {
+        this.decrypt(src, srcOffset, length, dst, dstOffset, 0L);
+    }
 
-        // Restore the original key (only if there was one)
-        if (savedKey.length() > 0) {
-            this.setKey(savedKey);
+    @Override
+    public final String encrypt(CharSequence text) {
+        assert text != null : "Violation of: text is not null";
+
+        char[] buffer = toCharArray(text);
+        this.encrypt(buffer, 0, buffer.length, buffer, 0);
+        return new String(buffer);
+    }
+
+    @Override
+    public final String decrypt(CharSequence text) {
+        assert text != null : "Violation of: text is not null";
+
+        char[] buffer = toCharArray(text);
+        this.decrypt(buffer, 0, buffer.length, buffer, 0);
+        return new String(buffer);
+    }
+
+    @Override
+    public final void encryptInPlace(char[] buffer, int offset, int length) {
+        assert buffer != null : "Violation of: buffer is not null";
+
+        this.encrypt(buffer, offset, length, buffer, offset);
+    }
+
+    @Override
+    public final void decryptInPlace(char[] buffer, int offset, int length) {
+        assert buffer != null : "Violation of: buffer is not null";
+
+        this.decrypt(buffer, offset, length, buffer, offset);
+    }
+
+    @Override
+    public final String decryptRange(CharSequence text, int offset,
+            int length, LetterCheckpointIndex index) {
+        assert text != null : "Violation of: text is not null";
+        assert index != null : "Violation of: index is not null";
+        assert this.alphabet() == CipherAlphabet.LETTERS : ""
+                + "Violation of: this.alphabet() = CipherAlphabet.LETTERS";
+        assert 0 <= offset && 0 <= length
+                && offset + length <= text.length() : ""
+                        + "Violation of: [offset, offset + length) "
+                        + "is within text";
+
+        long letterOffset = index.lettersBefore(text, offset);
+        char[] buffer = new char[length];
+        for (int i = 0; i < length; i++) {
+            buffer[i] = text.charAt(offset + i);
         }
+        this.decrypt(buffer, 0, length, buffer, 0, letterOffset);
+        return new String(buffer);
+    }
 
+    @Override
+    public final List<String> encryptAll(List<? extends CharSequence> records,
+            boolean carryKey) {
+        return this.transformAll(CipherMode.ENCRYPT, records, carryKey);
+    }
+
+    @Override
+    public final List<String> decryptAll(List<? extends CharSequence> records,
+            boolean carryKey) {
+        return this.transformAll(CipherMode.DECRYPT, records, carryKey);
+    }
+
+    @Override
+    public final char[] encryptAll(char[] packed, int[] offsets,
+            boolean carryKey) {
+        assert packed != null : "Violation of: packed is not null";
+        assert offsets != null : "Violation of: offsets is not null";
+
+        char[] result = packed.clone();
+        this.transformAll(CipherMode.ENCRYPT, result, offsets, carryKey);
         return result;
     }
 
+    @Override
+    public final char[] decryptAll(char[] packed, int[] offsets,
+            boolean carryKey) {
+        assert packed != null : "Violation of: packed is not null";
+        assert offsets != null : "Violation of: offsets is not null";
+
+        char[] result = packed.clone();
+        this.transformAll(CipherMode.DECRYPT, result, offsets, carryKey);
+        return result;
+    }
+
+    @Override
+    public final CipherSession session(CipherMode mode) {
+        assert mode != null : "Violation of: mode is not null";
+
+        return new CipherSession(this, mode);
+    }
+
     @Override
     public final boolean isValidKey() {
         Sequence<Character> currentKey = this.key();
+        CipherAlphabet alphabet = this.alphabet();
         boolean valid = currentKey.length() > 0;
 
         if (valid) {
             for (int i = 0; i < currentKey.length(); i++) {
-                if (!isLetter(currentKey.entry(i))) {
+                if (!alphabet.contains(currentKey.entry(i))) {
                     valid = false;
                     break;
                 }
@@ -118,8 +495,19 @@ public abstract class VigenereCipherSecondary implements VigenereCipher {
         assert s != null : "Violation of: s is not null";
         assert s.length() > 0 : "Violation of: |s| > 0";
 
-        Sequence<Character> newKey = this.stringToSequence(s);
-        this.setKey(newKey);
+        CompiledKeyCache cache = CompiledKeyCache.installed();
+        if (cache != null && this.alphabet() == CipherAlphabet.LETTERS) {
+            CipherOperationEvent probe = CipherMonitor.start();
+            try {
+                this.setCompiledKey(cache.get(s));
+            } finally {
+                CipherMonitor.stop(probe, CipherMetrics.Operation.SET_KEY,
+                        s.length(), s.length());
+            }
+        } else {
+            Sequence<Character> newKey = this.stringToSequence(s);
+            this.setKey(newKey);
+        }
     }
 
     @Override
@@ -0,0 +1,180 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * {@code Writer} that applies a {@code VigenereCipher} key to everything
+ * written to it before passing it on to another {@code Writer}.
+ *
+ * <p>
+ * The key cursor is carried across calls, so writing a text in chunks of any
+ * size produces exactly the output of a single {@code encrypt} (or
+ * {@code decrypt}) call on the whole text, while only one fixed-size buffer is
+ * ever held in memory.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+public final class VigenereCipherWriter extends Writer {
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Number of characters transformed per call to the underlying writer.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The writer receiving the transformed text.
+     */
+    private final Writer out;
+
+    /**
+     * Session holding a private copy of the key and the key cursor.
+     */
+    private final CipherSession session;
+
+    /**
+     * Scratch buffer holding transformed text before it is written out.
+     */
+    private final char[] buffer;
+
+    /*
+     * Private helper methods
+     */
+
+    /**
+     * Transforms {@code length} characters of {@code src} into
+     * {@code this.buffer} and writes them out.
+     *
+     * @param src
+     *            the array holding the input text
+     * @param srcOffset
+     *            the index of the first input character
+     * @param length
+     *            the number of characters, at most {@code BUFFER_SIZE}
+     * @throws IOException
+     *             if the underlying writer fails
+     */
+    private void transformAndWrite(char[] src, int srcOffset, int length)
+            throws IOException {
+        this.session.update(src, srcOffset, length, this.buffer, 0);
+        this.out.write(this.buffer, 0, length);
+    }
+
+    /*
+     * Constructors
+     */
+
+    /**
+     * Constructor for a writer that encrypts.
+     *
+     * @param out
+     *            the writer receiving the ciphertext
+     * @param cipher
+     *            the cipher whose stored key is used
+     * @requires out /= null and cipher /= null and |cipher.key| > 0
+     */
+    public VigenereCipherWriter(Writer out, VigenereCipher cipher) {
+        this(out, cipher, CipherMode.ENCRYPT);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param out
+     *            the writer receiving the transformed text
+     * @param cipher
+     *            the cipher whose stored key is used
+     * @param mode
+     *            whether to encrypt or decrypt
+     * @requires out /= null and cipher /= null and mode /= null and
+     *           |cipher.key| > 0
+     */
+    public VigenereCipherWriter(Writer out, VigenereCipher cipher,
+            CipherMode mode) {
+        assert out != null : "Violation of: out is not null";
+        assert cipher != null : "Violation of: cipher is not null";
+        assert mode != null : "Violation of: mode is not null";
+
+        this.out = out;
+        this.session = cipher.session(mode);
+        this.buffer = new char[BUFFER_SIZE];
+    }
+
+    /*
+     * Public methods
+     */
+
+    /**
+     * Reports the number of letters transformed so far, which is also the
+     * letter offset the next chunk will be transformed at.
+     *
+     * @return the number of letters written
+     */
+    public long letterOffset() {
+        synchronized (this.lock) {
+            return this.session.position();
+        }
+    }
+
+    /**
+     * Attaches {@code stats} to this stream, so the letters written from now on
+     * are counted into it; {@code null} detaches the current collector.
+     *
+     * @param stats
+     *            the collector, or {@code null}
+     * @requires stats = null or (stats.keyLength() = |key| and the cipher
+     *           alphabet is CipherAlphabet.LETTERS)
+     */
+    public void setStatistics(CipherStatistics stats) {
+        synchronized (this.lock) {
+            this.session.setStatistics(stats);
+        }
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        assert cbuf != null : "Violation of: cbuf is not null";
+        assert 0 <= off && 0 <= len && off + len <= cbuf.length : ""
+                + "Violation of: [off, off + len) is within cbuf";
+
+        synchronized (this.lock) {
+            int done = 0;
+            while (done < len) {
+                int n = Math.min(len - done, BUFFER_SIZE);
+                this.transformAndWrite(cbuf, off + done, n);
+                done += n;
+            }
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        assert str != null : "Violation of: str is not null";
+        assert 0 <= off && 0 <= len && off + len <= str.length() : ""
+                + "Violation of: [off, off + len) is within str";
+
+        synchronized (this.lock) {
+            int done = 0;
+            while (done < len) {
+                int n = Math.min(len - done, BUFFER_SIZE);
+                str.getChars(off + done, off + done + n, this.buffer, 0);
+                this.transformAndWrite(this.buffer, 0, n);
+                done += n;
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.out.close();
+    }
+
+}
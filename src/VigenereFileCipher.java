@@ -0,0 +1,343 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Encrypts and decrypts ASCII/Latin-1 files with a {@code VigenereCipher} key
+ * by memory-mapping them, without ever building a {@code String} or
+ * {@code Sequence<Character>} of their contents.
+ *
+ * <p>
+ * The key of the cipher is compiled once into a {@code CompiledVigenereKey},
+ * whose word-at-a-time engine shifts the bytes of each mapped region in
+ * place, eight at a time, without copying them to the heap. Files
+ * are processed one mapped region at a time and the key cursor is carried
+ * from region to region, so the output is byte for byte what
+ * {@code VigenereCipher1L.encrypt} produces on the file decoded as Latin-1,
+ * including its case mode. Bytes that are not ASCII letters, including all
+ * bytes above 0x7F, are copied unchanged. Every method requires a cipher over
+ * {@code CipherAlphabet.LETTERS}.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+public final class VigenereFileCipher {
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Default number of bytes mapped at a time.
+     */
+    private static final int DEFAULT_REGION_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Size of the buffer used to feed a {@code LetterCheckpointIndex.Builder}.
+     */
+    private static final int INDEX_BUFFER_SIZE = 8192;
+
+    /**
+     * Mask turning a signed byte into its unsigned Latin-1 value.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private VigenereFileCipher() {
+    }
+
+    /*
+     * Private helper methods
+     */
+
+    /**
+     * Checks if a character is a letter.
+     *
+     * @param c
+     *            the character to check
+     * @return true if the character is a letter, false otherwise
+     */
+    private static boolean isLetter(int c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    /**
+     * Applies {@code key} in direction {@code mode} to the mapped region
+     * {@code src}, storing the result at the same positions of the mapped
+     * region {@code dst}. The key's word-at-a-time engine reads and writes
+     * the mapped bytes directly.
+     *
+     * @param key
+     *            the compiled key
+     * @param mode
+     *            whether to encrypt or decrypt
+     * @param src
+     *            the mapped input region
+     * @param dst
+     *            the mapped output region, as long as {@code src}
+     * @param letterOffset
+     *            the number of letters processed before this region
+     * @return {@code letterOffset} plus the number of letters in this region
+     */
+    private static long transformRegion(CompiledVigenereKey key,
+            CipherMode mode, MappedByteBuffer src, MappedByteBuffer dst,
+            long letterOffset) {
+        long letters;
+        if (mode == CipherMode.ENCRYPT) {
+            letters = key.encrypt(src, dst, letterOffset);
+        } else {
+            letters = key.decrypt(src, dst, letterOffset);
+        }
+        return letters;
+    }
+
+    /**
+     * Applies the key of {@code cipher} in direction {@code mode} to
+     * {@code source}, writing the result to {@code target}.
+     *
+     * @param cipher
+     *            the cipher whose stored key is used
+     * @param mode
+     *            whether to encrypt or decrypt
+     * @param source
+     *            the file to read
+     * @param target
+     *            the file to create or overwrite
+     * @param regionSize
+     *            the number of bytes mapped at a time
+     * @return the number of letters processed
+     * @throws IOException
+     *             if a file cannot be read, written or mapped
+     */
+    private static long transform(VigenereCipher cipher, CipherMode mode,
+            Path source, Path target, int regionSize) throws IOException {
+        assert cipher != null : "Violation of: cipher is not null";
+        assert source != null : "Violation of: source is not null";
+        assert target != null : "Violation of: target is not null";
+        assert regionSize > 0 : "Violation of: regionSize > 0";
+
+        CompiledVigenereKey key = CompiledVigenereKey.of(cipher);
+        long letters = 0;
+        try (FileChannel in = FileChannel.open(source,
+                StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(target,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                int length = (int) Math.min(regionSize, size - position);
+                MappedByteBuffer src = in.map(FileChannel.MapMode.READ_ONLY,
+                        position, length);
+                MappedByteBuffer dst = out.map(FileChannel.MapMode.READ_WRITE,
+                        position, length);
+                letters = transformRegion(key, mode, src, dst, letters);
+                position += length;
+            }
+        }
+        return letters;
+    }
+
+    /**
+     * Counts the ASCII letters in the first {@code length} bytes of
+     * {@code region}.
+     *
+     * @param region
+     *            the mapped region
+     * @param length
+     *            the number of bytes to examine
+     * @return the number of letters
+     */
+    private static int regionLetters(MappedByteBuffer region, int length) {
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (isLetter(region.get(i) & BYTE_MASK)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /*
+     * Package-private methods
+     */
+
+    /**
+     * Encrypts {@code source} into {@code target}, mapping
+     * {@code regionSize} bytes at a time.
+     *
+     * @param cipher
+     *            the cipher whose stored key is used
+     * @param source
+     *            the plaintext file
+     * @param target
+     *            the ciphertext file to create or overwrite
+     * @param regionSize
+     *            the number of bytes mapped at a time
+     * @return the number of letters encrypted
+     * @throws IOException
+     *             if a file cannot be read, written or mapped
+     */
+    static long encrypt(VigenereCipher cipher, Path source, Path target,
+            int regionSize) throws IOException {
+        return transform(cipher, CipherMode.ENCRYPT, source, target,
+                regionSize);
+    }
+
+    /*
+     * Public methods
+     */
+
+    /**
+     * Encrypts {@code source} into {@code target} using the stored key of
+     * {@code cipher}.
+     *
+     * @param cipher
+     *            the cipher whose stored key is used
+     * @param source
+     *            the plaintext file
+     * @param target
+     *            the ciphertext file to create or overwrite
+     * @return the number of letters encrypted
+     * @throws IOException
+     *             if a file cannot be read, written or mapped
+     * @requires cipher /= null and source /= null and target /= null and
+     *           source /= target and |cipher.key| > 0 and cipher.alphabet()
+     *           = CipherAlphabet.LETTERS
+     * @ensures [target holds TEXT_ENCRYPTED_WITH_KEY(source, cipher.key) in
+     *          Latin-1]
+     */
+    public static long encrypt(VigenereCipher cipher, Path source, Path target)
+            throws IOException {
+        return transform(cipher, CipherMode.ENCRYPT, source, target,
+                DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * Decrypts {@code source} into {@code target} using the stored key of
+     * {@code cipher}.
+     *
+     * @param cipher
+     *            the cipher whose stored key is used
+     * @param source
+     *            the ciphertext file
+     * @param target
+     *            the plaintext file to create or overwrite
+     * @return the number of letters decrypted
+     * @throws IOException
+     *             if a file cannot be read, written or mapped
+     * @requires cipher /= null and source /= null and target /= null and
+     *           source /= target and |cipher.key| > 0 and cipher.alphabet()
+     *           = CipherAlphabet.LETTERS
+     * @ensures [target holds TEXT_DECRYPTED_WITH_KEY(source, cipher.key) in
+     *          Latin-1]
+     */
+    public static long decrypt(VigenereCipher cipher, Path source, Path target)
+            throws IOException {
+        return transform(cipher, CipherMode.DECRYPT, source, target,
+                DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * Decrypts bytes {@code [offset, offset + length)} of the ciphertext file
+     * {@code source}, using {@code index} so that only the bytes from the
+     * nearest checkpoint onward are mapped and read.
+     *
+     * @param cipher
+     *            the cipher whose stored key is used
+     * @param source
+     *            the ciphertext file
+     * @param offset
+     *            the position of the first byte to decrypt
+     * @param length
+     *            the number of bytes to decrypt
+     * @param index
+     *            a letter checkpoint index of {@code source}
+     * @return the plaintext of the requested range
+     * @throws IOException
+     *             if the file cannot be read or mapped
+     * @requires cipher /= null and source /= null and index /= null and
+     *           index.length = [size of source] and 0 <= offset and 0 <=
+     *           length and offset + length <= index.length and |cipher.key| >
+     *           0 and cipher.alphabet() = CipherAlphabet.LETTERS
+     */
+    public static String decryptRange(VigenereCipher cipher, Path source,
+            long offset, int length, LetterCheckpointIndex index)
+            throws IOException {
+        assert cipher != null : "Violation of: cipher is not null";
+        assert source != null : "Violation of: source is not null";
+        assert index != null : "Violation of: index is not null";
+        assert cipher.alphabet() == CipherAlphabet.LETTERS : ""
+                + "Violation of: cipher.alphabet() = CipherAlphabet.LETTERS";
+        assert 0 <= offset && 0 <= length
+                && offset + length <= index.length() : ""
+                        + "Violation of: [offset, offset + length) "
+                        + "is within the indexed file";
+
+        long start = index.checkpointAtOrBefore(offset);
+        long letters = index.lettersAtCheckpoint(offset);
+        char[] buffer = new char[length];
+        try (FileChannel in = FileChannel.open(source,
+                StandardOpenOption.READ)) {
+            MappedByteBuffer region = in.map(FileChannel.MapMode.READ_ONLY,
+                    start, offset + length - start);
+            int skip = (int) (offset - start);
+            letters += regionLetters(region, skip);
+            for (int i = 0; i < length; i++) {
+                buffer[i] = (char) (region.get(skip + i) & BYTE_MASK);
+            }
+        }
+        cipher.decrypt(buffer, 0, length, buffer, 0, letters);
+        return new String(buffer);
+    }
+
+    /**
+     * Builds a {@code LetterCheckpointIndex} of {@code source} with
+     * checkpoints every {@code interval} bytes, in a single mapped scan.
+     *
+     * @param source
+     *            the file to index
+     * @param interval
+     *            distance, in bytes, between checkpoints
+     * @return the index
+     * @throws IOException
+     *             if the file cannot be read or mapped
+     * @requires source /= null and interval > 0
+     */
+    public static LetterCheckpointIndex index(Path source, int interval)
+            throws IOException {
+        assert source != null : "Violation of: source is not null";
+
+        LetterCheckpointIndex.Builder builder;
+        builder = new LetterCheckpointIndex.Builder(interval);
+        char[] buffer = new char[INDEX_BUFFER_SIZE];
+        try (FileChannel in = FileChannel.open(source,
+                StandardOpenOption.READ)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                int length = (int) Math.min(DEFAULT_REGION_SIZE,
+                        size - position);
+                MappedByteBuffer region = in
+                        .map(FileChannel.MapMode.READ_ONLY, position, length);
+                int done = 0;
+                while (done < length) {
+                    int n = Math.min(INDEX_BUFFER_SIZE, length - done);
+                    for (int i = 0; i < n; i++) {
+                        buffer[i] = (char) (region.get(done + i) & BYTE_MASK);
+                    }
+                    builder.append(buffer, 0, n);
+                    done += n;
+                }
+                position += length;
+            }
+        }
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,312 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Encrypts and decrypts large texts on a {@code ForkJoinPool} with a
+ * {@code VigenereCipher} key, producing exactly the sequential output.
+ *
+ * <p>
+ * The key used for a letter depends on how many letters came before it, so
+ * the work is done in two parallel passes over fixed-size chunks. The first
+ * pass counts the letters in every chunk; a prefix sum of those counts gives
+ * each chunk its starting letter offset; the second pass then transforms every
+ * chunk independently with the letter-offset {@code char[]} methods of a
+ * {@code CompiledVigenereKey}, so the cipher must use
+ * {@code CipherAlphabet.LETTERS}.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+public final class VigenereParallelCipher {
+
+    /*
+     * Public members
+     */
+
+    /**
+     * Default number of characters handled by one task.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+
+    /*
+     * Private members
+     */
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private VigenereParallelCipher() {
+    }
+
+    /*
+     * Private helper methods
+     */
+
+    /**
+     * Checks if a character is a letter.
+     *
+     * @param c
+     *            the character to check
+     * @return true if the character is a letter, false otherwise
+     */
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    /**
+     * State shared by every task of one parallel call.
+     */
+    private static final class Job {
+
+        /**
+         * The key.
+         */
+        private final CompiledVigenereKey key;
+
+        /**
+         * Whether the second pass encrypts or decrypts.
+         */
+        private final CipherMode mode;
+
+        /**
+         * The input text.
+         */
+        private final char[] src;
+
+        /**
+         * The output text.
+         */
+        private final char[] dst;
+
+        /**
+         * Number of characters per chunk.
+         */
+        private final int chunkSize;
+
+        /**
+         * Per-chunk letter counts in the first pass, then per-chunk starting
+         * letter offsets in the second.
+         */
+        private final long[] letters;
+
+        /**
+         * True during the counting pass, false during the transforming pass.
+         */
+        private boolean counting;
+
+        /**
+         * Constructor.
+         *
+         * @param key
+         *            the key
+         * @param mode
+         *            whether to encrypt or decrypt
+         * @param src
+         *            the input text
+         * @param dst
+         *            the output text
+         * @param chunkSize
+         *            number of characters per chunk
+         */
+        Job(CompiledVigenereKey key, CipherMode mode, char[] src, char[] dst,
+                int chunkSize) {
+            this.key = key;
+            this.mode = mode;
+            this.src = src;
+            this.dst = dst;
+            this.chunkSize = chunkSize;
+            this.letters = new long[(src.length + chunkSize - 1) / chunkSize];
+            this.counting = true;
+        }
+
+        /**
+         * Runs the current pass on chunk {@code k}.
+         *
+         * @param k
+         *            the chunk number
+         */
+        void runChunk(int k) {
+            int start = k * this.chunkSize;
+            int length = Math.min(this.chunkSize, this.src.length - start);
+            if (this.counting) {
+                long count = 0;
+                for (int i = start; i < start + length; i++) {
+                    if (isLetter(this.src[i])) {
+                        count++;
+                    }
+                }
+                this.letters[k] = count;
+            } else if (this.mode == CipherMode.ENCRYPT) {
+                this.key.encrypt(this.src, start, length, this.dst, start,
+                        this.letters[k]);
+            } else {
+                this.key.decrypt(this.src, start, length, this.dst, start,
+                        this.letters[k]);
+            }
+        }
+
+    }
+
+    /**
+     * Task that runs the current pass of a {@code Job} on the chunks
+     * {@code [lo, hi)}, splitting in half until a single chunk is left.
+     */
+    private static final class ChunkTask extends RecursiveAction {
+
+        /**
+         * Serialization version, required because {@code RecursiveAction} is
+         * {@code Serializable}.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The job this task belongs to.
+         */
+        private final transient Job job;
+
+        /**
+         * First chunk handled by this task.
+         */
+        private final int lo;
+
+        /**
+         * One past the last chunk handled by this task.
+         */
+        private final int hi;
+
+        /**
+         * Constructor.
+         *
+         * @param job
+         *            the job this task belongs to
+         * @param lo
+         *            first chunk handled by this task
+         * @param hi
+         *            one past the last chunk handled by this task
+         */
+        ChunkTask(Job job, int lo, int hi) {
+            this.job = job;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.hi - this.lo > 1) {
+                int mid = (this.lo + this.hi) >>> 1;
+                invokeAll(new ChunkTask(this.job, this.lo, mid),
+                        new ChunkTask(this.job, mid, this.hi));
+            } else {
+                this.job.runChunk(this.lo);
+            }
+        }
+
+    }
+
+    /*
+     * Public methods
+     */
+
+    /**
+     * Encrypts or decrypts all of {@code src} into {@code dst} on
+     * {@code pool}, using the stored key of {@code cipher}.
+     *
+     * @param cipher
+     *            the cipher whose stored key is used
+     * @param mode
+     *            whether to encrypt or decrypt
+     * @param src
+     *            the input text
+     * @param dst
+     *            the array receiving the output; may be {@code src}
+     * @param pool
+     *            the pool running the tasks
+     * @param chunkSize
+     *            number of characters handled by one task
+     * @return the number of letters processed
+     * @updates dst
+     * @requires cipher /= null and mode /= null and src /= null and dst /=
+     *           null and |dst| = |src| and pool /= null and chunkSize > 0 and
+     *           |cipher.key| > 0
+     * @ensures [dst = src encrypted or decrypted with cipher.key, exactly as
+     *          by a single sequential call]
+     */
+    public static long transform(VigenereCipher cipher, CipherMode mode,
+            char[] src, char[] dst, ForkJoinPool pool, int chunkSize) {
+        assert cipher != null : "Violation of: cipher is not null";
+        assert mode != null : "Violation of: mode is not null";
+        assert src != null : "Violation of: src is not null";
+        assert dst != null : "Violation of: dst is not null";
+        assert dst.length == src.length : "Violation of: |dst| = |src|";
+        assert pool != null : "Violation of: pool is not null";
+        assert chunkSize > 0 : "Violation of: chunkSize > 0";
+
+        /*
+         * The compiled key is immutable, so every task can share it.
+         */
+        CompiledVigenereKey key = CompiledVigenereKey.of(cipher);
+
+        if (src.length <= chunkSize) {
+            if (mode == CipherMode.ENCRYPT) {
+                return key.encrypt(src, 0, src.length, dst, 0, 0L);
+            }
+            return key.decrypt(src, 0, src.length, dst, 0, 0L);
+        }
+
+        Job job = new Job(key, mode, src, dst, chunkSize);
+        int chunks = job.letters.length;
+        pool.invoke(new ChunkTask(job, 0, chunks));
+
+        long total = 0;
+        for (int k = 0; k < chunks; k++) {
+            long count = job.letters[k];
+            job.letters[k] = total;
+            total += count;
+        }
+
+        job.counting = false;
+        pool.invoke(new ChunkTask(job, 0, chunks));
+        return total;
+    }
+
+    /**
+     * Encrypts all of {@code src} into {@code dst} on the common pool.
+     *
+     * @param cipher
+     *            the cipher whose stored key is used
+     * @param src
+     *            the plaintext
+     * @param dst
+     *            the array receiving the ciphertext; may be {@code src}
+     * @return the number of letters encrypted
+     * @updates dst
+     * @requires cipher /= null and src /= null and dst /= null and |dst| =
+     *           |src| and |cipher.key| > 0
+     * @ensures dst = TEXT_ENCRYPTED_WITH_KEY(src, cipher.key)
+     */
+    public static long encrypt(VigenereCipher cipher, char[] src, char[] dst) {
+        return transform(cipher, CipherMode.ENCRYPT, src, dst,
+                ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Decrypts all of {@code src} into {@code dst} on the common pool.
+     *
+     * @param cipher
+     *            the cipher whose stored key is used
+     * @param src
+     *            the ciphertext
+     * @param dst
+     *            the array receiving the plaintext; may be {@code src}
+     * @return the number of letters decrypted
+     * @updates dst
+     * @requires cipher /= null and src /= null and dst /= null and |dst| =
+     *           |src| and |cipher.key| > 0
+     * @ensures dst = TEXT_DECRYPTED_WITH_KEY(src, cipher.key)
+     */
+    public static long decrypt(VigenereCipher cipher, char[] src, char[] dst) {
+        return transform(cipher, CipherMode.DECRYPT, src, dst,
+                ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+}
@@ -0,0 +1,199 @@
+/**
+ * Branch-free scalar Vigenere engine for {@code char[]} text.
+ *
+ * <p>
+ * Every character goes through the same straight-line code: the 256-entry
+ * {@code VigenereTables} Latin-1 tables give its letter class and alphabet
+ * index, a conditional subtraction replaces {@code % 26}, and the class is
+ * turned into a mask that selects between the shifted letter and the original
+ * character and decides whether the key cursor advances. Characters above
+ * Latin-1 are gated to the non-letter class. With no data-dependent branches
+ * the loop runs at the same speed whatever the mix of letters, cases and
+ * punctuation.
+ * </p>
+ *
+ * <p>
+ * An engine is built once per key, direction and case mode. It only adds
+ * shifts, so decryption engines are built from the shifts given by
+ * {@link #inverse}. In case-preserving mode the case bit of the input
+ * character is OR-ed into the upper-case result through a mask fixed at
+ * construction, which keeps the loop free of branches in both modes.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+final class VigenereScalar {
+
+    /**
+     * Number of letters in the alphabet.
+     */
+    private static final int ALPHABET_SIZE = VigenereTables.ALPHABET_SIZE;
+
+    /**
+     * Mask of the low (Latin-1) byte of a character.
+     */
+    private static final int LATIN1_MASK = VigenereTables.LATIN1_SIZE - 1;
+
+    /**
+     * Number of bits addressing a Latin-1 code point.
+     */
+    private static final int LATIN1_BITS = Byte.SIZE;
+
+    /**
+     * Shift moving the sign bit of an {@code int} to bit 0.
+     */
+    private static final int SIGN_SHIFT = Integer.SIZE - 1;
+
+    /**
+     * The key shifts.
+     */
+    private final byte[] shifts;
+
+    /**
+     * {@code VigenereTables.CASE_BIT} to preserve case, 0 to upper-case every
+     * letter.
+     */
+    private final int caseMask;
+
+    /**
+     * Constructor.
+     *
+     * @param shifts
+     *            the key shifts, or their {@link #inverse} to decrypt; not
+     *            copied, so a change to them is seen by the next
+     *            {@code transform}
+     * @param preserveCase
+     *            whether lower-case letters stay lower case
+     */
+    VigenereScalar(byte[] shifts, boolean preserveCase) {
+        this.shifts = shifts;
+        int mask = 0;
+        if (preserveCase) {
+            mask = VigenereTables.CASE_BIT;
+        }
+        this.caseMask = mask;
+    }
+
+    /**
+     * Returns the shifts that undo {@code shifts}: {@code (26 - s) mod 26}
+     * for each shift {@code s}.
+     *
+     * @param shifts
+     *            the key shifts
+     * @return the inverse shifts
+     */
+    static byte[] inverse(byte[] shifts) {
+        byte[] inverse = new byte[shifts.length];
+        for (int i = 0; i < shifts.length; i++) {
+            inverse[i] = (byte) ((ALPHABET_SIZE - shifts[i]) % ALPHABET_SIZE);
+        }
+        return inverse;
+    }
+
+    /**
+     * Adds the key shifts to the letters among {@code length} characters of
+     * {@code src}, storing the result in {@code dst}. Letters come out in
+     * upper case, or in their input case if this engine preserves case; every
+     * other character is copied unchanged.
+     *
+     * @param src
+     *            the array holding the input text
+     * @param srcOffset
+     *            the index of the first input character
+     * @param length
+     *            the number of characters to process
+     * @param dst
+     *            the array receiving the output text; may be {@code src} if
+     *            {@code dstOffset = srcOffset}
+     * @param dstOffset
+     *            the index at which to store the first output character
+     * @param letterOffset
+     *            the number of letters already processed before {@code src}
+     * @return {@code letterOffset} plus the number of letters processed
+     */
+    long transform(char[] src, int srcOffset, int length, char[] dst,
+            int dstOffset, long letterOffset) {
+        byte[] localShifts = this.shifts;
+        int localCaseMask = this.caseMask;
+        int keyLength = localShifts.length;
+        int keyIndex = (int) (letterOffset % keyLength);
+        int letterCount = 0;
+        for (int i = 0; i < length; i++) {
+            int ch = src[srcOffset + i];
+            int latin1 = ch & LATIN1_MASK;
+            int isLatin1 = ((ch >>> LATIN1_BITS) - 1) >>> SIGN_SHIFT;
+            int isLetter = VigenereTables.LATIN1_LETTER[latin1] & isLatin1;
+
+            int index = VigenereTables.LATIN1_INDEX[latin1]
+                    + localShifts[keyIndex];
+            index -= ALPHABET_SIZE
+                    & ((ALPHABET_SIZE - 1 - index) >> SIGN_SHIFT);
+            int letter = ('A' + index) | (ch & localCaseMask);
+            dst[dstOffset + i] = (char) (ch ^ ((ch ^ letter) & -isLetter));
+
+            letterCount += isLetter;
+            keyIndex += isLetter;
+            keyIndex &= (keyIndex - keyLength) >> SIGN_SHIFT;
+        }
+        return letterOffset + letterCount;
+    }
+
+    /**
+     * Same as {@link #transform(char[], int, int, char[], int, long)}, also
+     * counting every character into {@code stats} in the same pass. The
+     * counts are added through the letter mask, so the loop stays free of
+     * branches.
+     *
+     * @param src
+     *            the array holding the input text
+     * @param srcOffset
+     *            the index of the first input character
+     * @param length
+     *            the number of characters to process
+     * @param dst
+     *            the array receiving the output text; may be {@code src} if
+     *            {@code dstOffset = srcOffset}
+     * @param dstOffset
+     *            the index at which to store the first output character
+     * @param letterOffset
+     *            the number of letters already processed before {@code src}
+     * @param stats
+     *            the collector, for a key as long as this engine's
+     * @return {@code letterOffset} plus the number of letters processed
+     */
+    long transform(char[] src, int srcOffset, int length, char[] dst,
+            int dstOffset, long letterOffset, CipherStatistics stats) {
+        assert stats.keyLength() == this.shifts.length : ""
+                + "Violation of: stats.keyLength() = |key|";
+
+        byte[] localShifts = this.shifts;
+        int localCaseMask = this.caseMask;
+        long[] letterCounts = stats.letterCountArray();
+        long[] keyPositionCounts = stats.keyPositionCountArray();
+        int keyLength = localShifts.length;
+        int keyIndex = (int) (letterOffset % keyLength);
+        int letterCount = 0;
+        for (int i = 0; i < length; i++) {
+            int ch = src[srcOffset + i];
+            int latin1 = ch & LATIN1_MASK;
+            int isLatin1 = ((ch >>> LATIN1_BITS) - 1) >>> SIGN_SHIFT;
+            int isLetter = VigenereTables.LATIN1_LETTER[latin1] & isLatin1;
+
+            int index = VigenereTables.LATIN1_INDEX[latin1]
+                    + localShifts[keyIndex];
+            index -= ALPHABET_SIZE
+                    & ((ALPHABET_SIZE - 1 - index) >> SIGN_SHIFT);
+            int letter = ('A' + index) | (ch & localCaseMask);
+            dst[dstOffset + i] = (char) (ch ^ ((ch ^ letter) & -isLetter));
+
+            letterCounts[index] += isLetter;
+            keyPositionCounts[keyIndex] += isLetter;
+            letterCount += isLetter;
+            keyIndex += isLetter;
+            keyIndex &= (keyIndex - keyLength) >> SIGN_SHIFT;
+        }
+        stats.addNonLetters(length - letterCount);
+        return letterOffset + letterCount;
+    }
+
+}
@@ -0,0 +1,393 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Word-at-a-time ("SIMD within a register") Vigenere engine for ASCII bytes.
+ *
+ * <p>
+ * Eight bytes are loaded into one {@code long} and classified together with
+ * carry-free byte-lane arithmetic: folding to upper case, the letter mask and
+ * the {@code mod 26} wraparound are all a handful of adds, ands and shifts per
+ * word instead of a data-dependent branch per byte. Words without letters are
+ * copied as they are. The key shifts for a word's letters come from
+ * {@code keyWords[keyIndex]}, which packs the eight key shifts starting at
+ * every key position; when a word mixes letters and other bytes those shifts
+ * are spread out to the letter lanes by opening a one-lane gap at each
+ * non-letter, and {@code Long.bitCount} of the letter mask advances the key
+ * cursor.
+ * </p>
+ *
+ * <p>
+ * An engine is built once per key, direction and case mode; decryption uses
+ * the same code with key words holding {@code (26 - shift) mod 26}. Letters
+ * come out in upper case, or with the case bit of each input lane OR-ed back
+ * in when the engine preserves case, and every byte
+ * that is not an ASCII letter, including all bytes of multi-byte UTF-8
+ * sequences, is copied unchanged, so the output matches the {@code char}
+ * based kernels on ASCII input.
+ * </p>
+ *
+ * <p>
+ * The engine works on bytes only: {@code byte[]} ranges, and heap, direct
+ * and memory-mapped {@code ByteBuffer}s through a little-endian
+ * {@code long} view. The {@code char[]} and {@code String} paths of the
+ * ciphers and of {@code CompiledVigenereKey} run {@code VigenereScalar}
+ * instead.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+final class VigenereSwar {
+
+    /**
+     * Number of bytes in a {@code long}.
+     */
+    private static final int WORD_BYTES = Long.BYTES;
+
+    /**
+     * Number of bits in a byte lane.
+     */
+    private static final int LANE_BITS = Byte.SIZE;
+
+    /**
+     * Mask of the low byte of a word.
+     */
+    private static final long LANE_MASK = 0xFFL;
+
+    /**
+     * 0x01 in every lane.
+     */
+    private static final long ONES = 0x0101010101010101L;
+
+    /**
+     * 0x80 in every lane.
+     */
+    private static final long HIGHS = 0x8080808080808080L;
+
+    /**
+     * Clears bit 0x20 (lower to upper case) and bit 0x80 in every lane.
+     */
+    private static final long FOLD = 0x5F5F5F5F5F5F5F5FL;
+
+    /**
+     * Sets the high bit of lanes holding at least {@code 'A'} after
+     * {@code FOLD}.
+     */
+    private static final long AT_LEAST_A = (0x80 - 'A') * ONES;
+
+    /**
+     * Sets the high bit of lanes holding more than {@code 'Z'} after
+     * {@code FOLD}.
+     */
+    private static final long ABOVE_Z = (0x80 - 'Z' - 1) * ONES;
+
+    /**
+     * {@code 'A'} in every lane.
+     */
+    private static final long A_LANES = 'A' * ONES;
+
+    /**
+     * Sets the high bit of lanes holding at least 26.
+     */
+    private static final long AT_LEAST_SIZE = (0x80
+            - VigenereTables.ALPHABET_SIZE) * ONES;
+
+    /**
+     * Little-endian {@code long} view of a {@code byte[]}.
+     */
+    private static final VarHandle LONGS = MethodHandles
+            .byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Little-endian {@code long} view of a {@code ByteBuffer}, heap or
+     * direct, whatever the buffer's own byte order.
+     */
+    private static final VarHandle BUFFER_LONGS = MethodHandles
+            .byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Key words, one per key position, from {@link #keyWords}.
+     */
+    private final long[] keyWords;
+
+    /**
+     * {@code VigenereTables.CASE_BIT} in every lane to preserve case, 0 to
+     * upper-case every letter.
+     */
+    private final long caseLanes;
+
+    /**
+     * Constructor.
+     *
+     * @param shifts
+     *            the key shifts
+     * @param decrypt
+     *            whether this engine decrypts
+     * @param preserveCase
+     *            whether lower-case letters stay lower case
+     */
+    VigenereSwar(byte[] shifts, boolean decrypt, boolean preserveCase) {
+        this.keyWords = keyWords(shifts, decrypt);
+        long lanes = 0;
+        if (preserveCase) {
+            lanes = VigenereTables.CASE_BIT * ONES;
+        }
+        this.caseLanes = lanes;
+    }
+
+    /**
+     * Builds the key words for {@code shifts}: word {@code p} holds, in lane
+     * {@code j}, the shift of key letter {@code (p + j) mod |shifts|},
+     * negated modulo 26 when {@code decrypt}.
+     *
+     * @param shifts
+     *            the key shifts
+     * @param decrypt
+     *            whether to build decryption words
+     * @return the key words, one per key position
+     */
+    private static long[] keyWords(byte[] shifts, boolean decrypt) {
+        long[] words = new long[shifts.length];
+        for (int p = 0; p < shifts.length; p++) {
+            long word = 0;
+            for (int j = WORD_BYTES - 1; j >= 0; j--) {
+                int shift = shifts[(p + j) % shifts.length];
+                if (decrypt) {
+                    shift = (VigenereTables.ALPHABET_SIZE - shift)
+                            % VigenereTables.ALPHABET_SIZE;
+                }
+                word = (word << LANE_BITS) | shift;
+            }
+            words[p] = word;
+        }
+        return words;
+    }
+
+    /**
+     * Reports which lanes of {@code word} hold an ASCII letter.
+     *
+     * @param word
+     *            eight input bytes
+     * @return 0x80 in every letter lane, 0x00 elsewhere
+     */
+    private static long letterLanes(long word) {
+        long folded = word & FOLD;
+        return (folded + AT_LEAST_A) & ~(folded + ABOVE_Z) & ~word & HIGHS;
+    }
+
+    /**
+     * Shifts the letter lanes of {@code word} by the key shifts in
+     * {@code shifts}, leaving every other lane unchanged.
+     *
+     * @param word
+     *            eight input bytes
+     * @param letters
+     *            {@code letterLanes(word)}, not 0
+     * @param shifts
+     *            the key word for the first letter of {@code word}
+     * @return the eight output bytes
+     */
+    private long shiftWord(long word, long letters, long shifts) {
+        long ones = letters >>> (LANE_BITS - 1);
+        long laneMask = ones * LANE_MASK;
+        long laneShifts = shifts;
+        if (letters != HIGHS) {
+            laneShifts = spread(shifts, letters ^ HIGHS) & laneMask;
+        }
+        long folded = word & FOLD;
+        long sum = (folded & laneMask) - (A_LANES & laneMask) + laneShifts;
+        long wrap = (sum + AT_LEAST_SIZE) & HIGHS;
+        sum -= (wrap >>> (LANE_BITS - 1)) * VigenereTables.ALPHABET_SIZE;
+        long cases = word & this.caseLanes & laneMask;
+        return (sum + (A_LANES & laneMask)) | cases | (word & ~laneMask);
+    }
+
+    /**
+     * Shifts the single byte {@code b} if it is an ASCII letter.
+     *
+     * @param b
+     *            the input byte
+     * @param keyIndex
+     *            the key position of the next letter
+     * @return the output byte, or -1 if {@code b} is not a letter and passes
+     *         through unchanged
+     */
+    private int shiftByte(int b, int keyIndex) {
+        int upper = b & ~('a' - 'A');
+        int result = -1;
+        if (upper >= 'A' && upper <= 'Z') {
+            int index = upper - 'A'
+                    + (int) (this.keyWords[keyIndex] & LANE_MASK);
+            if (index >= VigenereTables.ALPHABET_SIZE) {
+                index -= VigenereTables.ALPHABET_SIZE;
+            }
+            result = ('A' + index) | (b & (int) (this.caseLanes & LANE_MASK));
+        }
+        return result;
+    }
+
+    /**
+     * Advances a key position by {@code count} letters.
+     *
+     * @param keyIndex
+     *            the key position
+     * @param count
+     *            the number of letters, at most 8
+     * @param keyLength
+     *            the key length
+     * @return {@code (keyIndex + count) mod keyLength}
+     */
+    private static int advance(int keyIndex, int count, int keyLength) {
+        int next = keyIndex + count;
+        if (next >= keyLength) {
+            next -= keyLength;
+            if (next >= keyLength) {
+                next %= keyLength;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Applies the key words to {@code length} bytes of {@code src}, storing
+     * the result in {@code dst}.
+     *
+     * @param src
+     *            the array holding the input bytes
+     * @param srcOffset
+     *            the index of the first input byte
+     * @param length
+     *            the number of bytes to process
+     * @param dst
+     *            the array receiving the output bytes; may be {@code src} if
+     *            {@code dstOffset = srcOffset}
+     * @param dstOffset
+     *            the index at which to store the first output byte
+     * @param letterOffset
+     *            the number of letters already processed before {@code src}
+     * @return {@code letterOffset} plus the number of letters processed
+     */
+    long transform(byte[] src, int srcOffset, int length, byte[] dst,
+            int dstOffset, long letterOffset) {
+        long[] localWords = this.keyWords;
+        int keyLength = localWords.length;
+        int keyIndex = (int) (letterOffset % keyLength);
+        long letterCount = 0;
+
+        int i = 0;
+        for (; i + WORD_BYTES <= length; i += WORD_BYTES) {
+            long word = (long) LONGS.get(src, srcOffset + i);
+            long letters = letterLanes(word);
+            if (letters == 0) {
+                LONGS.set(dst, dstOffset + i, word);
+            } else {
+                LONGS.set(dst, dstOffset + i,
+                        this.shiftWord(word, letters, localWords[keyIndex]));
+                int count = Long.bitCount(letters);
+                letterCount += count;
+                keyIndex = advance(keyIndex, count, keyLength);
+            }
+        }
+
+        for (; i < length; i++) {
+            int b = src[srcOffset + i];
+            int shifted = this.shiftByte(b, keyIndex);
+            if (shifted >= 0) {
+                dst[dstOffset + i] = (byte) shifted;
+                letterCount++;
+                keyIndex = advance(keyIndex, 1, keyLength);
+            } else {
+                dst[dstOffset + i] = (byte) b;
+            }
+        }
+
+        return letterOffset + letterCount;
+    }
+
+    /**
+     * Applies the key words to {@code length} bytes of {@code src} starting
+     * at absolute index {@code srcIndex}, storing the result in {@code dst}
+     * starting at absolute index {@code dstIndex}. Words are read and
+     * written in place through a little-endian view, so direct and
+     * memory-mapped buffers take the same word-at-a-time path as arrays;
+     * buffer positions, limits and byte orders are not changed.
+     *
+     * @param src
+     *            the buffer holding the input bytes
+     * @param srcIndex
+     *            the index of the first input byte
+     * @param length
+     *            the number of bytes to process
+     * @param dst
+     *            the buffer receiving the output bytes; may be {@code src}
+     *            if {@code dstIndex = srcIndex}
+     * @param dstIndex
+     *            the index at which to store the first output byte
+     * @param letterOffset
+     *            the number of letters already processed before {@code src}
+     * @return {@code letterOffset} plus the number of letters processed
+     */
+    long transform(ByteBuffer src, int srcIndex, int length, ByteBuffer dst,
+            int dstIndex, long letterOffset) {
+        long[] localWords = this.keyWords;
+        int keyLength = localWords.length;
+        int keyIndex = (int) (letterOffset % keyLength);
+        long letterCount = 0;
+
+        int i = 0;
+        for (; i + WORD_BYTES <= length; i += WORD_BYTES) {
+            long word = (long) BUFFER_LONGS.get(src, srcIndex + i);
+            long letters = letterLanes(word);
+            if (letters == 0) {
+                BUFFER_LONGS.set(dst, dstIndex + i, word);
+            } else {
+                BUFFER_LONGS.set(dst, dstIndex + i,
+                        this.shiftWord(word, letters, localWords[keyIndex]));
+                int count = Long.bitCount(letters);
+                letterCount += count;
+                keyIndex = advance(keyIndex, count, keyLength);
+            }
+        }
+
+        for (; i < length; i++) {
+            int b = src.get(srcIndex + i);
+            int shifted = this.shiftByte(b, keyIndex);
+            if (shifted >= 0) {
+                dst.put(dstIndex + i, (byte) shifted);
+                letterCount++;
+                keyIndex = advance(keyIndex, 1, keyLength);
+            } else {
+                dst.put(dstIndex + i, (byte) b);
+            }
+        }
+
+        return letterOffset + letterCount;
+    }
+
+    /**
+     * Moves consecutive lanes of {@code shifts} to the letter lanes: the
+     * {@code k}-th letter lane receives lane {@code k} of {@code shifts}.
+     * Non-letter lanes receive garbage and must be masked off by the caller.
+     *
+     * @param shifts
+     *            the key shifts for the next eight letters
+     * @param others
+     *            0x80 in every non-letter lane, 0x00 elsewhere
+     * @return the spread shifts
+     */
+    private static long spread(long shifts, long others) {
+        /*
+         * Visiting the non-letter lanes from lowest to highest, open a gap at
+         * each one by moving every lane above it up by one.
+         */
+        long result = shifts;
+        for (long rest = others; rest != 0; rest &= rest - 1) {
+            long below = ((rest & -rest) >>> (LANE_BITS - 1)) - 1;
+            result = (result & below) | ((result << LANE_BITS) & ~below);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,126 @@
+/**
+ * Precomputed lookup tables shared by the {@code VigenereCipher}
+ * implementations.
+ *
+ * <p>
+ * The tables are flattened 26x26 grids indexed by
+ * {@code keyShift * 26 + letterIndex}, where both indices are positions in
+ * {@code 'A'..'Z'}. Looking a letter up is a single array load, replacing the
+ * {@code ALPHABET.indexOf} searches and the {@code %} of the textbook
+ * formulation.
+ * </p>
+ *
+ * <p>
+ * The 256-entry Latin-1 tables classify a character and fold it to its
+ * alphabet index with one load each, so {@code VigenereScalar} needs no
+ * branches to tell letters from other characters.
+ * </p>
+ *
+ * @author Vikranth Vegesina
+ */
+final class VigenereTables {
+
+    /**
+     * Alphabet used for Vigenere cipher operations.
+     */
+    static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    /**
+     * Fix Magic Number checkstyle error for 26.
+     */
+    static final int ALPHABET_SIZE = 26;
+
+    /**
+     * Number of Latin-1 code points.
+     */
+    static final int LATIN1_SIZE = 256;
+
+    /**
+     * The bit that is set in an ASCII lower-case letter and clear in its
+     * upper-case form. OR-ing it into an upper-case table result restores the
+     * case of the input letter.
+     */
+    static final int CASE_BIT = 'a' - 'A';
+
+    /**
+     * 1 for each Latin-1 code point that is an ASCII letter, 0 for all
+     * others.
+     */
+    static final byte[] LATIN1_LETTER = buildLetterClasses();
+
+    /**
+     * Alphabet index of each Latin-1 code point that is an ASCII letter, in
+     * either case ({@code 'A'} and {@code 'a'} = 0, ...), and 0 for all others.
+     */
+    static final byte[] LATIN1_INDEX = buildLetterIndexes();
+
+    /**
+     * Ciphertext letter for each (key shift, plaintext index) pair.
+     */
+    static final char[] ENCRYPT = buildTable(true);
+
+    /**
+     * Plaintext letter for each (key shift, ciphertext index) pair.
+     */
+    static final char[] DECRYPT = buildTable(false);
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private VigenereTables() {
+    }
+
+    /**
+     * Builds the flattened encryption or decryption table.
+     *
+     * @param encrypt
+     *            true to build the encryption table, false for decryption
+     * @return the table
+     */
+    private static char[] buildTable(boolean encrypt) {
+        char[] table = new char[ALPHABET_SIZE * ALPHABET_SIZE];
+        for (int shift = 0; shift < ALPHABET_SIZE; shift++) {
+            for (int index = 0; index < ALPHABET_SIZE; index++) {
+                int resultIndex;
+                if (encrypt) {
+                    resultIndex = (index + shift) % ALPHABET_SIZE;
+                } else {
+                    resultIndex = (index - shift + ALPHABET_SIZE)
+                            % ALPHABET_SIZE;
+                }
+                table[shift * ALPHABET_SIZE + index] = ALPHABET
+                        .charAt(resultIndex);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Builds {@code LATIN1_LETTER}.
+     *
+     * @return the letter class of every Latin-1 code point
+     */
+    private static byte[] buildLetterClasses() {
+        byte[] classes = new byte[LATIN1_SIZE];
+        for (int i = 0; i < ALPHABET_SIZE; i++) {
+            classes['A' + i] = 1;
+            classes['a' + i] = 1;
+        }
+        return classes;
+    }
+
+    /**
+     * Builds {@code LATIN1_INDEX}.
+     *
+     * @return the alphabet index of every Latin-1 code point
+     */
+    private static byte[] buildLetterIndexes() {
+        byte[] indexes = new byte[LATIN1_SIZE];
+        for (int i = 0; i < ALPHABET_SIZE; i++) {
+            indexes['A' + i] = (byte) i;
+            indexes['a' + i] = (byte) i;
+        }
+        return indexes;
+    }
+
+}
@@ -0,0 +1,79 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code AutokeyCipher}.
+ *
+ * @author Vikranth Vegesina
+ */
+public class AutokeyCipherTest {
+
+    /**
+     * Plaintext used by the tests.
+     */
+    private static final String PLAIN = "Attack at dawn! Retreat at dusk.";
+
+    @Test
+    public void testEncryptKnownVector() {
+        AutokeyCipher cipher = new AutokeyCipher("QUEENLY", CipherMode.ENCRYPT);
+
+        String result = cipher.update("attack at dawn");
+
+        assertEquals("QNXEPV YT WTWP", result);
+        assertEquals(12, cipher.position());
+    }
+
+    @Test
+    public void testDecryptKnownVector() {
+        AutokeyCipher cipher = new AutokeyCipher("QUEENLY", CipherMode.DECRYPT);
+
+        String result = cipher.update("QNXEPV YT WTWP");
+
+        assertEquals("ATTACK AT DAWN", result);
+    }
+
+    @Test
+    public void testRoundTripAcrossFrames() {
+        AutokeyCipher encrypt = new AutokeyCipher("KEY", CipherMode.ENCRYPT);
+        AutokeyCipher decrypt = new AutokeyCipher("KEY", CipherMode.DECRYPT);
+        String whole = new AutokeyCipher("KEY", CipherMode.ENCRYPT)
+                .update(PLAIN);
+
+        String ciphertext = encrypt.update(PLAIN.substring(0, 5))
+                + encrypt.update(PLAIN.substring(5, 6))
+                + encrypt.update(PLAIN.substring(6));
+        String plaintext = decrypt.update(ciphertext.substring(0, 13))
+                + decrypt.update(ciphertext.substring(13));
+
+        assertEquals(whole, ciphertext);
+        assertEquals(PLAIN.toUpperCase(), plaintext);
+        assertEquals(25, decrypt.position());
+    }
+
+    @Test
+    public void testSingleLetterPrimerInPlace() {
+        AutokeyCipher cipher = new AutokeyCipher("B", CipherMode.ENCRYPT);
+        char[] buffer = "ab, c".toCharArray();
+
+        int letters = cipher.update(buffer, 0, buffer.length);
+
+        // a+B = B, b+a = B, c+b = D
+        assertEquals(3, letters);
+        assertEquals("BB, D", new String(buffer));
+    }
+
+    @Test
+    public void testPreserveCase() {
+        AutokeyCipher encrypt = new AutokeyCipher("QUEENLY",
+                CipherMode.ENCRYPT, true);
+        AutokeyCipher decrypt = new AutokeyCipher("QUEENLY",
+                CipherMode.DECRYPT, true);
+
+        String ciphertext = encrypt.update("Attack at Dawn");
+
+        assertEquals("Qnxepv yt Wtwp", ciphertext);
+        assertEquals("Attack at Dawn", decrypt.update(ciphertext));
+    }
+
+}
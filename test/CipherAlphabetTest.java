@@ -0,0 +1,94 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code CipherAlphabet} and its dense and hashed
+ * implementations.
+ *
+ * @author Vikranth Vegesina
+ */
+public class CipherAlphabetTest {
+
+    /**
+     * Helper method to check that every symbol of {@code alphabet} maps to
+     * its index and back.
+     *
+     * @param alphabet
+     *            the alphabet
+     * @param symbols
+     *            its symbols, in order
+     */
+    private static void assertRoundTrips(CipherAlphabet alphabet,
+            String symbols) {
+        assertEquals(symbols.length(), alphabet.size());
+        for (int i = 0; i < symbols.length(); i++) {
+            assertEquals(i, alphabet.indexOf(symbols.charAt(i)));
+            assertEquals(symbols.charAt(i), alphabet.charAt(i));
+        }
+    }
+
+    @Test
+    public void testLettersFoldsCase() {
+        CipherAlphabet letters = CipherAlphabet.LETTERS;
+        final int z = 25;
+
+        assertRoundTrips(letters, "ABCDEFGHIJKLMNOPQRSTUVWXYZ");
+        assertEquals(0, letters.indexOf('a'));
+        assertEquals(z, letters.indexOf('z'));
+        assertEquals(-1, letters.indexOf('['));
+        assertEquals(-1, letters.indexOf('@'));
+        assertEquals(-1, letters.indexOf('\u00c0'));
+    }
+
+    @Test
+    public void testOfIsCaseSensitive() {
+        CipherAlphabet upper = CipherAlphabet.of("ABCDEFGHIJKLMNOPQRSTUVWXYZ");
+
+        assertEquals(-1, upper.indexOf('a'));
+        assertNotEquals(CipherAlphabet.LETTERS, upper);
+        assertEquals(CipherAlphabet.of("ABCDEFGHIJKLMNOPQRSTUVWXYZ"), upper);
+    }
+
+    @Test
+    public void testDenseAlphabets() {
+        assertTrue(CipherAlphabet.BASE64 instanceof DenseCipherAlphabet);
+        assertRoundTrips(CipherAlphabet.BASE64, "ABCDEFGHIJKLMNOPQRSTUVWXYZ"
+                + "abcdefghijklmnopqrstuvwxyz0123456789+/");
+        assertFalse(CipherAlphabet.BASE64.contains('='));
+        assertFalse(CipherAlphabet.LATIN1_LETTERS.contains('\u00d7'));
+        assertTrue(CipherAlphabet.LATIN1_LETTERS.contains('\u00ff'));
+    }
+
+    @Test
+    public void testSparseAlphabetIsHashed() {
+        String symbols = "a\u03b1\u0434\u05d0\u4e00\uac00\uff21";
+        CipherAlphabet alphabet = CipherAlphabet.of(symbols);
+
+        assertTrue(alphabet instanceof HashedCipherAlphabet);
+        assertRoundTrips(alphabet, symbols);
+        assertEquals(-1, alphabet.indexOf('b'));
+        assertEquals(-1, alphabet.indexOf('\u4e01'));
+        assertEquals(symbols, alphabet.toString());
+    }
+
+    @Test
+    public void testFullHashedAlphabet() {
+        final int size = CipherAlphabet.MAX_SIZE;
+        final int stride = 97;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            sb.append((char) (i * stride));
+        }
+        String symbols = sb.toString();
+
+        CipherAlphabet alphabet = CipherAlphabet.of(symbols);
+
+        assertRoundTrips(alphabet, symbols);
+        assertEquals(-1, alphabet.indexOf((char) 1));
+    }
+
+}
@@ -0,0 +1,255 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import components.sequence.Sequence;
+import components.sequence.Sequence1L;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code CipherMetrics}, {@code CipherMonitor},
+ * {@code HistogramCipherMetrics} and {@code CipherMetricsExporter}.
+ *
+ * @author Vikranth Vegesina
+ */
+public class CipherMetricsTest {
+
+    /**
+     * Plaintext used by the tests.
+     */
+    private static final String PLAIN = "Attack at dawn! Retreat at dusk.";
+
+    /**
+     * Helper method to turn a string into a {@code Sequence<Character>}.
+     *
+     * @param s
+     *            the string
+     * @return the sequence
+     */
+    private static Sequence<Character> sequenceOf(String s) {
+        Sequence<Character> seq = new Sequence1L<>();
+        for (int i = 0; i < s.length(); i++) {
+            seq.add(i, s.charAt(i));
+        }
+        return seq;
+    }
+
+    /**
+     * Uninstalls any metrics a test left installed.
+     */
+    @After
+    public void uninstall() {
+        CipherMonitor.install(null);
+    }
+
+    @Test
+    public void testNothingInstalledByDefault() {
+        assertNull(CipherMonitor.installed());
+    }
+
+    @Test
+    public void testRecordsEveryOperation() {
+        HistogramCipherMetrics metrics = new HistogramCipherMetrics();
+        CipherMonitor.install(metrics);
+        assertSame(metrics, CipherMonitor.installed());
+
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString("KEY");
+        String ciphertext = cipher.encrypt(PLAIN);
+        cipher.decrypt(ciphertext);
+        cipher.encrypt(sequenceOf(PLAIN));
+        cipher.encryptWithKey(sequenceOf(PLAIN), sequenceOf("LEMON"));
+
+        assertEquals(1, metrics.count(CipherMetrics.Operation.SET_KEY));
+        assertEquals(3, metrics.length(CipherMetrics.Operation.SET_KEY));
+        assertEquals(2, metrics.count(CipherMetrics.Operation.ENCRYPT));
+        assertEquals(2 * PLAIN.length(),
+                metrics.length(CipherMetrics.Operation.ENCRYPT));
+        assertEquals(1, metrics.count(CipherMetrics.Operation.DECRYPT));
+        assertEquals(1,
+                metrics.count(CipherMetrics.Operation.ENCRYPT_WITH_KEY));
+        assertEquals(0,
+                metrics.count(CipherMetrics.Operation.DECRYPT_WITH_KEY));
+    }
+
+    @Test
+    public void testArrayImplementationRecords() {
+        HistogramCipherMetrics metrics = new HistogramCipherMetrics();
+        CipherMonitor.install(metrics);
+
+        VigenereCipher cipher = new VigenereCipher2();
+        cipher.setKeyFromString("LEMON");
+        char[] text = PLAIN.toCharArray();
+        cipher.encryptInPlace(text, 0, text.length);
+        cipher.decrypt(sequenceOf(new String(text)));
+
+        assertEquals(1, metrics.count(CipherMetrics.Operation.SET_KEY));
+        assertEquals(5, metrics.length(CipherMetrics.Operation.SET_KEY));
+        assertEquals(1, metrics.count(CipherMetrics.Operation.ENCRYPT));
+        assertEquals(1, metrics.count(CipherMetrics.Operation.DECRYPT));
+    }
+
+    @Test
+    public void testInPlaceSequenceRecords() {
+        HistogramCipherMetrics metrics = new HistogramCipherMetrics();
+        CipherMonitor.install(metrics);
+        VigenereCipher cipher1 = new VigenereCipher1L();
+        VigenereCipher cipher2 = new VigenereCipher2();
+        cipher1.setKeyFromString("KEY");
+        cipher2.setKeyFromString("KEY");
+        Sequence<Character> text = sequenceOf(PLAIN);
+
+        cipher1.encryptInPlace(text);
+        cipher2.decryptInPlace(text);
+
+        assertEquals(1, metrics.count(CipherMetrics.Operation.ENCRYPT));
+        assertEquals(PLAIN.length(),
+                metrics.length(CipherMetrics.Operation.ENCRYPT));
+        assertEquals(1, metrics.count(CipherMetrics.Operation.DECRYPT));
+        assertEquals(PLAIN.length(),
+                metrics.length(CipherMetrics.Operation.DECRYPT));
+    }
+
+    @Test
+    public void testBatchRecordsOnce() {
+        HistogramCipherMetrics metrics = new HistogramCipherMetrics();
+        CipherMonitor.install(metrics);
+        VigenereCipher cipher = new VigenereCipher2();
+        cipher.setKeyFromString("KEY");
+        List<String> records = Arrays.asList("first", "second!", "3rd");
+
+        List<String> encrypted = cipher.encryptAll(records, false);
+        cipher.decryptAll(encrypted, false);
+
+        assertEquals(1, metrics.count(CipherMetrics.Operation.ENCRYPT));
+        assertEquals(15, metrics.length(CipherMetrics.Operation.ENCRYPT));
+        assertEquals(1, metrics.count(CipherMetrics.Operation.DECRYPT));
+        assertEquals(cipher.encrypt("second!"), encrypted.get(1));
+    }
+
+    @Test
+    public void testUninstalledStopsRecording() {
+        HistogramCipherMetrics metrics = new HistogramCipherMetrics();
+        CipherMonitor.install(metrics);
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString("KEY");
+
+        CipherMonitor.install(null);
+        cipher.encrypt(PLAIN);
+
+        assertEquals(0, metrics.count(CipherMetrics.Operation.ENCRYPT));
+    }
+
+    @Test
+    public void testQuantilesFromBuckets() {
+        HistogramCipherMetrics metrics = new HistogramCipherMetrics();
+        for (int i = 1; i <= 100; i++) {
+            metrics.record(CipherMetrics.Operation.ENCRYPT, 10, i * 1000L);
+        }
+
+        assertEquals(100, metrics.count(CipherMetrics.Operation.ENCRYPT));
+        assertEquals(1000, metrics.length(CipherMetrics.Operation.ENCRYPT));
+        assertEquals(100_000,
+                metrics.maxNanos(CipherMetrics.Operation.ENCRYPT));
+        long median = metrics.quantileNanos(CipherMetrics.Operation.ENCRYPT,
+                0.5);
+        assertTrue(median >= 50_000 && median <= 50_000 * 9 / 8);
+        assertEquals(100_000, metrics.quantileNanos(
+                CipherMetrics.Operation.ENCRYPT, 1.0));
+        assertEquals(0,
+                metrics.quantileNanos(CipherMetrics.Operation.DECRYPT, 0.5));
+    }
+
+    @Test
+    public void testSnapshotListsCalledOperations() {
+        HistogramCipherMetrics metrics = new HistogramCipherMetrics();
+        metrics.record(CipherMetrics.Operation.DECRYPT, 2000, 1000);
+
+        String snapshot = metrics.snapshot();
+
+        assertTrue(snapshot.startsWith(
+                "decrypt count=1 chars=2000 chars/s=2000000000 mean=1.0us"));
+        assertTrue(!snapshot.contains("encrypt"));
+    }
+
+    @Test
+    public void testExporterAppendsToFile() throws Exception {
+        HistogramCipherMetrics metrics = new HistogramCipherMetrics();
+        metrics.record(CipherMetrics.Operation.SET_KEY, 3, 500);
+        Path file = Files.createTempFile("cipher-metrics", ".txt");
+        try {
+            CipherMetricsExporter exporter = CipherMetricsExporter
+                    .toFile(metrics, file, 1, TimeUnit.HOURS);
+            exporter.export();
+            exporter.close();
+            exporter.close();
+
+            String text = new String(Files.readAllBytes(file),
+                    StandardCharsets.UTF_8);
+            assertEquals(2, text.split("cipher metrics at ", -1).length - 1);
+            assertTrue(text.contains("set_key count=1 chars=3"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testExporterSurvivesFailingHandler() throws Exception {
+        HistogramCipherMetrics metrics = new HistogramCipherMetrics();
+        AtomicInteger calls = new AtomicInteger();
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(new Handler() {
+            @Override
+            public void publish(LogRecord logRecord) {
+                if (calls.incrementAndGet() == 1) {
+                    throw new IllegalStateException("handler failed");
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        CipherMetricsExporter exporter = CipherMetricsExporter
+                .toLogger(metrics, logger, 1, TimeUnit.MILLISECONDS);
+        final int wanted = 3;
+        final long deadline = System.nanoTime()
+                + TimeUnit.SECONDS.toNanos(10);
+        while (calls.get() < wanted && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        IllegalStateException kept = null;
+        try {
+            exporter.export();
+        } catch (IllegalStateException e) {
+            kept = e;
+        }
+        int before = calls.get();
+        exporter.close();
+
+        assertTrue(before >= wanted);
+        assertEquals("handler failed", kept.getMessage());
+        assertTrue(calls.get() > before);
+    }
+
+}
@@ -0,0 +1,96 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code CipherOperationEvent}.
+ *
+ * @author Vikranth Vegesina
+ */
+public class CipherOperationEventTest {
+
+    /**
+     * Plaintext used by the tests.
+     */
+    private static final String PLAIN = "Attack at dawn! Retreat at dusk.";
+
+    /**
+     * Helper method that runs a short encrypt and decrypt under a recording
+     * of {@code CipherOperationEvent} with the given threshold, and returns
+     * the events recorded.
+     *
+     * @param threshold
+     *            the event threshold
+     * @return the recorded cipher events
+     * @throws Exception
+     *             if the recording cannot be dumped or read
+     */
+    private static List<RecordedEvent> record(Duration threshold)
+            throws Exception {
+        Path file = Files.createTempFile("cipher-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(CipherOperationEvent.NAME)
+                    .withThreshold(threshold);
+            recording.start();
+
+            VigenereCipher cipher = new VigenereCipher1L();
+            cipher.setKeyFromString("LEMON");
+            cipher.decrypt(cipher.encrypt(PLAIN));
+
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName()
+                        .equals(CipherOperationEvent.NAME)) {
+                    events.add(event);
+                }
+            }
+            return events;
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testRecordsEveryCallWithZeroThreshold() throws Exception {
+        List<RecordedEvent> events = record(Duration.ZERO);
+
+        assertEquals(3, events.size());
+        RecordedEvent setKey = events.get(0);
+        assertEquals("SET_KEY", setKey.getString("mode"));
+        assertEquals(5, setKey.getLong("textLength"));
+        RecordedEvent encrypt = events.get(1);
+        assertEquals("ENCRYPT", encrypt.getString("mode"));
+        assertEquals(PLAIN.length(), encrypt.getLong("textLength"));
+        assertEquals(5, encrypt.getInt("keyLength"));
+        assertTrue(!encrypt.getDuration().isNegative());
+        assertTrue(encrypt.getStackTrace() != null);
+        assertEquals("DECRYPT", events.get(2).getString("mode"));
+    }
+
+    @Test
+    public void testThresholdSkipsFastCalls() throws Exception {
+        List<RecordedEvent> events = record(Duration.ofSeconds(10));
+
+        assertEquals(0, events.size());
+    }
+
+    @Test
+    public void testDisabledWithoutRecording() {
+        assertTrue(!new CipherOperationEvent().isEnabled());
+    }
+
+}
@@ -0,0 +1,105 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code CipherSession}.
+ *
+ * @author Vikranth Vegesina
+ */
+public class CipherSessionTest {
+
+    /**
+     * Plaintext used by the tests.
+     */
+    private static final String PLAIN = "Attack at dawn! Retreat at dusk.";
+
+    /**
+     * Helper method to create a cipher with the given key.
+     *
+     * @param key
+     *            the key
+     * @return the cipher
+     */
+    private static VigenereCipher cipherWithKey(String key) {
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString(key);
+        return cipher;
+    }
+
+    @Test
+    public void testNewSessionPosition() {
+        VigenereCipher cipher = cipherWithKey("KEY");
+
+        CipherSession session = cipher.session(CipherMode.ENCRYPT);
+
+        assertEquals(0, session.position());
+        assertEquals(CipherMode.ENCRYPT, session.mode());
+    }
+
+    @Test
+    public void testUpdateAcrossFramesMatchesEncrypt() {
+        VigenereCipher cipher = cipherWithKey("LEMON");
+        CipherSession session = cipher.session(CipherMode.ENCRYPT);
+
+        String result = session.update(PLAIN.substring(0, 4))
+                + session.update(PLAIN.substring(4, 17))
+                + session.update(PLAIN.substring(17));
+
+        assertEquals(cipher.encrypt(PLAIN), result);
+        assertEquals(25, session.position());
+    }
+
+    @Test
+    public void testUpdateCharArrayReturnsLetterCount() {
+        VigenereCipher cipher = cipherWithKey("KEY");
+        CipherSession session = cipher.session(CipherMode.ENCRYPT);
+        char[] src = "Hello, World".toCharArray();
+        char[] dst = new char[src.length];
+
+        int letters = session.update(src, 0, src.length, dst, 0);
+
+        assertEquals(10, letters);
+        assertEquals("RIJVS, UYVJN", new String(dst));
+    }
+
+    @Test
+    public void testSeekDecryptsFromMiddle() {
+        VigenereCipher cipher = cipherWithKey("LEMON");
+        String ciphertext = cipher.encrypt(PLAIN);
+        CipherSession session = cipher.session(CipherMode.DECRYPT);
+
+        // "Retreat at dusk." starts after the 12 letters of "Attack at dawn"
+        session.seek(12);
+        String result = session.update(ciphertext.substring(16));
+
+        assertEquals("RETREAT AT DUSK.", result);
+        assertEquals(25, session.position());
+    }
+
+    @Test
+    public void testSeekBackwards() {
+        VigenereCipher cipher = cipherWithKey("KEY");
+        CipherSession session = cipher.session(CipherMode.ENCRYPT);
+
+        String first = session.update("HELLO");
+        session.seek(0);
+        String second = session.update("HELLO");
+
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void testSeekFarBeyondKeyLength() {
+        VigenereCipher cipher = cipherWithKey("KEY");
+        CipherSession session = cipher.session(CipherMode.ENCRYPT);
+        final long far = 3_000_000_000L;
+
+        session.seek(far);
+        String result = session.update("HELLO");
+
+        assertEquals(cipher.encrypt("HELLO"), result);
+        assertEquals(far + 5, session.position());
+    }
+
+}
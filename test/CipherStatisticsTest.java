@@ -0,0 +1,181 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code CipherStatistics}.
+ *
+ * @author Vikranth Vegesina
+ */
+public class CipherStatisticsTest {
+
+    /**
+     * Plaintext used by the tests.
+     */
+    private static final String PLAIN = "Attack at dawn! Retreat at dusk.";
+
+    /**
+     * Helper method to create a cipher with the given key.
+     *
+     * @param key
+     *            the key
+     * @return the cipher
+     */
+    private static VigenereCipher cipherWithKey(String key) {
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString(key);
+        return cipher;
+    }
+
+    /**
+     * Helper method that checks {@code stats} against a second scan of
+     * {@code output}, assuming it was produced from letter position 0.
+     *
+     * @param output
+     *            the text the statistics were collected from
+     * @param stats
+     *            the statistics
+     */
+    private static void assertCounts(String output, CipherStatistics stats) {
+        long[] letters = new long[26];
+        long[] positions = new long[stats.keyLength()];
+        long nonLetters = 0;
+        int letterCount = 0;
+        for (int i = 0; i < output.length(); i++) {
+            char c = Character.toUpperCase(output.charAt(i));
+            if (c >= 'A' && c <= 'Z') {
+                letters[c - 'A']++;
+                positions[letterCount % positions.length]++;
+                letterCount++;
+            } else {
+                nonLetters++;
+            }
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            assertEquals(letters[c - 'A'], stats.letterCount(c));
+        }
+        for (int p = 0; p < positions.length; p++) {
+            assertEquals(positions[p], stats.keyPositionCount(p));
+        }
+        assertEquals(letterCount, stats.letterCount());
+        assertEquals(nonLetters, stats.nonLetterCount());
+    }
+
+    @Test
+    public void testNewStatisticsAreZero() {
+        CipherStatistics stats = new CipherStatistics(3);
+
+        assertEquals(3, stats.keyLength());
+        assertEquals(0, stats.letterCount());
+        assertEquals(0, stats.nonLetterCount());
+        assertEquals(0, stats.letterCount('q'));
+    }
+
+    @Test
+    public void testCompiledKeyCountsOutput() {
+        CompiledVigenereKey key = CompiledVigenereKey.of("LEMON");
+        char[] text = PLAIN.toCharArray();
+        CipherStatistics stats = new CipherStatistics(5);
+
+        long letters = key.encrypt(text, 0, text.length, text, 0, 0L, stats);
+
+        assertEquals(key.encrypt(PLAIN), new String(text));
+        assertEquals(letters, stats.letterCount());
+        assertCounts(new String(text), stats);
+    }
+
+    @Test
+    public void testDecryptCountsPlaintext() {
+        CompiledVigenereKey key = CompiledVigenereKey.of("LEMON", true);
+        char[] text = key.encrypt(PLAIN).toCharArray();
+        CipherStatistics stats = new CipherStatistics(5);
+
+        key.decrypt(text, 0, text.length, text, 0, 0L, stats);
+
+        assertEquals(PLAIN, new String(text));
+        assertCounts(PLAIN, stats);
+    }
+
+    @Test
+    public void testSessionCountsAcrossChunks() {
+        VigenereCipher cipher = cipherWithKey("KEY");
+        CipherSession session = cipher.session(CipherMode.ENCRYPT);
+        CipherStatistics stats = new CipherStatistics(3);
+        session.setStatistics(stats);
+
+        String output = session.update(PLAIN.substring(0, 7))
+                + session.update(PLAIN.substring(7, 20))
+                + session.update(PLAIN.substring(20));
+
+        assertSame(stats, session.statistics());
+        assertEquals(cipher.encrypt(PLAIN), output);
+        assertCounts(output, stats);
+    }
+
+    @Test
+    public void testDetachedSessionStopsCounting() {
+        CipherSession session = cipherWithKey("KEY")
+                .session(CipherMode.ENCRYPT);
+        CipherStatistics stats = new CipherStatistics(3);
+        session.setStatistics(stats);
+        String output = session.update(PLAIN);
+
+        session.setStatistics(null);
+        session.update(PLAIN);
+
+        assertNull(session.statistics());
+        assertCounts(output, stats);
+    }
+
+    @Test
+    public void testWriterCountsCiphertext() throws Exception {
+        VigenereCipher cipher = cipherWithKey("SECRET");
+        StringWriter sink = new StringWriter();
+        CipherStatistics stats = new CipherStatistics(6);
+
+        try (VigenereCipherWriter out = new VigenereCipherWriter(sink,
+                cipher)) {
+            out.setStatistics(stats);
+            out.write(PLAIN);
+        }
+
+        assertCounts(sink.toString(), stats);
+    }
+
+    @Test
+    public void testSnapshotIsIndependent() {
+        CompiledVigenereKey key = CompiledVigenereKey.of("KEY");
+        char[] text = PLAIN.toCharArray();
+        CipherStatistics stats = new CipherStatistics(3);
+        long letters = key.encrypt(text, 0, 10, text, 0, 0L, stats);
+
+        CipherStatistics snapshot = stats.snapshot();
+        key.encrypt(text, 10, text.length - 10, text, 10, letters, stats);
+
+        assertCounts(new String(text, 0, 10), snapshot);
+        assertCounts(new String(text), stats);
+    }
+
+    @Test
+    public void testAddAndReset() {
+        CompiledVigenereKey key = CompiledVigenereKey.of("KEY");
+        char[] text = PLAIN.toCharArray();
+        CipherStatistics first = new CipherStatistics(3);
+        CipherStatistics second = new CipherStatistics(3);
+        long letters = key.encrypt(text, 0, 10, text, 0, 0L, first);
+        key.encrypt(text, 10, text.length - 10, text, 10, letters, second);
+
+        first.add(second);
+        assertCounts(new String(text), first);
+
+        first.reset();
+        assertEquals(0, first.letterCount());
+        assertEquals(0, first.nonLetterCount());
+        assertEquals(0, first.keyPositionCount(2));
+    }
+
+}
@@ -0,0 +1,169 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code CompiledKeyCache}.
+ *
+ * @author Vikranth Vegesina
+ */
+public class CompiledKeyCacheTest {
+
+    /**
+     * Uninstalls any cache a test left installed.
+     */
+    @After
+    public void uninstall() {
+        CompiledKeyCache.install(null);
+    }
+
+    @Test
+    public void testNothingInstalledByDefault() {
+        assertNull(CompiledKeyCache.installed());
+    }
+
+    @Test
+    public void testInstalledCacheServesSetKeyFromString() {
+        CompiledKeyCache cache = new CompiledKeyCache(4, 1, TimeUnit.MINUTES);
+        CompiledKeyCache.install(cache);
+        VigenereCipher cipher = new VigenereCipher2();
+
+        cipher.setKeyFromString("LEMON");
+        cipher.setKeyFromString("KEY");
+        cipher.setKeyFromString("LEMON");
+        new VigenereCipher1L(CipherAlphabet.ALPHANUMERIC)
+                .setKeyFromString("K3Y");
+        cipher.session(CipherMode.ENCRYPT);
+
+        assertEquals(2, cache.missCount());
+        assertEquals(1, cache.hitCount());
+        assertEquals(2, cache.size());
+        assertEquals("LEMON", cipher.keyToString());
+
+        CompiledKeyCache.install(null);
+        cipher.setKeyFromString("QUARTZ");
+        assertEquals(2, cache.size());
+        assertEquals("QUARTZ", cipher.keyToString());
+    }
+
+    @Test
+    public void testMissThenHit() {
+        CompiledKeyCache cache = new CompiledKeyCache(4);
+
+        CompiledVigenereKey first = cache.get("LEMON");
+        CompiledVigenereKey second = cache.get("LEMON");
+
+        assertSame(first, second);
+        assertEquals("LEMON", first.key());
+        assertEquals(1, cache.missCount());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        CompiledKeyCache cache = new CompiledKeyCache(2);
+        CompiledVigenereKey a = cache.get("AAA");
+        cache.get("BBB");
+        cache.get("AAA");
+
+        cache.get("CCC");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictionCount());
+        assertSame(a, cache.get("AAA"));
+        cache.get("BBB");
+        assertEquals(4, cache.missCount());
+    }
+
+    @Test
+    public void testExpireAfterAccess() {
+        final long[] now = {0 };
+        final long ttl = 100;
+        CompiledKeyCache cache = new CompiledKeyCache(4, ttl,
+                TimeUnit.NANOSECONDS, () -> now[0]);
+        CompiledVigenereKey first = cache.get("KEY");
+
+        now[0] = ttl - 1;
+        assertSame(first, cache.get("KEY"));
+        now[0] += ttl - 1;
+        assertSame(first, cache.get("KEY"));
+        now[0] += ttl;
+        CompiledVigenereKey refreshed = cache.get("KEY");
+
+        assertNotSame(first, refreshed);
+        assertEquals(first, refreshed);
+        assertEquals(2, cache.hitCount());
+        assertEquals(2, cache.missCount());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    public void testCleanUpRemovesExpired() {
+        final long[] now = {0 };
+        final long ttl = 10;
+        CompiledKeyCache cache = new CompiledKeyCache(4, ttl,
+                TimeUnit.NANOSECONDS, () -> now[0]);
+        cache.get("AAA");
+        now[0] = ttl / 2;
+        cache.get("BBB");
+
+        now[0] = ttl;
+        cache.cleanUp();
+
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    public void testClearKeepsCounters() {
+        CompiledKeyCache cache = new CompiledKeyCache(4);
+        cache.get("KEY");
+        cache.get("KEY");
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(4, cache.maxEntries());
+    }
+
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        final int threads = 4;
+        final int keys = 40;
+        final int rounds = 200;
+        CompiledKeyCache cache = new CompiledKeyCache(16);
+        AtomicInteger wrong = new AtomicInteger();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int r = 0; r < rounds; r++) {
+                    String key = "K" + (char) ('A' + r % keys % 26)
+                            + (char) ('A' + r % keys / 26);
+                    if (!key.equals(cache.get(key).key())) {
+                        wrong.incrementAndGet();
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(0, wrong.get());
+        assertEquals(threads * rounds, cache.hitCount() + cache.missCount());
+        assertTrue(cache.size() <= 16 + threads);
+    }
+
+}
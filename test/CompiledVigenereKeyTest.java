@@ -0,0 +1,221 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code CompiledVigenereKey}.
+ *
+ * @author Vikranth Vegesina
+ */
+public class CompiledVigenereKeyTest {
+
+    /**
+     * Plaintext used by the tests.
+     */
+    private static final String PLAIN = "Attack at dawn! Retreat at dusk.";
+
+    @Test
+    public void testOfStringUpperCasesKey() {
+        CompiledVigenereKey key = CompiledVigenereKey.of("Lemon");
+
+        assertEquals("LEMON", key.key());
+        assertEquals(5, key.length());
+        assertEquals("<LEMON>", key.toString());
+    }
+
+    @Test
+    public void testOfCipherMatchesCipher() {
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString("LEMON");
+
+        CompiledVigenereKey key = CompiledVigenereKey.of(cipher);
+
+        assertEquals(cipher.encrypt(PLAIN), key.encrypt(PLAIN));
+        assertEquals("LEMON", cipher.keyToString());
+    }
+
+    @Test
+    public void testEncryptDecryptRoundTrip() {
+        CompiledVigenereKey key = CompiledVigenereKey.of("KEY");
+
+        String encrypted = key.encrypt("Hello, World");
+
+        assertEquals("RIJVS, UYVJN", encrypted);
+        assertEquals("HELLO, WORLD", key.decrypt(encrypted));
+    }
+
+    @Test
+    public void testEncryptCharArrayWithLetterOffset() {
+        CompiledVigenereKey key = CompiledVigenereKey.of("KEY");
+        char[] src = "Hello, World".toCharArray();
+        char[] dst = new char[src.length];
+        final int split = 7;
+
+        long letters = key.encrypt(src, 0, split, dst, 0, 0L);
+        letters = key.encrypt(src, split, src.length - split, dst, split,
+                letters);
+
+        assertEquals("RIJVS, UYVJN", new String(dst));
+        assertEquals(10, letters);
+    }
+
+    @Test
+    public void testEqualsIgnoresCase() {
+        assertEquals(CompiledVigenereKey.of("key"),
+                CompiledVigenereKey.of("KEY"));
+        assertEquals(CompiledVigenereKey.of("key").hashCode(),
+                CompiledVigenereKey.of("KEY").hashCode());
+        assertNotEquals(CompiledVigenereKey.of("KEY"),
+                CompiledVigenereKey.of("KEYS"));
+    }
+
+    @Test
+    public void testEncryptHeapByteBufferMatchesChars() {
+        CompiledVigenereKey key = CompiledVigenereKey.of("LEMON");
+        ByteBuffer src = ByteBuffer
+                .wrap(PLAIN.getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer dst = ByteBuffer.allocate(PLAIN.length());
+
+        long letters = key.encrypt(src, dst);
+
+        assertEquals(key.encrypt(PLAIN),
+                new String(dst.array(), StandardCharsets.US_ASCII));
+        assertEquals(25, letters);
+        assertEquals(0, src.remaining());
+        assertEquals(0, dst.remaining());
+    }
+
+    @Test
+    public void testDecryptDirectByteBufferKeepsUtf8() {
+        CompiledVigenereKey key = CompiledVigenereKey.of("KEY");
+        String plain = "caf\u00e9 \u2603 na\u00efve";
+        byte[] bytes = key.encrypt(plain).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer src = ByteBuffer.allocateDirect(bytes.length);
+        src.put(bytes).flip();
+        ByteBuffer dst = ByteBuffer.allocateDirect(bytes.length);
+
+        key.decrypt(src, dst);
+        dst.flip();
+        byte[] out = new byte[dst.remaining()];
+        dst.get(out);
+
+        assertEquals("CAF\u00e9 \u2603 NA\u00efVE",
+                new String(out, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testEncryptByteBufferWithLetterOffset() {
+        CompiledVigenereKey key = CompiledVigenereKey.of("KEY");
+        byte[] bytes = "Hello, World".getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer dst = ByteBuffer.allocate(bytes.length);
+        final int split = 7;
+
+        long letters = key.encrypt(ByteBuffer.wrap(bytes, 0, split), dst, 0L);
+        letters = key.encrypt(
+                ByteBuffer.wrap(bytes, split, bytes.length - split), dst,
+                letters);
+
+        assertEquals("RIJVS, UYVJN",
+                new String(dst.array(), StandardCharsets.US_ASCII));
+        assertEquals(10, letters);
+    }
+
+    @Test
+    public void testEncryptInPlaceKeepsPosition() {
+        CompiledVigenereKey key = CompiledVigenereKey.of("KEY");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+        buffer.put("xxHello, World".getBytes(StandardCharsets.US_ASCII));
+        buffer.flip();
+        buffer.position(2);
+
+        key.encryptInPlace(buffer);
+        byte[] out = new byte[buffer.remaining()];
+        buffer.get(out);
+
+        assertEquals("RIJVS, UYVJN",
+                new String(out, StandardCharsets.US_ASCII));
+        assertEquals('x', buffer.get(0));
+    }
+
+    @Test
+    public void testDecryptInPlaceHeapSlice() {
+        CompiledVigenereKey key = CompiledVigenereKey.of("KEY");
+        byte[] bytes = "--RIJVS, UYVJN".getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.position(2);
+
+        key.decryptInPlace(buffer.slice());
+
+        assertEquals("--HELLO, WORLD",
+                new String(bytes, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testSharedAcrossThreads()
+            throws InterruptedException, ExecutionException {
+        final CompiledVigenereKey key = CompiledVigenereKey.of("LEMONADE");
+        final String expected = key.encrypt(PLAIN);
+        final int threads = 8;
+        final int rounds = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                boolean same = true;
+                for (int i = 0; i < rounds; i++) {
+                    same &= expected.equals(key.encrypt(PLAIN));
+                }
+                return same;
+            }));
+        }
+        for (Future<Boolean> result : results) {
+            assertEquals(Boolean.TRUE, result.get());
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void testOfCipherKeepsPreserveCase() {
+        VigenereCipher cipher = new VigenereCipher2();
+        cipher.setKeyFromString("LEMON");
+        cipher.setPreserveCase(true);
+
+        CompiledVigenereKey key = CompiledVigenereKey.of(cipher);
+
+        assertEquals(true, key.preservesCase());
+        assertEquals(cipher.encrypt(PLAIN), key.encrypt(PLAIN));
+        assertNotEquals(CompiledVigenereKey.of("LEMON"), key);
+    }
+
+    @Test
+    public void testPreserveCaseByteBuffersMatchChars() {
+        CompiledVigenereKey key = CompiledVigenereKey.of("LEMON", true);
+        byte[] bytes = PLAIN.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer heap = ByteBuffer.wrap(bytes.clone());
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+
+        key.encryptInPlace(heap);
+        key.encryptInPlace(direct);
+        byte[] out = new byte[bytes.length];
+        direct.get(out);
+
+        assertEquals(key.encrypt(PLAIN),
+                new String(heap.array(), StandardCharsets.US_ASCII));
+        assertEquals(key.encrypt(PLAIN),
+                new String(out, StandardCharsets.US_ASCII));
+        assertEquals(PLAIN, key.decrypt(key.encrypt(PLAIN)));
+    }
+
+}
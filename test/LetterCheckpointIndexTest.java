@@ -0,0 +1,149 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code LetterCheckpointIndex}.
+ *
+ * @author Vikranth Vegesina
+ */
+public class LetterCheckpointIndexTest {
+
+    /**
+     * Text used by the tests.
+     */
+    private static final String TEXT = "Attack at dawn! Retreat at dusk, "
+            + "regroup at the old mill before noon. 123 ... go!";
+
+    /**
+     * Helper method to count letters the slow way.
+     *
+     * @param text
+     *            the text
+     * @param end
+     *            the end of the prefix to count
+     * @return the number of letters in text[0, end)
+     */
+    private static long countLetters(String text, int end) {
+        long count = 0;
+        for (int i = 0; i < end; i++) {
+            char c = text.charAt(i);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testLettersBeforeEveryOffset() {
+        final int interval = 7;
+        LetterCheckpointIndex index = LetterCheckpointIndex.build(TEXT,
+                interval);
+
+        for (int offset = 0; offset <= TEXT.length(); offset++) {
+            assertEquals(countLetters(TEXT, offset),
+                    index.lettersBefore(TEXT, offset));
+        }
+        assertEquals(TEXT.length(), index.length());
+        assertEquals(countLetters(TEXT, TEXT.length()), index.letterCount());
+    }
+
+    @Test
+    public void testCheckpointAtOrBefore() {
+        final int interval = 10;
+        LetterCheckpointIndex index = LetterCheckpointIndex.build(TEXT,
+                interval);
+
+        assertEquals(0, index.checkpointAtOrBefore(9));
+        assertEquals(10, index.checkpointAtOrBefore(10));
+        assertEquals(countLetters(TEXT, 20), index.lettersAtCheckpoint(25));
+    }
+
+    @Test
+    public void testEmptyText() {
+        LetterCheckpointIndex index = LetterCheckpointIndex.build("");
+
+        assertEquals(0, index.length());
+        assertEquals(0, index.lettersBefore("", 0));
+    }
+
+    @Test
+    public void testBuilderInChunksMatchesBuild() {
+        final int interval = 5;
+        LetterCheckpointIndex.Builder builder;
+        builder = new LetterCheckpointIndex.Builder(interval);
+        char[] chars = TEXT.toCharArray();
+
+        builder.append(chars, 0, 3);
+        builder.append(TEXT.substring(3, 20));
+        builder.append(chars, 20, chars.length - 20);
+        LetterCheckpointIndex index = builder.build();
+
+        for (int offset = 0; offset <= TEXT.length(); offset++) {
+            assertEquals(countLetters(TEXT, offset),
+                    index.lettersBefore(TEXT, offset));
+        }
+    }
+
+    @Test
+    public void testBuildFromReader() throws IOException {
+        final int interval = 6;
+
+        LetterCheckpointIndex index = LetterCheckpointIndex
+                .build(new StringReader(TEXT), interval);
+
+        assertEquals(TEXT.length(), index.length());
+        assertEquals(countLetters(TEXT, 40), index.lettersBefore(TEXT, 40));
+    }
+
+    @Test
+    public void testWriteToReadFromRoundTrip() throws IOException {
+        final int interval = 8;
+        LetterCheckpointIndex index = LetterCheckpointIndex.build(TEXT,
+                interval);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        index.writeTo(bytes);
+        LetterCheckpointIndex loaded = LetterCheckpointIndex
+                .readFrom(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(index.interval(), loaded.interval());
+        assertEquals(index.length(), loaded.length());
+        assertEquals(index.letterCount(), loaded.letterCount());
+        for (int offset = 0; offset <= TEXT.length(); offset++) {
+            assertEquals(index.lettersBefore(TEXT, offset),
+                    loaded.lettersBefore(TEXT, offset));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadFromRejectsGarbage() throws IOException {
+        byte[] garbage = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12};
+
+        LetterCheckpointIndex.readFrom(new ByteArrayInputStream(garbage));
+    }
+
+    @Test
+    public void testDecryptRangeMatchesFullDecrypt() {
+        VigenereCipher cipher = new VigenereCipher2();
+        cipher.setKeyFromString("QUARTZ");
+        final int interval = 9;
+        String ciphertext = cipher.encrypt(TEXT);
+        String plain = cipher.decrypt(ciphertext);
+        LetterCheckpointIndex index = LetterCheckpointIndex.build(ciphertext,
+                interval);
+
+        for (int offset = 0; offset < ciphertext.length(); offset += 5) {
+            int length = Math.min(11, ciphertext.length() - offset);
+            assertEquals(plain.substring(offset, offset + length),
+                    cipher.decryptRange(ciphertext, offset, length, index));
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code RunningKeyCipher}.
+ *
+ * @author Vikranth Vegesina
+ */
+public class RunningKeyCipherTest {
+
+    /**
+     * Plaintext used by the tests.
+     */
+    private static final String PLAIN = "Attack at dawn! Retreat at dusk.";
+
+    /**
+     * Key text used by the tests; its letters are longer than {@code PLAIN}.
+     */
+    private static final String BOOK = "It was the best of times, it was "
+            + "the worst of times, it was the age of wisdom...";
+
+    /**
+     * Helper method to return the letters of {@code text}.
+     *
+     * @param text
+     *            the text
+     * @return its ASCII letters, in order
+     */
+    private static String lettersOf(String text) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Helper method to encrypt {@code text} with a repeating key made of the
+     * letters of {@code book}, which equals a running key while the text has
+     * no more letters than the book.
+     *
+     * @param book
+     *            the key text
+     * @param text
+     *            the plaintext
+     * @return the ciphertext
+     */
+    private static String repeatingEncrypt(String book, String text) {
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString(lettersOf(book).toUpperCase());
+        return cipher.encrypt(text);
+    }
+
+    @Test
+    public void testEncryptMatchesRepeatingKey() throws IOException {
+        RunningKeyCipher cipher = new RunningKeyCipher(new StringReader(BOOK),
+                CipherMode.ENCRYPT);
+
+        String result = cipher.update(PLAIN.substring(0, 9))
+                + cipher.update(PLAIN.substring(9));
+
+        assertEquals(repeatingEncrypt(BOOK, PLAIN), result);
+        assertEquals(25, cipher.position());
+        cipher.close();
+    }
+
+    @Test
+    public void testDecryptRoundTrip() throws IOException {
+        String ciphertext = repeatingEncrypt(BOOK, PLAIN);
+        RunningKeyCipher cipher = new RunningKeyCipher(new StringReader(BOOK),
+                CipherMode.DECRYPT, true);
+
+        assertEquals(PLAIN.toUpperCase(), cipher.update(ciphertext));
+        cipher.close();
+    }
+
+    @Test
+    public void testKeyAcrossBlocks() throws IOException {
+        final int length = 20000;
+        StringBuilder book = new StringBuilder();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            book.append((char) ('a' + (i * 7) % 26));
+            text.append((char) ('A' + (i * 3) % 26));
+            if (i % 5 == 0) {
+                book.append(' ');
+                text.append('.');
+            }
+        }
+        RunningKeyCipher cipher = new RunningKeyCipher(
+                new StringReader(book.toString()), CipherMode.ENCRYPT);
+
+        String result = cipher.update(text);
+
+        assertEquals(repeatingEncrypt(book.toString(), text.toString()),
+                result);
+        cipher.close();
+    }
+
+    @Test
+    public void testMappedKeyFile() throws IOException {
+        Path file = Files.createTempFile("running-key", ".txt");
+        file.toFile().deleteOnExit();
+        Files.write(file, BOOK.getBytes(StandardCharsets.ISO_8859_1));
+        RunningKeyCipher cipher = RunningKeyCipher.open(file,
+                CipherMode.ENCRYPT);
+
+        String result = cipher.update(PLAIN);
+
+        assertEquals(repeatingEncrypt(BOOK, PLAIN), result);
+        cipher.close();
+    }
+
+    @Test
+    public void testTrailingNonLettersNeedNoKey() throws IOException {
+        RunningKeyCipher cipher = new RunningKeyCipher(
+                new StringReader("bc"), CipherMode.ENCRYPT);
+
+        assertEquals("BD!? ", cipher.update("ab!? "));
+        cipher.close();
+    }
+
+    @Test(expected = EOFException.class)
+    public void testExhaustedKey() throws IOException {
+        RunningKeyCipher cipher = new RunningKeyCipher(
+                new StringReader("bc"), CipherMode.ENCRYPT);
+
+        cipher.update("abc");
+    }
+
+}
@@ -0,0 +1,229 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import components.sequence.Sequence;
+import components.sequence.Sequence1L;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code VigenereAnalyzer}.
+ *
+ * @author Vikranth Vegesina
+ */
+public class VigenereAnalyzerTest {
+
+    /**
+     * English plaintext used by the tests.
+     */
+    private static final String ENGLISH = "It was the best of times, it was "
+            + "the worst of times, it was the age of wisdom, it was the age "
+            + "of foolishness, it was the epoch of belief, it was the epoch "
+            + "of incredulity, it was the season of Light, it was the season "
+            + "of Darkness, it was the spring of hope, it was the winter of "
+            + "despair, we had everything before us, we had nothing before "
+            + "us, we were all going direct to Heaven, we were all going "
+            + "direct the other way - in short, the period was so far like "
+            + "the present period, that some of its noisiest authorities "
+            + "insisted on its being received, for good or for evil, in the "
+            + "superlative degree of comparison only. There were a king with "
+            + "a large jaw and a queen with a plain face, on the throne of "
+            + "England; there were a king with a large jaw and a queen with a "
+            + "fair face, on the throne of France. In both countries it was "
+            + "clearer than crystal to the lords of the State preserves of "
+            + "loaves and fishes, that things in general were settled for "
+            + "ever.";
+
+    /**
+     * Helper method to encrypt {@code text} with {@code key}.
+     *
+     * @param key
+     *            the key
+     * @param text
+     *            the plaintext
+     * @return the ciphertext
+     */
+    private static String encrypt(String key, String text) {
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString(key);
+        return cipher.encrypt(text);
+    }
+
+    @Test
+    public void testPlaintextHasPeriodOne() {
+        VigenereAnalyzer.KeyLengthEstimate estimate = VigenereAnalyzer
+                .estimateKeyLength(ENGLISH.toCharArray());
+
+        assertEquals(1, estimate.mostLikelyPeriod());
+        assertTrue(estimate.indexOfCoincidence(1) > 0.06);
+    }
+
+    @Test
+    public void testFindsKeyLength() {
+        char[] ciphertext = encrypt("LEMON", ENGLISH).toCharArray();
+
+        VigenereAnalyzer.KeyLengthEstimate estimate = VigenereAnalyzer
+                .estimateKeyLength(ciphertext);
+
+        assertEquals(5, estimate.mostLikelyPeriod());
+        assertTrue(estimate.indexOfCoincidence(1) < 0.05);
+        assertTrue(estimate.indexOfCoincidence(5) > 0.06);
+        assertEquals(0, estimate.rankedPeriods()[0] % 5);
+    }
+
+    @Test
+    public void testFindsLongerKeyLength() {
+        char[] ciphertext = encrypt("SECRETS", ENGLISH).toCharArray();
+
+        VigenereAnalyzer.KeyLengthEstimate estimate = VigenereAnalyzer
+                .estimateKeyLength(ciphertext, 0, ciphertext.length, 12);
+
+        assertEquals(7, estimate.mostLikelyPeriod());
+        assertEquals(12, estimate.maxPeriod());
+    }
+
+    @Test
+    public void testKasiskiCountsRepeatDistance() {
+        char[] text = "the, xx the".toCharArray();
+
+        VigenereAnalyzer.KeyLengthEstimate estimate = VigenereAnalyzer
+                .estimateKeyLength(text, 0, text.length, 6);
+
+        assertEquals(8, estimate.letterCount());
+        assertEquals(1, estimate.kasiskiCount(5));
+        assertEquals(1, estimate.kasiskiCount(1));
+        assertEquals(0, estimate.kasiskiCount(2));
+    }
+
+    @Test
+    public void testSequenceMatchesCharArray() {
+        String ciphertext = encrypt("KEY", ENGLISH);
+        Sequence<Character> text = new Sequence1L<>();
+        for (int i = 0; i < ciphertext.length(); i++) {
+            text.add(i, ciphertext.charAt(i));
+        }
+
+        VigenereAnalyzer.KeyLengthEstimate fromSequence = VigenereAnalyzer
+                .estimateKeyLength(text);
+        VigenereAnalyzer.KeyLengthEstimate fromArray = VigenereAnalyzer
+                .estimateKeyLength(ciphertext.toCharArray());
+
+        for (int p = 1; p <= VigenereAnalyzer.DEFAULT_MAX_PERIOD; p++) {
+            assertEquals(fromArray.indexOfCoincidence(p),
+                    fromSequence.indexOfCoincidence(p), 0.0);
+            assertEquals(fromArray.kasiskiCount(p),
+                    fromSequence.kasiskiCount(p));
+        }
+        assertEquals(3, fromSequence.mostLikelyPeriod());
+    }
+
+    @Test
+    public void testRecoverKey() {
+        char[] ciphertext = encrypt("LEMON", ENGLISH).toCharArray();
+
+        VigenereAnalyzer.KeyRecovery recovery = VigenereAnalyzer
+                .recoverKey(ciphertext, 5);
+
+        assertEquals("LEMON", recovery.key());
+        assertEquals(5, recovery.keyLength());
+        assertEquals(VigenereAnalyzer.estimateKeyLength(ciphertext)
+                .letterCount(), recovery.letterCount());
+    }
+
+    @Test
+    public void testCandidatesAreRankedByChiSquared() {
+        char[] ciphertext = encrypt("LEMON", ENGLISH).toCharArray();
+
+        VigenereAnalyzer.KeyRecovery recovery = VigenereAnalyzer
+                .recoverKey(ciphertext, 5);
+        char[] candidates = recovery.candidates(2);
+
+        assertEquals(26, candidates.length);
+        assertEquals('M', candidates[0]);
+        for (int i = 1; i < candidates.length; i++) {
+            assertTrue(recovery.chiSquared(2, candidates[i - 1]) <= recovery
+                    .chiSquared(2, candidates[i]));
+        }
+        assertEquals(recovery.chiSquared(2, 'M'), recovery.chiSquared(2, 'm'),
+                0.0);
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        char[] ciphertext = encrypt("SECRETS", ENGLISH).toCharArray();
+        ForkJoinPool pool = new ForkJoinPool(2);
+
+        VigenereAnalyzer.KeyRecovery parallel = VigenereAnalyzer.recoverKey(
+                ciphertext, 0, ciphertext.length, 7, pool, 37);
+        VigenereAnalyzer.KeyRecovery sequential = VigenereAnalyzer.recoverKey(
+                ciphertext, 0, ciphertext.length, 7, pool, ciphertext.length);
+        pool.shutdown();
+
+        assertEquals("SECRETS", parallel.key());
+        for (int position = 0; position < 7; position++) {
+            for (char c = 'A'; c <= 'Z'; c++) {
+                assertEquals(sequential.chiSquared(position, c),
+                        parallel.chiSquared(position, c), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testParallelEstimateMatchesSequential() {
+        StringBuilder plaintext = new StringBuilder();
+        while (plaintext.length() < 200_000) {
+            plaintext.append(ENGLISH);
+        }
+        char[] ciphertext = encrypt("SECRETS", plaintext.toString())
+                .toCharArray();
+        ForkJoinPool pool = new ForkJoinPool(2);
+
+        VigenereAnalyzer.KeyLengthEstimate parallel = VigenereAnalyzer
+                .estimateKeyLength(ciphertext, 5, ciphertext.length - 5, 20,
+                        pool, 30_011);
+        VigenereAnalyzer.KeyLengthEstimate sequential = VigenereAnalyzer
+                .estimateKeyLength(ciphertext, 5, ciphertext.length - 5, 20,
+                        pool, ciphertext.length);
+        pool.shutdown();
+
+        assertEquals(sequential.letterCount(), parallel.letterCount());
+        for (int p = 1; p <= 20; p++) {
+            assertEquals(sequential.indexOfCoincidence(p),
+                    parallel.indexOfCoincidence(p), 0.0);
+            assertEquals(sequential.kasiskiCount(p), parallel.kasiskiCount(p));
+        }
+        assertEquals(7, parallel.mostLikelyPeriod());
+    }
+
+    @Test
+    public void testRecoverKeyEstimatesLength() {
+        char[] ciphertext = encrypt("KEY", ENGLISH).toCharArray();
+
+        VigenereAnalyzer.KeyRecovery recovery = VigenereAnalyzer
+                .recoverKey(ciphertext);
+
+        assertEquals("KEY", recovery.key());
+        assertTrue(!recovery.isLowConfidence());
+    }
+
+    @Test
+    public void testRecoverKeyShortText() {
+        char[] ciphertext = "Hi, Bo".toCharArray();
+
+        VigenereAnalyzer.KeyRecovery recovery = VigenereAnalyzer
+                .recoverKey(ciphertext, 6);
+
+        assertTrue(recovery.isLowConfidence());
+        assertEquals(4, recovery.letterCount());
+        assertEquals('A', recovery.key().charAt(5));
+        for (int position = 0; position < 6; position++) {
+            for (char c = 'A'; c <= 'Z'; c++) {
+                assertTrue(!Double.isNaN(recovery.chiSquared(position, c)));
+            }
+        }
+        assertEquals(0.0, recovery.chiSquared(5, 'Q'), 0.0);
+    }
+
+}
@@ -452,6 +452,20 @@ public class VigenereCipher1LTest {
         assertEquals("STORED", sequenceToString(cipher.key())); // stored key unchanged
     }
 
+    @Test
+    public void testEncryptWithKeyNoStoredKey() {
+        VigenereCipher cipher = new VigenereCipher1L();
+
+        Sequence<Character> text = createSequence("Hello, World");
+        Sequence<Character> tempKey = createSequence("key");
+
+        Sequence<Character> encrypted = cipher.encryptWithKey(text, tempKey);
+
+        assertEquals("RIJVS, UYVJN", sequenceToString(encrypted));
+        assertEquals("key", sequenceToString(tempKey)); // temp key unchanged
+        assertEquals(0, cipher.key().length()); // still no stored key
+    }
+
     /*
      * Test cases for isValidKey (secondary method)
      */
@@ -615,4 +629,119 @@ public class VigenereCipher1LTest {
         assertEquals(original, result);
     }
 
+    /*
+     * Test cases for encrypt/decrypt on char[] and CharSequence
+     */
+
+    @Test
+    public void testEncryptCharArraySimple() {
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString("KEY");
+        char[] src = "HELLO".toCharArray();
+        char[] dst = new char[src.length];
+
+        cipher.encrypt(src, 0, src.length, dst, 0);
+
+        assertEquals("RIJVS", new String(dst));
+        assertEquals("HELLO", new String(src)); // source unchanged
+    }
+
+    @Test
+    public void testDecryptCharArraySimple() {
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString("KEY");
+        char[] src = "RIJVS".toCharArray();
+        char[] dst = new char[src.length];
+
+        cipher.decrypt(src, 0, src.length, dst, 0);
+
+        assertEquals("HELLO", new String(dst));
+    }
+
+    @Test
+    public void testEncryptStringWithPunctuation() {
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString("KEY");
+
+        String encrypted = cipher.encrypt("Hello, World!");
+
+        assertEquals("RIJVS, UYVJN!", encrypted);
+    }
+
+    @Test
+    public void testDecryptStringWithPunctuation() {
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString("KEY");
+
+        String decrypted = cipher.decrypt("RIJVS, UYVJN!");
+
+        assertEquals("HELLO, WORLD!", decrypted);
+    }
+
+    /*
+     * Test cases for encryptInPlace/decryptInPlace
+     */
+
+    @Test
+    public void testEncryptInPlaceSequence() {
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString("KEY");
+        Sequence<Character> text = createSequence("Hello World");
+
+        cipher.encryptInPlace(text);
+
+        assertEquals("RIJVS UYVJN", sequenceToString(text));
+    }
+
+    @Test
+    public void testDecryptInPlaceCharArray() {
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString("KEY");
+        char[] buffer = "RIJVS UYVJN".toCharArray();
+
+        cipher.decryptInPlace(buffer, 0, buffer.length);
+
+        assertEquals("HELLO WORLD", new String(buffer));
+    }
+
+    /*
+     * Test cases for preserve-case mode
+     */
+
+    @Test
+    public void testEncryptPreserveCase() {
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString("KEY");
+        cipher.setPreserveCase(true);
+        Sequence<Character> text = createSequence("Hello World");
+
+        Sequence<Character> encrypted = cipher.encrypt(text);
+
+        assertEquals("Rijvs Uyvjn", sequenceToString(encrypted));
+        assertEquals("Rijvs Uyvjn", cipher.encrypt("Hello World"));
+    }
+
+    @Test
+    public void testDecryptInPlacePreserveCase() {
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString("KEY");
+        cipher.setPreserveCase(true);
+        char[] buffer = "Rijvs Uyvjn".toCharArray();
+
+        cipher.decryptInPlace(buffer, 0, buffer.length);
+
+        assertEquals("Hello World", new String(buffer));
+    }
+
+    @Test
+    public void testSetPreserveCaseKeepsKey() {
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString("KEY");
+
+        cipher.setPreserveCase(true);
+
+        assertEquals("KEY", cipher.keyToString());
+        assertTrue(cipher.preservesCase());
+    }
+
 }
@@ -0,0 +1,28 @@
+/**
+ * Customized JUnit test fixture for {@code VigenereCipher2}.
+ *
+ * @author Vikranth Vegesina
+ */
+public class VigenereCipher2Test extends VigenereCipherTest {
+
+    @Override
+    protected final VigenereCipher constructorTest() {
+        return new VigenereCipher2();
+    }
+
+    @Override
+    protected final VigenereCipher constructorRef() {
+        return new VigenereCipher1L();
+    }
+
+    @Override
+    protected final VigenereCipher constructorTest(CipherAlphabet alphabet) {
+        return new VigenereCipher2(alphabet);
+    }
+
+    @Override
+    protected final VigenereCipher constructorRef(CipherAlphabet alphabet) {
+        return new VigenereCipher1L(alphabet);
+    }
+
+}
@@ -0,0 +1,118 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code VigenereCipherReader}.
+ *
+ * @author Vikranth Vegesina
+ */
+public class VigenereCipherReaderTest {
+
+    /**
+     * Plaintext used by the chunking tests.
+     */
+    private static final String PLAIN = "Attack at dawn! Retreat at dusk, "
+            + "regroup at the old mill before noon.";
+
+    /**
+     * Helper method to create a cipher with the given key.
+     *
+     * @param key
+     *            the key
+     * @return the cipher
+     */
+    private static VigenereCipher cipherWithKey(String key) {
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString(key);
+        return cipher;
+    }
+
+    /**
+     * Helper method to drain a reader using reads of at most
+     * {@code chunkSize} characters.
+     *
+     * @param reader
+     *            the reader to drain
+     * @param chunkSize
+     *            the largest read to request
+     * @return everything read
+     * @throws IOException
+     *             if reading fails
+     */
+    private static String readAll(Reader reader, int chunkSize)
+            throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] buffer = new char[chunkSize];
+        int n = reader.read(buffer, 0, chunkSize);
+        while (n >= 0) {
+            sb.append(buffer, 0, n);
+            n = reader.read(buffer, 0, chunkSize);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testReadDecryptsInChunks() throws IOException {
+        VigenereCipher cipher = cipherWithKey("LEMON");
+        String ciphertext = cipher.encrypt(PLAIN);
+        final int chunkSize = 3;
+
+        String result;
+        try (Reader reader = new VigenereCipherReader(
+                new StringReader(ciphertext), cipher)) {
+            result = readAll(reader, chunkSize);
+        }
+
+        assertEquals(cipher.decrypt(ciphertext), result);
+    }
+
+    @Test
+    public void testReadEncryptMode() throws IOException {
+        VigenereCipher cipher = cipherWithKey("LEMON");
+        final int chunkSize = 5;
+
+        String result;
+        try (Reader reader = new VigenereCipherReader(new StringReader(PLAIN),
+                cipher, CipherMode.ENCRYPT)) {
+            result = readAll(reader, chunkSize);
+        }
+
+        assertEquals(cipher.encrypt(PLAIN), result);
+    }
+
+    @Test
+    public void testReadSingleCharacters() throws IOException {
+        VigenereCipher cipher = cipherWithKey("KEY");
+        StringBuilder sb = new StringBuilder();
+
+        try (Reader reader = new VigenereCipherReader(
+                new StringReader("RIJVS, UYVJN"), cipher)) {
+            int c = reader.read();
+            while (c >= 0) {
+                sb.append((char) c);
+                c = reader.read();
+            }
+        }
+
+        assertEquals("HELLO, WORLD", sb.toString());
+    }
+
+    @Test
+    public void testLetterOffset() throws IOException {
+        VigenereCipher cipher = cipherWithKey("KEY");
+        final int chunkSize = 4;
+        VigenereCipherReader reader = new VigenereCipherReader(
+                new StringReader("RIJVS, UYVJN"), cipher);
+
+        readAll(reader, chunkSize);
+
+        assertEquals(10, reader.letterOffset());
+        reader.close();
+    }
+
+}
@@ -1,7 +1,11 @@
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Test;
 
 import components.sequence.Sequence;
@@ -33,6 +37,28 @@ public abstract class VigenereCipherTest {
      */
     protected abstract VigenereCipher constructorRef();
 
+    /**
+     * Invokes the {@code VigenereCipher} constructor taking an alphabet for
+     * the implementation under test and returns the result.
+     *
+     * @param alphabet
+     *            the alphabet
+     * @return the new cipher
+     * @ensures constructorTest = empty cipher over alphabet with no key set
+     */
+    protected abstract VigenereCipher constructorTest(CipherAlphabet alphabet);
+
+    /**
+     * Invokes the {@code VigenereCipher} constructor taking an alphabet for
+     * the reference implementation and returns the result.
+     *
+     * @param alphabet
+     *            the alphabet
+     * @return the new cipher
+     * @ensures constructorRef = empty cipher over alphabet with no key set
+     */
+    protected abstract VigenereCipher constructorRef(CipherAlphabet alphabet);
+
     /**
      * Helper method to create a Sequence from a String.
      *
@@ -275,7 +301,7 @@ public abstract class VigenereCipherTest {
         Sequence<Character> encryptedExpected = cipherExpected
                 .encrypt(plainExpected);
 
-        assertEquals("HFNLP", sequenceToString(encrypted));
+        assertEquals("HFLMO", sequenceToString(encrypted));
         assertEquals(encryptedExpected, encrypted);
         assertEquals(cipherExpected, cipher);
     }
@@ -674,4 +700,606 @@ public abstract class VigenereCipherTest {
         assertEquals(cipherExpected, cipher);
     }
 
-}
\ No newline at end of file
+    /*
+     * Test cases for encrypt/decrypt on char[] (kernel methods)
+     */
+
+    @Test
+    public final void testEncryptCharArrayWithOffsets() {
+        VigenereCipher cipher = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher.setKeyFromString("KEY");
+        cipherExpected.setKeyFromString("KEY");
+        char[] src = "##Hello, World##".toCharArray();
+        char[] dst = "................".toCharArray();
+
+        cipher.encrypt(src, 2, 12, dst, 1);
+        Sequence<Character> encryptedExpected = cipherExpected
+                .encrypt(createSequence("Hello, World"));
+
+        assertEquals("." + sequenceToString(encryptedExpected) + "...",
+                new String(dst));
+        assertEquals("##Hello, World##", new String(src));
+        assertEquals(cipherExpected, cipher);
+    }
+
+    @Test
+    public final void testDecryptCharArraySameArray() {
+        VigenereCipher cipher = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher.setKeyFromString("KEY");
+        cipherExpected.setKeyFromString("KEY");
+        char[] buffer = "RIJVS UYVJN".toCharArray();
+
+        cipher.decrypt(buffer, 0, buffer.length, buffer, 0);
+        Sequence<Character> decryptedExpected = cipherExpected
+                .decrypt(createSequence("RIJVS UYVJN"));
+
+        assertEquals(sequenceToString(decryptedExpected), new String(buffer));
+        assertEquals(cipherExpected, cipher);
+    }
+
+    @Test
+    public final void testEncryptCharArrayEmptyRange() {
+        VigenereCipher cipher = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher.setKeyFromString("KEY");
+        cipherExpected.setKeyFromString("KEY");
+        char[] src = "HELLO".toCharArray();
+        char[] dst = "-----".toCharArray();
+
+        cipher.encrypt(src, 2, 0, dst, 2);
+
+        assertEquals("-----", new String(dst));
+        assertEquals(cipherExpected, cipher);
+    }
+
+    /*
+     * Test cases for encrypt/decrypt on CharSequence (secondary methods)
+     */
+
+    @Test
+    public final void testEncryptCharSequenceString() {
+        VigenereCipher cipher = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher.setKeyFromString("KEY");
+        cipherExpected.setKeyFromString("KEY");
+
+        String encrypted = cipher.encrypt("Hello, World!");
+        Sequence<Character> encryptedExpected = cipherExpected
+                .encrypt(createSequence("Hello, World!"));
+
+        assertEquals(sequenceToString(encryptedExpected), encrypted);
+        assertEquals(cipherExpected, cipher);
+    }
+
+    @Test
+    public final void testDecryptCharSequenceStringBuilder() {
+        VigenereCipher cipher = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher.setKeyFromString("KEY");
+        cipherExpected.setKeyFromString("KEY");
+
+        String decrypted = cipher.decrypt(new StringBuilder("RIJVS UYVJN"));
+        Sequence<Character> decryptedExpected = cipherExpected
+                .decrypt(createSequence("RIJVS UYVJN"));
+
+        assertEquals(sequenceToString(decryptedExpected), decrypted);
+        assertEquals(cipherExpected, cipher);
+    }
+
+    @Test
+    public final void testEncryptDecryptCharSequenceRoundTrip() {
+        VigenereCipher cipher = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher.setKeyFromString("LEMON");
+        cipherExpected.setKeyFromString("LEMON");
+
+        String decrypted = cipher.decrypt(cipher.encrypt("ATTACK AT DAWN"));
+
+        assertEquals("ATTACK AT DAWN", decrypted);
+        assertEquals(cipherExpected, cipher);
+    }
+
+    /*
+     * Test cases for encryptInPlace/decryptInPlace on Sequence (kernel
+     * methods)
+     */
+
+    @Test
+    public final void testEncryptInPlaceSequence() {
+        VigenereCipher cipher = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher.setKeyFromString("KEY");
+        cipherExpected.setKeyFromString("KEY");
+        Sequence<Character> text = createSequence("Hello, World!");
+        Sequence<Character> textExpected = createSequence("Hello, World!");
+
+        cipher.encryptInPlace(text);
+        textExpected = cipherExpected.encrypt(textExpected);
+
+        assertEquals(textExpected, text);
+        assertEquals(cipherExpected, cipher);
+    }
+
+    @Test
+    public final void testDecryptInPlaceSequence() {
+        VigenereCipher cipher = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher.setKeyFromString("KEY");
+        cipherExpected.setKeyFromString("KEY");
+        Sequence<Character> text = createSequence("RIJVS, UYVJN!");
+        Sequence<Character> textExpected = createSequence("RIJVS, UYVJN!");
+
+        cipher.decryptInPlace(text);
+        textExpected = cipherExpected.decrypt(textExpected);
+
+        assertEquals(textExpected, text);
+        assertEquals(cipherExpected, cipher);
+    }
+
+    /*
+     * Test cases for encryptInPlace/decryptInPlace on char[] (secondary
+     * methods)
+     */
+
+    @Test
+    public final void testEncryptInPlaceCharArray() {
+        VigenereCipher cipher = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher.setKeyFromString("KEY");
+        cipherExpected.setKeyFromString("KEY");
+        char[] buffer = "<<Hello>>".toCharArray();
+
+        cipher.encryptInPlace(buffer, 2, 5);
+        String encryptedExpected = cipherExpected.encrypt("Hello");
+
+        assertEquals("<<" + encryptedExpected + ">>", new String(buffer));
+        assertEquals(cipherExpected, cipher);
+    }
+
+    @Test
+    public final void testDecryptInPlaceCharArrayRoundTrip() {
+        VigenereCipher cipher = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher.setKeyFromString("LEMON");
+        cipherExpected.setKeyFromString("LEMON");
+        char[] buffer = "ATTACK AT DAWN".toCharArray();
+
+        cipher.encryptInPlace(buffer, 0, buffer.length);
+        cipher.decryptInPlace(buffer, 0, buffer.length);
+
+        assertEquals("ATTACK AT DAWN", new String(buffer));
+        assertEquals(cipherExpected, cipher);
+    }
+
+    /*
+     * Test cases for encrypt/decrypt on char[] with a letter offset (kernel
+     * methods)
+     */
+
+    @Test
+    public final void testEncryptCharArrayInChunksMatchesWhole() {
+        VigenereCipher cipher = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher.setKeyFromString("LEMON");
+        cipherExpected.setKeyFromString("LEMON");
+        char[] src = "Attack at dawn, hold at dusk!".toCharArray();
+        char[] dst = new char[src.length];
+
+        long letters = cipher.encrypt(src, 0, 10, dst, 0, 0L);
+        letters = cipher.encrypt(src, 10, 7, dst, 10, letters);
+        letters = cipher.encrypt(src, 17, src.length - 17, dst, 17, letters);
+        String encryptedExpected = cipherExpected
+                .encrypt("Attack at dawn, hold at dusk!");
+
+        assertEquals(encryptedExpected, new String(dst));
+        assertEquals(22, letters);
+        assertEquals(cipherExpected, cipher);
+    }
+
+    @Test
+    public final void testDecryptCharArrayWithLetterOffset() {
+        VigenereCipher cipher = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher.setKeyFromString("KEY");
+        cipherExpected.setKeyFromString("KEY");
+        String ciphertext = cipherExpected.encrypt("HELLO WORLD");
+        char[] src = ciphertext.substring(6).toCharArray();
+        char[] dst = new char[src.length];
+
+        long letters = cipher.decrypt(src, 0, src.length, dst, 0, 5L);
+
+        assertEquals("WORLD", new String(dst));
+        assertEquals(10, letters);
+        assertEquals(cipherExpected, cipher);
+    }
+
+    /*
+     * Test cases for decryptRange (secondary method)
+     */
+
+    @Test
+    public final void testDecryptRangeAcrossCheckpoints() {
+        VigenereCipher cipher = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher.setKeyFromString("LEMON");
+        cipherExpected.setKeyFromString("LEMON");
+        final int interval = 4;
+        String plain = "Attack at dawn! Retreat at dusk.";
+        String ciphertext = cipherExpected.encrypt(plain);
+        LetterCheckpointIndex index = LetterCheckpointIndex.build(ciphertext,
+                interval);
+
+        String range = cipher.decryptRange(ciphertext, 16, 7, index);
+
+        assertEquals("RETREAT", range);
+        assertEquals(cipherExpected, cipher);
+    }
+
+    /*
+     * Test cases for encryptAll and decryptAll (secondary methods)
+     */
+
+    @Test
+    public final void testEncryptAllResetsKeyPerRecord() {
+        VigenereCipher cipher = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher.setKeyFromString("KEY");
+        cipherExpected.setKeyFromString("KEY");
+        List<String> records = Arrays.asList("alice", "bob", "", "c4rol!");
+
+        List<String> encrypted = cipher.encryptAll(records, false);
+
+        assertEquals(records.size(), encrypted.size());
+        for (int k = 0; k < records.size(); k++) {
+            assertEquals(cipherExpected.encrypt(records.get(k)),
+                    encrypted.get(k));
+        }
+        assertEquals(cipherExpected, cipher);
+    }
+
+    @Test
+    public final void testEncryptAllCarriesKeyAcrossRecords() {
+        VigenereCipher cipher = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher.setKeyFromString("LEMON");
+        cipherExpected.setKeyFromString("LEMON");
+        List<String> records = Arrays.asList("Attack", " at ", "dawn!");
+
+        List<String> encrypted = cipher.encryptAll(records, true);
+
+        assertEquals(cipherExpected.encrypt("Attack at dawn!"),
+                String.join("", encrypted));
+    }
+
+    @Test
+    public final void testDecryptAllRoundTrip() {
+        VigenereCipher cipher = this.constructorTest();
+        cipher.setKeyFromString("QUARTZ");
+        List<String> records = Arrays.asList("USER01", "token-xyz", "Bob");
+
+        List<String> decrypted = cipher
+                .decryptAll(cipher.encryptAll(records, false), false);
+
+        assertEquals(Arrays.asList("USER01", "TOKEN-XYZ", "BOB"), decrypted);
+    }
+
+    @Test
+    public final void testEncryptAllPacked() {
+        VigenereCipher cipher = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher.setKeyFromString("KEY");
+        cipherExpected.setKeyFromString("KEY");
+        char[] packed = "alicebob!carol".toCharArray();
+        final int[] offsets = {0, 5, 9, 14 };
+
+        char[] encrypted = cipher.encryptAll(packed, offsets, false);
+
+        assertEquals(cipherExpected.encrypt("alice")
+                + cipherExpected.encrypt("bob!")
+                + cipherExpected.encrypt("carol"), new String(encrypted));
+        assertEquals("alicebob!carol", new String(packed));
+    }
+
+    @Test
+    public final void testDecryptAllPackedCarryKey() {
+        VigenereCipher cipher = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher.setKeyFromString("LEMON");
+        cipherExpected.setKeyFromString("LEMON");
+        String plain = "Attack at dawn!";
+        char[] packed = cipherExpected.encrypt(plain).toCharArray();
+        final int[] offsets = {0, 6, 6, 10, 15 };
+
+        char[] decrypted = cipher.decryptAll(packed, offsets, true);
+
+        assertEquals(plain.toUpperCase(), new String(decrypted));
+    }
+
+    /*
+     * Test cases for preserve-case mode
+     */
+
+    @Test
+    public final void testPreserveCaseDefaultsToFalse() {
+        VigenereCipher cipher = this.constructorTest();
+
+        assertFalse(cipher.preservesCase());
+    }
+
+    @Test
+    public final void testEncryptSequencePreserveCase() {
+        VigenereCipher cipher = this.constructorTest();
+        cipher.setKeyFromString("KEY");
+        cipher.setPreserveCase(true);
+        Sequence<Character> plain = createSequence("Hello, World");
+
+        Sequence<Character> encrypted = cipher.encrypt(plain);
+
+        assertEquals("Rijvs, Uyvjn", sequenceToString(encrypted));
+        assertEquals("Hello, World",
+                sequenceToString(cipher.decrypt(encrypted)));
+    }
+
+    @Test
+    public final void testEncryptStringPreserveCase() {
+        VigenereCipher cipher = this.constructorTest();
+        cipher.setKeyFromString("LEMON");
+        cipher.setPreserveCase(true);
+        String plain = "Attack at DAWN, retreat at dusk.";
+
+        String encrypted = cipher.encrypt(plain);
+
+        assertEquals("Lxfopv ef RNHR, dsgcimh ne hggx.", encrypted);
+        assertEquals(plain, cipher.decrypt(encrypted));
+    }
+
+    @Test
+    public final void testInPlacePreserveCase() {
+        VigenereCipher cipher = this.constructorTest();
+        cipher.setKeyFromString("KEY");
+        cipher.setPreserveCase(true);
+        Sequence<Character> text = createSequence("Hello, World");
+
+        cipher.encryptInPlace(text);
+        assertEquals("Rijvs, Uyvjn", sequenceToString(text));
+        cipher.decryptInPlace(text);
+        assertEquals("Hello, World", sequenceToString(text));
+    }
+
+    @Test
+    public final void testEncryptWithKeyPreserveCase() {
+        VigenereCipher cipher = this.constructorTest();
+        cipher.setPreserveCase(true);
+        Sequence<Character> plain = createSequence("Hello, World");
+
+        Sequence<Character> encrypted = cipher.encryptWithKey(plain,
+                createSequence("KEY"));
+
+        assertEquals("Rijvs, Uyvjn", sequenceToString(encrypted));
+    }
+
+    @Test
+    public final void testPreserveCaseMatchesUpperCaseIgnoringCase() {
+        VigenereCipher cipher = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher.setKeyFromString("QUARTZ");
+        cipherExpected.setKeyFromString("QUARTZ");
+        cipher.setPreserveCase(true);
+        String plain = "The quick brown Fox jumps over the lazy DOG!";
+
+        assertEquals(cipherExpected.encrypt(plain),
+                cipher.encrypt(plain).toUpperCase());
+    }
+
+    @Test
+    public final void testPreserveCaseInEqualsClearAndTransfer() {
+        VigenereCipher cipher1 = this.constructorTest();
+        VigenereCipher cipher2 = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher2.setKeyFromString("KEY");
+        cipher2.setPreserveCase(true);
+        cipherExpected.setKeyFromString("KEY");
+
+        assertNotEquals(cipherExpected, cipher2);
+        cipher1.transferFrom(cipher2);
+        assertTrue(cipher1.preservesCase());
+        assertFalse(cipher2.preservesCase());
+        cipher1.clear();
+        assertFalse(cipher1.preservesCase());
+    }
+
+    @Test
+    public final void testSessionKeepsPreserveCase() {
+        VigenereCipher cipher = this.constructorTest();
+        cipher.setKeyFromString("KEY");
+        cipher.setPreserveCase(true);
+        CipherSession session = cipher.session(CipherMode.ENCRYPT);
+        char[] buffer = "Hello, World".toCharArray();
+
+        session.update(buffer, 0, buffer.length, buffer, 0);
+
+        assertEquals("Rijvs, Uyvjn", new String(buffer));
+    }
+
+    /*
+     * Test cases for alphabets
+     */
+
+    @Test
+    public final void testDefaultAlphabetIsLetters() {
+        VigenereCipher cipher = this.constructorTest();
+
+        assertTrue(cipher.alphabet() == CipherAlphabet.LETTERS);
+    }
+
+    @Test
+    public final void testAlphanumericEncryptMatchesReference() {
+        VigenereCipher cipher = this.constructorTest(
+                CipherAlphabet.ALPHANUMERIC);
+        VigenereCipher cipherExpected = this.constructorRef(
+                CipherAlphabet.ALPHANUMERIC);
+        cipher.setKeyFromString("k3Y");
+        cipherExpected.setKeyFromString("k3Y");
+        String plain = "Order 66, item B-12 (qty 9)";
+
+        String encrypted = cipher.encrypt(plain);
+
+        assertEquals(cipherExpected.encrypt(plain), encrypted);
+        assertEquals(sequenceToString(cipherExpected
+                .encrypt(createSequence(plain))),
+                sequenceToString(cipher.encrypt(createSequence(plain))));
+        assertEquals(plain, cipher.decrypt(encrypted));
+    }
+
+    @Test
+    public final void testAlphanumericShiftsDigits() {
+        VigenereCipher cipher = this.constructorTest(
+                CipherAlphabet.ALPHANUMERIC);
+        cipher.setKeyFromString("B");
+
+        assertEquals("B-1 A", cipher.encrypt("A-0 9"));
+    }
+
+    @Test
+    public final void testSetKeyFromStringSwitchesBack() {
+        VigenereCipher cipher = this.constructorTest();
+        VigenereCipher cipherExpected = this.constructorRef();
+        cipher.setPreserveCase(true);
+        cipherExpected.setPreserveCase(true);
+        CompiledKeyCache.install(new CompiledKeyCache(2));
+        try {
+            cipher.setKeyFromString("lemon");
+            cipher.setKeyFromString("KEY");
+            cipher.setKeyFromString("lemon");
+        } finally {
+            CompiledKeyCache.install(null);
+        }
+        cipherExpected.setKeyFromString("LEMON");
+
+        assertEquals(cipherExpected, cipher);
+        assertEquals("LEMON", cipher.keyToString());
+        assertEquals(cipherExpected.encrypt("Attack at dawn"),
+                cipher.encrypt("Attack at dawn"));
+        assertEquals("Attack at dawn",
+                cipher.decrypt(cipher.encrypt("Attack at dawn")));
+    }
+
+    @Test
+    public final void testTransferFromAlphanumeric() {
+        VigenereCipher cipher1 = this.constructorTest(
+                CipherAlphabet.ALPHANUMERIC);
+        VigenereCipher cipher2 = this.constructorTest(
+                CipherAlphabet.ALPHANUMERIC);
+        VigenereCipher cipher1Expected = this.constructorRef(
+                CipherAlphabet.ALPHANUMERIC);
+        VigenereCipher cipher2Expected = this.constructorRef(
+                CipherAlphabet.ALPHANUMERIC);
+        cipher1.setKeyFromString("c");
+        cipher1Expected.setKeyFromString("c");
+        cipher2.setKeyFromString("b");
+        cipher2Expected.setKeyFromString("b");
+
+        cipher1.transferFrom(cipher2);
+        cipher1Expected.transferFrom(cipher2Expected);
+
+        assertEquals(cipher1Expected, cipher1);
+        assertEquals(cipher2Expected, cipher2);
+        assertEquals("111", cipher1.encrypt("aaa"));
+        assertEquals("aaa", cipher1.decrypt("111"));
+        assertEquals("111", sequenceToString(
+                cipher1.encrypt(createSequence("aaa"))));
+    }
+
+    @Test
+    public final void testAlphanumericKeyChangeAfterUse() {
+        VigenereCipher cipher = this.constructorTest(
+                CipherAlphabet.ALPHANUMERIC);
+        VigenereCipher source = this.constructorTest(
+                CipherAlphabet.ALPHANUMERIC);
+        VigenereCipher cipherExpected = this.constructorRef(
+                CipherAlphabet.ALPHANUMERIC);
+        cipher.setKeyFromString("c");
+        source.setKeyFromString("d");
+        cipherExpected.setKeyFromString("b");
+        cipher.encrypt("aaa");
+        cipher.decrypt("aaa");
+        source.encrypt("aaa");
+
+        cipher.setKeyFromString("b");
+        assertEquals(cipherExpected.encrypt("a1z"), cipher.encrypt("a1z"));
+        assertEquals(cipherExpected.decrypt("a1z"), cipher.decrypt("a1z"));
+
+        cipher.transferFrom(source);
+        cipherExpected.setKeyFromString("d");
+        assertEquals(cipherExpected.encrypt("a1z"), cipher.encrypt("a1z"));
+        source.setKeyFromString("e");
+        cipherExpected.setKeyFromString("e");
+        assertEquals(cipherExpected.encrypt("a1z"), source.encrypt("a1z"));
+    }
+
+    @Test
+    public final void testBase64RoundTripInPlace() {
+        VigenereCipher cipher = this.constructorTest(CipherAlphabet.BASE64);
+        cipher.setKeyFromString("s3cr/t+");
+        String token = "dXNlcjpwYXNzd29yZA==";
+        Sequence<Character> text = createSequence(token);
+
+        cipher.encryptInPlace(text);
+        String encrypted = sequenceToString(text);
+        cipher.decryptInPlace(text);
+
+        assertTrue(encrypted.endsWith("=="));
+        assertFalse(token.equals(encrypted));
+        assertEquals(token, sequenceToString(text));
+    }
+
+    @Test
+    public final void testHashedAlphabetWithLetterOffset() {
+        CipherAlphabet greek = CipherAlphabet.of("\u03b1\u03b2\u03b3"
+                + "\u03b4xyz\u4e00\u4e01");
+        VigenereCipher cipher = this.constructorTest(greek);
+        cipher.setKeyFromString("\u03b2x");
+        char[] src = "x \u03b1, \u4e01z".toCharArray();
+        char[] dst = new char[src.length];
+        final int split = 3;
+
+        long letters = cipher.encrypt(src, 0, split, dst, 0, 0L);
+        letters = cipher.encrypt(src, split, src.length - split, dst, split,
+                letters);
+
+        assertEquals(4, letters);
+        assertEquals(cipher.encrypt(new String(src)), new String(dst));
+        assertEquals(new String(src), cipher.decrypt(new String(dst)));
+    }
+
+    @Test
+    public final void testAlphabetKeyValidationAndEquality() {
+        VigenereCipher cipher = this.constructorTest(CipherAlphabet.BASE64);
+        VigenereCipher letters = this.constructorTest();
+        cipher.setKeyFromString("abc");
+        letters.setKeyFromString("abc");
+
+        assertEquals("abc", cipher.keyToString());
+        assertEquals("ABC", letters.keyToString());
+        assertTrue(cipher.isValidKey());
+        assertNotEquals(letters, cipher);
+        assertEquals(CipherAlphabet.BASE64, cipher.newInstance().alphabet());
+    }
+
+    @Test
+    public final void testEncryptWithKeyOverAlphabet() {
+        VigenereCipher cipher = this.constructorTest(
+                CipherAlphabet.ALPHANUMERIC);
+        Sequence<Character> plain = createSequence("A-0 9");
+
+        Sequence<Character> encrypted = cipher.encryptWithKey(plain,
+                createSequence("B"));
+
+        assertEquals("B-1 A", sequenceToString(encrypted));
+        assertEquals("A-0 9", sequenceToString(
+                cipher.decryptWithKey(encrypted, createSequence("B"))));
+    }
+
+}
@@ -0,0 +1,139 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code VigenereCipherWriter}.
+ *
+ * @author Vikranth Vegesina
+ */
+public class VigenereCipherWriterTest {
+
+    /**
+     * Plaintext used by the chunking tests.
+     */
+    private static final String PLAIN = "Attack at dawn! Retreat at dusk, "
+            + "regroup at the old mill before noon.";
+
+    /**
+     * Helper method to create a cipher with the given key.
+     *
+     * @param key
+     *            the key
+     * @return the cipher
+     */
+    private static VigenereCipher cipherWithKey(String key) {
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString(key);
+        return cipher;
+    }
+
+    @Test
+    public void testWriteWholeMatchesEncrypt() throws IOException {
+        VigenereCipher cipher = cipherWithKey("LEMON");
+        StringWriter sink = new StringWriter();
+
+        try (Writer writer = new VigenereCipherWriter(sink, cipher)) {
+            writer.write(PLAIN);
+        }
+
+        assertEquals(cipher.encrypt(PLAIN), sink.toString());
+    }
+
+    @Test
+    public void testWriteInChunksMatchesEncrypt() throws IOException {
+        VigenereCipher cipher = cipherWithKey("LEMON");
+        StringWriter sink = new StringWriter();
+        char[] plain = PLAIN.toCharArray();
+
+        try (Writer writer = new VigenereCipherWriter(sink, cipher)) {
+            int off = 0;
+            int chunk = 1;
+            while (off < plain.length) {
+                int n = Math.min(chunk, plain.length - off);
+                writer.write(plain, off, n);
+                off += n;
+                chunk++;
+            }
+        }
+
+        assertEquals(cipher.encrypt(PLAIN), sink.toString());
+    }
+
+    @Test
+    public void testWriteSingleCharacters() throws IOException {
+        VigenereCipher cipher = cipherWithKey("KEY");
+        StringWriter sink = new StringWriter();
+
+        try (Writer writer = new VigenereCipherWriter(sink, cipher)) {
+            for (char c : "Hello, World".toCharArray()) {
+                writer.write(c);
+            }
+        }
+
+        assertEquals("RIJVS, UYVJN", sink.toString());
+    }
+
+    @Test
+    public void testWriteLargerThanBuffer() throws IOException {
+        VigenereCipher cipher = cipherWithKey("ABCDEFG");
+        StringBuilder plain = new StringBuilder();
+        final int repeats = 1000;
+        for (int i = 0; i < repeats; i++) {
+            plain.append(PLAIN);
+        }
+        StringWriter sink = new StringWriter();
+
+        try (VigenereCipherWriter writer = new VigenereCipherWriter(sink,
+                cipher)) {
+            writer.write(plain.toString());
+        }
+
+        assertEquals(cipher.encrypt(plain), sink.toString());
+    }
+
+    @Test
+    public void testDecryptMode() throws IOException {
+        VigenereCipher cipher = cipherWithKey("KEY");
+        StringWriter sink = new StringWriter();
+
+        try (Writer writer = new VigenereCipherWriter(sink, cipher,
+                CipherMode.DECRYPT)) {
+            writer.write("RIJVS, ");
+            writer.write("UYVJN");
+        }
+
+        assertEquals("HELLO, WORLD", sink.toString());
+    }
+
+    @Test
+    public void testLetterOffset() throws IOException {
+        VigenereCipher cipher = cipherWithKey("KEY");
+        StringWriter sink = new StringWriter();
+        VigenereCipherWriter writer = new VigenereCipherWriter(sink, cipher);
+
+        writer.write("Hello, World");
+
+        assertEquals(10, writer.letterOffset());
+        writer.close();
+    }
+
+    @Test
+    public void testKeyChangeAfterConstruction() throws IOException {
+        VigenereCipher cipher = cipherWithKey("KEY");
+        StringWriter sink = new StringWriter();
+
+        try (Writer writer = new VigenereCipherWriter(sink, cipher)) {
+            writer.write("Hello, ");
+            cipher.setKeyFromString("OTHER");
+            writer.write("World");
+        }
+
+        assertEquals("RIJVS, UYVJN", sink.toString());
+    }
+
+}
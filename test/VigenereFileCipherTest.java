@@ -0,0 +1,148 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code VigenereFileCipher}.
+ *
+ * @author Vikranth Vegesina
+ */
+public class VigenereFileCipherTest {
+
+    /**
+     * Text used by the tests, including Latin-1 characters above 0x7F.
+     */
+    private static final String TEXT = "Attack at dawn! Retreat at dusk, "
+            + "regroup at the caf\u00e9 before noon. 123 ... go!\n";
+
+    /**
+     * Helper method to write {@code text} to a new temporary file.
+     *
+     * @param text
+     *            the file contents
+     * @return the path of the file
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    private static Path tempFile(String text) throws IOException {
+        Path file = Files.createTempFile("vigenere", ".txt");
+        file.toFile().deleteOnExit();
+        Files.write(file, text.getBytes(StandardCharsets.ISO_8859_1));
+        return file;
+    }
+
+    /**
+     * Helper method to create a cipher with the given key.
+     *
+     * @param key
+     *            the key
+     * @return the cipher
+     */
+    private static VigenereCipher cipherWithKey(String key) {
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString(key);
+        return cipher;
+    }
+
+    @Test
+    public void testEncryptMatchesCipher() throws IOException {
+        VigenereCipher cipher = cipherWithKey("LEMON");
+        Path source = tempFile(TEXT);
+        Path target = tempFile("");
+
+        VigenereFileCipher.encrypt(cipher, source, target);
+
+        assertArrayEquals(
+                cipher.encrypt(TEXT).getBytes(StandardCharsets.ISO_8859_1),
+                Files.readAllBytes(target));
+    }
+
+    @Test
+    public void testEncryptAcrossSmallRegions() throws IOException {
+        VigenereCipher cipher = cipherWithKey("LEMON");
+        Path source = tempFile(TEXT);
+        Path target = tempFile("");
+        final int regionSize = 7;
+
+        long letters = VigenereFileCipher.encrypt(cipher, source, target,
+                regionSize);
+
+        assertArrayEquals(
+                cipher.encrypt(TEXT).getBytes(StandardCharsets.ISO_8859_1),
+                Files.readAllBytes(target));
+        assertEquals(52, letters);
+    }
+
+    @Test
+    public void testPreserveCaseAcrossLargeRegions() throws IOException {
+        VigenereCipher cipher = cipherWithKey("LEMON");
+        cipher.setPreserveCase(true);
+        StringBuilder text = new StringBuilder();
+        final int copies = 1500;
+        for (int i = 0; i < copies; i++) {
+            text.append(TEXT);
+        }
+        Path source = tempFile(text.toString());
+        Path target = tempFile("");
+        final int regionSize = 70001;
+
+        VigenereFileCipher.encrypt(cipher, source, target, regionSize);
+
+        assertArrayEquals(cipher.encrypt(text.toString())
+                .getBytes(StandardCharsets.ISO_8859_1),
+                Files.readAllBytes(target));
+    }
+
+    @Test
+    public void testDecryptRoundTrip() throws IOException {
+        VigenereCipher cipher = cipherWithKey("QUARTZ");
+        Path source = tempFile(TEXT);
+        Path encrypted = tempFile("");
+        Path decrypted = tempFile("");
+
+        VigenereFileCipher.encrypt(cipher, source, encrypted);
+        VigenereFileCipher.decrypt(cipher, encrypted, decrypted);
+
+        assertEquals(cipher.decrypt(cipher.encrypt(TEXT)), new String(
+                Files.readAllBytes(decrypted), StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    public void testEncryptEmptyFile() throws IOException {
+        VigenereCipher cipher = cipherWithKey("KEY");
+        Path source = tempFile("");
+        Path target = tempFile("stale contents");
+
+        long letters = VigenereFileCipher.encrypt(cipher, source, target);
+
+        assertEquals(0, letters);
+        assertEquals(0, Files.size(target));
+    }
+
+    @Test
+    public void testDecryptRangeWithIndex() throws IOException {
+        VigenereCipher cipher = cipherWithKey("QUARTZ");
+        Path plain = tempFile(TEXT);
+        Path encrypted = tempFile("");
+        VigenereFileCipher.encrypt(cipher, plain, encrypted);
+        final int interval = 8;
+        LetterCheckpointIndex index = VigenereFileCipher.index(encrypted,
+                interval);
+        String expected = cipher.decrypt(cipher.encrypt(TEXT));
+
+        for (int offset = 0; offset < TEXT.length(); offset += 3) {
+            int length = Math.min(10, TEXT.length() - offset);
+            assertEquals(expected.substring(offset, offset + length),
+                    VigenereFileCipher.decryptRange(cipher, encrypted, offset,
+                            length, index));
+        }
+        assertEquals(TEXT.length(), index.length());
+    }
+
+}
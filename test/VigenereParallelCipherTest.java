@@ -0,0 +1,110 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code VigenereParallelCipher}.
+ *
+ * @author Vikranth Vegesina
+ */
+public class VigenereParallelCipherTest {
+
+    /**
+     * Helper method to build a text of {@code length} characters mixing
+     * letters, spaces and punctuation.
+     *
+     * @param length
+     *            the number of characters
+     * @return the text
+     */
+    private static String sampleText(int length) {
+        final String pool = "Attack at dawn! Retreat, regroup; 42 ... go? ";
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(pool.charAt((i * 7 + i / 13) % pool.length()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Helper method to create a cipher with the given key.
+     *
+     * @param key
+     *            the key
+     * @return the cipher
+     */
+    private static VigenereCipher cipherWithKey(String key) {
+        VigenereCipher cipher = new VigenereCipher1L();
+        cipher.setKeyFromString(key);
+        return cipher;
+    }
+
+    @Test
+    public void testEncryptSmallChunksMatchesSequential() {
+        VigenereCipher cipher = cipherWithKey("LEMONADE");
+        String text = sampleText(10_000);
+        char[] src = text.toCharArray();
+        char[] dst = new char[src.length];
+        final int chunkSize = 97;
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        long letters = VigenereParallelCipher.transform(cipher,
+                CipherMode.ENCRYPT, src, dst, pool, chunkSize);
+        pool.shutdown();
+
+        assertEquals(cipher.encrypt(text), new String(dst));
+        assertEquals(text.replaceAll("[^A-Za-z]", "").length(), letters);
+    }
+
+    @Test
+    public void testDecryptInPlaceMatchesSequential() {
+        VigenereCipher cipher = cipherWithKey("QUARTZ");
+        String ciphertext = cipher.encrypt(sampleText(5_000));
+        char[] buffer = ciphertext.toCharArray();
+        final int chunkSize = 64;
+        ForkJoinPool pool = new ForkJoinPool(3);
+
+        VigenereParallelCipher.transform(cipher, CipherMode.DECRYPT, buffer,
+                buffer, pool, chunkSize);
+        pool.shutdown();
+
+        assertEquals(cipher.decrypt(ciphertext), new String(buffer));
+    }
+
+    @Test
+    public void testEncryptDefaultPoolLargeText() {
+        VigenereCipher cipher = cipherWithKey("KEY");
+        String text = sampleText(3 * VigenereParallelCipher.DEFAULT_CHUNK_SIZE
+                + 11);
+        char[] dst = new char[text.length()];
+
+        VigenereParallelCipher.encrypt(cipher, text.toCharArray(), dst);
+
+        assertEquals(cipher.encrypt(text), new String(dst));
+    }
+
+    @Test
+    public void testEncryptShorterThanChunk() {
+        VigenereCipher cipher = cipherWithKey("KEY");
+        char[] src = "Hello, World".toCharArray();
+        char[] dst = new char[src.length];
+
+        long letters = VigenereParallelCipher.encrypt(cipher, src, dst);
+
+        assertEquals("RIJVS, UYVJN", new String(dst));
+        assertEquals(10, letters);
+    }
+
+    @Test
+    public void testDecryptEmpty() {
+        VigenereCipher cipher = cipherWithKey("KEY");
+        char[] src = new char[0];
+
+        long letters = VigenereParallelCipher.decrypt(cipher, src, src);
+
+        assertEquals(0, letters);
+    }
+
+}
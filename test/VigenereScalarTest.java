@@ -0,0 +1,104 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code VigenereScalar}.
+ *
+ * @author Vikranth Vegesina
+ */
+public class VigenereScalarTest {
+
+    /**
+     * Shifts of the key "KEY".
+     */
+    private static final byte[] KEY = {10, 4, 24 };
+
+    @Test
+    public void testEncryptMixedCase() {
+        char[] src = "Hello, World".toCharArray();
+        char[] dst = new char[src.length];
+
+        long letters = new VigenereScalar(KEY, false).transform(src, 0,
+                src.length, dst, 0, 0L);
+
+        assertEquals("RIJVS, UYVJN", new String(dst));
+        assertEquals(10, letters);
+    }
+
+    @Test
+    public void testInverseDecrypts() {
+        char[] buffer = "RIJVS, UYVJN".toCharArray();
+
+        new VigenereScalar(VigenereScalar.inverse(KEY), false)
+                .transform(buffer, 0, buffer.length, buffer, 0, 0L);
+
+        assertEquals("HELLO, WORLD", new String(buffer));
+    }
+
+    @Test
+    public void testInverseShifts() {
+        final byte[] shifts = {0, 1, 25 };
+        final byte[] expected = {0, 25, 1 };
+
+        assertArrayEquals(expected, VigenereScalar.inverse(shifts));
+    }
+
+    @Test
+    public void testCharsAboveLatin1PassThrough() {
+        /*
+         * U+0141 and U+0161 have the low bytes of 'A' and 'a'; they must not
+         * be treated as letters or advance the key.
+         */
+        char[] src = "\u0141a\u0161b\u00e9c".toCharArray();
+        char[] dst = new char[src.length];
+
+        long letters = new VigenereScalar(KEY, false).transform(src, 0,
+                src.length, dst, 0, 0L);
+
+        assertEquals("\u0141K\u0161F\u00e9A", new String(dst));
+        assertEquals(3, letters);
+    }
+
+    @Test
+    public void testLetterOffsetAndOffsets() {
+        char[] src = "xxHello, World".toCharArray();
+        char[] dst = new char[src.length];
+        final int split = 9;
+
+        VigenereScalar engine = new VigenereScalar(KEY, false);
+
+        long letters = engine.transform(src, 2, split - 2, dst, 0, 0L);
+        letters = engine.transform(src, split, src.length - split, dst,
+                split - 2, letters);
+
+        assertEquals("RIJVS, UYVJN", new String(dst, 0, src.length - 2));
+        assertEquals(10, letters);
+    }
+
+    @Test
+    public void testPreserveCase() {
+        char[] src = "Hello, World \u00e9".toCharArray();
+        char[] dst = new char[src.length];
+
+        long letters = new VigenereScalar(KEY, true).transform(src, 0,
+                src.length, dst, 0, 0L);
+
+        assertEquals("Rijvs, Uyvjn \u00e9", new String(dst));
+        assertEquals(10, letters);
+    }
+
+    @Test
+    public void testPreserveCaseRoundTrip() {
+        char[] buffer = "The Quick brown FOX".toCharArray();
+
+        new VigenereScalar(KEY, true).transform(buffer, 0, buffer.length,
+                buffer, 0, 0L);
+        new VigenereScalar(VigenereScalar.inverse(KEY), true)
+                .transform(buffer, 0, buffer.length, buffer, 0, 0L);
+
+        assertEquals("The Quick brown FOX", new String(buffer));
+    }
+
+}
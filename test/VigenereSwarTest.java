@@ -0,0 +1,218 @@
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code VigenereSwar}.
+ *
+ * @author Vikranth Vegesina
+ */
+public class VigenereSwarTest {
+
+    /**
+     * Seed for the random inputs, so failures are reproducible.
+     */
+    private static final long SEED = 42L;
+
+    /**
+     * Helper method to convert a key string to its shifts.
+     *
+     * @param key
+     *            the upper-case key
+     * @return the shifts
+     */
+    private static byte[] shiftsOf(String key) {
+        byte[] shifts = new byte[key.length()];
+        for (int i = 0; i < shifts.length; i++) {
+            shifts[i] = (byte) (key.charAt(i) - 'A');
+        }
+        return shifts;
+    }
+
+    /**
+     * Helper method to build random bytes mixing ASCII letters, punctuation
+     * and bytes above 0x7F.
+     *
+     * @param random
+     *            the generator
+     * @param length
+     *            the number of bytes
+     * @return the bytes
+     */
+    private static byte[] randomBytes(Random random, int length) {
+        final int kinds = 4;
+        final int asciiSize = 0x80;
+        final String letters = "ABCDEFGHIJKLMNOPQRSTUVWXYZ"
+                + "abcdefghijklmnopqrstuvwxyz";
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            switch (random.nextInt(kinds)) {
+                case 0:
+                    bytes[i] = (byte) random.nextInt(asciiSize);
+                    break;
+                case 1:
+                    bytes[i] = (byte) (asciiSize + random.nextInt(asciiSize));
+                    break;
+                default:
+                    bytes[i] = (byte) letters
+                            .charAt(random.nextInt(letters.length()));
+                    break;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Helper method to encrypt or decrypt Latin-1 bytes with the char-based
+     * kernel as the reference.
+     *
+     * @param key
+     *            the key
+     * @param bytes
+     *            the input bytes
+     * @param encrypt
+     *            true to encrypt, false to decrypt
+     * @param preserveCase
+     *            whether letters keep their case
+     * @return the expected output bytes
+     */
+    private static byte[] reference(String key, byte[] bytes,
+            boolean encrypt, boolean preserveCase) {
+        VigenereCipher cipher = new VigenereCipher2();
+        cipher.setKeyFromString(key);
+        cipher.setPreserveCase(preserveCase);
+        String text = new String(bytes, StandardCharsets.ISO_8859_1);
+        String result;
+        if (encrypt) {
+            result = cipher.encrypt(text);
+        } else {
+            result = cipher.decrypt(text);
+        }
+        return result.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    @Test
+    public void testRandomInputsMatchKernel() {
+        Random random = new Random(SEED);
+        final String[] keys = {"K", "KEY", "LEMONADE", "QUARTZBRIDGE" };
+        final int rounds = 200;
+        final int maxLength = 100;
+        for (int r = 0; r < rounds; r++) {
+            String key = keys[r % keys.length];
+            byte[] src = randomBytes(random, random.nextInt(maxLength));
+            boolean encrypt = r % 2 == 0;
+            byte[] dst = new byte[src.length];
+
+            boolean preserveCase = r % 3 == 0;
+
+            long letters = new VigenereSwar(shiftsOf(key), !encrypt,
+                    preserveCase).transform(src, 0, src.length, dst, 0, 0L);
+
+            assertEquals(new String(
+                    reference(key, src, encrypt, preserveCase),
+                    StandardCharsets.ISO_8859_1),
+                    new String(dst, StandardCharsets.ISO_8859_1));
+            String plain = new String(src, StandardCharsets.ISO_8859_1);
+            assertEquals(plain.replaceAll("[^A-Za-z]", "").length(), letters);
+        }
+    }
+
+    @Test
+    public void testUnalignedChunksWithLetterOffset() {
+        Random random = new Random(SEED);
+        final String key = "LEMON";
+        final int length = 1000;
+        final int pad = 3;
+        byte[] plain = randomBytes(random, length);
+        byte[] src = new byte[length + pad];
+        System.arraycopy(plain, 0, src, pad, length);
+        byte[] dst = new byte[length + 2 * pad];
+        VigenereSwar engine = new VigenereSwar(shiftsOf(key), false, false);
+
+        long letters = 0;
+        int done = 0;
+        final int chunk = 37;
+        while (done < length) {
+            int n = Math.min(chunk, length - done);
+            letters = engine.transform(src, pad + done, n, dst,
+                    2 * pad + done, letters);
+            done += n;
+        }
+
+        byte[] out = new byte[length];
+        System.arraycopy(dst, 2 * pad, out, 0, length);
+        assertEquals(
+                new String(reference(key, plain, true, false),
+                        StandardCharsets.ISO_8859_1),
+                new String(out, StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    public void testInPlaceRoundTrip() {
+        Random random = new Random(SEED);
+        final String key = "QUARTZ";
+        final int length = 513;
+        byte[] plain = randomBytes(random, length);
+        byte[] buffer = plain.clone();
+
+        new VigenereSwar(shiftsOf(key), false, true).transform(buffer, 0,
+                buffer.length, buffer, 0, 0L);
+        new VigenereSwar(shiftsOf(key), true, true).transform(buffer, 0,
+                buffer.length, buffer, 0, 0L);
+
+        assertEquals(new String(plain, StandardCharsets.ISO_8859_1),
+                new String(buffer, StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    public void testUpperCaseRoundTrip() {
+        Random random = new Random(SEED);
+        final String key = "QUARTZ";
+        final int length = 513;
+        byte[] plain = randomBytes(random, length);
+        byte[] buffer = plain.clone();
+
+        new VigenereSwar(shiftsOf(key), false, false).transform(buffer, 0,
+                buffer.length, buffer, 0, 0L);
+        new VigenereSwar(shiftsOf(key), true, false).transform(buffer, 0,
+                buffer.length, buffer, 0, 0L);
+
+        byte[] expected = reference(key,
+                reference(key, plain, true, false), false, false);
+        assertEquals(new String(expected, StandardCharsets.ISO_8859_1),
+                new String(buffer, StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    public void testDirectBuffersMatchArrays() {
+        Random random = new Random(SEED);
+        final String key = "LEMONADE";
+        final int length = 1001;
+        final int pad = 5;
+        byte[] plain = randomBytes(random, length);
+        ByteBuffer src = ByteBuffer.allocateDirect(length + pad)
+                .order(ByteOrder.BIG_ENDIAN);
+        src.position(pad);
+        src.put(plain);
+        ByteBuffer dst = ByteBuffer.allocateDirect(length + 2 * pad);
+        VigenereSwar engine = new VigenereSwar(shiftsOf(key), false, true);
+
+        long letters = engine.transform(src, pad, length, dst, 2 * pad, 0L);
+
+        byte[] out = new byte[length];
+        dst.get(2 * pad, out);
+        byte[] expected = new byte[length];
+        assertEquals(letters,
+                engine.transform(plain, 0, length, expected, 0, 0L));
+        assertEquals(new String(expected, StandardCharsets.ISO_8859_1),
+                new String(out, StandardCharsets.ISO_8859_1));
+        assertEquals(ByteOrder.BIG_ENDIAN, src.order());
+        assertEquals(length + pad, src.position());
+    }
+
+}